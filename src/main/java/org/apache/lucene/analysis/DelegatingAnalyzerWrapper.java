@@ -0,0 +1,73 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.lucene.analysis;
+
+/**
+ * A {@link CustomAnalyzerWrapper} that uses the components of the wrapped analyzers as is, and so reuses the
+ * components they hold for the calling thread instead of holding its own copy per field (or per wrapper).
+ * The number of components held per thread is then bounded by the number of wrapped analyzers, regardless
+ * of the number of fields and of wrappers around them.
+ */
+public abstract class DelegatingAnalyzerWrapper extends CustomAnalyzerWrapper {
+
+    /**
+     * Creates a new DelegatingAnalyzerWrapper, the given reuse strategy is used when this wrapper's strategy
+     * is shared with (other) analyzers, as is typically done by wrappers of this wrapper.
+     */
+    protected DelegatingAnalyzerWrapper(ReuseStrategy fallbackStrategy) {
+        super(new DelegatingReuseStrategy(fallbackStrategy));
+        ((DelegatingReuseStrategy) getReuseStrategy()).wrapper = this;
+    }
+
+    @Override
+    protected final TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
+        return components;
+    }
+
+    private static final class DelegatingReuseStrategy extends ReuseStrategy {
+
+        private final ReuseStrategy fallbackStrategy;
+
+        DelegatingAnalyzerWrapper wrapper;
+
+        DelegatingReuseStrategy(ReuseStrategy fallbackStrategy) {
+            this.fallbackStrategy = fallbackStrategy;
+        }
+
+        @Override
+        public TokenStreamComponents getReusableComponents(Analyzer analyzer, String fieldName) {
+            if (analyzer == wrapper) {
+                Analyzer wrappedAnalyzer = wrapper.getWrappedAnalyzer(fieldName);
+                return wrappedAnalyzer.getReuseStrategy().getReusableComponents(wrappedAnalyzer, fieldName);
+            }
+            return fallbackStrategy.getReusableComponents(analyzer, fieldName);
+        }
+
+        @Override
+        public void setReusableComponents(Analyzer analyzer, String fieldName, TokenStreamComponents components) {
+            if (analyzer == wrapper) {
+                Analyzer wrappedAnalyzer = wrapper.getWrappedAnalyzer(fieldName);
+                wrappedAnalyzer.getReuseStrategy().setReusableComponents(wrappedAnalyzer, fieldName, components);
+            } else {
+                fallbackStrategy.setReusableComponents(analyzer, fieldName, components);
+            }
+        }
+    }
+}
@@ -19,7 +19,9 @@
 
 package org.elasticsearch.action.admin.cluster.node.stats;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.support.nodes.NodeOperationResponse;
+import org.elasticsearch.cache.recycler.PageCacheRecyclerStats;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -28,6 +30,7 @@ import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.http.HttpStats;
 import org.elasticsearch.indices.NodeIndicesStats;
+import org.elasticsearch.indices.analysis.SharedAnalyzersStats;
 import org.elasticsearch.monitor.fs.FsStats;
 import org.elasticsearch.monitor.jvm.JvmStats;
 import org.elasticsearch.monitor.network.NetworkStats;
@@ -76,12 +79,19 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
     @Nullable
     private HttpStats http;
 
+    @Nullable
+    private PageCacheRecyclerStats pageRecycler;
+
+    @Nullable
+    private SharedAnalyzersStats sharedAnalyzers;
+
     NodeStats() {
     }
 
     public NodeStats(DiscoveryNode node, long timestamp, @Nullable String hostname, @Nullable NodeIndicesStats indices,
                      @Nullable OsStats os, @Nullable ProcessStats process, @Nullable JvmStats jvm, @Nullable ThreadPoolStats threadPool, @Nullable NetworkStats network,
-                     @Nullable FsStats fs, @Nullable TransportStats transport, @Nullable HttpStats http) {
+                     @Nullable FsStats fs, @Nullable TransportStats transport, @Nullable HttpStats http, @Nullable PageCacheRecyclerStats pageRecycler,
+                     @Nullable SharedAnalyzersStats sharedAnalyzers) {
         super(node);
         this.timestamp = timestamp;
         this.hostname = hostname;
@@ -94,6 +104,8 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
         this.fs = fs;
         this.transport = transport;
         this.http = http;
+        this.pageRecycler = pageRecycler;
+        this.sharedAnalyzers = sharedAnalyzers;
     }
 
     public long getTimestamp() {
@@ -171,6 +183,22 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
         return this.http;
     }
 
+    /**
+     * Statistics of the pages recycled for network serialization.
+     */
+    @Nullable
+    public PageCacheRecyclerStats getPageRecycler() {
+        return this.pageRecycler;
+    }
+
+    /**
+     * Statistics of the analyzers shared by indices with the same analysis settings.
+     */
+    @Nullable
+    public SharedAnalyzersStats getSharedAnalyzers() {
+        return this.sharedAnalyzers;
+    }
+
     public static NodeStats readNodeStats(StreamInput in) throws IOException {
         NodeStats nodeInfo = new NodeStats();
         nodeInfo.readFrom(in);
@@ -211,6 +239,14 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
         if (in.readBoolean()) {
             http = HttpStats.readHttpStats(in);
         }
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            if (in.readBoolean()) {
+                pageRecycler = PageCacheRecyclerStats.readPageCacheRecyclerStats(in);
+            }
+            if (in.readBoolean()) {
+                sharedAnalyzers = SharedAnalyzersStats.readSharedAnalyzersStats(in);
+            }
+        }
     }
 
     @Override
@@ -277,6 +313,20 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
             out.writeBoolean(true);
             http.writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            if (pageRecycler == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                pageRecycler.writeTo(out);
+            }
+            if (sharedAnalyzers == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                sharedAnalyzers.writeTo(out);
+            }
+        }
     }
 
     @Override
@@ -326,6 +376,12 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
         if (getHttp() != null) {
             getHttp().toXContent(builder, params);
         }
+        if (getPageRecycler() != null) {
+            getPageRecycler().toXContent(builder, params);
+        }
+        if (getSharedAnalyzers() != null) {
+            getSharedAnalyzers().toXContent(builder, params);
+        }
 
         return builder;
     }
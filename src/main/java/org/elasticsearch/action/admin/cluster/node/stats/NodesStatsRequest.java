@@ -19,6 +19,7 @@
 
 package org.elasticsearch.action.admin.cluster.node.stats;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.admin.indices.stats.CommonStatsFlags;
 import org.elasticsearch.action.support.nodes.NodesOperationRequest;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -40,6 +41,8 @@ public class NodesStatsRequest extends NodesOperationRequest<NodesStatsRequest>
     private boolean fs;
     private boolean transport;
     private boolean http;
+    private boolean pageRecycler;
+    private boolean sharedAnalyzers;
 
     protected NodesStatsRequest() {
     }
@@ -65,6 +68,8 @@ public class NodesStatsRequest extends NodesOperationRequest<NodesStatsRequest>
         this.fs = true;
         this.transport = true;
         this.http = true;
+        this.pageRecycler = true;
+        this.sharedAnalyzers = true;
         return this;
     }
 
@@ -81,6 +86,8 @@ public class NodesStatsRequest extends NodesOperationRequest<NodesStatsRequest>
         this.fs = false;
         this.transport = false;
         this.http = false;
+        this.pageRecycler = false;
+        this.sharedAnalyzers = false;
         return this;
     }
 
@@ -225,6 +232,36 @@ public class NodesStatsRequest extends NodesOperationRequest<NodesStatsRequest>
         return this;
     }
 
+    /**
+     * Should the node page recycler stats be returned.
+     */
+    public boolean pageRecycler() {
+        return this.pageRecycler;
+    }
+
+    /**
+     * Should the node page recycler stats be returned.
+     */
+    public NodesStatsRequest pageRecycler(boolean pageRecycler) {
+        this.pageRecycler = pageRecycler;
+        return this;
+    }
+
+    /**
+     * Should the node shared analyzers stats be returned.
+     */
+    public boolean sharedAnalyzers() {
+        return this.sharedAnalyzers;
+    }
+
+    /**
+     * Should the node shared analyzers stats be returned.
+     */
+    public NodesStatsRequest sharedAnalyzers(boolean sharedAnalyzers) {
+        this.sharedAnalyzers = sharedAnalyzers;
+        return this;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -237,6 +274,10 @@ public class NodesStatsRequest extends NodesOperationRequest<NodesStatsRequest>
         fs = in.readBoolean();
         transport = in.readBoolean();
         http = in.readBoolean();
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            pageRecycler = in.readBoolean();
+            sharedAnalyzers = in.readBoolean();
+        }
     }
 
     @Override
@@ -251,6 +292,10 @@ public class NodesStatsRequest extends NodesOperationRequest<NodesStatsRequest>
         out.writeBoolean(fs);
         out.writeBoolean(transport);
         out.writeBoolean(http);
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeBoolean(pageRecycler);
+            out.writeBoolean(sharedAnalyzers);
+        }
     }
 
 }
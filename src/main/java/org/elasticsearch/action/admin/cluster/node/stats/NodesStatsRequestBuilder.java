@@ -130,6 +130,22 @@ public class NodesStatsRequestBuilder extends NodesOperationRequestBuilder<Nodes
         return this;
     }
 
+    /**
+     * Should the node page recycler stats be returned.
+     */
+    public NodesStatsRequestBuilder setPageRecycler(boolean pageRecycler) {
+        request.pageRecycler(pageRecycler);
+        return this;
+    }
+
+    /**
+     * Should the node shared analyzers stats be returned.
+     */
+    public NodesStatsRequestBuilder setSharedAnalyzers(boolean sharedAnalyzers) {
+        request.sharedAnalyzers(sharedAnalyzers);
+        return this;
+    }
+
     @Override
     protected void doExecute(ActionListener<NodesStatsResponse> listener) {
         ((ClusterAdminClient) client).nodesStats(request, listener);
@@ -19,6 +19,8 @@
 
 package org.elasticsearch.action.bulk;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.ElasticSearchIllegalStateException;
@@ -43,6 +45,7 @@ import org.elasticsearch.cluster.block.ClusterBlockLevel;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MappingMetaData;
 import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
@@ -52,9 +55,14 @@ import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.engine.DocumentAlreadyExistsException;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.index.get.GetField;
+import org.elasticsearch.index.get.GetResult;
 import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.mapper.internal.ParentFieldMapper;
+import org.elasticsearch.index.mapper.internal.RoutingFieldMapper;
+import org.elasticsearch.index.mapper.internal.TTLFieldMapper;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.service.IndexShard;
 import org.elasticsearch.indices.IndicesService;
@@ -141,6 +149,9 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
         IndexShard indexShard = indicesService.indexServiceSafe(shardRequest.request.index()).shardSafe(shardRequest.shardId);
         Engine.IndexingOperation[] ops = null;
         Set<Tuple<String, String>> mappingsToUpdate = null;
+        // the documents as left by the update items so far, so that following updates of the
+        // same documents don't need to get (and parse) them from the shard again
+        Map<Tuple<String, String>, GetResult> updatedDocuments = null;
 
         BulkItemResponse[] responses = new BulkItemResponse[request.items().length];
         long[] preVersions = new long[request.items().length];
@@ -148,6 +159,9 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
             BulkItemRequest item = request.items()[requestIndex];
             if (item.request() instanceof IndexRequest) {
                 IndexRequest indexRequest = (IndexRequest) item.request();
+                if (updatedDocuments != null) {
+                    updatedDocuments.remove(Tuple.tuple(indexRequest.type(), indexRequest.id()));
+                }
                 try {
                     WriteResult result = shardIndexOperation(request, indexRequest, clusterState, indexShard, true);
                     // add the response
@@ -187,6 +201,9 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
                 }
             } else if (item.request() instanceof DeleteRequest) {
                 DeleteRequest deleteRequest = (DeleteRequest) item.request();
+                if (updatedDocuments != null) {
+                    updatedDocuments.remove(Tuple.tuple(deleteRequest.type(), deleteRequest.id()));
+                }
                 try {
                     // add the response
                     DeleteResponse deleteResponse = shardDeleteOperation(deleteRequest, indexShard).response();
@@ -212,14 +229,17 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
                 }
             } else if (item.request() instanceof UpdateRequest) {
                 UpdateRequest updateRequest = (UpdateRequest) item.request();
+                GetResult currentDocument = updatedDocuments == null ? null : updatedDocuments.remove(Tuple.tuple(updateRequest.type(), updateRequest.id()));
                 //  We need to do the requested retries plus the initial attempt. We don't do < 1+retry_on_conflict because retry_on_conflict may be Integer.MAX_VALUE
                 for (int updateAttemptsCount = 0; updateAttemptsCount <= updateRequest.retryOnConflict(); updateAttemptsCount++) {
                     UpdateResult updateResult;
                     try {
-                        updateResult = shardUpdateOperation(clusterState, request, updateRequest, indexShard);
+                        updateResult = shardUpdateOperation(clusterState, request, updateRequest, indexShard, currentDocument);
                     } catch (Throwable t) {
                         updateResult = new UpdateResult(null, null, false, t, null);
                     }
+                    // the document might have been changed in the meantime, retries get it from the shard
+                    currentDocument = null;
                     if (updateResult.success()) {
 
                         switch (updateResult.result.operation()) {
@@ -249,6 +269,10 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
                                     }
                                     ops[requestIndex] = result.op;
                                 }
+                                if (updatedDocuments == null) {
+                                    updatedDocuments = Maps.newHashMap();
+                                }
+                                updatedDocuments.put(Tuple.tuple(updateRequest.type(), updateRequest.id()), updatedDocument(indexRequest, indexResponse.getVersion()));
                                 // Replace the update request to the translated index request to execute on the replica.
                                 request.items()[requestIndex] = new BulkItemRequest(request.items()[requestIndex].id(), indexRequest);
                                 break;
@@ -387,24 +411,29 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
                 .routing(indexRequest.routing()).parent(indexRequest.parent()).timestamp(indexRequest.timestamp()).ttl(indexRequest.ttl());
 
         long version;
+        long seqNo;
         boolean created;
         Engine.IndexingOperation op;
         if (indexRequest.opType() == IndexRequest.OpType.INDEX) {
             Engine.Index index = indexShard.prepareIndex(sourceToParse).version(indexRequest.version()).versionType(indexRequest.versionType()).origin(Engine.Operation.Origin.PRIMARY);
             indexShard.index(index);
             version = index.version();
+            seqNo = index.seqNo();
             op = index;
             created = index.created();
         } else {
-            Engine.Create create = indexShard.prepareCreate(sourceToParse).version(indexRequest.version()).versionType(indexRequest.versionType()).origin(Engine.Operation.Origin.PRIMARY);
+            Engine.Create create = indexShard.prepareCreate(sourceToParse).version(indexRequest.version()).versionType(indexRequest.versionType()).origin(Engine.Operation.Origin.PRIMARY)
+                    .autoGeneratedId(indexRequest.autoGeneratedId()).canHaveDuplicates(request.canHaveDuplicates());
             indexShard.create(create);
             version = create.version();
+            seqNo = create.seqNo();
             op = create;
             created = true;
         }
         long preVersion = indexRequest.version();
-        // update the version on request so it will happen on the replicas
+        // update the version and sequence number on request so it will happen on the replicas
         indexRequest.version(version);
+        indexRequest.seqNo(seqNo);
 
         // update mapping on master if needed, we won't update changes to the same type, since once its changed, it won't have mappers added
         Tuple<String, String> mappingsToUpdate = null;
@@ -421,6 +450,7 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
         indexShard.delete(delete);
         // update the request with the version so it will go to the replicas
         deleteRequest.version(delete.version());
+        deleteRequest.seqNo(delete.seqNo());
         DeleteResponse deleteResponse = new DeleteResponse(deleteRequest.index(), deleteRequest.type(), deleteRequest.id(), delete.version(), delete.notFound());
         return new WriteResult(deleteResponse, deleteRequest.version(), null, null);
     }
@@ -478,8 +508,9 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
 
     }
 
-    private UpdateResult shardUpdateOperation(ClusterState clusterState, BulkShardRequest bulkShardRequest, UpdateRequest updateRequest, IndexShard indexShard) {
-        UpdateHelper.Result translate = updateHelper.prepare(updateRequest, indexShard);
+    private UpdateResult shardUpdateOperation(ClusterState clusterState, BulkShardRequest bulkShardRequest, UpdateRequest updateRequest, IndexShard indexShard,
+                                              @Nullable GetResult currentDocument) {
+        UpdateHelper.Result translate = updateHelper.prepare(updateRequest, indexShard, currentDocument);
         switch (translate.operation()) {
             case UPSERT:
             case INDEX:
@@ -516,6 +547,23 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
         }
     }
 
+    /**
+     * The document as indexed by an update, with the fields {@link UpdateHelper} reads from the current document.
+     */
+    private static GetResult updatedDocument(IndexRequest indexRequest, long version) {
+        Map<String, GetField> fields = Maps.newHashMapWithExpectedSize(3);
+        if (indexRequest.routing() != null) {
+            fields.put(RoutingFieldMapper.NAME, new GetField(RoutingFieldMapper.NAME, Lists.<Object>newArrayList(indexRequest.routing())));
+        }
+        if (indexRequest.parent() != null) {
+            fields.put(ParentFieldMapper.NAME, new GetField(ParentFieldMapper.NAME, Lists.<Object>newArrayList(indexRequest.parent())));
+        }
+        if (indexRequest.ttl() > 0) {
+            fields.put(TTLFieldMapper.NAME, new GetField(TTLFieldMapper.NAME, Lists.<Object>newArrayList(indexRequest.ttl())));
+        }
+        return new GetResult(indexRequest.index(), indexRequest.type(), indexRequest.id(), version, true, indexRequest.source(), fields);
+    }
+
     protected void shardOperationOnReplica(ReplicaOperationRequest shardRequest) {
         IndexShard indexShard = indicesService.indexServiceSafe(shardRequest.request.index()).shardSafe(shardRequest.shardId);
         final BulkShardRequest request = shardRequest.request;
@@ -531,22 +579,24 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
                             .routing(indexRequest.routing()).parent(indexRequest.parent()).timestamp(indexRequest.timestamp()).ttl(indexRequest.ttl());
 
                     if (indexRequest.opType() == IndexRequest.OpType.INDEX) {
-                        Engine.Index index = indexShard.prepareIndex(sourceToParse).version(indexRequest.version()).origin(Engine.Operation.Origin.REPLICA);
+                        Engine.Index index = indexShard.prepareIndex(sourceToParse).version(indexRequest.version()).seqNo(indexRequest.seqNo()).origin(Engine.Operation.Origin.REPLICA);
                         indexShard.index(index);
                     } else {
-                        Engine.Create create = indexShard.prepareCreate(sourceToParse).version(indexRequest.version()).origin(Engine.Operation.Origin.REPLICA);
+                        Engine.Create create = indexShard.prepareCreate(sourceToParse).version(indexRequest.version()).seqNo(indexRequest.seqNo()).origin(Engine.Operation.Origin.REPLICA);
                         indexShard.create(create);
                     }
                 } catch (Throwable e) {
                     // ignore, we are on backup
+                    markSeqNoAsProcessed(indexShard, indexRequest.seqNo());
                 }
             } else if (item.request() instanceof DeleteRequest) {
                 DeleteRequest deleteRequest = (DeleteRequest) item.request();
                 try {
-                    Engine.Delete delete = indexShard.prepareDelete(deleteRequest.type(), deleteRequest.id(), deleteRequest.version()).origin(Engine.Operation.Origin.REPLICA);
+                    Engine.Delete delete = indexShard.prepareDelete(deleteRequest.type(), deleteRequest.id(), deleteRequest.version()).seqNo(deleteRequest.seqNo()).origin(Engine.Operation.Origin.REPLICA);
                     indexShard.delete(delete);
                 } catch (Throwable e) {
                     // ignore, we are on backup
+                    markSeqNoAsProcessed(indexShard, deleteRequest.seqNo());
                 }
             }
         }
@@ -560,6 +610,18 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
         }
     }
 
+    /**
+     * The operation failed before or while the engine processed it, make sure its sequence number does not hold the
+     * local checkpoint back as the failure is ignored on replicas.
+     */
+    private void markSeqNoAsProcessed(IndexShard indexShard, long seqNo) {
+        try {
+            indexShard.markSeqNoAsProcessed(seqNo);
+        } catch (Throwable t) {
+            // ignore, the shard is closed
+        }
+    }
+
     private void updateMappingOnMaster(final String index, final String type) {
         try {
             MapperService mapperService = indicesService.indexServiceSafe(index).mapperService();
@@ -19,12 +19,14 @@
 
 package org.elasticsearch.action.delete;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.support.replication.ShardReplicationOperationRequest;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 
 import java.io.IOException;
 
@@ -50,6 +52,7 @@ public class DeleteRequest extends ShardReplicationOperationRequest<DeleteReques
     private boolean refresh;
     private long version;
     private VersionType versionType = VersionType.INTERNAL;
+    private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
 
     /**
      * Constructs a new delete request against the specified index. The {@link #type(String)} and {@link #id(String)}
@@ -195,6 +198,18 @@ public class DeleteRequest extends ShardReplicationOperationRequest<DeleteReques
         return this.versionType;
     }
 
+    /**
+     * Sets the sequence number the primary assigned to the operation, for the replicas to use.
+     */
+    public DeleteRequest seqNo(long seqNo) {
+        this.seqNo = seqNo;
+        return this;
+    }
+
+    public long seqNo() {
+        return this.seqNo;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -204,6 +219,9 @@ public class DeleteRequest extends ShardReplicationOperationRequest<DeleteReques
         refresh = in.readBoolean();
         version = in.readLong();
         versionType = VersionType.fromValue(in.readByte());
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            seqNo = in.readLong();
+        }
     }
 
     @Override
@@ -215,6 +233,9 @@ public class DeleteRequest extends ShardReplicationOperationRequest<DeleteReques
         out.writeBoolean(refresh);
         out.writeLong(version);
         out.writeByte(versionType.getValue());
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeLong(seqNo);
+        }
     }
 
     @Override
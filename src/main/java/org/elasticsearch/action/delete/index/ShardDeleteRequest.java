@@ -19,10 +19,12 @@
 
 package org.elasticsearch.action.delete.index;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.support.replication.ShardReplicationOperationRequest;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 
 import java.io.IOException;
 
@@ -38,6 +40,7 @@ public class ShardDeleteRequest extends ShardReplicationOperationRequest<ShardDe
     private String id;
     private boolean refresh = false;
     private long version;
+    private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
 
     ShardDeleteRequest(IndexDeleteRequest request, int shardId) {
         super(request);
@@ -91,6 +94,14 @@ public class ShardDeleteRequest extends ShardReplicationOperationRequest<ShardDe
         return this.version;
     }
 
+    public void seqNo(long seqNo) {
+        this.seqNo = seqNo;
+    }
+
+    public long seqNo() {
+        return this.seqNo;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -99,6 +110,9 @@ public class ShardDeleteRequest extends ShardReplicationOperationRequest<ShardDe
         id = in.readString();
         refresh = in.readBoolean();
         version = in.readLong();
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            seqNo = in.readLong();
+        }
     }
 
     @Override
@@ -109,5 +123,8 @@ public class ShardDeleteRequest extends ShardReplicationOperationRequest<ShardDe
         out.writeString(id);
         out.writeBoolean(refresh);
         out.writeLong(version);
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeLong(seqNo);
+        }
     }
 }
@@ -19,9 +19,11 @@
 
 package org.elasticsearch.action.deletebyquery;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionResponse;
 import org.elasticsearch.action.ShardOperationFailedException;
 import org.elasticsearch.action.support.DefaultShardOperationFailedException;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
@@ -37,11 +39,20 @@ public class IndexDeleteByQueryResponse extends ActionResponse {
     private int successfulShards;
     private int failedShards;
     private ShardOperationFailedException[] failures;
+    private long deleted = -1;
+    private long versionConflicts = -1;
+    private long failed = -1;
+    private String[] deleteFailures = Strings.EMPTY_ARRAY;
 
-    IndexDeleteByQueryResponse(String index, int successfulShards, int failedShards, List<ShardOperationFailedException> failures) {
+    IndexDeleteByQueryResponse(String index, int successfulShards, int failedShards, List<ShardOperationFailedException> failures,
+                               long deleted, long versionConflicts, long failed, String[] deleteFailures) {
         this.index = index;
         this.successfulShards = successfulShards;
         this.failedShards = failedShards;
+        this.deleted = deleted;
+        this.versionConflicts = versionConflicts;
+        this.failed = failed;
+        this.deleteFailures = deleteFailures;
         if (failures == null || failures.isEmpty()) {
             this.failures = new DefaultShardOperationFailedException[0];
         } else {
@@ -85,6 +96,37 @@ public class IndexDeleteByQueryResponse extends ActionResponse {
         return failures;
     }
 
+    /**
+     * The number of documents deleted by the shards that resolved the query into ids, <tt>-1</tt> if the
+     * documents were deleted by query, which doesn't count them.
+     */
+    public long getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * The number of documents matching the query that were left alone because they changed since the
+     * query was resolved into ids, <tt>-1</tt> if the documents were deleted by query.
+     */
+    public long getVersionConflicts() {
+        return versionConflicts;
+    }
+
+    /**
+     * The number of documents the query was resolved into that failed to be deleted, <tt>-1</tt> if the
+     * documents were deleted by query.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * The reasons documents the query was resolved into failed to be deleted, the first one of each shard.
+     */
+    public String[] getDeleteFailures() {
+        return deleteFailures;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -96,6 +138,12 @@ public class IndexDeleteByQueryResponse extends ActionResponse {
         for (int i = 0; i < size; i++) {
             failures[i] = DefaultShardOperationFailedException.readShardOperationFailed(in);
         }
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            deleted = in.readLong();
+            versionConflicts = in.readLong();
+            failed = in.readLong();
+            deleteFailures = in.readStringArray();
+        }
     }
 
     @Override
@@ -108,5 +156,11 @@ public class IndexDeleteByQueryResponse extends ActionResponse {
         for (ShardOperationFailedException failure : failures) {
             failure.writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeLong(deleted);
+            out.writeLong(versionConflicts);
+            out.writeLong(failed);
+            out.writeStringArray(deleteFailures);
+        }
     }
 }
\ No newline at end of file
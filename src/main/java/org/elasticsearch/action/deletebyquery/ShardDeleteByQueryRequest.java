@@ -19,6 +19,9 @@
 
 package org.elasticsearch.action.deletebyquery;
 
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.support.replication.ShardReplicationOperationRequest;
 import org.elasticsearch.common.Nullable;
@@ -27,6 +30,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -47,6 +51,9 @@ public class ShardDeleteByQueryRequest extends ShardReplicationOperationRequest<
     private Set<String> routing;
     @Nullable
     private String[] filteringAliases;
+    private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
+    @Nullable
+    private ResolvedDeletes resolvedDeletes;
 
     ShardDeleteByQueryRequest(IndexDeleteByQueryRequest request, int shardId) {
         super(request);
@@ -64,6 +71,16 @@ public class ShardDeleteByQueryRequest extends ShardReplicationOperationRequest<
     ShardDeleteByQueryRequest() {
     }
 
+    /**
+     * Creates a delete by query request executing the given query source on a single shard of the index.
+     */
+    public ShardDeleteByQueryRequest(String index, int shardId, BytesReference querySource, String... types) {
+        this.index = index;
+        this.shardId = shardId;
+        this.querySource = querySource;
+        this.types = types;
+    }
+
     @Override
     public ActionRequestValidationException validate() {
         ActionRequestValidationException validationException = super.validate();
@@ -93,6 +110,26 @@ public class ShardDeleteByQueryRequest extends ShardReplicationOperationRequest<
         return filteringAliases;
     }
 
+    public void seqNo(long seqNo) {
+        this.seqNo = seqNo;
+    }
+
+    public long seqNo() {
+        return this.seqNo;
+    }
+
+    /**
+     * The deletes the query was resolved to on the primary, <tt>null</tt> if the replicas execute the query.
+     */
+    @Nullable
+    ResolvedDeletes resolvedDeletes() {
+        return this.resolvedDeletes;
+    }
+
+    void resolvedDeletes(@Nullable ResolvedDeletes resolvedDeletes) {
+        this.resolvedDeletes = resolvedDeletes;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -113,6 +150,13 @@ public class ShardDeleteByQueryRequest extends ShardReplicationOperationRequest<
                 filteringAliases[i] = in.readString();
             }
         }
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            seqNo = in.readLong();
+            if (in.readBoolean()) {
+                resolvedDeletes = new ResolvedDeletes();
+                resolvedDeletes.readFrom(in);
+            }
+        }
     }
 
     @Override
@@ -137,6 +181,15 @@ public class ShardDeleteByQueryRequest extends ShardReplicationOperationRequest<
         } else {
             out.writeVInt(0);
         }
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeLong(seqNo);
+            if (resolvedDeletes == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                resolvedDeletes.writeTo(out);
+            }
+        }
     }
 
     @Override
@@ -149,4 +202,76 @@ public class ShardDeleteByQueryRequest extends ShardReplicationOperationRequest<
         }
         return "delete_by_query {[" + index + "]" + Arrays.toString(types) + ", query [" + sSource + "]}";
     }
+
+    /**
+     * The documents deleted by the primary when resolving the query, along with the version and sequence number
+     * of each delete, so that the replicas apply the very same deletes.
+     */
+    static class ResolvedDeletes {
+
+        private int size;
+        private String[] types = Strings.EMPTY_ARRAY;
+        private String[] ids = Strings.EMPTY_ARRAY;
+        private long[] versions = new long[0];
+        private long[] seqNos = new long[0];
+
+        void add(String type, String id, long version, long seqNo) {
+            if (size == types.length) {
+                int newLength = ArrayUtil.oversize(size + 1, RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+                types = Arrays.copyOf(types, newLength);
+                ids = Arrays.copyOf(ids, newLength);
+                versions = Arrays.copyOf(versions, newLength);
+                seqNos = Arrays.copyOf(seqNos, newLength);
+            }
+            types[size] = type;
+            ids[size] = id;
+            versions[size] = version;
+            seqNos[size] = seqNo;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        String type(int i) {
+            return types[i];
+        }
+
+        String id(int i) {
+            return ids[i];
+        }
+
+        long version(int i) {
+            return versions[i];
+        }
+
+        long seqNo(int i) {
+            return seqNos[i];
+        }
+
+        void readFrom(StreamInput in) throws IOException {
+            size = in.readVInt();
+            types = new String[size];
+            ids = new String[size];
+            versions = new long[size];
+            seqNos = new long[size];
+            for (int i = 0; i < size; i++) {
+                types[i] = in.readSharedString();
+                ids[i] = in.readString();
+                versions[i] = in.readLong();
+                seqNos[i] = in.readLong();
+            }
+        }
+
+        void writeTo(StreamOutput out) throws IOException {
+            out.writeVInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeSharedString(types[i]);
+                out.writeString(ids[i]);
+                out.writeLong(versions[i]);
+                out.writeLong(seqNos[i]);
+            }
+        }
+    }
 }
@@ -19,7 +19,9 @@
 
 package org.elasticsearch.action.deletebyquery;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
@@ -30,13 +32,72 @@ import java.io.IOException;
  */
 public class ShardDeleteByQueryResponse extends ActionResponse {
 
+    private long deleted = -1;
+    private long versionConflicts = -1;
+    private long failed = -1;
+    private String failure;
+
+    public ShardDeleteByQueryResponse() {
+    }
+
+    ShardDeleteByQueryResponse(long deleted, long versionConflicts, long failed, @Nullable String failure) {
+        this.deleted = deleted;
+        this.versionConflicts = versionConflicts;
+        this.failed = failed;
+        this.failure = failure;
+    }
+
+    /**
+     * The number of documents deleted when the query was resolved into ids, <tt>-1</tt> if the documents
+     * were deleted by query, which doesn't count them.
+     */
+    public long getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * The number of documents matching the query that were left alone because they changed since the query
+     * was resolved into ids, <tt>-1</tt> if the documents were deleted by query.
+     */
+    public long getVersionConflicts() {
+        return versionConflicts;
+    }
+
+    /**
+     * The number of documents resolved from the query that failed to be deleted, <tt>-1</tt> if the documents
+     * were deleted by query.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * The reason the first of the failed documents failed to be deleted, <tt>null</tt> if none failed.
+     */
+    @Nullable
+    public String getFailure() {
+        return failure;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            deleted = in.readLong();
+            versionConflicts = in.readLong();
+            failed = in.readLong();
+            failure = in.readOptionalString();
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeLong(deleted);
+            out.writeLong(versionConflicts);
+            out.writeLong(failed);
+            out.writeOptionalString(failure);
+        }
     }
-}
\ No newline at end of file
+}
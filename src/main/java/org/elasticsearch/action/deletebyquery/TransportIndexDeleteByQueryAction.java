@@ -56,6 +56,11 @@ public class TransportIndexDeleteByQueryAction extends TransportIndexReplication
     protected IndexDeleteByQueryResponse newResponseInstance(IndexDeleteByQueryRequest request, AtomicReferenceArray shardsResponses) {
         int successfulShards = 0;
         int failedShards = 0;
+        long deleted = 0;
+        long versionConflicts = 0;
+        long failed = 0;
+        List<String> deleteFailures = new ArrayList<String>();
+        boolean counted = true;
         List<ShardOperationFailedException> failures = new ArrayList<ShardOperationFailedException>(3);
         for (int i = 0; i < shardsResponses.length(); i++) {
             Object shardResponse = shardsResponses.get(i);
@@ -64,9 +69,28 @@ public class TransportIndexDeleteByQueryAction extends TransportIndexReplication
                 failures.add(new DefaultShardOperationFailedException(request.index(), -1, (Throwable) shardResponse));
             } else {
                 successfulShards++;
+                ShardDeleteByQueryResponse response = (ShardDeleteByQueryResponse) shardResponse;
+                if (response.getDeleted() >= 0) {
+                    // the shard resolved the query into ids and counted the documents it deleted
+                    deleted += response.getDeleted();
+                    versionConflicts += response.getVersionConflicts();
+                    failed += response.getFailed();
+                    if (response.getFailure() != null) {
+                        deleteFailures.add(response.getFailure());
+                    }
+                } else {
+                    // the shard deleted by query, the total is unknown
+                    counted = false;
+                }
             }
         }
-        return new IndexDeleteByQueryResponse(request.index(), successfulShards, failedShards, failures);
+        if (!counted || successfulShards == 0) {
+            deleted = -1;
+            versionConflicts = -1;
+            failed = -1;
+        }
+        return new IndexDeleteByQueryResponse(request.index(), successfulShards, failedShards, failures, deleted, versionConflicts,
+                failed, deleteFailures.toArray(new String[deleteFailures.size()]));
     }
 
     @Override
@@ -20,8 +20,16 @@
 package org.elasticsearch.action.deletebyquery;
 
 import com.google.common.collect.ImmutableMap;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.support.replication.TransportShardReplicationOperationAction;
 import org.elasticsearch.cache.recycler.CacheRecycler;
 import org.elasticsearch.cluster.ClusterService;
@@ -29,11 +37,21 @@ import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.action.shard.ShardStateAction;
 import org.elasticsearch.cluster.block.ClusterBlockException;
 import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.lucene.search.XFilteredQuery;
+import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.engine.DeleteByQueryFailedEngineException;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.index.fieldvisitor.JustUidFieldsVisitor;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.mapper.internal.UidFieldMapper;
 import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.service.IndexService;
 import org.elasticsearch.index.shard.service.IndexShard;
@@ -45,11 +63,17 @@ import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  *
  */
 public class TransportShardDeleteByQueryAction extends TransportShardReplicationOperationAction<ShardDeleteByQueryRequest, ShardDeleteByQueryRequest, ShardDeleteByQueryResponse> {
 
+    public static final String INDEX_DELETE_BY_QUERY_MODE = "index.delete_by_query.mode";
+    public static final String INDEX_DELETE_BY_QUERY_MAX_RESOLVED_DOCS = "index.delete_by_query.max_resolved_docs";
+
     private final ScriptService scriptService;
     private final CacheRecycler cacheRecycler;
 
@@ -62,6 +86,22 @@ public class TransportShardDeleteByQueryAction extends TransportShardReplication
         this.cacheRecycler = cacheRecycler;
     }
 
+    /**
+     * Returns whether the query is resolved into the ids of the documents to delete on the primary rather than
+     * deleted by on each shard copy, see {@link #INDEX_DELETE_BY_QUERY_MODE}.
+     */
+    public static boolean resolveIds(Settings indexSettings) {
+        return "ids".equals(indexSettings.get(INDEX_DELETE_BY_QUERY_MODE, "query"));
+    }
+
+    /**
+     * Returns the maximum number of docs a query is resolved into on the primary, see
+     * {@link #INDEX_DELETE_BY_QUERY_MAX_RESOLVED_DOCS}. Queries matching more docs are deleted by on each shard copy.
+     */
+    public static int maxResolvedDocs(Settings indexSettings) {
+        return indexSettings.getAsInt(INDEX_DELETE_BY_QUERY_MAX_RESOLVED_DOCS, 10000);
+    }
+
     @Override
     protected boolean checkWriteConsistency() {
         return true;
@@ -108,21 +148,100 @@ public class TransportShardDeleteByQueryAction extends TransportShardReplication
         IndexService indexService = indicesService.indexServiceSafe(shardRequest.request.index());
         IndexShard indexShard = indexService.shardSafe(shardRequest.shardId);
 
+        IndexMetaData indexMetaData = clusterState.metaData().index(request.index());
+        boolean resolveIds = indexMetaData != null && resolveIds(indexMetaData.settings());
+        int maxResolvedDocs = resolveIds ? maxResolvedDocs(indexMetaData.settings()) : 0;
+        if (resolveIds) {
+            // the query is resolved on a searcher, make sure it sees all the docs indexed so far
+            indexShard.refresh(new Engine.Refresh("delete_by_query").force(false));
+        }
+        request.resolvedDeletes(null);
+
+        ShardDeleteByQueryResponse response;
         SearchContext.setCurrent(new DefaultSearchContext(0, new ShardSearchRequest().types(request.types()), null,
                 indexShard.acquireSearcher("delete_by_query"), indexService, indexShard, scriptService, cacheRecycler));
         try {
             Engine.DeleteByQuery deleteByQuery = indexShard.prepareDeleteByQuery(request.querySource(), request.filteringAliases(), request.types())
                     .origin(Engine.Operation.Origin.PRIMARY);
             SearchContext.current().parsedQuery(new ParsedQuery(deleteByQuery.query(), ImmutableMap.<String, Filter>of()));
-            indexShard.deleteByQuery(deleteByQuery);
+            response = resolveIds ? deleteResolvedDocs(indexShard, deleteByQuery, request, maxResolvedDocs) : null;
+            if (response == null) {
+                indexShard.deleteByQuery(deleteByQuery);
+                // the replicas apply the delete by query under the same sequence number
+                request.seqNo(deleteByQuery.seqNo());
+                response = new ShardDeleteByQueryResponse();
+            }
         } finally {
             SearchContext searchContext = SearchContext.current();
             searchContext.clearAndRelease();
             SearchContext.removeCurrent();
         }
-        return new PrimaryResponse<ShardDeleteByQueryResponse, ShardDeleteByQueryRequest>(shardRequest.request, new ShardDeleteByQueryResponse(), null);
+        return new PrimaryResponse<ShardDeleteByQueryResponse, ShardDeleteByQueryRequest>(shardRequest.request, response, null);
     }
 
+    /**
+     * Resolves the query into the docs it matches, segment by segment, and deletes them one by one with the
+     * version they were resolved with, so docs changed in the meantime are left alone. Unlike a delete by query,
+     * each delete only replaces the version of its own doc in the engine, and the replicas apply the resolved
+     * deletes instead of executing the query again. Returns <tt>null</tt>, without deleting anything, if the query
+     * matches more than <tt>maxResolvedDocs</tt> docs, in which case the query should be deleted by instead.
+     */
+    @Nullable
+    private ShardDeleteByQueryResponse deleteResolvedDocs(IndexShard indexShard, Engine.DeleteByQuery deleteByQuery, ShardDeleteByQueryRequest request, int maxResolvedDocs) {
+        Query query = deleteByQuery.query();
+        if (deleteByQuery.aliasFilter() != null) {
+            query = new XFilteredQuery(query, deleteByQuery.aliasFilter());
+        }
+        if (deleteByQuery.nested()) {
+            // nested docs are indexed with the uid of their root doc, and deleted along with it
+            query = new XFilteredQuery(query, deleteByQuery.parentFilter());
+        }
+        DocsToDeleteCollector collector = new DocsToDeleteCollector(maxResolvedDocs);
+        Engine.Searcher searcher = indexShard.acquireSearcher("delete_by_query");
+        try {
+            searcher.searcher().search(query, collector);
+        } catch (TooManyDocsToDeleteException e) {
+            // too many deletes to hold in memory and send to the replicas in a single request
+            if (logger.isDebugEnabled()) {
+                logger.debug("[{}] query of [{}] matches more than [{}] docs, deleting by query", indexShard.shardId(), request, maxResolvedDocs);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new DeleteByQueryFailedEngineException(indexShard.shardId(), deleteByQuery, e);
+        } finally {
+            searcher.release();
+        }
+
+        ShardDeleteByQueryRequest.ResolvedDeletes resolvedDeletes = new ShardDeleteByQueryRequest.ResolvedDeletes();
+        // the deletes done so far are handed to the replicas whatever happens next
+        request.resolvedDeletes(resolvedDeletes);
+        long versionConflicts = 0;
+        long failed = 0;
+        String failure = null;
+        for (int i = 0; i < collector.size; i++) {
+            Engine.Delete delete = indexShard.prepareDelete(collector.types[i], collector.ids[i], collector.versions[i])
+                    .origin(Engine.Operation.Origin.PRIMARY);
+            try {
+                indexShard.delete(delete);
+            } catch (VersionConflictEngineException e) {
+                // the doc was updated or deleted since the query was resolved
+                versionConflicts++;
+                continue;
+            } catch (Throwable e) {
+                logger.debug("[{}] failed to delete [{}][{}] resolved from [{}]", e, indexShard.shardId(), collector.types[i], collector.ids[i], request);
+                failed++;
+                if (failure == null) {
+                    failure = ExceptionsHelper.detailedMessage(e);
+                }
+                continue;
+            }
+            resolvedDeletes.add(collector.types[i], collector.ids[i], delete.version(), delete.seqNo());
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("[{}] deleted [{}] docs resolved from [{}], [{}] version conflicts, [{}] failures", indexShard.shardId(), resolvedDeletes.size(), request, versionConflicts, failed);
+        }
+        return new ShardDeleteByQueryResponse(resolvedDeletes.size(), versionConflicts, failed, failure);
+    }
 
     @Override
     protected void shardOperationOnReplica(ReplicaOperationRequest shardRequest) {
@@ -130,10 +249,26 @@ public class TransportShardDeleteByQueryAction extends TransportShardReplication
         IndexService indexService = indicesService.indexServiceSafe(shardRequest.request.index());
         IndexShard indexShard = indexService.shardSafe(shardRequest.shardId);
 
+        ShardDeleteByQueryRequest.ResolvedDeletes resolvedDeletes = request.resolvedDeletes();
+        if (resolvedDeletes != null) {
+            for (int i = 0; i < resolvedDeletes.size(); i++) {
+                Engine.Delete delete = indexShard.prepareDelete(resolvedDeletes.type(i), resolvedDeletes.id(i), resolvedDeletes.version(i))
+                        .seqNo(resolvedDeletes.seqNo(i))
+                        .origin(Engine.Operation.Origin.REPLICA);
+                try {
+                    indexShard.delete(delete);
+                } catch (VersionConflictEngineException e) {
+                    // the replica already holds a newer version of the doc
+                }
+            }
+            return;
+        }
+
         SearchContext.setCurrent(new DefaultSearchContext(0, new ShardSearchRequest().types(request.types()), null,
                 indexShard.acquireSearcher("delete_by_query", IndexShard.Mode.WRITE), indexService, indexShard, scriptService, cacheRecycler));
         try {
             Engine.DeleteByQuery deleteByQuery = indexShard.prepareDeleteByQuery(request.querySource(), request.filteringAliases(), request.types())
+                    .seqNo(request.seqNo())
                     .origin(Engine.Operation.Origin.REPLICA);
             SearchContext.current().parsedQuery(new ParsedQuery(deleteByQuery.query(), ImmutableMap.<String, Filter>of()));
             indexShard.deleteByQuery(deleteByQuery);
@@ -154,4 +289,68 @@ public class TransportShardDeleteByQueryAction extends TransportShardReplication
         }
         throw new ElasticSearchIllegalStateException("No shards iterator found for shard [" + request.shardId() + "]");
     }
+
+    private static class DocsToDeleteCollector extends Collector {
+
+        private final int maxDocs;
+        private int size;
+        private String[] types = Strings.EMPTY_ARRAY;
+        private String[] ids = Strings.EMPTY_ARRAY;
+        private long[] versions = new long[0];
+        private AtomicReaderContext context;
+
+        DocsToDeleteCollector(int maxDocs) {
+            this.maxDocs = maxDocs;
+        }
+
+        @Override
+        public void setScorer(Scorer scorer) {
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            if (size == maxDocs) {
+                throw TooManyDocsToDeleteException.INSTANCE;
+            }
+            JustUidFieldsVisitor fieldsVisitor = new JustUidFieldsVisitor();
+            context.reader().document(doc, fieldsVisitor);
+            Uid uid = fieldsVisitor.uid();
+            Versions.DocIdAndVersion docIdAndVersion = Versions.loadDocIdAndVersion(context, new Term(UidFieldMapper.NAME, uid.toBytesRef()));
+            if (size == types.length) {
+                int newLength = ArrayUtil.oversize(size + 1, RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+                types = Arrays.copyOf(types, newLength);
+                ids = Arrays.copyOf(ids, newLength);
+                versions = Arrays.copyOf(versions, newLength);
+            }
+            types[size] = uid.type();
+            ids[size] = uid.id();
+            versions[size] = docIdAndVersion == null ? Versions.MATCH_ANY : docIdAndVersion.version;
+            size++;
+        }
+
+        @Override
+        public void setNextReader(AtomicReaderContext context) throws IOException {
+            this.context = context;
+        }
+
+        @Override
+        public boolean acceptsDocsOutOfOrder() {
+            return true;
+        }
+    }
+
+    /**
+     * Stops resolving a query matching too many docs, thrown without a stack trace.
+     */
+    private static class TooManyDocsToDeleteException extends RuntimeException {
+
+        private static final long serialVersionUID = 0L;
+
+        static final TooManyDocsToDeleteException INSTANCE = new TooManyDocsToDeleteException();
+
+        @Override
+        public Throwable fillInStackTrace() {
+            return null;
+        }
+    }
 }
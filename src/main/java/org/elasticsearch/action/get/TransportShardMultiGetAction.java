@@ -30,16 +30,16 @@ import org.elasticsearch.cluster.block.ClusterBlockLevel;
 import org.elasticsearch.cluster.routing.ShardIterator;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
-import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.get.GetResult;
 import org.elasticsearch.index.service.IndexService;
 import org.elasticsearch.index.shard.service.IndexShard;
 import org.elasticsearch.indices.IndicesService;
-import org.elasticsearch.search.fetch.source.FetchSourceContext;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
+import java.util.Arrays;
+
 public class TransportShardMultiGetAction extends TransportShardSingleOperationAction<MultiGetShardRequest, MultiGetShardResponse> {
 
     private final IndicesService indicesService;
@@ -109,29 +109,33 @@ public class TransportShardMultiGetAction extends TransportShardSingleOperationA
             indexShard.refresh(new Engine.Refresh("refresh_flag_mget").force(TransportGetAction.REFRESH_FORCE));
         }
 
+        int size = request.locations.size();
+        GetResult[] getResults = null;
+        Throwable[] failures = new Throwable[size];
+        try {
+            // looks up all the documents of the shard at once
+            getResults = indexShard.getService().multiGet(request.types, request.ids, request.fields, request.realtime(),
+                    request.versions.toArray(), request.versionTypes, request.fetchSourceContexts, failures);
+        } catch (Throwable t) {
+            if (TransportActions.isShardNotAvailableException(t)) {
+                throw (ElasticSearchException) t;
+            }
+            Arrays.fill(failures, t);
+        }
+
         MultiGetShardResponse response = new MultiGetShardResponse();
-        for (int i = 0; i < request.locations.size(); i++) {
+        for (int i = 0; i < size; i++) {
             String type = request.types.get(i);
             String id = request.ids.get(i);
-            String[] fields = request.fields.get(i);
-
-            long version = request.versions.get(i);
-            VersionType versionType = request.versionTypes.get(i);
-            if (versionType == null) {
-                versionType = VersionType.INTERNAL;
-            }
-
-            FetchSourceContext fetchSourceContext = request.fetchSourceContexts.get(i);
-            try {
-                GetResult getResult = indexShard.getService().get(type, id, fields, request.realtime(), version, versionType, fetchSourceContext);
-                response.add(request.locations.get(i), new GetResponse(getResult));
-            } catch (Throwable t) {
+            if (failures[i] == null) {
+                response.add(request.locations.get(i), new GetResponse(getResults[i]));
+            } else {
+                Throwable t = failures[i];
                 if (TransportActions.isShardNotAvailableException(t)) {
                     throw (ElasticSearchException) t;
-                } else {
-                    logger.debug("[{}][{}] failed to execute multi_get for [{}]/[{}]", t, request.index(), shardId, type, id);
-                    response.add(request.locations.get(i), new MultiGetResponse.Failure(request.index(), type, id, ExceptionsHelper.detailedMessage(t)));
                 }
+                logger.debug("[{}][{}] failed to execute multi_get for [{}]/[{}]", t, request.index(), shardId, type, id);
+                response.add(request.locations.get(i), new MultiGetResponse.Failure(request.index(), type, id, ExceptionsHelper.detailedMessage(t)));
             }
         }
 
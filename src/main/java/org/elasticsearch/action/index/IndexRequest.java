@@ -24,6 +24,7 @@ import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.ElasticSearchGenerationException;
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.ElasticSearchParseException;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.RoutingMissingException;
 import org.elasticsearch.action.support.replication.ShardReplicationOperationRequest;
@@ -40,6 +41,7 @@ import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.xcontent.*;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.mapper.internal.TimestampFieldMapper;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 
 import java.io.IOException;
 import java.util.Locale;
@@ -132,6 +134,8 @@ public class IndexRequest extends ShardReplicationOperationRequest<IndexRequest>
     private boolean refresh = false;
     private long version = Versions.MATCH_ANY;
     private VersionType versionType = VersionType.INTERNAL;
+    private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
+    private boolean autoGeneratedId = false;
 
     private XContentType contentType = Requests.INDEX_CONTENT_TYPE;
 
@@ -538,6 +542,25 @@ public class IndexRequest extends ShardReplicationOperationRequest<IndexRequest>
         return this.versionType;
     }
 
+    /**
+     * Sets the sequence number the primary assigned to the operation, for the replicas to use.
+     */
+    public IndexRequest seqNo(long seqNo) {
+        this.seqNo = seqNo;
+        return this;
+    }
+
+    public long seqNo() {
+        return this.seqNo;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the id of the document was generated when the request was processed.
+     */
+    public boolean autoGeneratedId() {
+        return this.autoGeneratedId;
+    }
+
     public void process(MetaData metaData, String aliasOrIndex, @Nullable MappingMetaData mappingMd, boolean allowIdGeneration) throws ElasticSearchException {
         // resolve the routing if needed
         routing(metaData.resolveIndexRouting(routing, aliasOrIndex));
@@ -594,6 +617,7 @@ public class IndexRequest extends ShardReplicationOperationRequest<IndexRequest>
                 id(Strings.randomBase64UUID());
                 // since we generate the id, change it to CREATE
                 opType(IndexRequest.OpType.CREATE);
+                autoGeneratedId = true;
             }
         }
 
@@ -619,6 +643,10 @@ public class IndexRequest extends ShardReplicationOperationRequest<IndexRequest>
         refresh = in.readBoolean();
         version = in.readLong();
         versionType = VersionType.fromValue(in.readByte());
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            seqNo = in.readLong();
+            autoGeneratedId = in.readBoolean();
+        }
     }
 
     @Override
@@ -635,6 +663,10 @@ public class IndexRequest extends ShardReplicationOperationRequest<IndexRequest>
         out.writeBoolean(refresh);
         out.writeLong(version);
         out.writeByte(versionType.getValue());
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeLong(seqNo);
+            out.writeBoolean(autoGeneratedId);
+        }
     }
 
     @Override
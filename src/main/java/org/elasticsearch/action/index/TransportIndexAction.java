@@ -196,6 +196,7 @@ public class TransportIndexAction extends TransportShardReplicationOperationActi
         SourceToParse sourceToParse = SourceToParse.source(SourceToParse.Origin.PRIMARY, request.source()).type(request.type()).id(request.id())
                 .routing(request.routing()).parent(request.parent()).timestamp(request.timestamp()).ttl(request.ttl());
         long version;
+        long seqNo;
         boolean created;
         Engine.IndexingOperation op;
         if (request.opType() == IndexRequest.OpType.INDEX) {
@@ -208,18 +209,22 @@ public class TransportIndexAction extends TransportShardReplicationOperationActi
             }
             indexShard.index(index);
             version = index.version();
+            seqNo = index.seqNo();
             op = index;
             created = index.created();
         } else {
             Engine.Create create = indexShard.prepareCreate(sourceToParse)
                     .version(request.version())
                     .versionType(request.versionType())
-                    .origin(Engine.Operation.Origin.PRIMARY);
+                    .origin(Engine.Operation.Origin.PRIMARY)
+                    .autoGeneratedId(request.autoGeneratedId())
+                    .canHaveDuplicates(request.canHaveDuplicates());
             if (create.parsedDoc().mappingsModified()) {
                 updateMappingOnMaster(request, indexMetaData);
             }
             indexShard.create(create);
             version = create.version();
+            seqNo = create.seqNo();
             op = create;
             created = true;
         }
@@ -231,8 +236,9 @@ public class TransportIndexAction extends TransportShardReplicationOperationActi
             }
         }
 
-        // update the version on the request, so it will be used for the replicas
+        // update the version and sequence number on the request, so it will be used for the replicas
         request.version(version);
+        request.seqNo(seqNo);
 
         IndexResponse response = new IndexResponse(request.index(), request.type(), request.id(), version, created);
         return new PrimaryResponse<IndexResponse, IndexRequest>(shardRequest.request, response, op);
@@ -247,11 +253,13 @@ public class TransportIndexAction extends TransportShardReplicationOperationActi
         if (request.opType() == IndexRequest.OpType.INDEX) {
             Engine.Index index = indexShard.prepareIndex(sourceToParse)
                     .version(request.version())
+                    .seqNo(request.seqNo())
                     .origin(Engine.Operation.Origin.REPLICA);
             indexShard.index(index);
         } else {
             Engine.Create create = indexShard.prepareCreate(sourceToParse)
                     .version(request.version())
+                    .seqNo(request.seqNo())
                     .origin(Engine.Operation.Origin.REPLICA);
             indexShard.create(create);
         }
@@ -308,6 +308,15 @@ public class SearchRequestBuilder extends ActionRequestBuilder<SearchRequest, Se
         return this;
     }
 
+    /**
+     * Restricts the search to the slice <tt>id</tt> out of <tt>max</tt> slices, allowing to consume the
+     * same scan / scroll from <tt>max</tt> clients in parallel.
+     */
+    public SearchRequestBuilder setSlice(int id, int max) {
+        sourceBuilder().slice(id, max);
+        return this;
+    }
+
     /**
      * From index to start the search from. Defaults to <tt>0</tt>.
      */
@@ -509,6 +518,15 @@ public class SearchRequestBuilder extends ActionRequestBuilder<SearchRequest, Se
         return this;
     }
 
+    /**
+     * Only returns the hits that sort after the provided sort values, typically the ones of the last hit of
+     * the previous page. Requires a sort, which should end with a unique field (like <tt>_uid</tt>) to break ties.
+     */
+    public SearchRequestBuilder setSearchAfter(Object... values) {
+        sourceBuilder().searchAfter(values);
+        return this;
+    }
+
     /**
      * Adds the fields to load and return as part of the search request. If none are specified,
      * the source of the document will be returned.
@@ -113,6 +113,14 @@ public class SearchResponse extends ActionResponse implements ToXContent {
         return internalResponse.timedOut();
     }
 
+    /**
+     * Has the collection of index sorted segments stopped early on some shards, in which case the total hits
+     * are a lower bound of the actual number of matching docs.
+     */
+    public boolean isTerminatedEarly() {
+        return internalResponse.terminatedEarly();
+    }
+
     /**
      * How long the search took.
      */
@@ -178,6 +186,7 @@ public class SearchResponse extends ActionResponse implements ToXContent {
         static final XContentBuilderString REASON = new XContentBuilderString("reason");
         static final XContentBuilderString TOOK = new XContentBuilderString("took");
         static final XContentBuilderString TIMED_OUT = new XContentBuilderString("timed_out");
+        static final XContentBuilderString TERMINATED_EARLY = new XContentBuilderString("terminated_early");
     }
 
     @Override
@@ -187,6 +196,9 @@ public class SearchResponse extends ActionResponse implements ToXContent {
         }
         builder.field(Fields.TOOK, tookInMillis);
         builder.field(Fields.TIMED_OUT, isTimedOut());
+        if (isTerminatedEarly()) {
+            builder.field(Fields.TERMINATED_EARLY, true);
+        }
         builder.startObject(Fields._SHARDS);
         builder.field(Fields.TOTAL, getTotalShards());
         builder.field(Fields.SUCCESSFUL, getSuccessfulShards());
@@ -487,6 +487,9 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                 return;
             }
 
+            // the operation might have been (partially) applied on the primary already
+            request.setCanHaveDuplicates();
+
             // make it threaded operation so we fork on the discovery listener thread
             request.beforeLocalFork();
             request.operationThreaded(true);
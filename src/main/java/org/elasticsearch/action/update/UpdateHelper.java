@@ -9,6 +9,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.io.stream.Streamable;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
@@ -17,6 +18,7 @@ import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.engine.DocumentMissingException;
 import org.elasticsearch.index.engine.DocumentSourceMissingException;
+import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.get.GetField;
 import org.elasticsearch.index.get.GetResult;
 import org.elasticsearch.index.mapper.internal.ParentFieldMapper;
@@ -62,10 +64,27 @@ public class UpdateHelper extends AbstractComponent {
     }
 
     public Result prepare(UpdateRequest request, IndexShard indexShard) {
+        return prepare(request, indexShard, null);
+    }
+
+    /**
+     * Same as {@link #prepare(UpdateRequest, IndexShard)}, but updates the provided current document (with its source,
+     * routing, parent and ttl fields) instead of getting it from the shard, if not null. This is used when a previous
+     * request of the same bulk updated the document already.
+     */
+    public Result prepare(UpdateRequest request, IndexShard indexShard, @Nullable GetResult currentResult) {
         long getDate = System.currentTimeMillis();
-        final GetResult getResult = indexShard.getService().get(request.type(), request.id(),
-                new String[]{RoutingFieldMapper.NAME, ParentFieldMapper.NAME, TTLFieldMapper.NAME},
-                true, request.version(), request.versionType(), FetchSourceContext.FETCH_SOURCE);
+        final GetResult getResult;
+        if (currentResult == null) {
+            getResult = indexShard.getService().get(request.type(), request.id(),
+                    new String[]{RoutingFieldMapper.NAME, ParentFieldMapper.NAME, TTLFieldMapper.NAME},
+                    true, request.version(), request.versionType(), FetchSourceContext.FETCH_SOURCE);
+        } else {
+            if (request.version() != Versions.MATCH_ANY && request.versionType().isVersionConflict(currentResult.getVersion(), request.version())) {
+                throw new VersionConflictEngineException(indexShard.shardId(), request.type(), request.id(), currentResult.getVersion(), request.version());
+            }
+            getResult = currentResult;
+        }
 
         if (!getResult.isExists()) {
             if (request.upsertRequest() == null && !request.docAsUpsert()) {
@@ -96,19 +115,18 @@ public class UpdateHelper extends AbstractComponent {
             throw new DocumentSourceMissingException(new ShardId(request.index(), request.shardId()), request.type(), request.id());
         }
 
-        Tuple<XContentType, Map<String, Object>> sourceAndContent = XContentHelper.convertToMap(getResult.internalSourceRef(), true);
         String operation = null;
         String timestamp = null;
         Long ttl = null;
         Object fetchedTTL = null;
         final Map<String, Object> updatedSourceAsMap;
-        final XContentType updateSourceContentType = sourceAndContent.v1();
+        final XContentType updateSourceContentType;
+        BytesReference updatedSource = null;
         String routing = getResult.getFields().containsKey(RoutingFieldMapper.NAME) ? getResult.field(RoutingFieldMapper.NAME).getValue().toString() : null;
         String parent = getResult.getFields().containsKey(ParentFieldMapper.NAME) ? getResult.field(ParentFieldMapper.NAME).getValue().toString() : null;
 
         if (request.script() == null && request.doc() != null) {
             IndexRequest indexRequest = request.doc();
-            updatedSourceAsMap = sourceAndContent.v2();
             if (indexRequest.ttl() > 0) {
                 ttl = indexRequest.ttl();
             }
@@ -119,8 +137,20 @@ public class UpdateHelper extends AbstractComponent {
             if (indexRequest.parent() != null) {
                 parent = indexRequest.parent();
             }
-            XContentHelper.update(updatedSourceAsMap, indexRequest.sourceAsMap());
+            if (request.fields() == null || request.fields().length == 0) {
+                // the updated source is only needed as bytes, merge the partial document while copying it
+                updatedSource = XContentHelper.update(getResult.internalSourceRef(), indexRequest.sourceAsMap());
+                updatedSourceAsMap = null;
+                updateSourceContentType = null;
+            } else {
+                Tuple<XContentType, Map<String, Object>> sourceAndContent = XContentHelper.convertToMap(getResult.internalSourceRef(), true);
+                updatedSourceAsMap = sourceAndContent.v2();
+                updateSourceContentType = sourceAndContent.v1();
+                XContentHelper.update(updatedSourceAsMap, indexRequest.sourceAsMap());
+            }
         } else {
+            Tuple<XContentType, Map<String, Object>> sourceAndContent = XContentHelper.convertToMap(getResult.internalSourceRef(), true);
+            updateSourceContentType = sourceAndContent.v1();
             Map<String, Object> ctx = new HashMap<String, Object>(2);
             ctx.put("_source", sourceAndContent.v2());
 
@@ -160,11 +190,15 @@ public class UpdateHelper extends AbstractComponent {
 
         if (operation == null || "index".equals(operation)) {
             final IndexRequest indexRequest = Requests.indexRequest(request.index()).type(request.type()).id(request.id()).routing(routing).parent(parent)
-                    .source(updatedSourceAsMap, updateSourceContentType)
                     .version(updateVersion).versionType(request.versionType())
                     .replicationType(request.replicationType()).consistencyLevel(request.consistencyLevel())
                     .timestamp(timestamp).ttl(ttl)
                     .refresh(request.refresh());
+            if (updatedSource != null) {
+                indexRequest.source(updatedSource, false);
+            } else {
+                indexRequest.source(updatedSourceAsMap, updateSourceContentType);
+            }
             indexRequest.operationThreaded(false);
             return new Result(indexRequest, Operation.INDEX, updatedSourceAsMap, updateSourceContentType);
         } else if ("delete".equals(operation)) {
@@ -35,5 +35,6 @@ public class CacheRecyclerModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(CacheRecycler.class).asEagerSingleton();
+        bind(PageCacheRecycler.class).asEagerSingleton();
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cache.recycler;
+
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.recycler.NoneRecycler;
+import org.elasticsearch.common.recycler.QueueRecycler;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.monitor.jvm.JvmInfo;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Recycles the fixed size pages messages are serialized into before being written to the network, see
+ * {@link org.elasticsearch.common.netty.ChannelBufferStreamOutput}. Up to <tt>cache.recycler.page.limit.heap</tt>
+ * (either a size or a percentage of the heap, defaults to <tt>10%</tt>) worth of released pages are kept for reuse.
+ */
+public class PageCacheRecycler extends AbstractComponent {
+
+    public static final int BYTE_PAGE_SIZE = 16 * 1024;
+
+    private final long limitInBytes;
+
+    private final ArrayBlockingQueue<Recycler.V<byte[]>> bytePagesQueue;
+
+    private final Recycler<byte[]> bytePages;
+
+    private final CounterMetric requested = new CounterMetric();
+
+    private final CounterMetric allocated = new CounterMetric();
+
+    @Inject
+    public PageCacheRecycler(Settings settings) {
+        super(settings);
+        String limit = settings.get("cache.recycler.page.limit.heap", "10%");
+        if (limit.endsWith("%")) {
+            double percent = Double.parseDouble(limit.substring(0, limit.length() - 1));
+            limitInBytes = (long) ((percent / 100) * JvmInfo.jvmInfo().getMem().getHeapMax().bytes());
+        } else {
+            limitInBytes = ByteSizeValue.parseBytesSizeValue(limit).bytes();
+        }
+        int limitInPages = (int) Math.min(Integer.MAX_VALUE, limitInBytes / BYTE_PAGE_SIZE);
+
+        Recycler.C<byte[]> c = new Recycler.C<byte[]>() {
+            @Override
+            public byte[] newInstance(int sizing) {
+                allocated.inc();
+                return new byte[BYTE_PAGE_SIZE];
+            }
+
+            @Override
+            public void clear(byte[] value) {
+            }
+        };
+        final Recycler<byte[]> recycler;
+        if (limitInPages > 0) {
+            bytePagesQueue = new ArrayBlockingQueue<Recycler.V<byte[]>>(limitInPages);
+            // released pages that don't fit in the queue are left to the garbage collector
+            recycler = new QueueRecycler<byte[]>(c, bytePagesQueue);
+        } else {
+            bytePagesQueue = null;
+            recycler = new NoneRecycler<byte[]>(c);
+        }
+        bytePages = new Recycler<byte[]>(c) {
+            @Override
+            public void close() {
+                recycler.close();
+            }
+
+            @Override
+            public V<byte[]> obtain(int sizing) {
+                requested.inc();
+                return recycler.obtain(sizing);
+            }
+        };
+        logger.debug("using page recycler with limit [{}]", new ByteSizeValue(limitInBytes));
+    }
+
+    /**
+     * Recycles pages of {@link #BYTE_PAGE_SIZE} bytes.
+     */
+    public Recycler<byte[]> bytePages() {
+        return bytePages;
+    }
+
+    public PageCacheRecyclerStats stats() {
+        long pooled = bytePagesQueue == null ? 0 : bytePagesQueue.size();
+        return new PageCacheRecyclerStats(requested.count(), allocated.count(), pooled, pooled * BYTE_PAGE_SIZE, limitInBytes);
+    }
+
+    public void close() {
+        bytePages.close();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cache.recycler;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentBuilderString;
+
+import java.io.IOException;
+
+/**
+ */
+public class PageCacheRecyclerStats implements Streamable, ToXContent {
+
+    private long requested;
+    private long allocated;
+    private long pooled;
+    private long pooledSize;
+    private long limitSize;
+
+    PageCacheRecyclerStats() {
+
+    }
+
+    public PageCacheRecyclerStats(long requested, long allocated, long pooled, long pooledSize, long limitSize) {
+        this.requested = requested;
+        this.allocated = allocated;
+        this.pooled = pooled;
+        this.pooledSize = pooledSize;
+        this.limitSize = limitSize;
+    }
+
+    /**
+     * The number of pages obtained from the recycler.
+     */
+    public long getRequested() {
+        return this.requested;
+    }
+
+    /**
+     * The number of pages that had to be allocated because none was available for reuse.
+     */
+    public long getAllocated() {
+        return this.allocated;
+    }
+
+    /**
+     * The number of released pages currently kept for reuse.
+     */
+    public long getPooled() {
+        return this.pooled;
+    }
+
+    public ByteSizeValue getPooledSize() {
+        return new ByteSizeValue(pooledSize);
+    }
+
+    public ByteSizeValue getLimitSize() {
+        return new ByteSizeValue(limitSize);
+    }
+
+    public static PageCacheRecyclerStats readPageCacheRecyclerStats(StreamInput in) throws IOException {
+        PageCacheRecyclerStats stats = new PageCacheRecyclerStats();
+        stats.readFrom(in);
+        return stats;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        requested = in.readVLong();
+        allocated = in.readVLong();
+        pooled = in.readVLong();
+        pooledSize = in.readVLong();
+        limitSize = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(requested);
+        out.writeVLong(allocated);
+        out.writeVLong(pooled);
+        out.writeVLong(pooledSize);
+        out.writeVLong(limitSize);
+    }
+
+    static final class Fields {
+        static final XContentBuilderString PAGE_RECYCLER = new XContentBuilderString("page_recycler");
+        static final XContentBuilderString REQUESTED = new XContentBuilderString("requested");
+        static final XContentBuilderString ALLOCATED = new XContentBuilderString("allocated");
+        static final XContentBuilderString POOLED = new XContentBuilderString("pooled");
+        static final XContentBuilderString POOLED_SIZE = new XContentBuilderString("pooled_size");
+        static final XContentBuilderString POOLED_SIZE_IN_BYTES = new XContentBuilderString("pooled_size_in_bytes");
+        static final XContentBuilderString LIMIT_SIZE = new XContentBuilderString("limit_size");
+        static final XContentBuilderString LIMIT_SIZE_IN_BYTES = new XContentBuilderString("limit_size_in_bytes");
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.PAGE_RECYCLER);
+        builder.field(Fields.REQUESTED, requested);
+        builder.field(Fields.ALLOCATED, allocated);
+        builder.field(Fields.POOLED, pooled);
+        builder.byteSizeField(Fields.POOLED_SIZE_IN_BYTES, Fields.POOLED_SIZE, pooledSize);
+        builder.byteSizeField(Fields.LIMIT_SIZE_IN_BYTES, Fields.LIMIT_SIZE, limitSize);
+        builder.endObject();
+        return builder;
+    }
+}
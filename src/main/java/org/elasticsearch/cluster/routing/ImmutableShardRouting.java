@@ -20,6 +20,7 @@
 package org.elasticsearch.cluster.routing;
 
 import com.google.common.collect.ImmutableList;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -53,6 +54,8 @@ public class ImmutableShardRouting implements Streamable, Serializable, ShardRou
 
     protected RestoreSource restoreSource;
 
+    protected long unassignedNodeLeftTime = -1;
+
     private final transient ImmutableList<ShardRouting> asList;
 
     ImmutableShardRouting() {
@@ -63,12 +66,14 @@ public class ImmutableShardRouting implements Streamable, Serializable, ShardRou
         this(copy.index(), copy.id(), copy.currentNodeId(), copy.primary(), copy.state(), copy.version());
         this.relocatingNodeId = copy.relocatingNodeId();
         this.restoreSource = copy.restoreSource();
+        this.unassignedNodeLeftTime = copy.unassignedNodeLeftTime();
     }
 
     public ImmutableShardRouting(ShardRouting copy, long version) {
         this(copy.index(), copy.id(), copy.currentNodeId(), copy.primary(), copy.state(), copy.version());
         this.relocatingNodeId = copy.relocatingNodeId();
         this.restoreSource = copy.restoreSource();
+        this.unassignedNodeLeftTime = copy.unassignedNodeLeftTime();
         this.version = version;
     }
 
@@ -164,6 +169,11 @@ public class ImmutableShardRouting implements Streamable, Serializable, ShardRou
         return restoreSource;
     }
 
+    @Override
+    public long unassignedNodeLeftTime() {
+        return unassignedNodeLeftTime;
+    }
+
     @Override
     public boolean primary() {
         return this.primary;
@@ -221,6 +231,9 @@ public class ImmutableShardRouting implements Streamable, Serializable, ShardRou
         state = ShardRoutingState.fromValue(in.readByte());
 
         restoreSource = RestoreSource.readOptionalRestoreSource(in);
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            unassignedNodeLeftTime = in.readLong();
+        }
     }
 
     @Override
@@ -259,6 +272,9 @@ public class ImmutableShardRouting implements Streamable, Serializable, ShardRou
         } else {
             out.writeBoolean(false);
         }
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeLong(unassignedNodeLeftTime);
+        }
     }
 
     @Override
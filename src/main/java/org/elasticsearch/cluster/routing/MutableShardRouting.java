@@ -63,6 +63,7 @@ public class MutableShardRouting extends ImmutableShardRouting {
             state = ShardRoutingState.INITIALIZING;
             currentNodeId = nodeId;
             relocatingNodeId = null;
+            unassignedNodeLeftTime = -1;
         } else if (state == ShardRoutingState.STARTED) {
             state = ShardRoutingState.RELOCATING;
             relocatingNodeId = nodeId;
@@ -110,6 +111,17 @@ public class MutableShardRouting extends ImmutableShardRouting {
         this.relocatingNodeId = null;
     }
 
+    /**
+     * Marks this unassigned shard as having become unassigned because the node holding it
+     * left the cluster at the given time.
+     *
+     * @see #unassignedNodeLeftTime()
+     */
+    public void unassignedNodeLeftTime(long unassignedNodeLeftTime) {
+        assert state == ShardRoutingState.UNASSIGNED;
+        this.unassignedNodeLeftTime = unassignedNodeLeftTime;
+    }
+
     /**
      * Set the shards state to <code>STARTED</code>. The shards state must be
      * <code>INITIALIZING</code> or <code>RELOCATING</code>. Any relocation will be
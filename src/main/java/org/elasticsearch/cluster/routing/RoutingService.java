@@ -21,6 +21,8 @@ package org.elasticsearch.cluster.routing;
 
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.cluster.*;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.allocation.AllocationService;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
@@ -51,6 +53,13 @@ public class RoutingService extends AbstractLifecycleComponent<RoutingService> i
 
     private static final String CLUSTER_UPDATE_TASK_SOURCE = "routing-table-updater";
 
+    /**
+     * How long to wait before reallocating the replicas of an index that became unassigned because their
+     * node left the cluster, giving the node a chance to rejoin and reuse its copies. Defaults to <tt>0</tt>,
+     * reallocating them right away.
+     */
+    public static final String INDEX_DELAYED_NODE_LEFT_TIMEOUT = "index.unassigned.node_left.delayed_timeout";
+
     private final ThreadPool threadPool;
 
     private final ClusterService clusterService;
@@ -63,6 +72,10 @@ public class RoutingService extends AbstractLifecycleComponent<RoutingService> i
 
     private volatile Future scheduledRoutingTableFuture;
 
+    private volatile Future delayedRerouteFuture;
+
+    private volatile long delayedRerouteTime = -1;
+
     @Inject
     public RoutingService(Settings settings, ThreadPool threadPool, ClusterService clusterService, AllocationService allocationService) {
         super(settings);
@@ -87,6 +100,7 @@ public class RoutingService extends AbstractLifecycleComponent<RoutingService> i
             scheduledRoutingTableFuture.cancel(true);
             scheduledRoutingTableFuture = null;
         }
+        cancelDelayedReroute();
         clusterService.remove(this);
     }
 
@@ -122,14 +136,88 @@ public class RoutingService extends AbstractLifecycleComponent<RoutingService> i
                     }
                 }
             }
+            scheduleDelayedReroute(event.state());
         } else {
             if (scheduledRoutingTableFuture != null) {
                 scheduledRoutingTableFuture.cancel(true);
                 scheduledRoutingTableFuture = null;
             }
+            cancelDelayedReroute();
+        }
+    }
+
+    /**
+     * Returns the time (in milliseconds) until which the allocation of the given unassigned shard is delayed
+     * waiting for the node that held it to rejoin, or <tt>-1</tt> if its allocation is not delayed. Only
+     * replicas are delayed, see {@link #INDEX_DELAYED_NODE_LEFT_TIMEOUT}.
+     */
+    public static long delayedAllocationExpiry(ShardRouting shard, MetaData metaData) {
+        if (shard.primary() || shard.unassignedNodeLeftTime() == -1) {
+            return -1;
+        }
+        IndexMetaData indexMetaData = metaData.index(shard.index());
+        if (indexMetaData == null) {
+            return -1;
+        }
+        long delay = indexMetaData.settings().getAsTime(INDEX_DELAYED_NODE_LEFT_TIMEOUT, TimeValue.timeValueMillis(0)).millis();
+        if (delay <= 0) {
+            return -1;
+        }
+        return shard.unassignedNodeLeftTime() + delay;
+    }
+
+    /**
+     * Makes sure a reroute happens once the earliest delayed allocation of the given state expires.
+     */
+    private void scheduleDelayedReroute(ClusterState state) {
+        long now = System.currentTimeMillis();
+        long nextExpiry = -1;
+        for (ShardRouting shard : state.routingTable().shardsWithState(ShardRoutingState.UNASSIGNED)) {
+            long expiry = delayedAllocationExpiry(shard, state.metaData());
+            if (expiry > now && (nextExpiry == -1 || expiry < nextExpiry)) {
+                nextExpiry = expiry;
+            }
+        }
+        if (nextExpiry == -1) {
+            return;
+        }
+        synchronized (this) {
+            Future future = delayedRerouteFuture;
+            if (future != null && !future.isDone() && delayedRerouteTime <= nextExpiry) {
+                // an earlier reroute is already scheduled, it will schedule the next one
+                return;
+            }
+            cancelDelayedReroute();
+            delayedRerouteTime = nextExpiry;
+            delayedRerouteFuture = threadPool.schedule(TimeValue.timeValueMillis(nextExpiry - now), ThreadPool.Names.SAME, new Runnable() {
+                @Override
+                public void run() {
+                    routingTableDirty = true;
+                    reroute();
+                }
+            });
+        }
+    }
+
+    private synchronized void cancelDelayedReroute() {
+        if (delayedRerouteFuture != null) {
+            delayedRerouteFuture.cancel(false);
+            delayedRerouteFuture = null;
         }
     }
 
+    /**
+     * Initiates a reroute, for example once information needed to allocate shards that was fetched
+     * asynchronously became available.
+     */
+    public void reroute(String reason) {
+        if (logger.isTraceEnabled()) {
+            logger.trace("rerouting, reason [{}]", reason);
+        }
+        routingTableDirty = true;
+        reroute();
+    }
+
     private void reroute() {
         try {
             if (!routingTableDirty) {
@@ -138,7 +226,7 @@ public class RoutingService extends AbstractLifecycleComponent<RoutingService> i
             if (lifecycle.stopped()) {
                 return;
             }
-            clusterService.submitStateUpdateTask(CLUSTER_UPDATE_TASK_SOURCE, Priority.HIGH, new ClusterStateUpdateTask() {
+            clusterService.submitStateUpdateTask(CLUSTER_UPDATE_TASK_SOURCE, Priority.HIGH, new ProcessedClusterStateUpdateTask() {
                 @Override
                 public ClusterState execute(ClusterState currentState) {
                     RoutingAllocation.Result routingResult = allocationService.reroute(currentState);
@@ -149,6 +237,14 @@ public class RoutingService extends AbstractLifecycleComponent<RoutingService> i
                     return ClusterState.builder(currentState).routingResult(routingResult).build();
                 }
 
+                @Override
+                public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                    // our own changes are not seen by clusterChanged, so check them for delayed shards here
+                    if (newState.nodes().localNodeMaster()) {
+                        scheduleDelayedReroute(newState);
+                    }
+                }
+
                 @Override
                 public void onFailure(String source, Throwable t) {
                     logger.error("unexpected failure during [{}]", t, source);
@@ -121,6 +121,12 @@ public interface ShardRouting extends Streamable, Serializable, ToXContent {
      */
     RestoreSource restoreSource();
 
+    /**
+     * The time (in milliseconds) at which this shard became unassigned because the node holding it
+     * left the cluster, or <tt>-1</tt> if it did not become unassigned because of a node leaving.
+     */
+    long unassignedNodeLeftTime();
+
     /**
      * Returns <code>true</code> iff this shard is a primary.
      */
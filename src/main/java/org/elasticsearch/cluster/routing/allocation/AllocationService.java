@@ -33,14 +33,17 @@ import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.node.settings.NodeSettingsService;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static org.elasticsearch.cluster.routing.ShardRoutingState.INITIALIZING;
 import static org.elasticsearch.cluster.routing.ShardRoutingState.RELOCATING;
@@ -116,7 +119,7 @@ public class AllocationService extends AbstractComponent {
         FailedRerouteAllocation allocation = new FailedRerouteAllocation(allocationDeciders, routingNodes, clusterState.nodes(), failedShards, clusterInfoService.getClusterInfo());
         boolean changed = false;
         for (ShardRouting failedShard : failedShards) {
-            changed |= applyFailedShard(allocation, failedShard, true);
+            changed |= applyFailedShard(allocation, failedShard, true, -1);
         }
         if (!changed) {
             return new RoutingAllocation.Result(false, clusterState.routingTable(), allocation.explanation());
@@ -188,6 +191,12 @@ public class AllocationService extends AbstractComponent {
     }
 
     private boolean reroute(RoutingAllocation allocation) {
+        long startNanos = 0;
+        if (logger.isTraceEnabled()) {
+            startNanos = System.nanoTime();
+            // only report the time spent in deciders by this reroute
+            allocationDeciders.clearTimings();
+        }
         boolean changed = false;
         // first, clear from the shards any node id they used to belong to that is now dead
         changed |= deassociateDeadNodes(allocation);
@@ -212,6 +221,14 @@ public class AllocationService extends AbstractComponent {
         // rebalance
         changed |= shardsAllocators.rebalance(allocation);
 
+        if (logger.isTraceEnabled()) {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, MeanMetric> entry : allocationDeciders.timings().entrySet()) {
+                sb.append(" [").append(entry.getKey()).append("] calls [").append(entry.getValue().count())
+                        .append("] took [").append(TimeValue.timeValueNanos(entry.getValue().sum())).append("]");
+            }
+            logger.trace("reroute took [{}], time spent in deciders:{}", TimeValue.timeValueNanos(System.nanoTime() - startNanos), sb);
+        }
         return changed;
     }
 
@@ -316,7 +333,7 @@ public class AllocationService extends AbstractComponent {
         }
         if (shardsToFail != null) {
             for (ShardRouting shardToFail : shardsToFail) {
-                applyFailedShard(allocation, shardToFail, false);
+                applyFailedShard(allocation, shardToFail, false, -1);
             }
         }
         return changed;
@@ -337,6 +354,7 @@ public class AllocationService extends AbstractComponent {
 
     private boolean deassociateDeadNodes(RoutingAllocation allocation) {
         boolean changed = false;
+        long now = System.currentTimeMillis();
         for (Iterator<RoutingNode> it = allocation.routingNodes().nodesToShards().values().iterator(); it.hasNext(); ) {
             RoutingNode node = it.next();
             if (allocation.nodes().dataNodes().containsKey(node.nodeId())) {
@@ -346,7 +364,7 @@ public class AllocationService extends AbstractComponent {
             changed = true;
             // now, go over all the shards routing on the node, and fail them
             for (MutableShardRouting shardRouting : new ArrayList<MutableShardRouting>(node.shards())) {
-                applyFailedShard(allocation, shardRouting, false);
+                applyFailedShard(allocation, shardRouting, false, now);
             }
             // its a dead node, remove it, note, its important to remove it *after* we apply failed shard
             // since it relies on the fact that the RoutingNode exists in the list of nodes
@@ -405,9 +423,10 @@ public class AllocationService extends AbstractComponent {
 
     /**
      * Applies the relevant logic to handle a failed shard. Returns <tt>true</tt> if changes happened that
-     * require relocation.
+     * require relocation. If the shard failed because its node left the cluster, <tt>nodeLeftTime</tt> is
+     * the time it left at and is recorded on the active copy moved back to unassigned, otherwise it is <tt>-1</tt>.
      */
-    private boolean applyFailedShard(RoutingAllocation allocation, ShardRouting failedShard, boolean addToIgnoreList) {
+    private boolean applyFailedShard(RoutingAllocation allocation, ShardRouting failedShard, boolean addToIgnoreList, long nodeLeftTime) {
         // create a copy of the failed shard, since we assume we can change possible refernces to it without
         // changing the state of failed shard
         failedShard = new ImmutableShardRouting(failedShard);
@@ -475,8 +494,10 @@ public class AllocationService extends AbstractComponent {
                                 allocation.addIgnoreShardForNode(failedShard.shardId(), failedShard.currentNodeId());
                             }
 
-                            allocation.routingNodes().unassigned().add(new MutableShardRouting(failedShard.index(), failedShard.id(),
-                                    null, failedShard.primary(), ShardRoutingState.UNASSIGNED, failedShard.version() + 1));
+                            MutableShardRouting unassignedShard = new MutableShardRouting(failedShard.index(), failedShard.id(),
+                                    null, failedShard.primary(), ShardRoutingState.UNASSIGNED, failedShard.version() + 1);
+                            unassignedShard.unassignedNodeLeftTime(nodeLeftTime);
+                            allocation.routingNodes().unassigned().add(unassignedShard);
                             break;
                         }
                     }
@@ -531,8 +552,13 @@ public class AllocationService extends AbstractComponent {
                             allocation.routingNodes().unassigned().addAll(shardsToMove);
                         }
 
-                        allocation.routingNodes().unassigned().add(new MutableShardRouting(failedShard.index(), failedShard.id(), null,
-                                null, failedShard.restoreSource(), failedShard.primary(), ShardRoutingState.UNASSIGNED, failedShard.version() + 1));
+                        MutableShardRouting unassignedShard = new MutableShardRouting(failedShard.index(), failedShard.id(), null,
+                                null, failedShard.restoreSource(), failedShard.primary(), ShardRoutingState.UNASSIGNED, failedShard.version() + 1);
+                        if (failedShard.active()) {
+                            // only a started copy leaves complete files behind on the node that left
+                            unassignedShard.unassignedNodeLeftTime(nodeLeftTime);
+                        }
+                        allocation.routingNodes().unassigned().add(unassignedShard);
 
                         break;
                     }
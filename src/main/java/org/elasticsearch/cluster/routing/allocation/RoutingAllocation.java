@@ -25,6 +25,7 @@ import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.RoutingNodes;
 import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.index.shard.ShardId;
 
 import java.util.HashMap;
@@ -99,6 +100,8 @@ public class RoutingAllocation {
 
     private boolean ignoreDisable = false;
 
+    private Map<Object, Decision> cachedDecisions = null;
+
     /**
      * Creates a new {@link RoutingAllocation}
      * 
@@ -183,4 +186,16 @@ public class RoutingAllocation {
     public boolean shouldIgnoreShardForNode(ShardId shardId, String nodeId) {
         return ignoredShardToNodes != null && nodeId.equals(ignoredShardToNodes.get(shardId));
     }
+
+    /**
+     * Get the decisions that can be reused for the lifetime of this allocation,
+     * see {@link org.elasticsearch.cluster.routing.allocation.decider.AllocationDecider#decisionScope()}
+     * @return decisions cached by {@link AllocationDeciders}
+     */
+    public Map<Object, Decision> cachedDecisions() {
+        if (cachedDecisions == null) {
+            cachedDecisions = new HashMap<Object, Decision>();
+        }
+        return cachedDecisions;
+    }
 }
@@ -57,6 +57,8 @@ import static org.elasticsearch.cluster.routing.ShardRoutingState.RELOCATING;
  * the number of primaries of a specific index allocated on a node</li>
  * <li><code>cluster.routing.allocation.balance.threshold</code> - A <b>threshold</b> to set the minimal optimization
  * value of operations that should be performed</li>
+ * <li><code>cluster.routing.allocation.balance.max_relocations</code> - the maximum number of relocations started
+ * by a single rebalance step, bounding the time spent balancing per reroute. <tt>-1</tt> (the default) for unbounded</li>
  * </ul>
  * <p/>
  * These parameters are combined in a {@link WeightFunction} that allows calculation of node weights which
@@ -68,6 +70,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
     public static final String SETTING_INDEX_BALANCE_FACTOR = "cluster.routing.allocation.balance.index";
     public static final String SETTING_SHARD_BALANCE_FACTOR = "cluster.routing.allocation.balance.shard";
     public static final String SETTING_PRIMARY_BALANCE_FACTOR = "cluster.routing.allocation.balance.primary";
+    public static final String SETTING_MAX_RELOCATIONS = "cluster.routing.allocation.balance.max_relocations";
 
     private static final float DEFAULT_INDEX_BALANCE_FACTOR = 0.5f;
     private static final float DEFAULT_SHARD_BALANCE_FACTOR = 0.45f;
@@ -84,6 +87,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
                 throw new ElasticSearchIllegalArgumentException("threshold must be greater than 0.0f but was: " + threshold);
             }
             BalancedShardsAllocator.this.threshold = threshold;
+            BalancedShardsAllocator.this.maxRelocations = settings.getAsInt(SETTING_MAX_RELOCATIONS, BalancedShardsAllocator.this.maxRelocations);
             BalancedShardsAllocator.this.weightFunction = new WeightFunction(indexBalance, shardBalance, primaryBalance);
         }
     }
@@ -92,6 +96,8 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
 
     private volatile float threshold = 1.0f;
 
+    private volatile int maxRelocations = -1;
+
 
     public BalancedShardsAllocator(Settings settings) {
         this(settings, new NodeSettingsService(settings));
@@ -113,18 +119,20 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
 
     @Override
     public boolean allocateUnassigned(RoutingAllocation allocation) {
-        return rebalance(allocation);
+        // balancing happens in the rebalance step of the same reroute, no need to do it twice
+        final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold, maxRelocations);
+        return balancer.allocateUnassigned();
     }
 
     @Override
     public boolean rebalance(RoutingAllocation allocation) {
-        final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold);
+        final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold, maxRelocations);
         return balancer.balance();
     }
 
     @Override
     public boolean move(MutableShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
-        final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold);
+        final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold, maxRelocations);
         return balancer.move(shardRouting, node);
     }
 
@@ -135,6 +143,13 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         return threshold;
     }
 
+    /**
+     * Returns the maximum number of relocations a single rebalance step starts, <tt>-1</tt> if unbounded.
+     */
+    public int getMaxRelocations() {
+        return maxRelocations;
+    }
+
     /**
      * Returns the index related weight factor.
      */
@@ -268,6 +283,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         private final WeightFunction weight;
 
         private final float threshold;
+        private final int maxRelocations;
         private final MetaData metaData;
 
         private final Predicate<MutableShardRouting> assignedFilter = new Predicate<MutableShardRouting>() {
@@ -279,10 +295,15 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
 
 
         public Balancer(ESLogger logger, RoutingAllocation allocation, WeightFunction weight, float threshold) {
+            this(logger, allocation, weight, threshold, -1);
+        }
+
+        public Balancer(ESLogger logger, RoutingAllocation allocation, WeightFunction weight, float threshold, int maxRelocations) {
             this.logger = logger;
             this.allocation = allocation;
             this.weight = weight;
             this.threshold = threshold;
+            this.maxRelocations = maxRelocations;
             for (RoutingNode node : allocation.routingNodes()) {
                 nodes.put(node.nodeId(), new ModelNode(node.nodeId()));
             }
@@ -343,6 +364,24 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             return allocateUnassigned(unassigned, routing.ignoredUnassigned());
         }
 
+        /**
+         * Allocates the unassigned shards on the cluster model without balancing
+         * the already assigned ones.
+         *
+         * @return <code>true</code> if the current configuration has been
+         *         changed, otherwise <code>false</code>
+         */
+        public boolean allocateUnassigned() {
+            if (this.nodes.isEmpty()) {
+                /* with no nodes this is pointless */
+                return false;
+            }
+            final TransactionalList<MutableShardRouting> unassigned = new TransactionalList<MutableShardRouting>(allocation.routingNodes().unassigned());
+            boolean changed = initialize(allocation.routingNodes(), unassigned);
+            unassigned.commit();
+            return changed;
+        }
+
         /**
          * Balances the nodes on the cluster model according to the weight
          * function. The configured threshold is the minimum delta between the
@@ -352,7 +391,9 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
          * shards only if the delta exceeds the threshold. If the default case
          * the threshold is set to <tt>1.0</tt> to enforce gaining relocation
          * only, or in other words relocations that move the weight delta closer
-         * to <tt>0.0</tt>
+         * to <tt>0.0</tt>. If a maximum number of relocations is configured the
+         * balancer stops once it started that many relocations, leaving the
+         * rest of the work to the next reroute.
          *
          * @return <code>true</code> if the current configuration has been
          *         changed, otherwise <code>false</code>
@@ -368,7 +409,9 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             final TransactionalList<MutableShardRouting> unassigned = new TransactionalList<MutableShardRouting>(allocation.routingNodes().unassigned());
             boolean changed = initialize(allocation.routingNodes(), unassigned);
             NodeSorter sorter = newNodeSorter();
+            int relocations = 0;
             if (nodes.size() > 1) { /* skip if we only have one node */
+                balance_indices:
                 for (String index : buildWeightOrderedIndidces(Operation.BALANCE, sorter)) {
                     sorter.reset(Operation.BALANCE, index);
                     final float[] weights = sorter.weights;
@@ -411,6 +454,13 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
                             /* pass the delta to the replication function to prevent relocations that only swap the weights of the two nodes.
                              * a relocation must bring us closer to the balance if we only achive the same delta the relocation is useless */
                             if (tryRelocateShard(Operation.BALANCE, minNode, maxNode, index, delta)) {
+                                if (maxRelocations >= 0 && ++relocations >= maxRelocations) {
+                                    if (logger.isTraceEnabled()) {
+                                        logger.trace("Stop balancing after [{}] relocations", relocations);
+                                    }
+                                    changed = true;
+                                    break balance_indices;
+                                }
                                 /*
                                  * TODO we could be a bit smarter here, we don't need to fully sort necessarily
                                  * we could just find the place to insert linearly but the win might be minor
@@ -806,9 +856,9 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
     static class ModelNode implements Iterable<ModelIndex> {
         private final String id;
         private final Map<String, ModelIndex> indices = new HashMap<String, ModelIndex>();
-        /* cached stats - invalidated on add/remove and lazily calculated */
-        private int numShards = -1;
-        private int numPrimaries = -1;
+        /* stats maintained on add/remove, weights are computed for every node on every simulated move */
+        private int numShards = 0;
+        private int numPrimaries = 0;
 
         public ModelNode(String id) {
             this.id = id;
@@ -823,13 +873,6 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         }
 
         public int numShards() {
-            if (numShards == -1) {
-                int sum = 0;
-                for (ModelIndex index : indices.values()) {
-                    sum += index.numShards();
-                }
-                numShards = sum;
-            }
             return numShards;
         }
 
@@ -844,13 +887,6 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         }
 
         public int numPrimaries() {
-            if (numPrimaries == -1) {
-                int sum = 0;
-                for (ModelIndex index : indices.values()) {
-                    sum += index.numPrimaries();
-                }
-                numPrimaries = sum;
-            }
             return numPrimaries;
         }
 
@@ -871,23 +907,31 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         }
 
         public void addShard(MutableShardRouting shard, Decision decision) {
-            numPrimaries = numShards = -1;
             ModelIndex index = indices.get(shard.index());
             if (index == null) {
                 index = new ModelIndex(shard.index());
                 indices.put(index.getIndexId(), index);
             }
             index.addShard(shard, decision);
+            numShards++;
+            if (shard.primary()) {
+                numPrimaries++;
+            }
         }
 
         public Decision removeShard(MutableShardRouting shard) {
-            numPrimaries = numShards = -1;
             ModelIndex index = indices.get(shard.index());
             Decision removed = null;
             if (index != null) {
                 removed = index.removeShard(shard);
-                if (removed != null && index.numShards() == 0) {
-                    indices.remove(shard.index());
+                if (removed != null) {
+                    numShards--;
+                    if (shard.primary()) {
+                        numPrimaries--;
+                    }
+                    if (index.numShards() == 0) {
+                        indices.remove(shard.index());
+                    }
                 }
             }
             return removed;
@@ -914,7 +958,8 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
     static final class ModelIndex {
         private final String id;
         private final Map<MutableShardRouting, Decision> shards = new HashMap<MutableShardRouting, Decision>();
-        private int numPrimaries = -1;
+        private int numPrimaries = 0;
+        /* lazily calculated, only invalidated when the highest primary is removed */
         private int highestPrimary = -1;
 
         public ModelIndex(String id) {
@@ -951,28 +996,30 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         }
 
         public int numPrimaries() {
-            if (numPrimaries == -1) {
-                int num = 0;
-                for (MutableShardRouting shard : shards.keySet()) {
-                    if (shard.primary()) {
-                        num++;
-                    }
-                }
-                return numPrimaries = num;
-            }
             return numPrimaries;
         }
 
         public Decision removeShard(MutableShardRouting shard) {
-            highestPrimary = numPrimaries = -1;
-            return shards.remove(shard);
+            Decision removed = shards.remove(shard);
+            if (removed != null && shard.primary()) {
+                numPrimaries--;
+                if (shard.id() == highestPrimary) {
+                    highestPrimary = -1;
+                }
+            }
+            return removed;
         }
 
         public void addShard(MutableShardRouting shard, Decision decision) {
-            highestPrimary = numPrimaries = -1;
             assert decision != null;
             assert !shards.containsKey(shard) : "Shard already allocated on current node: " + shards.get(shard) + " " + shard;
             shards.put(shard, decision);
+            if (shard.primary()) {
+                numPrimaries++;
+                if (highestPrimary != -1) {
+                    highestPrimary = Math.max(highestPrimary, shard.id());
+                }
+            }
         }
 
         public boolean containsShard(MutableShardRouting shard) {
@@ -32,6 +32,27 @@ import org.elasticsearch.common.settings.Settings;
  */
 public abstract class AllocationDecider extends AbstractComponent {
 
+    /**
+     * Describes what the {@link #canAllocate} and {@link #canRemain} decisions of an
+     * {@link AllocationDecider} depend on, allowing {@link AllocationDeciders} to reuse
+     * them for the lifetime of a single {@link RoutingAllocation}. Settings changes are
+     * only picked up by the next allocation.
+     */
+    public static enum DecisionScope {
+        /**
+         * The decision depends on the current state of the routing nodes and is computed on every call
+         */
+        ALLOCATION,
+        /**
+         * The decision only depends on the index of the shard, on whether it is a primary, and on the node
+         */
+        INDEX_AND_NODE,
+        /**
+         * The decision only depends on the shard id, on whether it is a primary, and on the node
+         */
+        SHARD_AND_NODE
+    }
+
     /**
      * Initializes a new {@link AllocationDecider}
      * @param settings {@link Settings} used by this {@link AllocationDecider}
@@ -40,6 +61,15 @@ public abstract class AllocationDecider extends AbstractComponent {
         super(settings);
     }
 
+    /**
+     * Returns the {@link DecisionScope} of the decisions of this decider. The
+     * default is {@link DecisionScope#ALLOCATION}, deciders should only return a
+     * narrower scope when their decisions do not depend on anything else.
+     */
+    public DecisionScope decisionScope() {
+        return DecisionScope.ALLOCATION;
+    }
+
     /**
      * Returns a {@link Decision} whether the given shard routing can be
      * re-balanced to the given allocation. The default is
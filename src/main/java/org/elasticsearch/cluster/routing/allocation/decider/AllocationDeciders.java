@@ -20,13 +20,16 @@
 package org.elasticsearch.cluster.routing.allocation.decider;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import org.elasticsearch.cluster.routing.RoutingNode;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.node.settings.NodeSettingsService;
 
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -37,6 +40,8 @@ public class AllocationDeciders extends AllocationDecider {
 
     private final AllocationDecider[] allocations;
 
+    private final MeanMetric[] timings;
+
     /**
      * Create a new {@link AllocationDeciders} instance
      *
@@ -65,13 +70,46 @@ public class AllocationDeciders extends AllocationDecider {
     public AllocationDeciders(Settings settings, Set<AllocationDecider> allocations) {
         super(settings);
         this.allocations = allocations.toArray(new AllocationDecider[allocations.size()]);
+        this.timings = new MeanMetric[this.allocations.length];
+        for (int i = 0; i < timings.length; i++) {
+            timings[i] = new MeanMetric();
+        }
+    }
+
+    /**
+     * Returns the number of calls to each of the deciders and the total time (in nanoseconds) spent in them since
+     * the last {@link #clearTimings()}, keyed by the decider's class name.
+     */
+    public Map<String, MeanMetric> timings() {
+        Map<String, MeanMetric> timings = Maps.newLinkedHashMap();
+        for (int i = 0; i < allocations.length; i++) {
+            String name = allocations[i].getClass().getSimpleName();
+            if (timings.containsKey(name)) {
+                // several instances of the same decider class
+                name = name + "#" + i;
+            }
+            timings.put(name, this.timings[i]);
+        }
+        return timings;
+    }
+
+    public void clearTimings() {
+        for (MeanMetric timing : timings) {
+            timing.clear();
+        }
     }
 
     @Override
     public Decision canRebalance(ShardRouting shardRouting, RoutingAllocation allocation) {
         Decision.Multi ret = new Decision.Multi();
-        for (AllocationDecider allocationDecider : allocations) {
-            Decision decision = allocationDecider.canRebalance(shardRouting, allocation);
+        for (int i = 0; i < allocations.length; i++) {
+            long start = System.nanoTime();
+            Decision decision = allocations[i].canRebalance(shardRouting, allocation);
+            timings[i].inc(System.nanoTime() - start);
+            if (decision.type() == Decision.Type.NO) {
+                // no need to ask the other deciders, the combined decision is NO anyhow
+                return decision;
+            }
             if (decision != Decision.ALWAYS) {
                 ret.add(decision);
             }
@@ -85,8 +123,12 @@ public class AllocationDeciders extends AllocationDecider {
             return Decision.NO;
         }
         Decision.Multi ret = new Decision.Multi();
-        for (AllocationDecider allocationDecider : allocations) {
-            Decision decision = allocationDecider.canAllocate(shardRouting, node, allocation);
+        for (int i = 0; i < allocations.length; i++) {
+            Decision decision = decide(i, false, shardRouting, node, allocation);
+            if (decision.type() == Decision.Type.NO) {
+                // no need to ask the other deciders, the combined decision is NO anyhow
+                return decision;
+            }
             // the assumption is that a decider that returns the static instance Decision#ALWAYS
             // does not really implements canAllocate
             if (decision != Decision.ALWAYS) {
@@ -102,12 +144,88 @@ public class AllocationDeciders extends AllocationDecider {
             return Decision.NO;
         }
         Decision.Multi ret = new Decision.Multi();
-        for (AllocationDecider allocationDecider : allocations) {
-            Decision decision = allocationDecider.canRemain(shardRouting, node, allocation);
+        for (int i = 0; i < allocations.length; i++) {
+            Decision decision = decide(i, true, shardRouting, node, allocation);
+            if (decision.type() == Decision.Type.NO) {
+                return decision;
+            }
             if (decision != Decision.ALWAYS) {
                 ret.add(decision);
             }
         }
         return ret;
     }
+
+    /**
+     * Asks the decider at the given index whether the shard can be allocated on (or remain on) the node, reusing
+     * the decision it made earlier in the same allocation if its {@link AllocationDecider.DecisionScope} allows to.
+     */
+    private Decision decide(int decider, boolean remain, ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+        DecisionKey key = null;
+        switch (allocations[decider].decisionScope()) {
+            case INDEX_AND_NODE:
+                key = new DecisionKey(decider, remain, shardRouting.index(), -1, shardRouting.primary(), node.nodeId());
+                break;
+            case SHARD_AND_NODE:
+                key = new DecisionKey(decider, remain, shardRouting.index(), shardRouting.id(), shardRouting.primary(), node.nodeId());
+                break;
+        }
+        Decision decision;
+        if (key != null) {
+            decision = allocation.cachedDecisions().get(key);
+            if (decision != null) {
+                return decision;
+            }
+        }
+        long start = System.nanoTime();
+        if (remain) {
+            decision = allocations[decider].canRemain(shardRouting, node, allocation);
+        } else {
+            decision = allocations[decider].canAllocate(shardRouting, node, allocation);
+        }
+        timings[decider].inc(System.nanoTime() - start);
+        if (key != null) {
+            allocation.cachedDecisions().put(key, decision);
+        }
+        return decision;
+    }
+
+    private static final class DecisionKey {
+
+        private final int decider;
+        private final boolean remain;
+        private final String index;
+        private final int shardId;
+        private final boolean primary;
+        private final String nodeId;
+
+        DecisionKey(int decider, boolean remain, String index, int shardId, boolean primary, String nodeId) {
+            this.decider = decider;
+            this.remain = remain;
+            this.index = index;
+            this.shardId = shardId;
+            this.primary = primary;
+            this.nodeId = nodeId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DecisionKey that = (DecisionKey) o;
+            return decider == that.decider && remain == that.remain && shardId == that.shardId && primary == that.primary
+                    && index.equals(that.index) && nodeId.equals(that.nodeId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = decider;
+            result = 31 * result + (remain ? 1 : 0);
+            result = 31 * result + index.hashCode();
+            result = 31 * result + shardId;
+            result = 31 * result + (primary ? 1 : 0);
+            result = 31 * result + nodeId.hashCode();
+            return result;
+        }
+    }
 }
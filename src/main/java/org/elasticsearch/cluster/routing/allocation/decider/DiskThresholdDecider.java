@@ -132,6 +132,12 @@ public class DiskThresholdDecider extends AllocationDecider {
         nodeSettingsService.addListener(new ApplySettings());
     }
 
+    @Override
+    public DecisionScope decisionScope() {
+        // the cluster info, and with it the disk usages and shard sizes, does not change during an allocation
+        return DecisionScope.SHARD_AND_NODE;
+    }
+
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
         if (!enabled) {
             return Decision.YES;
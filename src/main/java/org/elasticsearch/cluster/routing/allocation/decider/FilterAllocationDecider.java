@@ -96,6 +96,12 @@ public class FilterAllocationDecider extends AllocationDecider {
         nodeSettingsService.addListener(new ApplySettings());
     }
 
+    @Override
+    public DecisionScope decisionScope() {
+        // the filters only depend on the index metadata and the node attributes
+        return DecisionScope.INDEX_AND_NODE;
+    }
+
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
         return shouldFilter(shardRouting, node, allocation) ? Decision.NO : Decision.YES;
@@ -0,0 +1,99 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+
+import java.lang.ref.SoftReference;
+
+/**
+ * Per thread recycling of the chunk buffers and of the compressors (which hold a big hash table), allocating them
+ * for every stream would cost more than compressing a small document. Like with the LZF buffer recycler, a buffer
+ * is handed out once until released, a stream opened while another one is still open on the same thread allocates
+ * its own.
+ */
+final class LZ4BufferRecycler {
+
+    private static final ThreadLocal<SoftReference<LZ4BufferRecycler>> recyclers = new ThreadLocal<SoftReference<LZ4BufferRecycler>>();
+
+    static LZ4BufferRecycler instance() {
+        SoftReference<LZ4BufferRecycler> ref = recyclers.get();
+        LZ4BufferRecycler recycler = ref == null ? null : ref.get();
+        if (recycler == null) {
+            recycler = new LZ4BufferRecycler();
+            recyclers.set(new SoftReference<LZ4BufferRecycler>(recycler));
+        }
+        return recycler;
+    }
+
+    private byte[] uncompressedBuffer;
+    private byte[] compressedBuffer;
+    private Compressor fastCompressor;
+    private Compressor highCompressor;
+
+    byte[] allocUncompressedBuffer() {
+        byte[] buffer = uncompressedBuffer;
+        if (buffer == null) {
+            // the decompressor may write up to 7 bytes past the end of the data
+            return new byte[LZ4Compressor.CHUNK_SIZE + 7];
+        }
+        uncompressedBuffer = null;
+        return buffer;
+    }
+
+    void releaseUncompressedBuffer(byte[] buffer) {
+        uncompressedBuffer = buffer;
+    }
+
+    byte[] allocCompressedBuffer() {
+        byte[] buffer = compressedBuffer;
+        if (buffer == null) {
+            // LZ4 never expands the data by more than 1/255 of its length (plus a few bytes)
+            return new byte[LZ4Compressor.CHUNK_SIZE + LZ4Compressor.CHUNK_SIZE / 255 + 16];
+        }
+        compressedBuffer = null;
+        return buffer;
+    }
+
+    void releaseCompressedBuffer(byte[] buffer) {
+        compressedBuffer = buffer;
+    }
+
+    Compressor allocCompressor(CompressionMode compressionMode) {
+        Compressor compressor;
+        if (compressionMode == CompressionMode.FAST) {
+            compressor = fastCompressor;
+            fastCompressor = null;
+        } else {
+            compressor = highCompressor;
+            highCompressor = null;
+        }
+        return compressor != null ? compressor : compressionMode.newCompressor();
+    }
+
+    void releaseCompressor(CompressionMode compressionMode, Compressor compressor) {
+        if (compressionMode == CompressionMode.FAST) {
+            fastCompressor = compressor;
+        } else {
+            highCompressor = compressor;
+        }
+    }
+}
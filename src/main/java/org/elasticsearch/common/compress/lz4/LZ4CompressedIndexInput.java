@@ -0,0 +1,75 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads index files compressed in chunks of {@link LZ4Compressor#CHUNK_SIZE} bytes, each one written like the
+ * chunks of an LZ4 compressed stream.
+ */
+@Deprecated
+public class LZ4CompressedIndexInput extends org.elasticsearch.common.compress.CompressedIndexInput<LZ4CompressorContext> {
+
+    public LZ4CompressedIndexInput(IndexInput in) throws IOException {
+        super(in, LZ4CompressorContext.INSTANCE);
+        // the decompressor may write up to 7 bytes past the end of the data
+        this.uncompressed = new byte[LZ4Compressor.CHUNK_SIZE + 7];
+        this.uncompressedLength = LZ4Compressor.CHUNK_SIZE;
+    }
+
+    @Override
+    protected void readHeader(IndexInput in) throws IOException {
+        byte[] header = new byte[LZ4Compressor.HEADER.length];
+        in.readBytes(header, 0, header.length, false);
+        if (!Arrays.equals(header, LZ4Compressor.HEADER)) {
+            throw new IOException("wrong lz4 compressed header [" + Arrays.toString(header) + "]");
+        }
+    }
+
+    @Override
+    protected int uncompress(IndexInput in, byte[] out) throws IOException {
+        int length = in.readVInt();
+        if (length > LZ4Compressor.CHUNK_SIZE) {
+            throw new IOException("lz4 chunk of length [" + length + "] is bigger than the maximum chunk size");
+        }
+        BytesRef decompressed = new BytesRef(out);
+        LZ4Compressor.DECOMPRESSOR.decompress(in, length, 0, length, decompressed);
+        assert decompressed.bytes == out;
+        return length;
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        // nothing to do here...
+    }
+
+    @Override
+    public IndexInput clone() {
+        LZ4CompressedIndexInput cloned = (LZ4CompressedIndexInput) super.clone();
+        // keep the room the decompressor needs past the end of the data
+        cloned.uncompressed = Arrays.copyOf(cloned.uncompressed, LZ4Compressor.CHUNK_SIZE + 7);
+        return cloned;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ * Writes the {@link LZ4Compressor#HEADER} followed by chunks of up to {@link LZ4Compressor#CHUNK_SIZE} bytes, each
+ * one being its uncompressed length as a vint followed by the LZ4 compressed bytes.
+ */
+public class LZ4CompressedStreamOutput extends CompressedStreamOutput<LZ4CompressorContext> {
+
+    private final LZ4BufferRecycler recycler;
+    private final CompressionMode compressionMode;
+    private Compressor compressor;
+
+    private byte[] compressed;
+    private final ByteArrayDataOutput compressedOutput = new ByteArrayDataOutput();
+
+    public LZ4CompressedStreamOutput(StreamOutput out, CompressionMode compressionMode) throws IOException {
+        super(out, LZ4CompressorContext.INSTANCE);
+        this.recycler = LZ4BufferRecycler.instance();
+        this.compressionMode = compressionMode;
+        this.compressor = recycler.allocCompressor(compressionMode);
+        this.compressed = recycler.allocCompressedBuffer();
+        this.uncompressed = recycler.allocUncompressedBuffer();
+        this.uncompressedLength = LZ4Compressor.CHUNK_SIZE;
+    }
+
+    @Override
+    protected void writeHeader(StreamOutput out) throws IOException {
+        out.writeBytes(LZ4Compressor.HEADER);
+    }
+
+    @Override
+    protected void compress(byte[] data, int offset, int len, StreamOutput out) throws IOException {
+        compressedOutput.reset(compressed);
+        compressor.compress(data, offset, len, compressedOutput);
+        out.writeVInt(len);
+        out.writeBytes(compressed, 0, compressedOutput.getPosition());
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        byte[] buf = uncompressed;
+        if (buf != null) {
+            uncompressed = null;
+            recycler.releaseUncompressedBuffer(buf);
+        }
+        buf = compressed;
+        if (buf != null) {
+            compressed = null;
+            recycler.releaseCompressedBuffer(buf);
+        }
+        Compressor compressor = this.compressor;
+        if (compressor != null) {
+            this.compressor = null;
+            recycler.releaseCompressor(compressionMode, compressor);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.jboss.netty.buffer.ChannelBuffer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A {@link Compressor} based on the LZ4 implementation of Lucene. By default the data is compressed with the fast LZ4 compressor, setting <tt>compress.lz4.high_compression</tt> to
+ * <tt>true</tt> uses the high compression one which trades compression speed for a better ratio (the
+ * decompression speed is the same).
+ */
+public class LZ4Compressor implements Compressor {
+
+    static final byte[] HEADER = {'L', 'Z', '4', 0};
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    public static final String TYPE = "lz4";
+
+    /**
+     * Decompresses the data of both compression modes, which only differ in how hard they look for matches.
+     */
+    static final Decompressor DECOMPRESSOR = CompressionMode.FAST.newDecompressor();
+
+    private volatile CompressionMode compressionMode = CompressionMode.FAST;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void configure(Settings settings) {
+        if (settings.getAsBoolean("compress.lz4.high_compression", false)) {
+            compressionMode = CompressionMode.FAST_DECOMPRESSION;
+        } else {
+            compressionMode = CompressionMode.FAST;
+        }
+    }
+
+    @Override
+    public boolean isCompressed(BytesReference bytes) {
+        if (bytes.length() < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; i++) {
+            if (bytes.get(i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCompressed(byte[] data, int offset, int length) {
+        if (length < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; i++) {
+            if (data[offset + i] != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCompressed(ChannelBuffer buffer) {
+        if (buffer.readableBytes() < HEADER.length) {
+            return false;
+        }
+        int offset = buffer.readerIndex();
+        for (int i = 0; i < HEADER.length; i++) {
+            if (buffer.getByte(offset + i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCompressed(IndexInput in) throws IOException {
+        long currentPointer = in.getFilePointer();
+        if (in.length() - currentPointer < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; i++) {
+            if (in.readByte() != HEADER[i]) {
+                in.seek(currentPointer);
+                return false;
+            }
+        }
+        in.seek(currentPointer);
+        return true;
+    }
+
+    @Override
+    public byte[] uncompress(byte[] data, int offset, int length) throws IOException {
+        if (!isCompressed(data, offset, length)) {
+            throw new IOException("wrong lz4 compressed header");
+        }
+        LZ4BufferRecycler recycler = LZ4BufferRecycler.instance();
+        BytesRef chunk = new BytesRef(recycler.allocUncompressedBuffer());
+        try {
+            ByteArrayDataInput in = new ByteArrayDataInput(data, offset + HEADER.length, length - HEADER.length);
+            byte[] result = BytesRef.EMPTY_BYTES;
+            int resultLength = 0;
+            while (!in.eof()) {
+                int chunkLength = in.readVInt();
+                if (chunkLength > CHUNK_SIZE) {
+                    throw new IOException("lz4 chunk of length [" + chunkLength + "] is bigger than the maximum chunk size");
+                }
+                DECOMPRESSOR.decompress(in, chunkLength, 0, chunkLength, chunk);
+                result = ArrayUtil.grow(result, resultLength + chunkLength);
+                System.arraycopy(chunk.bytes, 0, result, resultLength, chunkLength);
+                resultLength += chunkLength;
+            }
+            return result.length == resultLength ? result : Arrays.copyOf(result, resultLength);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("corrupted lz4 compressed data", e);
+        } finally {
+            recycler.releaseUncompressedBuffer(chunk.bytes);
+        }
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) throws IOException {
+        LZ4BufferRecycler recycler = LZ4BufferRecycler.instance();
+        CompressionMode compressionMode = this.compressionMode;
+        org.apache.lucene.codecs.compressing.Compressor compressor = recycler.allocCompressor(compressionMode);
+        byte[] compressed = recycler.allocCompressedBuffer();
+        try {
+            ByteArrayDataOutput compressedOutput = new ByteArrayDataOutput();
+            byte[] result = new byte[HEADER.length + length / 2 + 16];
+            System.arraycopy(HEADER, 0, result, 0, HEADER.length);
+            int resultLength = HEADER.length;
+            int end = offset + length;
+            while (offset < end) {
+                int chunkLength = Math.min(CHUNK_SIZE, end - offset);
+                compressedOutput.reset(compressed);
+                compressedOutput.writeVInt(chunkLength);
+                compressor.compress(data, offset, chunkLength, compressedOutput);
+                result = ArrayUtil.grow(result, resultLength + compressedOutput.getPosition());
+                System.arraycopy(compressed, 0, result, resultLength, compressedOutput.getPosition());
+                resultLength += compressedOutput.getPosition();
+                offset += chunkLength;
+            }
+            return Arrays.copyOf(result, resultLength);
+        } finally {
+            recycler.releaseCompressedBuffer(compressed);
+            recycler.releaseCompressor(compressionMode, compressor);
+        }
+    }
+
+    @Override
+    public CompressedStreamInput<LZ4CompressorContext> streamInput(StreamInput in) throws IOException {
+        return new LZ4CompressedStreamInput(in);
+    }
+
+    @Override
+    public CompressedStreamOutput<LZ4CompressorContext> streamOutput(StreamOutput out) throws IOException {
+        return new LZ4CompressedStreamOutput(out, compressionMode);
+    }
+
+    @Override
+    @Deprecated
+    public LZ4CompressedIndexInput indexInput(IndexInput in) throws IOException {
+        return new LZ4CompressedIndexInput(in);
+    }
+}
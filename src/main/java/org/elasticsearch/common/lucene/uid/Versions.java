@@ -22,12 +22,21 @@ package org.elasticsearch.common.lucene.uid;
 import org.apache.lucene.index.*;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.CloseableThreadLocal;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Numbers;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.codec.postingsformat.BloomFilter;
+import org.elasticsearch.index.codec.postingsformat.BloomFilterPostingsFormat;
 import org.elasticsearch.index.mapper.internal.UidFieldMapper;
 import org.elasticsearch.index.mapper.internal.VersionFieldMapper;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 /** Utility class to resolve the Lucene doc ID and version for a given uid. */
 public class Versions {
@@ -36,6 +45,22 @@ public class Versions {
     public static final long NOT_FOUND = -1L;
     public static final long NOT_SET = -2L;
 
+    /**
+     * The per thread lookup state of the segments, keyed by their core cache key. It is dropped once the
+     * core of the segment is closed.
+     */
+    private static final ConcurrentMap<Object, CloseableThreadLocal<SegmentLookup>> segmentLookups = ConcurrentCollections.newConcurrentMap();
+
+    private static final SegmentReader.CoreClosedListener removeSegmentLookups = new SegmentReader.CoreClosedListener() {
+        @Override
+        public void onClose(Object coreCacheKey) {
+            CloseableThreadLocal<SegmentLookup> lookups = segmentLookups.remove(coreCacheKey);
+            if (lookups != null) {
+                lookups.close();
+            }
+        }
+    };
+
     private Versions() {}
 
     /** Wraps an {@link AtomicReaderContext}, a doc ID <b>relative to the context doc base</b> and a version. */
@@ -51,6 +76,16 @@ public class Versions {
         }
     }
 
+    /**
+     * Counts the uid lookups, the segments they skipped thanks to the bloom filter on the uids and the
+     * segments the bloom filter did not skip while the uid was not there.
+     */
+    public static class LookupStats {
+        public final CounterMetric lookups = new CounterMetric();
+        public final CounterMetric bloomSkipped = new CounterMetric();
+        public final CounterMetric bloomFalsePositives = new CounterMetric();
+    }
+
     /**
      * Load the internal doc ID and version for the uid from the reader, returning<ul>
      * <li>null if the uid wasn't found,
@@ -58,14 +93,29 @@ public class Versions {
      * </ul>
      */
     public static DocIdAndVersion loadDocIdAndVersion(IndexReader reader, Term term) throws IOException {
+        return loadDocIdAndVersion(reader, term, null);
+    }
+
+    /**
+     * Same as {@link #loadDocIdAndVersion(IndexReader, Term)}, recording the lookup in the provided stats.
+     */
+    public static DocIdAndVersion loadDocIdAndVersion(IndexReader reader, Term term, @Nullable LookupStats stats) throws IOException {
+        assert term.field().equals(UidFieldMapper.NAME);
+        if (stats != null) {
+            stats.lookups.inc();
+        }
         // iterate backwards to optimize for the frequently updated documents
         // which are likely to be in the last segments
         final List<AtomicReaderContext> leaves = reader.leaves();
         for (int i = leaves.size() - 1; i >= 0; --i) {
-            final DocIdAndVersion docIdAndVersion = loadDocIdAndVersion(leaves.get(i), term);
-            if (docIdAndVersion != null) {
-                assert docIdAndVersion.version != NOT_FOUND;
-                return docIdAndVersion;
+            final AtomicReaderContext readerContext = leaves.get(i);
+            final SegmentLookup lookup = segmentLookup(readerContext.reader());
+            if (lookup.seekExact(term.bytes(), stats)) {
+                final DocIdAndVersion docIdAndVersion = lookup.load(readerContext);
+                if (docIdAndVersion != null) {
+                    assert docIdAndVersion.version != NOT_FOUND;
+                    return docIdAndVersion;
+                }
             }
         }
         return null;
@@ -79,60 +129,186 @@ public class Versions {
      * </ul>
      */
     public static long loadVersion(IndexReader reader, Term term) throws IOException {
-        final DocIdAndVersion docIdAndVersion = loadDocIdAndVersion(reader, term);
+        return loadVersion(reader, term, null);
+    }
+
+    /**
+     * Same as {@link #loadVersion(IndexReader, Term)}, recording the lookup in the provided stats.
+     */
+    public static long loadVersion(IndexReader reader, Term term, @Nullable LookupStats stats) throws IOException {
+        final DocIdAndVersion docIdAndVersion = loadDocIdAndVersion(reader, term, stats);
         return docIdAndVersion == null ? NOT_FOUND : docIdAndVersion.version;
     }
 
+    /**
+     * Same as {@link #loadDocIdAndVersion(IndexReader, Term)} for several uids at once, returning the doc IDs and
+     * versions in the order of the terms. The uids are looked up in sorted order in a single pass over each segment,
+     * reusing its terms enum, and are not looked up anymore in the older segments once found.
+     */
+    public static DocIdAndVersion[] loadDocIdAndVersions(IndexReader reader, final Term[] terms) throws IOException {
+        final DocIdAndVersion[] docIdAndVersions = new DocIdAndVersion[terms.length];
+        Integer[] order = new Integer[terms.length];
+        for (int i = 0; i < order.length; i++) {
+            assert terms[i].field().equals(UidFieldMapper.NAME);
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return terms[o1].bytes().compareTo(terms[o2].bytes());
+            }
+        });
+        int remaining = terms.length;
+        final List<AtomicReaderContext> leaves = reader.leaves();
+        // iterate backwards to optimize for the frequently updated documents
+        // which are likely to be in the last segments
+        for (int i = leaves.size() - 1; i >= 0 && remaining > 0; --i) {
+            final AtomicReaderContext readerContext = leaves.get(i);
+            final SegmentLookup lookup = segmentLookup(readerContext.reader());
+            for (int index : order) {
+                if (docIdAndVersions[index] != null) {
+                    continue;
+                }
+                if (lookup.seekExact(terms[index].bytes(), null)) {
+                    docIdAndVersions[index] = lookup.load(readerContext);
+                    if (docIdAndVersions[index] != null) {
+                        remaining--;
+                    }
+                }
+            }
+        }
+        return docIdAndVersions;
+    }
+
     /** Same as {@link #loadDocIdAndVersion(IndexReader, Term)} but operates directly on a reader context. */
     public static DocIdAndVersion loadDocIdAndVersion(AtomicReaderContext readerContext, Term term) throws IOException {
         assert term.field().equals(UidFieldMapper.NAME);
-        final AtomicReader reader = readerContext.reader();
-        final Bits liveDocs = reader.getLiveDocs();
-        final Terms terms = reader.terms(UidFieldMapper.NAME);
-        assert terms != null : "All segments must have a _uid field, but " + reader + " doesn't";
-        final TermsEnum termsEnum = terms.iterator(null);
-        if (!termsEnum.seekExact(term.bytes())) {
+        final SegmentLookup lookup = segmentLookup(readerContext.reader());
+        if (!lookup.seekExact(term.bytes(), null)) {
             return null;
         }
+        return lookup.load(readerContext);
+    }
 
-        // Versions are stored as doc values...
-        final NumericDocValues versions = reader.getNumericDocValues(VersionFieldMapper.NAME);
-        if (versions != null || !terms.hasPayloads()) {
-            // only the last doc that matches the _uid is interesting here: if it is deleted, then there is
-            // no match otherwise previous docs are necessarily either deleted or nested docs
-            final DocsEnum docs = termsEnum.docs(null, null);
-            int docID = DocsEnum.NO_MORE_DOCS;
-            for (int d = docs.nextDoc(); d != DocsEnum.NO_MORE_DOCS; d = docs.nextDoc()) {
-                docID = d;
+    /**
+     * Returns the lookup state of the calling thread for the segment, so that its terms enum is reused across
+     * lookups. Readers that are not segment readers get a new state on each call.
+     */
+    private static SegmentLookup segmentLookup(AtomicReader reader) throws IOException {
+        if (!(reader instanceof SegmentReader)) {
+            return new SegmentLookup(reader);
+        }
+        final SegmentReader segmentReader = (SegmentReader) reader;
+        final Object coreCacheKey = segmentReader.getCoreCacheKey();
+        CloseableThreadLocal<SegmentLookup> lookups = segmentLookups.get(coreCacheKey);
+        if (lookups == null) {
+            lookups = new CloseableThreadLocal<SegmentLookup>();
+            CloseableThreadLocal<SegmentLookup> existing = segmentLookups.putIfAbsent(coreCacheKey, lookups);
+            if (existing == null) {
+                segmentReader.addCoreClosedListener(removeSegmentLookups);
+            } else {
+                lookups = existing;
             }
-            assert docID != DocsEnum.NO_MORE_DOCS; // would mean that the term exists but has no match at all
-            if (liveDocs != null && !liveDocs.get(docID)) {
-                return null;
-            } else if (versions != null) {
-                return new DocIdAndVersion(docID, versions.get(docID), readerContext);
+        }
+        SegmentLookup lookup = lookups.get();
+        if (lookup == null) {
+            lookup = new SegmentLookup(reader);
+            lookups.set(lookup);
+        }
+        return lookup;
+    }
+
+    /**
+     * The state to look up uids in a segment. It only depends on the segment core (the live docs are taken from
+     * the reader on each load) and must only be used by a single thread.
+     */
+    private static final class SegmentLookup {
+
+        private final Terms terms;
+        private final TermsEnum termsEnum;
+        @Nullable
+        private final BloomFilter bloomFilter;
+        @Nullable
+        private final NumericDocValues versions;
+
+        private DocsEnum docsEnum;
+        private DocsAndPositionsEnum docsAndPositionsEnum;
+
+        SegmentLookup(AtomicReader reader) throws IOException {
+            Terms terms = reader.terms(UidFieldMapper.NAME);
+            assert terms != null : "All segments must have a _uid field, but " + reader + " doesn't";
+            if (terms instanceof BloomFilterPostingsFormat.BloomFilteredTerms) {
+                // check the filter ourselves in order to tell skipped segments and false positives apart
+                BloomFilterPostingsFormat.BloomFilteredTerms bloomFilteredTerms = (BloomFilterPostingsFormat.BloomFilteredTerms) terms;
+                this.bloomFilter = bloomFilteredTerms.getFilter();
+                terms = bloomFilteredTerms.getDelegate();
             } else {
-                // _uid found, but no doc values and no payloads
-                return new DocIdAndVersion(docID, NOT_SET, readerContext);
+                this.bloomFilter = null;
             }
+            this.terms = terms;
+            this.termsEnum = terms.iterator(null);
+            this.versions = reader.getNumericDocValues(VersionFieldMapper.NAME);
         }
 
-        // ... but used to be stored as payloads
-        final DocsAndPositionsEnum dpe = termsEnum.docsAndPositions(liveDocs, null, DocsAndPositionsEnum.FLAG_PAYLOADS);
-        assert dpe != null; // terms has payloads
-        int docID = DocsEnum.NO_MORE_DOCS;
-        for (int d = dpe.nextDoc(); d != DocsEnum.NO_MORE_DOCS; d = dpe.nextDoc()) {
-            docID = d;
-            dpe.nextPosition();
-            final BytesRef payload = dpe.getPayload();
-            if (payload != null && payload.length == 8) {
-                return new DocIdAndVersion(d, Numbers.bytesToLong(payload), readerContext);
+        /** Positions the terms enum on the uid, returning false if the segment doesn't contain it. */
+        boolean seekExact(BytesRef uid, @Nullable LookupStats stats) throws IOException {
+            if (bloomFilter != null && !bloomFilter.mightContain(uid)) {
+                if (stats != null) {
+                    stats.bloomSkipped.inc();
+                }
+                return false;
+            }
+            if (termsEnum.seekExact(uid)) {
+                return true;
             }
+            if (bloomFilter != null && stats != null) {
+                stats.bloomFalsePositives.inc();
+            }
+            return false;
         }
 
-        if (docID == DocsEnum.NO_MORE_DOCS) {
-            return null;
-        } else {
-            return new DocIdAndVersion(docID, NOT_SET, readerContext);
+        /** Loads the doc ID and version of the uid the terms enum is positioned on. */
+        DocIdAndVersion load(AtomicReaderContext readerContext) throws IOException {
+            final Bits liveDocs = readerContext.reader().getLiveDocs();
+
+            // Versions are stored as doc values...
+            if (versions != null || !terms.hasPayloads()) {
+                // only the last doc that matches the _uid is interesting here: if it is deleted, then there is
+                // no match otherwise previous docs are necessarily either deleted or nested docs
+                docsEnum = termsEnum.docs(null, docsEnum, DocsEnum.FLAG_NONE);
+                int docID = DocsEnum.NO_MORE_DOCS;
+                for (int d = docsEnum.nextDoc(); d != DocsEnum.NO_MORE_DOCS; d = docsEnum.nextDoc()) {
+                    docID = d;
+                }
+                assert docID != DocsEnum.NO_MORE_DOCS; // would mean that the term exists but has no match at all
+                if (liveDocs != null && !liveDocs.get(docID)) {
+                    return null;
+                } else if (versions != null) {
+                    return new DocIdAndVersion(docID, versions.get(docID), readerContext);
+                } else {
+                    // _uid found, but no doc values and no payloads
+                    return new DocIdAndVersion(docID, NOT_SET, readerContext);
+                }
+            }
+
+            // ... but used to be stored as payloads
+            docsAndPositionsEnum = termsEnum.docsAndPositions(liveDocs, docsAndPositionsEnum, DocsAndPositionsEnum.FLAG_PAYLOADS);
+            assert docsAndPositionsEnum != null; // terms has payloads
+            int docID = DocsEnum.NO_MORE_DOCS;
+            for (int d = docsAndPositionsEnum.nextDoc(); d != DocsEnum.NO_MORE_DOCS; d = docsAndPositionsEnum.nextDoc()) {
+                docID = d;
+                docsAndPositionsEnum.nextPosition();
+                final BytesRef payload = docsAndPositionsEnum.getPayload();
+                if (payload != null && payload.length == 8) {
+                    return new DocIdAndVersion(d, Numbers.bytesToLong(payload), readerContext);
+                }
+            }
+
+            if (docID == DocsEnum.NO_MORE_DOCS) {
+                return null;
+            } else {
+                return new DocIdAndVersion(docID, NOT_SET, readerContext);
+            }
         }
     }
 
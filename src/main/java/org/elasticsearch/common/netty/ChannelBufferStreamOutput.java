@@ -0,0 +1,160 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.netty;
+
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ChannelBufferBytesReference;
+import org.elasticsearch.common.io.BytesStream;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.recycler.Recycler;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link StreamOutput} writing to fixed size pages obtained from a recycler, instead of growing (and copying)
+ * a single array. The written bytes are exposed as a composite {@link ChannelBuffer} over the pages, so they can
+ * be handed to a channel without being copied. The pages are given back to the recycler when the stream is
+ * released, which must only happen once the buffer is not used anymore, typically once it was written.
+ */
+public class ChannelBufferStreamOutput extends StreamOutput implements BytesStream, Releasable {
+
+    private final Recycler<byte[]> recycler;
+
+    private final List<Recycler.V<byte[]>> pages = new ArrayList<Recycler.V<byte[]>>();
+
+    private byte[] page;
+
+    private int pageOffset;
+
+    private int size;
+
+    public ChannelBufferStreamOutput(Recycler<byte[]> recycler) {
+        this.recycler = recycler;
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+        if (page == null || pageOffset == page.length) {
+            nextPage();
+        }
+        page[pageOffset++] = b;
+        size++;
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (page == null || pageOffset == page.length) {
+                nextPage();
+            }
+            int toCopy = Math.min(length, page.length - pageOffset);
+            System.arraycopy(b, offset, page, pageOffset, toCopy);
+            pageOffset += toCopy;
+            size += toCopy;
+            offset += toCopy;
+            length -= toCopy;
+        }
+    }
+
+    private void nextPage() {
+        Recycler.V<byte[]> v = recycler.obtain();
+        pages.add(v);
+        page = v.v();
+        pageOffset = 0;
+    }
+
+    /**
+     * Skips (and zeroes, pages being reused) the given number of bytes, typically to reserve room for a header
+     * that is set on the {@link #channelBuffer()} once the content is written.
+     */
+    public void skip(int length) throws IOException {
+        while (length > 0) {
+            if (page == null || pageOffset == page.length) {
+                nextPage();
+            }
+            int toSkip = Math.min(length, page.length - pageOffset);
+            Arrays.fill(page, pageOffset, pageOffset + toSkip, (byte) 0);
+            pageOffset += toSkip;
+            size += toSkip;
+            length -= toSkip;
+        }
+    }
+
+    /**
+     * The number of bytes written.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The written bytes, backed by the pages of this stream.
+     */
+    public ChannelBuffer channelBuffer() {
+        if (pages.isEmpty()) {
+            return ChannelBuffers.EMPTY_BUFFER;
+        }
+        ChannelBuffer[] buffers = new ChannelBuffer[pages.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            byte[] bytes = pages.get(i).v();
+            buffers[i] = ChannelBuffers.wrappedBuffer(bytes, 0, i == buffers.length - 1 ? pageOffset : bytes.length);
+        }
+        return ChannelBuffers.wrappedBuffer(buffers);
+    }
+
+    @Override
+    public BytesReference bytes() {
+        return new ChannelBufferBytesReference(channelBuffer());
+    }
+
+    @Override
+    public void reset() throws IOException {
+        release();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // nothing to do there
+    }
+
+    @Override
+    public void close() throws IOException {
+        // nothing to do here
+    }
+
+    @Override
+    public boolean release() throws ElasticSearchException {
+        for (Recycler.V<byte[]> v : pages) {
+            v.release();
+        }
+        pages.clear();
+        page = null;
+        pageOffset = 0;
+        size = 0;
+        return true;
+    }
+}
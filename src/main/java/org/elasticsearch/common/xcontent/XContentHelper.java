@@ -32,9 +32,7 @@ import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStreamInput;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  *
@@ -202,6 +200,75 @@ public class XContentHelper {
         }
     }
 
+    /**
+     * Same as {@link #update(java.util.Map, java.util.Map)}, but applies the changes while copying the serialized
+     * source, instead of parsing it into a map and serializing the map back. Returns the updated source, which has
+     * the content type of the source.
+     */
+    public static BytesReference update(BytesReference source, Map<String, Object> changes) throws ElasticSearchParseException {
+        XContentParser parser = null;
+        try {
+            XContentType contentType;
+            Compressor compressor = CompressorFactory.compressor(source);
+            if (compressor != null) {
+                CompressedStreamInput compressedStreamInput = compressor.streamInput(source.streamInput());
+                contentType = XContentFactory.xContentType(compressedStreamInput);
+                compressedStreamInput.resetToBufferStart();
+                parser = XContentFactory.xContent(contentType).createParser(compressedStreamInput);
+            } else {
+                contentType = XContentFactory.xContentType(source);
+                parser = XContentFactory.xContent(contentType).createParser(source.streamInput());
+            }
+            XContentBuilder builder = XContentFactory.contentBuilder(contentType);
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                throw new ElasticSearchParseException("Failed to update source, it is not an object");
+            }
+            update(parser, builder, changes);
+            return builder.bytes();
+        } catch (IOException e) {
+            throw new ElasticSearchParseException("Failed to update source", e);
+        } finally {
+            if (parser != null) {
+                parser.close();
+            }
+        }
+    }
+
+    /**
+     * Copies the object the parser is positioned on into the builder, updating it with the changes.
+     */
+    private static void update(XContentParser parser, XContentBuilder builder, Map<String, Object> changes) throws IOException {
+        builder.startObject();
+        Set<String> fields = new HashSet<String>();
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            String field = parser.currentName();
+            token = parser.nextToken();
+            fields.add(field);
+            builder.field(field);
+            if (!changes.containsKey(field)) {
+                builder.copyCurrentStructure(parser);
+            } else {
+                Object change = changes.get(field);
+                if (token == XContentParser.Token.START_OBJECT && change instanceof Map) {
+                    // recursive merge objects
+                    update(parser, builder, (Map<String, Object>) change);
+                } else {
+                    // update the field
+                    parser.skipChildren();
+                    builder.value(change);
+                }
+            }
+        }
+        for (Map.Entry<String, Object> changesEntry : changes.entrySet()) {
+            if (!fields.contains(changesEntry.getKey())) {
+                // change does not exist in source
+                builder.field(changesEntry.getKey()).value(changesEntry.getValue());
+            }
+        }
+        builder.endObject();
+    }
+
     /**
      * Merges the defaults provided as the second parameter into the content of the first. Only does recursive merge
      * for inner maps.
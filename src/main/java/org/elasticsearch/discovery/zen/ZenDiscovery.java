@@ -24,6 +24,7 @@ import com.google.common.collect.Sets;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.ElasticSearchIllegalStateException;
 import org.elasticsearch.Version;
+import org.elasticsearch.cache.recycler.PageCacheRecycler;
 import org.elasticsearch.cluster.*;
 import org.elasticsearch.cluster.block.ClusterBlocks;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
@@ -154,6 +155,11 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
         transportService.registerHandler(RejoinClusterRequestHandler.ACTION, new RejoinClusterRequestHandler());
     }
 
+    @Inject(optional = true)
+    public void setPageCacheRecycler(PageCacheRecycler pageCacheRecycler) {
+        publishClusterState.setPageCacheRecycler(pageCacheRecycler);
+    }
+
     @Override
     public void setNodeService(@Nullable NodeService nodeService) {
         this.nodeService = nodeService;
@@ -19,15 +19,20 @@
 
 package org.elasticsearch.discovery.zen.publish;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.elasticsearch.Version;
+import org.elasticsearch.cache.recycler.PageCacheRecycler;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.io.BytesStream;
 import org.elasticsearch.common.io.stream.*;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.netty.ChannelBufferStreamOutput;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.discovery.AckClusterStatePublishResponseHandler;
@@ -38,6 +43,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.*;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -63,6 +69,8 @@ public class PublishClusterStateAction extends AbstractComponent {
 
     private final TimeValue publishTimeout;
 
+    private volatile PageCacheRecycler pageCacheRecycler;
+
     public PublishClusterStateAction(Settings settings, TransportService transportService, DiscoveryNodesProvider nodesProvider,
                                      NewClusterStateListener listener) {
         super(settings);
@@ -75,6 +83,14 @@ public class PublishClusterStateAction extends AbstractComponent {
         transportService.registerHandler(PublishClusterStateRequestHandler.ACTION, new PublishClusterStateRequestHandler());
     }
 
+    /**
+     * Sets the recycler the cluster state is serialized into, when not set, it is serialized into a
+     * newly allocated buffer on each publish.
+     */
+    public void setPageCacheRecycler(PageCacheRecycler pageCacheRecycler) {
+        this.pageCacheRecycler = pageCacheRecycler;
+    }
+
     public void close() {
         transportService.removeHandler(PublishClusterStateRequestHandler.ACTION);
     }
@@ -88,53 +104,68 @@ public class PublishClusterStateAction extends AbstractComponent {
         DiscoveryNode localNode = nodesProvider.nodes().localNode();
 
         Map<Version, BytesReference> serializedStates = Maps.newHashMap();
-
-        for (final DiscoveryNode node : clusterState.nodes()) {
-            if (node.equals(localNode)) {
-                continue;
-            }
-            // try and serialize the cluster state once (or per version), so we don't serialize it
-            // per node when we send it over the wire, compress it while we are at it...
-            BytesReference bytes = serializedStates.get(node.version());
-            if (bytes == null) {
-                try {
-                    BytesStreamOutput bStream = new BytesStreamOutput();
-                    StreamOutput stream = new HandlesStreamOutput(CompressorFactory.defaultCompressor().streamOutput(bStream));
-                    stream.setVersion(node.version());
-                    ClusterState.Builder.writeTo(clusterState, stream);
-                    stream.close();
-                    bytes = bStream.bytes();
-                    serializedStates.put(node.version(), bytes);
-                } catch (Throwable e) {
-                    logger.warn("failed to serialize cluster_state before publishing it to node {}", e, node);
-                    publishResponseHandler.onFailure(node, e);
+        List<Releasable> releasables = Lists.newArrayList();
+        try {
+            for (final DiscoveryNode node : clusterState.nodes()) {
+                if (node.equals(localNode)) {
                     continue;
                 }
+                // try and serialize the cluster state once (or per version), so we don't serialize it
+                // per node when we send it over the wire, compress it while we are at it...
+                BytesReference bytes = serializedStates.get(node.version());
+                if (bytes == null) {
+                    try {
+                        BytesStream bStream;
+                        PageCacheRecycler pageCacheRecycler = this.pageCacheRecycler;
+                        if (pageCacheRecycler != null) {
+                            ChannelBufferStreamOutput pagedStream = new ChannelBufferStreamOutput(pageCacheRecycler.bytePages());
+                            releasables.add(pagedStream);
+                            bStream = pagedStream;
+                        } else {
+                            bStream = new BytesStreamOutput();
+                        }
+                        StreamOutput stream = new HandlesStreamOutput(CompressorFactory.defaultCompressor().streamOutput((StreamOutput) bStream));
+                        stream.setVersion(node.version());
+                        ClusterState.Builder.writeTo(clusterState, stream);
+                        stream.close();
+                        bytes = bStream.bytes();
+                        serializedStates.put(node.version(), bytes);
+                    } catch (Throwable e) {
+                        logger.warn("failed to serialize cluster_state before publishing it to node {}", e, node);
+                        publishResponseHandler.onFailure(node, e);
+                        continue;
+                    }
+                }
+                try {
+                    TransportRequestOptions options = TransportRequestOptions.options().withType(TransportRequestOptions.Type.STATE).withCompress(false);
+                    // no need to put a timeout on the options here, because we want the response to eventually be received
+                    // and not log an error if it arrives after the timeout
+                    transportService.sendRequest(node, PublishClusterStateRequestHandler.ACTION,
+                            new PublishClusterStateRequest(bytes, node.version()),
+                            options, // no need to compress, we already compressed the bytes
+
+                            new EmptyTransportResponseHandler(ThreadPool.Names.SAME) {
+
+                                @Override
+                                public void handleResponse(TransportResponse.Empty response) {
+                                    publishResponseHandler.onResponse(node);
+                                }
+
+                                @Override
+                                public void handleException(TransportException exp) {
+                                    logger.debug("failed to send cluster state to [{}]", exp, node);
+                                    publishResponseHandler.onFailure(node, exp);
+                                }
+                            });
+                } catch (Throwable t) {
+                    logger.debug("error sending cluster state to [{}]", t, node);
+                    publishResponseHandler.onFailure(node, t);
+                }
             }
-            try {
-                TransportRequestOptions options = TransportRequestOptions.options().withType(TransportRequestOptions.Type.STATE).withCompress(false);
-                // no need to put a timeout on the options here, because we want the response to eventually be received
-                // and not log an error if it arrives after the timeout
-                transportService.sendRequest(node, PublishClusterStateRequestHandler.ACTION,
-                        new PublishClusterStateRequest(bytes, node.version()),
-                        options, // no need to compress, we already compressed the bytes
-
-                        new EmptyTransportResponseHandler(ThreadPool.Names.SAME) {
-
-                            @Override
-                            public void handleResponse(TransportResponse.Empty response) {
-                                publishResponseHandler.onResponse(node);
-                            }
-
-                            @Override
-                            public void handleException(TransportException exp) {
-                                logger.debug("failed to send cluster state to [{}]", exp, node);
-                                publishResponseHandler.onFailure(node, exp);
-                            }
-                        });
-            } catch (Throwable t) {
-                logger.debug("error sending cluster state to [{}]", t, node);
-                publishResponseHandler.onFailure(node, t);
+        } finally {
+            // the serialized states are copied by the transport when the requests are sent
+            for (Releasable releasable : releasables) {
+                releasable.release();
             }
         }
 
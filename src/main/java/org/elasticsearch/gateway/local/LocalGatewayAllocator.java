@@ -19,29 +19,33 @@
 
 package org.elasticsearch.gateway.local;
 
-import com.carrotsearch.hppc.ObjectLongOpenHashMap;
-import com.carrotsearch.hppc.cursors.ObjectLongCursor;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.FailedNodeException;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.MutableShardRouting;
 import org.elasticsearch.cluster.routing.RoutingNode;
 import org.elasticsearch.cluster.routing.RoutingNodes;
+import org.elasticsearch.cluster.routing.RoutingService;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.allocation.FailedRerouteAllocation;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
 import org.elasticsearch.cluster.routing.allocation.StartedRerouteAllocation;
 import org.elasticsearch.cluster.routing.allocation.allocator.GatewayAllocator;
 import org.elasticsearch.cluster.routing.allocation.decider.Decision;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.gateway.local.state.shards.TransportNodesListGatewayStartedShards;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.StoreFileMetaData;
@@ -52,6 +56,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  *
@@ -64,14 +70,24 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
 
     private final TransportNodesListShardStoreMetaData listShardStoreMetaData;
 
-    private final ConcurrentMap<ShardId, Map<DiscoveryNode, TransportNodesListShardStoreMetaData.StoreFilesMetaData>> cachedStores = ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<ShardId, ShardListing<TransportNodesListShardStoreMetaData.StoreFilesMetaData>> cachedStores = ConcurrentCollections.newConcurrentMap();
 
-    private final ConcurrentMap<ShardId, ObjectLongOpenHashMap<DiscoveryNode>> cachedShardsState = ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<ShardId, ShardListing<Long>> cachedShardsState = ConcurrentCollections.newConcurrentMap();
+
+    private final AtomicBoolean rerouteScheduled = new AtomicBoolean();
+
+    private final Semaphore listingPermits;
+
+    private final AtomicBoolean listingThrottled = new AtomicBoolean();
+
+    private volatile RoutingService routingService;
 
     private final TimeValue listTimeout;
 
     private final String initialShards;
 
+    private final int concurrentListings;
+
     @Inject
     public LocalGatewayAllocator(Settings settings,
                                  TransportNodesListGatewayStartedShards listGatewayStartedShards, TransportNodesListShardStoreMetaData listShardStoreMetaData) {
@@ -81,8 +97,18 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
 
         this.listTimeout = componentSettings.getAsTime("list_timeout", TimeValue.timeValueSeconds(30));
         this.initialShards = componentSettings.get("initial_shards", "quorum");
+        this.concurrentListings = componentSettings.getAsInt("concurrent_listings", EsExecutors.boundedNumberOfProcessors(settings) * 2);
+        this.listingPermits = new Semaphore(concurrentListings);
+
+        logger.debug("using initial_shards [{}], list_timeout [{}], concurrent_listings [{}]", initialShards, listTimeout, concurrentListings);
+    }
 
-        logger.debug("using initial_shards [{}], list_timeout [{}]", initialShards, listTimeout);
+    /**
+     * Sets the {@link RoutingService} used to reroute once the listing of shards on the nodes, which is done
+     * asynchronously, arrived. It can't be injected since it depends on this allocator itself.
+     */
+    public void setRoutingService(RoutingService routingService) {
+        this.routingService = routingService;
     }
 
     @Override
@@ -103,6 +129,8 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
 
     @Override
     public boolean allocateUnassigned(RoutingAllocation allocation) {
+        // listings that arrive from now on are not seen by this allocation
+        rerouteScheduled.set(false);
         boolean changed = false;
         DiscoveryNodes nodes = allocation.nodes();
         RoutingNodes routingNodes = allocation.routingNodes();
@@ -121,21 +149,23 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
                 continue;
             }
 
-            ObjectLongOpenHashMap<DiscoveryNode> nodesState = buildShardStates(nodes, shard);
+            Map<DiscoveryNode, Long> nodesState = buildShardStates(nodes, shard);
+            if (nodesState == null) {
+                // still waiting for the nodes to report the shard, we will be rerouted once they did
+                if (logger.isTraceEnabled()) {
+                    logger.trace("[{}][{}]: ignoring allocation, still fetching shard started state", shard.index(), shard.id());
+                }
+                unassignedIterator.remove();
+                routingNodes.ignoredUnassigned().add(shard);
+                continue;
+            }
 
             int numberOfAllocationsFound = 0;
             long highestVersion = -1;
             Set<DiscoveryNode> nodesWithHighestVersion = Sets.newHashSet();
-            final boolean[] states = nodesState.allocated;
-            final Object[] keys = nodesState.keys;
-            final long[] values = nodesState.values;
-            for (int i = 0; i < states.length; i++) {
-                if (!states[i]) {
-                    continue;
-                }
-
-                DiscoveryNode node = (DiscoveryNode) keys[i];
-                long version = values[i];
+            for (Map.Entry<DiscoveryNode, Long> nodeState : nodesState.entrySet()) {
+                DiscoveryNode node = nodeState.getKey();
+                long version = nodeState.getValue();
                 // since we don't check in NO allocation, we need to double check here
                 if (allocation.shouldIgnoreShardForNode(shard.shardId(), node.id())) {
                     continue;
@@ -275,10 +305,22 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
             }
 
             Map<DiscoveryNode, TransportNodesListShardStoreMetaData.StoreFilesMetaData> shardStores = buildShardStores(nodes, shard);
+            if (shardStores == null) {
+                // don't let the shard be allocated elsewhere before we know which nodes hold a copy of it
+                if (logger.isTraceEnabled()) {
+                    logger.trace("[{}][{}]: ignoring allocation, still fetching shard stores", shard.index(), shard.id());
+                }
+                unassignedIterator.remove();
+                routingNodes.ignoredUnassigned().add(shard);
+                continue;
+            }
 
             long lastSizeMatched = 0;
             DiscoveryNode lastDiscoNodeMatched = null;
             RoutingNode lastNodeMatched = null;
+            // a node holding a copy of the shard that shares no files with the primary
+            DiscoveryNode lastDiscoNodeWithCopy = null;
+            RoutingNode lastNodeWithCopy = null;
 
             for (Map.Entry<DiscoveryNode, TransportNodesListShardStoreMetaData.StoreFilesMetaData> nodeStoreEntry : shardStores.entrySet()) {
                 DiscoveryNode discoNode = nodeStoreEntry.getKey();
@@ -317,11 +359,21 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
                             if (primaryNodeStore != null && primaryNodeStore.allocated()) {
                                 long sizeMatched = 0;
 
-                                for (StoreFileMetaData storeFileMetaData : storeFilesMetaData) {
-                                    if (primaryNodeStore.fileExists(storeFileMetaData.name()) && primaryNodeStore.file(storeFileMetaData.name()).isSame(storeFileMetaData)) {
-                                        sizeMatched += storeFileMetaData.length();
+                                if (primaryNodeStore.seqNoHistoryUUID() != null && primaryNodeStore.seqNoHistoryUUID().equals(storeFilesMetaData.seqNoHistoryUUID())) {
+                                    // a copy of the same history is brought up to date by replaying the operations it misses,
+                                    // none of its files need to be copied even though replicas write their own segments
+                                    sizeMatched = storeFilesMetaData.totalSizeInBytes();
+                                } else {
+                                    for (StoreFileMetaData storeFileMetaData : storeFilesMetaData) {
+                                        if (primaryNodeStore.fileExists(storeFileMetaData.name()) && primaryNodeStore.file(storeFileMetaData.name()).isSame(storeFileMetaData)) {
+                                            sizeMatched += storeFileMetaData.length();
+                                        }
                                     }
                                 }
+                                if (sizeMatched == 0 && storeFilesMetaData.iterator().hasNext() && lastNodeWithCopy == null) {
+                                    lastNodeWithCopy = node;
+                                    lastDiscoNodeWithCopy = discoNode;
+                                }
                                 if (sizeMatched > lastSizeMatched) {
                                     lastSizeMatched = sizeMatched;
                                     lastDiscoNodeMatched = discoNode;
@@ -333,6 +385,13 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
                 }
             }
 
+            boolean delayed = RoutingService.delayedAllocationExpiry(shard, allocation.metaData()) > System.currentTimeMillis();
+            if (lastNodeMatched == null && delayed && lastNodeWithCopy != null) {
+                // the node that held this replica might be back, no need to wait for it any longer
+                lastNodeMatched = lastNodeWithCopy;
+                lastDiscoNodeMatched = lastDiscoNodeWithCopy;
+            }
+
             if (lastNodeMatched != null) {
                 // we only check on THROTTLE since we checked before before on NO
                 Decision decision = allocation.deciders().canAllocate(shard, lastNodeMatched, allocation);
@@ -352,108 +411,266 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
                     lastNodeMatched.add(shard);
                     unassignedIterator.remove();
                 }
+            } else if (delayed) {
+                // the node that held this replica left recently, wait for it to come back with its copy
+                // instead of recovering a new one from scratch elsewhere
+                if (logger.isDebugEnabled()) {
+                    logger.debug("[{}][{}]: delaying allocation of [{}], its node left the cluster", shard.index(), shard.id(), shard);
+                }
+                unassignedIterator.remove();
+                routingNodes.ignoredUnassigned().add(shard);
             }
         }
 
         return changed;
     }
 
-    private ObjectLongOpenHashMap<DiscoveryNode> buildShardStates(DiscoveryNodes nodes, MutableShardRouting shard) {
-        ObjectLongOpenHashMap<DiscoveryNode> shardStates = cachedShardsState.get(shard.shardId());
-        Set<String> nodeIds;
+    /**
+     * Returns the version of the shard on each data node, or <tt>null</tt> if it is still being fetched.
+     */
+    private Map<DiscoveryNode, Long> buildShardStates(DiscoveryNodes nodes, final MutableShardRouting shard) {
+        ShardListing<Long> shardStates = cachedShardsState.get(shard.shardId());
         if (shardStates == null) {
-            shardStates = new ObjectLongOpenHashMap<DiscoveryNode>();
-            cachedShardsState.put(shard.shardId(), shardStates);
-            nodeIds = nodes.dataNodes().keySet();
-        } else {
-            // clean nodes that have failed
-            for (Iterator<ObjectLongCursor<DiscoveryNode>> it = shardStates.iterator(); it.hasNext(); ) {
-                DiscoveryNode node = it.next().key;
-                if (!nodes.nodeExists(node.id())) {
-                    it.remove();
+            shardStates = new ShardListing<Long>(shard.shardId()) {
+                @Override
+                protected void doList(final Set<String> nodeIds) {
+                    listGatewayStartedShards.list(shardId, nodeIds, listTimeout, new ActionListener<TransportNodesListGatewayStartedShards.NodesLocalGatewayStartedShards>() {
+                        @Override
+                        public void onResponse(TransportNodesListGatewayStartedShards.NodesLocalGatewayStartedShards response) {
+                            if (logger.isDebugEnabled()) {
+                                logFailures(shard + ": failures when trying to list shards on nodes:", response.failures(), false);
+                            }
+                            Map<DiscoveryNode, Long> versions = Maps.newHashMap();
+                            for (TransportNodesListGatewayStartedShards.NodeLocalGatewayStartedShards nodeShardState : response) {
+                                // -1 version means it does not exists, which is what the API returns, and what we expect to
+                                versions.put(nodeShardState.getNode(), nodeShardState.version());
+                            }
+                            listed(nodeIds, versions, failedNodeIds(response.failures()));
+                        }
+
+                        @Override
+                        public void onFailure(Throwable e) {
+                            logger.warn("{}: failed to list shard started state on nodes {}", e, shard, nodeIds);
+                            listed(nodeIds, ImmutableMap.<DiscoveryNode, Long>of(), nodeIds);
+                        }
+                    });
                 }
+            };
+            ShardListing<Long> existing = cachedShardsState.putIfAbsent(shard.shardId(), shardStates);
+            if (existing != null) {
+                shardStates = existing;
             }
-            nodeIds = Sets.newHashSet();
-            // we have stored cached from before, see if the nodes changed, if they have, go fetch again
-            for (DiscoveryNode node : nodes.dataNodes().values()) {
-                if (!shardStates.containsKey(node)) {
-                    nodeIds.add(node.id());
+        }
+        return shardStates.list(nodes);
+    }
+
+    /**
+     * Returns the unallocated store of the shard on each data node holding one, or <tt>null</tt> if they are
+     * still being fetched.
+     */
+    private Map<DiscoveryNode, TransportNodesListShardStoreMetaData.StoreFilesMetaData> buildShardStores(DiscoveryNodes nodes, final MutableShardRouting shard) {
+        ShardListing<TransportNodesListShardStoreMetaData.StoreFilesMetaData> shardStores = cachedStores.get(shard.shardId());
+        if (shardStores == null) {
+            shardStores = new ShardListing<TransportNodesListShardStoreMetaData.StoreFilesMetaData>(shard.shardId()) {
+                @Override
+                protected void doList(final Set<String> nodeIds) {
+                    listShardStoreMetaData.list(shardId, false, nodeIds, listTimeout, new ActionListener<TransportNodesListShardStoreMetaData.NodesStoreFilesMetaData>() {
+                        @Override
+                        public void onResponse(TransportNodesListShardStoreMetaData.NodesStoreFilesMetaData nodesStoreFilesMetaData) {
+                            if (logger.isTraceEnabled()) {
+                                logFailures(shard + ": failures when trying to list stores on nodes:", nodesStoreFilesMetaData.failures(), true);
+                            }
+                            Map<DiscoveryNode, TransportNodesListShardStoreMetaData.StoreFilesMetaData> stores = Maps.newHashMap();
+                            for (TransportNodesListShardStoreMetaData.NodeStoreFilesMetaData nodeStoreFilesMetaData : nodesStoreFilesMetaData) {
+                                if (nodeStoreFilesMetaData.storeFilesMetaData() != null) {
+                                    stores.put(nodeStoreFilesMetaData.getNode(), nodeStoreFilesMetaData.storeFilesMetaData());
+                                }
+                            }
+                            listed(nodeIds, stores, failedNodeIds(nodesStoreFilesMetaData.failures()));
+                        }
+
+                        @Override
+                        public void onFailure(Throwable e) {
+                            logger.warn("{}: failed to list shard stores on nodes {}", e, shard, nodeIds);
+                            listed(nodeIds, ImmutableMap.<DiscoveryNode, TransportNodesListShardStoreMetaData.StoreFilesMetaData>of(), nodeIds);
+                        }
+                    });
                 }
+            };
+            ShardListing<TransportNodesListShardStoreMetaData.StoreFilesMetaData> existing = cachedStores.putIfAbsent(shard.shardId(), shardStores);
+            if (existing != null) {
+                shardStores = existing;
             }
         }
-        if (nodeIds.isEmpty()) {
-            return shardStates;
+        return shardStores.list(nodes);
+    }
+
+    private static Set<String> failedNodeIds(FailedNodeException[] failures) {
+        Set<String> nodeIds = Sets.newHashSet();
+        for (FailedNodeException failure : failures) {
+            nodeIds.add(failure.nodeId());
         }
+        return nodeIds;
+    }
 
-        TransportNodesListGatewayStartedShards.NodesLocalGatewayStartedShards response = listGatewayStartedShards.list(shard.shardId(), nodes.dataNodes().keySet(), listTimeout).actionGet();
-        if (logger.isDebugEnabled()) {
-            if (response.failures().length > 0) {
-                StringBuilder sb = new StringBuilder(shard + ": failures when trying to list shards on nodes:");
-                for (int i = 0; i < response.failures().length; i++) {
-                    Throwable cause = ExceptionsHelper.unwrapCause(response.failures()[i]);
-                    if (cause instanceof ConnectTransportException) {
-                        continue;
-                    }
-                    sb.append("\n    -> ").append(response.failures()[i].getDetailedMessage());
-                }
-                logger.debug(sb.toString());
+    private void logFailures(String message, FailedNodeException[] failures, boolean trace) {
+        if (failures.length == 0) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(message);
+        for (int i = 0; i < failures.length; i++) {
+            Throwable cause = ExceptionsHelper.unwrapCause(failures[i]);
+            if (cause instanceof ConnectTransportException) {
+                continue;
             }
+            sb.append("\n    -> ").append(failures[i].getDetailedMessage());
         }
+        if (trace) {
+            logger.trace(sb.toString());
+        } else {
+            logger.debug(sb.toString());
+        }
+    }
 
-        for (TransportNodesListGatewayStartedShards.NodeLocalGatewayStartedShards nodeShardState : response) {
-            // -1 version means it does not exists, which is what the API returns, and what we expect to
-            shardStates.put(nodeShardState.getNode(), nodeShardState.version());
+    /**
+     * Reroutes so that listings that arrived are used, once for all the listings arriving until the next allocation.
+     */
+    private void scheduleReroute() {
+        RoutingService routingService = this.routingService;
+        if (routingService != null && rerouteScheduled.compareAndSet(false, true)) {
+            routingService.reroute("async_shard_fetch");
         }
-        return shardStates;
     }
 
-    private Map<DiscoveryNode, TransportNodesListShardStoreMetaData.StoreFilesMetaData> buildShardStores(DiscoveryNodes nodes, MutableShardRouting shard) {
-        Map<DiscoveryNode, TransportNodesListShardStoreMetaData.StoreFilesMetaData> shardStores = cachedStores.get(shard.shardId());
-        Set<String> nodesIds;
-        if (shardStores == null) {
-            shardStores = Maps.newHashMap();
-            cachedStores.put(shard.shardId(), shardStores);
-            nodesIds = nodes.dataNodes().keySet();
-        } else {
-            nodesIds = Sets.newHashSet();
-            // clean nodes that have failed
-            for (Iterator<DiscoveryNode> it = shardStores.keySet().iterator(); it.hasNext(); ) {
-                DiscoveryNode node = it.next();
-                if (!nodes.nodeExists(node.id())) {
-                    it.remove();
-                }
-            }
+    /**
+     * The listing of a shard on the data nodes. Nodes are asked asynchronously, in a single request for all the
+     * nodes not listed yet, and their answers are kept until the shard is started or failed. Nodes that failed to
+     * answer (or timed out) are asked again on the next reroute, without holding the allocation of the shard back
+     * this time. At most <tt>concurrent_listings</tt> listings are in flight at once, shards that can't be listed
+     * yet wait for the reroute that follows the completion of another listing.
+     */
+    private abstract class ShardListing<T> {
 
-            for (DiscoveryNode node : nodes.dataNodes().values()) {
-                if (!shardStores.containsKey(node)) {
-                    nodesIds.add(node.id());
-                }
-            }
+        protected final ShardId shardId;
+
+        private final Map<DiscoveryNode, T> data = Maps.newHashMap();
+
+        private final Set<String> listedNodes = Sets.newHashSet();
+
+        private final Set<String> listingNodes = Sets.newHashSet();
+
+        private final Set<String> failedNodes = Sets.newHashSet();
+
+        ShardListing(ShardId shardId) {
+            this.shardId = shardId;
         }
 
-        if (!nodesIds.isEmpty()) {
-            TransportNodesListShardStoreMetaData.NodesStoreFilesMetaData nodesStoreFilesMetaData = listShardStoreMetaData.list(shard.shardId(), false, nodesIds, listTimeout).actionGet();
-            if (logger.isTraceEnabled()) {
-                if (nodesStoreFilesMetaData.failures().length > 0) {
-                    StringBuilder sb = new StringBuilder(shard + ": failures when trying to list stores on nodes:");
-                    for (int i = 0; i < nodesStoreFilesMetaData.failures().length; i++) {
-                        Throwable cause = ExceptionsHelper.unwrapCause(nodesStoreFilesMetaData.failures()[i]);
-                        if (cause instanceof ConnectTransportException) {
-                            continue;
+        /**
+         * Asks the given nodes about the shard, calling {@link #listed(Set, Map, Set)} once they answered.
+         */
+        protected abstract void doList(Set<String> nodeIds);
+
+        /**
+         * Returns a copy of the listing of all the current data nodes, or <tt>null</tt> if some of them are
+         * still being asked, in which case a reroute follows once they answered.
+         */
+        @Nullable
+        Map<DiscoveryNode, T> list(DiscoveryNodes nodes) {
+            Set<String> nodeIds = Sets.newHashSet();
+            boolean waiting = false;
+            synchronized (this) {
+                // clean nodes that have left
+                for (Iterator<DiscoveryNode> it = data.keySet().iterator(); it.hasNext(); ) {
+                    if (!nodes.nodeExists(it.next().id())) {
+                        it.remove();
+                    }
+                }
+                removeLeftNodes(listedNodes, nodes);
+                removeLeftNodes(listingNodes, nodes);
+                removeLeftNodes(failedNodes, nodes);
+                // ask the nodes that joined since, or failed to answer last time
+                for (String nodeId : nodes.dataNodes().keySet()) {
+                    if (!listedNodes.contains(nodeId) && !listingNodes.contains(nodeId)) {
+                        nodeIds.add(nodeId);
+                    }
+                }
+                if (!nodeIds.isEmpty()) {
+                    boolean acquired = listingPermits.tryAcquire();
+                    if (!acquired) {
+                        // flag it before trying again, so a listing completing in the meantime reroutes
+                        listingThrottled.set(true);
+                        acquired = listingPermits.tryAcquire();
+                    }
+                    if (acquired) {
+                        listingNodes.addAll(nodeIds);
+                    } else {
+                        // too many listings in flight, wait for nodes we know nothing about yet
+                        for (String nodeId : nodeIds) {
+                            waiting |= !failedNodes.contains(nodeId);
                         }
-                        sb.append("\n    -> ").append(nodesStoreFilesMetaData.failures()[i].getDetailedMessage());
+                        nodeIds.clear();
                     }
-                    logger.trace(sb.toString());
                 }
             }
+            if (!nodeIds.isEmpty()) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("{}: listing shard on nodes {}", shardId, nodeIds);
+                }
+                doList(nodeIds);
+            }
+            synchronized (this) {
+                if (waiting) {
+                    return null;
+                }
+                for (String nodeId : listingNodes) {
+                    if (!failedNodes.contains(nodeId)) {
+                        return null;
+                    }
+                }
+                return Maps.newHashMap(data);
+            }
+        }
 
-            for (TransportNodesListShardStoreMetaData.NodeStoreFilesMetaData nodeStoreFilesMetaData : nodesStoreFilesMetaData) {
-                if (nodeStoreFilesMetaData.storeFilesMetaData() != null) {
-                    shardStores.put(nodeStoreFilesMetaData.getNode(), nodeStoreFilesMetaData.storeFilesMetaData());
+        private void removeLeftNodes(Set<String> nodeIds, DiscoveryNodes nodes) {
+            for (Iterator<String> it = nodeIds.iterator(); it.hasNext(); ) {
+                if (!nodes.nodeExists(it.next())) {
+                    it.remove();
                 }
             }
         }
 
-        return shardStores;
+        /**
+         * Records the answers of the given nodes, nodes missing from the answers don't hold the shard unless they
+         * are part of the failed ones.
+         */
+        protected void listed(Set<String> nodeIds, Map<DiscoveryNode, T> answers, Set<String> failedNodeIds) {
+            listingPermits.release();
+            boolean reroute = false;
+            synchronized (this) {
+                for (Map.Entry<DiscoveryNode, T> answer : answers.entrySet()) {
+                    // ignore nodes that left in the meantime
+                    if (listingNodes.contains(answer.getKey().id())) {
+                        data.put(answer.getKey(), answer.getValue());
+                    }
+                }
+                for (String nodeId : nodeIds) {
+                    if (!listingNodes.remove(nodeId)) {
+                        continue;
+                    }
+                    if (failedNodeIds.contains(nodeId)) {
+                        // no need to reroute for a node failing again, the allocation already went on without it
+                        reroute |= failedNodes.add(nodeId);
+                    } else {
+                        failedNodes.remove(nodeId);
+                        listedNodes.add(nodeId);
+                        reroute = true;
+                    }
+                }
+            }
+            // listings that were throttled are sent by the next reroute
+            if (listingThrottled.getAndSet(false) || reroute) {
+                scheduleReroute();
+            }
+        }
     }
 }
@@ -22,6 +22,7 @@ package org.elasticsearch.gateway.local.state.shards;
 import com.google.common.collect.Lists;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.FailedNodeException;
 import org.elasticsearch.action.support.nodes.*;
 import org.elasticsearch.cluster.ClusterName;
@@ -63,6 +64,10 @@ public class TransportNodesListGatewayStartedShards extends TransportNodesOperat
         return execute(new Request(shardId, nodesIds).timeout(timeout));
     }
 
+    public void list(ShardId shardId, Set<String> nodesIds, @Nullable TimeValue timeout, ActionListener<NodesLocalGatewayStartedShards> listener) {
+        execute(new Request(shardId, nodesIds).timeout(timeout), listener);
+    }
+
     @Override
     protected String executor() {
         return ThreadPool.Names.GENERIC;
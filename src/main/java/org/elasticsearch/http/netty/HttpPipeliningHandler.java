@@ -0,0 +1,126 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty;
+
+import org.jboss.netty.channel.*;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Implements HTTP pipelining: the requests received on a connection are sent upstream without waiting
+ * for the responses to the previous ones, each one wrapped in an {@link OrderedUpstreamMessageEvent}
+ * holding its position on the connection. The responses are written using {@link OrderedDownstreamChannelEvent}s,
+ * which are held back until the responses to all the requests received before have been written, so the
+ * client receives them in the order it sent the requests.
+ * <p/>
+ * Once <tt>maxEventsHeld</tt> requests are in flight on the connection, reading from it is suspended
+ * until some of them are answered.
+ * <p/>
+ * A handler instance keeps the state of a single connection, it can't be shared between pipelines.
+ */
+public class HttpPipeliningHandler extends SimpleChannelHandler {
+
+    private static final Comparator<OrderedDownstreamChannelEvent> ORDER = new Comparator<OrderedDownstreamChannelEvent>() {
+        @Override
+        public int compare(OrderedDownstreamChannelEvent o1, OrderedDownstreamChannelEvent o2) {
+            if (o1.getSequence() != o2.getSequence()) {
+                return o1.getSequence() < o2.getSequence() ? -1 : 1;
+            }
+            return o1.getSubsequence() < o2.getSubsequence() ? -1 : (o1.getSubsequence() == o2.getSubsequence() ? 0 : 1);
+        }
+    };
+
+    private final int maxEventsHeld;
+
+    // only accessed by the I/O thread reading the connection
+    private long sequence;
+
+    // the following are guarded by the holding queue
+    private final PriorityQueue<OrderedDownstreamChannelEvent> holdingQueue = new PriorityQueue<OrderedDownstreamChannelEvent>(16, ORDER);
+    private long nextRequiredSequence;
+    private int nextRequiredSubsequence;
+    private int inFlight;
+    private boolean suspended;
+
+    public HttpPipeliningHandler(int maxEventsHeld) {
+        this.maxEventsHeld = maxEventsHeld;
+    }
+
+    public int getMaxEventsHeld() {
+        return maxEventsHeld;
+    }
+
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        Object message = e.getMessage();
+        if (!(message instanceof HttpRequest)) {
+            ctx.sendUpstream(e);
+            return;
+        }
+        boolean suspend = false;
+        synchronized (holdingQueue) {
+            inFlight++;
+            if (!suspended && inFlight >= maxEventsHeld) {
+                suspended = suspend = true;
+            }
+        }
+        if (suspend) {
+            ctx.getChannel().setReadable(false);
+        }
+        ctx.sendUpstream(new OrderedUpstreamMessageEvent(sequence++, e.getChannel(), message, e.getRemoteAddress()));
+    }
+
+    @Override
+    public void handleDownstream(ChannelHandlerContext ctx, ChannelEvent e) throws Exception {
+        if (!(e instanceof OrderedDownstreamChannelEvent)) {
+            super.handleDownstream(ctx, e);
+            return;
+        }
+        boolean resume = false;
+        synchronized (holdingQueue) {
+            holdingQueue.add((OrderedDownstreamChannelEvent) e);
+            while (!holdingQueue.isEmpty()) {
+                OrderedDownstreamChannelEvent next = holdingQueue.peek();
+                if (next.getSequence() != nextRequiredSequence || next.getSubsequence() != nextRequiredSubsequence) {
+                    break;
+                }
+                holdingQueue.poll();
+                // sent while holding the lock so the writes are queued on the channel in order
+                ctx.sendDownstream(next.getChannelEvent());
+                if (next.isLast()) {
+                    nextRequiredSequence++;
+                    nextRequiredSubsequence = 0;
+                    inFlight--;
+                } else {
+                    nextRequiredSubsequence++;
+                }
+            }
+            if (suspended && inFlight < maxEventsHeld) {
+                suspended = false;
+                resume = true;
+            }
+        }
+        if (resume) {
+            ctx.getChannel().setReadable(true);
+        }
+    }
+}
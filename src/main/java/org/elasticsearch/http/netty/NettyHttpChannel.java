@@ -19,11 +19,20 @@
 
 package org.elasticsearch.http.netty;
 
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.BytesStream;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.netty.ChannelBufferStreamOutput;
+import org.elasticsearch.common.netty.ReleaseChannelFutureListener;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.http.HttpChannel;
 import org.elasticsearch.http.HttpException;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.rest.StreamRestResponse;
 import org.elasticsearch.rest.XContentRestResponse;
 import org.elasticsearch.rest.support.RestUtils;
 import org.jboss.netty.buffer.ChannelBuffer;
@@ -32,8 +41,10 @@ import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFuture;
 import org.jboss.netty.channel.ChannelFutureListener;
 import org.jboss.netty.handler.codec.http.*;
+import org.jboss.netty.util.internal.DeadLockProofWorker;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -45,50 +56,64 @@ public class NettyHttpChannel implements HttpChannel {
     private final NettyHttpServerTransport transport;
     private final Channel channel;
     private final org.jboss.netty.handler.codec.http.HttpRequest request;
+    private final OrderedUpstreamMessageEvent orderedUpstreamMessageEvent;
+
+    private ChunkedResponseStream responseStream;
 
     public NettyHttpChannel(NettyHttpServerTransport transport, Channel channel, org.jboss.netty.handler.codec.http.HttpRequest request) {
+        this(transport, channel, request, null);
+    }
+
+    /**
+     * @param orderedUpstreamMessageEvent the event the request was received with when pipelining is enabled, the
+     *                                    response is then written in order with the other requests of the connection
+     */
+    public NettyHttpChannel(NettyHttpServerTransport transport, Channel channel, org.jboss.netty.handler.codec.http.HttpRequest request,
+                            @Nullable OrderedUpstreamMessageEvent orderedUpstreamMessageEvent) {
         this.transport = transport;
         this.channel = channel;
         this.request = request;
+        this.orderedUpstreamMessageEvent = orderedUpstreamMessageEvent;
     }
 
     @Override
-    public void sendResponse(RestResponse response) {
+    public OutputStream responseStream(RestStatus status, String contentType) {
+        int chunkSize = transport.streamChunkSize;
+        if (chunkSize <= 0 || request.getProtocolVersion().equals(HttpVersion.HTTP_1_0)) {
+            // chunked encoding requires HTTP/1.1, still use pooled buffers for the whole response
+            chunkSize = Integer.MAX_VALUE;
+        }
+        responseStream = new ChunkedResponseStream(status, contentType, chunkSize);
+        return responseStream;
+    }
 
-        // Decide whether to close the connection or not.
-        boolean http10 = request.getProtocolVersion().equals(HttpVersion.HTTP_1_0);
-        boolean close =
-                HttpHeaders.Values.CLOSE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)) ||
-                        (http10 && !HttpHeaders.Values.KEEP_ALIVE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)));
+    @Override
+    public void sendResponse(RestResponse response) {
+        boolean close = isCloseConnection();
 
-        // Build the response object.
-        HttpResponseStatus status = getStatus(response.status());
-        org.jboss.netty.handler.codec.http.HttpResponse resp;
-        if (http10) {
-            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_0, status);
-            if (!close) {
-                resp.addHeader(HttpHeaders.Names.CONNECTION, "Keep-Alive");
+        boolean streamed = false;
+        if (responseStream != null) {
+            if (response instanceof XContentRestResponse && ((XContentRestResponse) response).builder().stream() == responseStream) {
+                // flushes whatever the generator still buffers to the stream
+                ((XContentRestResponse) response).builder().close();
+                streamed = true;
+            } else if (response instanceof StreamRestResponse && ((StreamRestResponse) response).stream() == responseStream) {
+                streamed = true;
             }
-        } else {
-            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
-        }
-        if (RestUtils.isBrowser(request.getHeader(HttpHeaders.Names.USER_AGENT))) {
-            if (transport.settings().getAsBoolean("http.cors.enabled", true)) {
-                // Add support for cross-origin Ajax requests (CORS)
-                resp.addHeader("Access-Control-Allow-Origin", transport.settings().get("http.cors.allow-origin", "*"));
-                if (request.getMethod() == HttpMethod.OPTIONS) {
-                    // Allow Ajax requests based on the CORS "preflight" request
-                    resp.addHeader("Access-Control-Max-Age", transport.settings().getAsInt("http.cors.max-age", 1728000));
-                    resp.addHeader("Access-Control-Allow-Methods", transport.settings().get("http.cors.allow-methods", "OPTIONS, HEAD, GET, POST, PUT, DELETE"));
-                    resp.addHeader("Access-Control-Allow-Headers", transport.settings().get("http.cors.allow-headers", "X-Requested-With, Content-Type, Content-Length"));
+            if (responseStream.started()) {
+                if (streamed) {
+                    responseStream.finish(close);
+                } else {
+                    // the status and part of the content were already sent, all we can do is to let the client know the
+                    // response is incomplete, by closing the connection before the last chunk
+                    channel.close();
+                    responseStream.release();
                 }
+                return;
             }
         }
 
-        String opaque = request.getHeader("X-Opaque-Id");
-        if (opaque != null) {
-            resp.addHeader("X-Opaque-Id", opaque);
-        }
+        org.jboss.netty.handler.codec.http.HttpResponse resp = newResponse(response.status(), response.contentType(), close);
 
         // Add all custom headers
         Map<String, List<String>> customHeaders = response.getHeaders();
@@ -102,41 +127,103 @@ public class NettyHttpChannel implements HttpChannel {
 
         // Convert the response content to a ChannelBuffer.
         ChannelBuffer buf;
+        if (streamed) {
+            // the whole content fits in the pooled buffers of the stream, hand them over without copying
+            buf = responseStream.content();
+        } else {
+            buf = content(response);
+        }
+        if (response.prefixContent() != null || response.suffixContent() != null) {
+            ChannelBuffer prefixBuf = ChannelBuffers.EMPTY_BUFFER;
+            if (response.prefixContent() != null) {
+                prefixBuf = ChannelBuffers.copiedBuffer(response.prefixContent(), response.prefixContentOffset(), response.prefixContentLength());
+            }
+            ChannelBuffer suffixBuf = ChannelBuffers.EMPTY_BUFFER;
+            if (response.suffixContent() != null) {
+                suffixBuf = ChannelBuffers.copiedBuffer(response.suffixContent(), response.suffixContentOffset(), response.suffixContentLength());
+            }
+            buf = ChannelBuffers.wrappedBuffer(prefixBuf, buf, suffixBuf);
+        }
+        resp.setContent(buf);
+        resp.setHeader(HttpHeaders.Names.CONTENT_LENGTH, String.valueOf(buf.readableBytes()));
+
+        // Write the response.
+        ChannelFuture future = writeMessage(resp, 0, true);
+        if (responseStream != null) {
+            future.addListener(new ReleaseChannelFutureListener(responseStream));
+        }
+        // Close the connection after the write operation is done if necessary.
+        if (close) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    private ChannelBuffer content(RestResponse response) {
         try {
             if (response instanceof XContentRestResponse) {
                 // if its a builder based response, and it was created with a CachedStreamOutput, we can release it
                 // after we write the response, and no need to do an extra copy because its not thread safe
                 XContentBuilder builder = ((XContentRestResponse) response).builder();
                 if (response.contentThreadSafe()) {
-                    buf = builder.bytes().toChannelBuffer();
+                    return builder.bytes().toChannelBuffer();
                 } else {
-                    buf = builder.bytes().copyBytesArray().toChannelBuffer();
+                    return builder.bytes().copyBytesArray().toChannelBuffer();
                 }
             } else {
                 if (response.contentThreadSafe()) {
-                    buf = ChannelBuffers.wrappedBuffer(response.content(), response.contentOffset(), response.contentLength());
+                    return ChannelBuffers.wrappedBuffer(response.content(), response.contentOffset(), response.contentLength());
                 } else {
-                    buf = ChannelBuffers.copiedBuffer(response.content(), response.contentOffset(), response.contentLength());
+                    return ChannelBuffers.copiedBuffer(response.content(), response.contentOffset(), response.contentLength());
                 }
             }
         } catch (IOException e) {
             throw new HttpException("Failed to convert response to bytes", e);
         }
-        if (response.prefixContent() != null || response.suffixContent() != null) {
-            ChannelBuffer prefixBuf = ChannelBuffers.EMPTY_BUFFER;
-            if (response.prefixContent() != null) {
-                prefixBuf = ChannelBuffers.copiedBuffer(response.prefixContent(), response.prefixContentOffset(), response.prefixContentLength());
+    }
+
+    /**
+     * Decides whether to close the connection or not once the response is written.
+     */
+    private boolean isCloseConnection() {
+        boolean http10 = request.getProtocolVersion().equals(HttpVersion.HTTP_1_0);
+        return HttpHeaders.Values.CLOSE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)) ||
+                (http10 && !HttpHeaders.Values.KEEP_ALIVE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)));
+    }
+
+    /**
+     * Builds the response object, without its content.
+     */
+    private org.jboss.netty.handler.codec.http.HttpResponse newResponse(RestStatus restStatus, String contentType, boolean close) {
+        boolean http10 = request.getProtocolVersion().equals(HttpVersion.HTTP_1_0);
+        HttpResponseStatus status = getStatus(restStatus);
+        org.jboss.netty.handler.codec.http.HttpResponse resp;
+        if (http10) {
+            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_0, status);
+            if (!close) {
+                resp.addHeader(HttpHeaders.Names.CONNECTION, "Keep-Alive");
             }
-            ChannelBuffer suffixBuf = ChannelBuffers.EMPTY_BUFFER;
-            if (response.suffixContent() != null) {
-                suffixBuf = ChannelBuffers.copiedBuffer(response.suffixContent(), response.suffixContentOffset(), response.suffixContentLength());
+        } else {
+            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
+        }
+        if (RestUtils.isBrowser(request.getHeader(HttpHeaders.Names.USER_AGENT))) {
+            if (transport.settings().getAsBoolean("http.cors.enabled", true)) {
+                // Add support for cross-origin Ajax requests (CORS)
+                resp.addHeader("Access-Control-Allow-Origin", transport.settings().get("http.cors.allow-origin", "*"));
+                if (request.getMethod() == HttpMethod.OPTIONS) {
+                    // Allow Ajax requests based on the CORS "preflight" request
+                    resp.addHeader("Access-Control-Max-Age", transport.settings().getAsInt("http.cors.max-age", 1728000));
+                    resp.addHeader("Access-Control-Allow-Methods", transport.settings().get("http.cors.allow-methods", "OPTIONS, HEAD, GET, POST, PUT, DELETE"));
+                    resp.addHeader("Access-Control-Allow-Headers", transport.settings().get("http.cors.allow-headers", "X-Requested-With, Content-Type, Content-Length"));
+                }
             }
-            buf = ChannelBuffers.wrappedBuffer(prefixBuf, buf, suffixBuf);
         }
-        resp.setContent(buf);
-        resp.setHeader(HttpHeaders.Names.CONTENT_TYPE, response.contentType());
 
-        resp.setHeader(HttpHeaders.Names.CONTENT_LENGTH, String.valueOf(buf.readableBytes()));
+        String opaque = request.getHeader("X-Opaque-Id");
+        if (opaque != null) {
+            resp.addHeader("X-Opaque-Id", opaque);
+        }
+
+        resp.setHeader(HttpHeaders.Names.CONTENT_TYPE, contentType);
 
         if (transport.resetCookies) {
             String cookieString = request.getHeader(HttpHeaders.Names.COOKIE);
@@ -153,12 +240,111 @@ public class NettyHttpChannel implements HttpChannel {
                 }
             }
         }
+        return resp;
+    }
 
-        // Write the response.
-        ChannelFuture future = channel.write(resp);
-        // Close the connection after the write operation is done if necessary.
-        if (close) {
-            future.addListener(ChannelFutureListener.CLOSE);
+    /**
+     * Writes a message, being the <tt>subsequence</tt>th part of the response, in order with the responses to
+     * the other requests of the connection when pipelining is enabled.
+     */
+    private ChannelFuture writeMessage(Object message, int subsequence, boolean last) {
+        if (orderedUpstreamMessageEvent == null) {
+            return channel.write(message);
+        }
+        OrderedDownstreamChannelEvent downstreamChannelEvent = new OrderedDownstreamChannelEvent(orderedUpstreamMessageEvent, subsequence, last, message);
+        channel.getPipeline().sendDownstream(downstreamChannelEvent);
+        return downstreamChannelEvent.getFuture();
+    }
+
+    /**
+     * Buffers the content of a response up to a chunk size, in pages recycled by the transport. If the whole
+     * content fits in a chunk, it is sent as a regular response, otherwise the response is sent using the chunked
+     * transfer encoding, writing each chunk as it fills up. The pages are recycled once written.
+     */
+    private class ChunkedResponseStream extends OutputStream implements BytesStream, Releasable {
+
+        private final RestStatus status;
+        private final String contentType;
+        private final int chunkSize;
+
+        private ChannelBufferStreamOutput out;
+
+        private int subsequence;
+        private ChannelFuture lastWrite;
+
+        ChunkedResponseStream(RestStatus status, String contentType, int chunkSize) {
+            this.status = status;
+            this.contentType = contentType;
+            this.chunkSize = chunkSize;
+            this.out = new ChannelBufferStreamOutput(transport.pageCacheRecycler.bytePages());
+        }
+
+        boolean started() {
+            return subsequence > 0;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.writeByte((byte) b);
+            if (out.size() >= chunkSize) {
+                writeChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.writeBytes(b, off, len);
+            if (out.size() >= chunkSize) {
+                writeChunk();
+            }
+        }
+
+        @Override
+        public BytesReference bytes() {
+            if (started()) {
+                throw new ElasticSearchIllegalStateException("response content was already partially written to the channel");
+            }
+            return out.bytes();
+        }
+
+        ChannelBuffer content() {
+            return out.channelBuffer();
+        }
+
+        @Override
+        public boolean release() throws ElasticSearchException {
+            return out.release();
+        }
+
+        void finish(boolean close) {
+            if (out.size() > 0) {
+                writeMessage(new DefaultHttpChunk(out.channelBuffer()), subsequence++, false).addListener(new ReleaseChannelFutureListener(out));
+                out = new ChannelBufferStreamOutput(transport.pageCacheRecycler.bytePages());
+            }
+            ChannelFuture future = writeMessage(HttpChunk.LAST_CHUNK, subsequence++, true);
+            if (close) {
+                future.addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+
+        private void writeChunk() throws IOException {
+            if (!channel.isConnected()) {
+                throw new IOException("channel [" + channel + "] closed while streaming the response");
+            }
+            if (!started()) {
+                org.jboss.netty.handler.codec.http.HttpResponse resp = newResponse(status, contentType, false);
+                resp.setChunked(true);
+                resp.setHeader(HttpHeaders.Names.TRANSFER_ENCODING, HttpHeaders.Values.CHUNKED);
+                writeMessage(resp, subsequence++, false);
+            } else if (lastWrite != null && !channel.isWritable() && DeadLockProofWorker.PARENT.get() == null) {
+                // bound the memory used by a slow client by waiting for the previous chunk to be written out,
+                // unless we are on an I/O thread which must never block
+                lastWrite.awaitUninterruptibly();
+            }
+            lastWrite = writeMessage(new DefaultHttpChunk(out.channelBuffer()), subsequence++, false);
+            // the pages of the written chunk are owned by the channel until the write completes
+            lastWrite.addListener(new ReleaseChannelFutureListener(out));
+            out = new ChannelBufferStreamOutput(transport.pageCacheRecycler.bytePages());
         }
     }
 
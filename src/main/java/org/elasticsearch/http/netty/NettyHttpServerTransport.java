@@ -20,6 +20,7 @@
 package org.elasticsearch.http.netty;
 
 import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.cache.recycler.PageCacheRecycler;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.netty.NettyStaticSetup;
@@ -96,6 +97,13 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent<HttpSer
     private final ByteSizeValue tcpReceiveBufferSize;
     private final ReceiveBufferSizePredictorFactory receiveBufferSizePredictorFactory;
 
+    final boolean pipelining;
+    final int pipeliningMaxEvents;
+
+    final int streamChunkSize;
+
+    final PageCacheRecycler pageCacheRecycler;
+
     final ByteSizeValue maxCumulationBufferCapacity;
     final int maxCompositeBufferComponents;
 
@@ -110,9 +118,10 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent<HttpSer
     private volatile HttpServerAdapter httpServerAdapter;
 
     @Inject
-    public NettyHttpServerTransport(Settings settings, NetworkService networkService) {
+    public NettyHttpServerTransport(Settings settings, NetworkService networkService, PageCacheRecycler pageCacheRecycler) {
         super(settings);
         this.networkService = networkService;
+        this.pageCacheRecycler = pageCacheRecycler;
 
         if (settings.getAsBoolean("netty.epollBugWorkaround", false)) {
             System.setProperty("org.jboss.netty.epollBugWorkaround", "true");
@@ -156,6 +165,9 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent<HttpSer
 
         this.compression = settings.getAsBoolean("http.compression", false);
         this.compressionLevel = settings.getAsInt("http.compression_level", 6);
+        this.pipelining = settings.getAsBoolean("http.pipelining", true);
+        this.pipeliningMaxEvents = settings.getAsInt("http.pipelining.max_events", 10000);
+        this.streamChunkSize = (int) settings.getAsBytesSize("http.stream_chunk_size", new ByteSizeValue(64, ByteSizeUnit.KB)).bytes();
 
         // validate max content length
         if (maxContentLength.bytes() > Integer.MAX_VALUE) {
@@ -164,8 +176,8 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent<HttpSer
         }
         this.maxContentLength = maxContentLength;
 
-        logger.debug("using max_chunk_size[{}], max_header_size[{}], max_initial_line_length[{}], max_content_length[{}], receive_predictor[{}->{}]",
-                maxChunkSize, maxHeaderSize, maxInitialLineLength, this.maxContentLength, receivePredictorMin, receivePredictorMax);
+        logger.debug("using max_chunk_size[{}], max_header_size[{}], max_initial_line_length[{}], max_content_length[{}], receive_predictor[{}->{}], pipelining[{}], pipelining_max_events[{}]",
+                maxChunkSize, maxHeaderSize, maxInitialLineLength, this.maxContentLength, receivePredictorMin, receivePredictorMax, pipelining, pipeliningMaxEvents);
     }
 
     public Settings settings() {
@@ -355,6 +367,9 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent<HttpSer
             if (transport.compression) {
                 pipeline.addLast("encoder_compress", new HttpContentCompressor(transport.compressionLevel));
             }
+            if (transport.pipelining) {
+                pipeline.addLast("pipelining", new HttpPipeliningHandler(transport.pipeliningMaxEvents));
+            }
             pipeline.addLast("handler", requestHandler);
             return pipeline;
         }
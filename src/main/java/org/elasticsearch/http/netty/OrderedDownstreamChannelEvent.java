@@ -0,0 +1,84 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty;
+
+import org.jboss.netty.channel.*;
+
+/**
+ * A downstream write of (part of) the response to a pipelined request. The write is held back by the
+ * {@link HttpPipeliningHandler} until the responses to all the requests received before it on the
+ * connection have been written.
+ */
+public class OrderedDownstreamChannelEvent implements ChannelEvent {
+
+    private final OrderedUpstreamMessageEvent upstreamEvent;
+    private final int subsequence;
+    private final boolean last;
+    private final ChannelEvent event;
+
+    /**
+     * A write holding the complete response to the request of the provided upstream event.
+     */
+    public OrderedDownstreamChannelEvent(OrderedUpstreamMessageEvent upstreamEvent, Object message) {
+        this(upstreamEvent, 0, true, message);
+    }
+
+    /**
+     * A write holding the <tt>subsequence</tt>th part of the response to the request of the provided upstream
+     * event, <tt>last</tt> marking the part that completes it.
+     */
+    public OrderedDownstreamChannelEvent(OrderedUpstreamMessageEvent upstreamEvent, int subsequence, boolean last, Object message) {
+        this.upstreamEvent = upstreamEvent;
+        this.subsequence = subsequence;
+        this.last = last;
+        this.event = new DownstreamMessageEvent(upstreamEvent.getChannel(), Channels.future(upstreamEvent.getChannel()),
+                message, upstreamEvent.getRemoteAddress());
+    }
+
+    public OrderedUpstreamMessageEvent getOrderedUpstreamMessageEvent() {
+        return upstreamEvent;
+    }
+
+    public long getSequence() {
+        return upstreamEvent.getSequence();
+    }
+
+    public int getSubsequence() {
+        return subsequence;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    public ChannelEvent getChannelEvent() {
+        return event;
+    }
+
+    @Override
+    public Channel getChannel() {
+        return event.getChannel();
+    }
+
+    @Override
+    public ChannelFuture getFuture() {
+        return event.getFuture();
+    }
+}
@@ -35,8 +35,14 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.indices.analysis.IndicesAnalysisService;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 
 /**
@@ -44,6 +50,8 @@ import static com.google.common.collect.Maps.newHashMap;
  */
 public class AnalysisService extends AbstractIndexComponent implements CloseableComponent {
 
+    public static final String INDEX_ANALYSIS_SHARE_ANALYZERS = "index.analysis.share_analyzers";
+
     private final ImmutableMap<String, NamedAnalyzer> analyzers;
     private final ImmutableMap<String, TokenizerFactory> tokenizers;
     private final ImmutableMap<String, CharFilterFactory> charFilters;
@@ -54,6 +62,12 @@ public class AnalysisService extends AbstractIndexComponent implements Closeable
     private final NamedAnalyzer defaultSearchAnalyzer;
     private final NamedAnalyzer defaultSearchQuoteAnalyzer;
 
+    @Nullable
+    private final IndicesAnalysisService indicesAnalysisService;
+    private final List<IndicesAnalysisService.SharedAnalyzerKey> sharedAnalyzerKeys = newArrayList();
+    private final Set<NamedAnalyzer> sharedAnalyzers = Collections.newSetFromMap(new IdentityHashMap<NamedAnalyzer, Boolean>());
+    private final AtomicBoolean closed = new AtomicBoolean();
+
     public AnalysisService(Index index) {
         this(index, ImmutableSettings.Builder.EMPTY_SETTINGS, null, null, null, null, null);
     }
@@ -65,6 +79,7 @@ public class AnalysisService extends AbstractIndexComponent implements Closeable
                            @Nullable Map<String, CharFilterFactoryFactory> charFilterFactoryFactories,
                            @Nullable Map<String, TokenFilterFactoryFactory> tokenFilterFactoryFactories) {
         super(index, indexSettings);
+        this.indicesAnalysisService = indicesAnalysisService;
 
         Map<String, TokenizerFactory> tokenizers = newHashMap();
         if (tokenizerFactoryFactories != null) {
@@ -214,39 +229,71 @@ public class AnalysisService extends AbstractIndexComponent implements Closeable
             analyzerProviders.put("default_search_quoted", analyzerProviders.get("default_search"));
         }
 
-        Map<String, NamedAnalyzer> analyzers = newHashMap();
-        for (AnalyzerProvider analyzerFactory : analyzerProviders.values()) {
-            if (analyzerFactory instanceof CustomAnalyzerProvider) {
-                ((CustomAnalyzerProvider) analyzerFactory).build(this);
+        Version indexVersion = indexSettings.getAsVersion(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT);
+        Settings analysisSettings = indexSettings.getByPrefix("index.analysis.");
+        boolean shareAnalyzers = indicesAnalysisService != null && indexSettings.getAsBoolean(INDEX_ANALYSIS_SHARE_ANALYZERS, true);
+        for (String key : analysisSettings.getAsMap().keySet()) {
+            if (key.endsWith("_path")) {
+                // the files an analyzer is built from could have changed since another index built it
+                shareAnalyzers = false;
             }
-            Analyzer analyzerF = analyzerFactory.get();
-            if (analyzerF == null) {
-                throw new ElasticSearchIllegalArgumentException("analyzer [" + analyzerFactory.name() + "] created null analyzer");
-            }
-            NamedAnalyzer analyzer;
-            // if we got a named analyzer back, use it...
-            if (analyzerF instanceof NamedAnalyzer) {
-                analyzer = (NamedAnalyzer) analyzerF;
-            } else {
-                analyzer = new NamedAnalyzer(analyzerFactory.name(), analyzerFactory.scope(), analyzerF);
-            }
-            analyzers.put(analyzerFactory.name(), analyzer);
-            analyzers.put(Strings.toCamelCase(analyzerFactory.name()), analyzer);
-            String strAliases = indexSettings.get("index.analysis.analyzer." + analyzerFactory.name() + ".alias");
-            if (strAliases != null) {
-                for (String alias : Strings.commaDelimitedListToStringArray(strAliases)) {
+        }
+
+        Map<String, NamedAnalyzer> analyzers = newHashMap();
+        boolean success = false;
+        try {
+            for (AnalyzerProvider analyzerFactory : analyzerProviders.values()) {
+                if (analyzerFactory instanceof CustomAnalyzerProvider) {
+                    ((CustomAnalyzerProvider) analyzerFactory).build(this);
+                }
+                Analyzer analyzerF = analyzerFactory.get();
+                if (analyzerF == null) {
+                    throw new ElasticSearchIllegalArgumentException("analyzer [" + analyzerFactory.name() + "] created null analyzer");
+                }
+                NamedAnalyzer analyzer;
+                // if we got a named analyzer back, use it...
+                if (analyzerF instanceof NamedAnalyzer) {
+                    analyzer = (NamedAnalyzer) analyzerF;
+                } else {
+                    analyzer = new NamedAnalyzer(analyzerFactory.name(), analyzerFactory.scope(), analyzerF);
+                }
+                if (shareAnalyzers && analyzer.scope() == AnalyzerScope.INDEX) {
+                    // use the analyzer already built for an index with the same analysis settings if any, so the
+                    // components the analyzers hold per thread don't grow with the number of indices
+                    IndicesAnalysisService.SharedAnalyzerKey key = new IndicesAnalysisService.SharedAnalyzerKey(analyzerFactory.name(),
+                            analyzerFactory.getClass(), indexVersion, analysisSettings);
+                    NamedAnalyzer sharedAnalyzer = indicesAnalysisService.acquireSharedAnalyzer(key, analyzer);
+                    sharedAnalyzerKeys.add(key);
+                    sharedAnalyzers.add(sharedAnalyzer);
+                    if (sharedAnalyzer != analyzer) {
+                        analyzer.close();
+                        analyzer = sharedAnalyzer;
+                    }
+                }
+                analyzers.put(analyzerFactory.name(), analyzer);
+                analyzers.put(Strings.toCamelCase(analyzerFactory.name()), analyzer);
+                String strAliases = indexSettings.get("index.analysis.analyzer." + analyzerFactory.name() + ".alias");
+                if (strAliases != null) {
+                    for (String alias : Strings.commaDelimitedListToStringArray(strAliases)) {
+                        analyzers.put(alias, analyzer);
+                    }
+                }
+                String[] aliases = indexSettings.getAsArray("index.analysis.analyzer." + analyzerFactory.name() + ".alias");
+                for (String alias : aliases) {
                     analyzers.put(alias, analyzer);
                 }
             }
-            String[] aliases = indexSettings.getAsArray("index.analysis.analyzer." + analyzerFactory.name() + ".alias");
-            for (String alias : aliases) {
-                analyzers.put(alias, analyzer);
-            }
-        }
 
-        defaultAnalyzer = analyzers.get("default");
-        if (defaultAnalyzer == null) {
-            throw new ElasticSearchIllegalArgumentException("no default analyzer configured");
+            defaultAnalyzer = analyzers.get("default");
+            if (defaultAnalyzer == null) {
+                throw new ElasticSearchIllegalArgumentException("no default analyzer configured");
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                // the index won't be created, give back the shared analyzers acquired so far
+                releaseSharedAnalyzers();
+            }
         }
         defaultIndexAnalyzer = analyzers.containsKey("default_index") ? analyzers.get("default_index") : analyzers.get("default");
         defaultSearchAnalyzer = analyzers.containsKey("default_search") ? analyzers.get("default_search") : analyzers.get("default");
@@ -256,8 +303,12 @@ public class AnalysisService extends AbstractIndexComponent implements Closeable
     }
 
     public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        releaseSharedAnalyzers();
         for (NamedAnalyzer analyzer : analyzers.values()) {
-            if (analyzer.scope() == AnalyzerScope.INDEX) {
+            if (analyzer.scope() == AnalyzerScope.INDEX && !sharedAnalyzers.contains(analyzer)) {
                 try {
                     analyzer.close();
                 } catch (NullPointerException e) {
@@ -270,6 +321,13 @@ public class AnalysisService extends AbstractIndexComponent implements Closeable
         }
     }
 
+    private void releaseSharedAnalyzers() {
+        for (IndicesAnalysisService.SharedAnalyzerKey key : sharedAnalyzerKeys) {
+            indicesAnalysisService.releaseSharedAnalyzer(key);
+        }
+        sharedAnalyzerKeys.clear();
+    }
+
     public NamedAnalyzer analyzer(String name) {
         return analyzers.get(name);
     }
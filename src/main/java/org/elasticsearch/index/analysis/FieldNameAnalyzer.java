@@ -20,19 +20,20 @@
 package org.elasticsearch.index.analysis;
 
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.AnalyzerWrapper;
+import org.apache.lucene.analysis.DelegatingAnalyzerWrapper;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 
 /**
  *
  */
-public final class FieldNameAnalyzer extends AnalyzerWrapper {
+public final class FieldNameAnalyzer extends DelegatingAnalyzerWrapper {
 
     private final ImmutableOpenMap<String, Analyzer> analyzers;
 
     private final Analyzer defaultAnalyzer;
 
     public FieldNameAnalyzer(ImmutableOpenMap<String, Analyzer> analyzers, Analyzer defaultAnalyzer) {
+        super(Analyzer.PER_FIELD_REUSE_STRATEGY);
         this.analyzers = analyzers;
         this.defaultAnalyzer = defaultAnalyzer;
     }
@@ -50,11 +51,6 @@ public final class FieldNameAnalyzer extends AnalyzerWrapper {
         return getAnalyzer(fieldName);
     }
 
-    @Override
-    protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
-        return components;
-    }
-
     private Analyzer getAnalyzer(String name) {
         Analyzer analyzer = analyzers.get(name);
         if (analyzer != null) {
@@ -20,13 +20,13 @@
 package org.elasticsearch.index.analysis;
 
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.CustomAnalyzerWrapper;
+import org.apache.lucene.analysis.DelegatingAnalyzerWrapper;
 
 /**
  * Named analyzer is an analyzer wrapper around an actual analyzer ({@link #analyzer} that is associated
  * with a name ({@link #name()}.
  */
-public class NamedAnalyzer extends CustomAnalyzerWrapper {
+public class NamedAnalyzer extends DelegatingAnalyzerWrapper {
 
     private final String name;
     private final AnalyzerScope scope;
@@ -79,11 +79,6 @@ public class NamedAnalyzer extends CustomAnalyzerWrapper {
         return this.analyzer;
     }
 
-    @Override
-    protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
-        return components;
-    }
-
     @Override
     public int getPositionIncrementGap(String fieldName) {
         if (positionOffsetGap != Integer.MIN_VALUE) {
@@ -0,0 +1,55 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.FilterCodec;
+import org.apache.lucene.codecs.StoredFieldsFormat;
+import org.apache.lucene.codecs.lucene45.Lucene45Codec;
+import org.elasticsearch.index.codec.storedfields.BlockCompressionStoredFieldsFormat;
+
+/**
+ * A codec that writes everything like the codec it wraps, except for stored fields that are compressed in
+ * bigger blocks using {@link BlockCompressionStoredFieldsFormat}, trading some fetch speed for a much smaller
+ * index when docs are small and alike (like logs).
+ * <p/>
+ * The no arg constructor is used by Lucene to read the segments back, postings and doc values are read through
+ * the formats recorded per field so they don't need the mapping.
+ */
+// LUCENE UPGRADE: make sure to move to a new codec depending on the lucene version
+public class BestCompressionCodec extends FilterCodec {
+
+    public static final String CODEC_NAME = "BestCompression090";
+
+    private final StoredFieldsFormat storedFieldsFormat = new BlockCompressionStoredFieldsFormat();
+
+    public BestCompressionCodec() {
+        this(new Lucene45Codec());
+    }
+
+    public BestCompressionCodec(Codec delegate) {
+        super(CODEC_NAME, delegate);
+    }
+
+    @Override
+    public StoredFieldsFormat storedFieldsFormat() {
+        return storedFieldsFormat;
+    }
+}
@@ -50,6 +50,7 @@ public class CodecService extends AbstractIndexComponent {
     private final ImmutableMap<String, Codec> codecs;
 
     public final static String DEFAULT_CODEC = "default";
+    public final static String BEST_COMPRESSION_CODEC = "best_compression";
 
     public CodecService(Index index) {
         this(index, ImmutableSettings.Builder.EMPTY_SETTINGS);
@@ -67,16 +68,20 @@ public class CodecService extends AbstractIndexComponent {
         this.docValuesFormatService = docValuesFormatService;
         this.mapperService = mapperService;
         MapBuilder<String, Codec> codecs = MapBuilder.<String, Codec>newMapBuilder();
+        final Codec defaultCodec;
         if (mapperService == null) {
-            codecs.put(DEFAULT_CODEC, Codec.getDefault());
+            defaultCodec = Codec.getDefault();
         } else {
-            codecs.put(DEFAULT_CODEC, new PerFieldMappingPostingFormatCodec(mapperService,
+            defaultCodec = new PerFieldMappingPostingFormatCodec(mapperService,
                     postingsFormatService.get(PostingsFormatService.DEFAULT_FORMAT).get(),
-                    docValuesFormatService.get(DocValuesFormatService.DEFAULT_FORMAT).get(), logger));
+                    docValuesFormatService.get(DocValuesFormatService.DEFAULT_FORMAT).get(), logger);
         }
+        codecs.put(DEFAULT_CODEC, defaultCodec);
         for (String codec : Codec.availableCodecs()) {
             codecs.put(codec, Codec.forName(codec));
         }
+        // same per field postings and doc values formats as the default codec, stored fields compressed in blocks
+        codecs.put(BEST_COMPRESSION_CODEC, new BestCompressionCodec(defaultCodec));
         this.codecs = codecs.immutableMap();
     }
 
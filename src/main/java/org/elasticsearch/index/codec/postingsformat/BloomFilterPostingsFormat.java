@@ -202,6 +202,13 @@ public final class BloomFilterPostingsFormat extends PostingsFormat {
             return filter;
         }
 
+        /**
+         * The filtered terms, to seek on once the filter was checked by the caller.
+         */
+        public Terms getDelegate() {
+            return delegateTerms;
+        }
+
         @Override
         public TermsEnum intersect(CompiledAutomaton compiled,
                                    final BytesRef startTerm) throws IOException {
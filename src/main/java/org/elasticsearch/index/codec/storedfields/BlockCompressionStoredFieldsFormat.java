@@ -0,0 +1,63 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.codec.storedfields;
+
+import org.apache.lucene.codecs.compressing.CompressingStoredFieldsFormat;
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.codecs.compressing.Decompressor;
+
+/**
+ * A stored fields format that compresses the stored fields (including <tt>_source</tt>) of many docs together
+ * in blocks of up to {@link #BLOCK_SIZE} bytes with deflate, so that small docs of the same segment share
+ * the context (field names, repeated values) they are compressed against. The last decompressed block is kept
+ * around by each reader, see {@link CachingDecompressor}.
+ */
+public class BlockCompressionStoredFieldsFormat extends CompressingStoredFieldsFormat {
+
+    public static final String FORMAT_NAME = "BlockCompressionStoredFields090";
+
+    public static final int BLOCK_SIZE = 1 << 16;
+
+    /**
+     * Shared by readers and writers so that merges can copy compressed blocks as is.
+     */
+    public static final CompressionMode COMPRESSION_MODE = new CompressionMode() {
+
+        @Override
+        public Compressor newCompressor() {
+            return CompressionMode.HIGH_COMPRESSION.newCompressor();
+        }
+
+        @Override
+        public Decompressor newDecompressor() {
+            return new CachingDecompressor(CompressionMode.HIGH_COMPRESSION.newDecompressor());
+        }
+
+        @Override
+        public String toString() {
+            return "BLOCK_COMPRESSION";
+        }
+    };
+
+    public BlockCompressionStoredFieldsFormat() {
+        super(FORMAT_NAME, COMPRESSION_MODE, BLOCK_SIZE);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.codec.storedfields;
+
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+
+/**
+ * A {@link Decompressor} that always decompresses whole blocks and keeps the last one, so that loading several
+ * docs of the same block (like the hits of a fetch phase sorted by time) only decompresses it once.
+ * <p/>
+ * Each stored fields reader clones its own decompressor and always reads from the same file, the blocks are
+ * therefore identified by the file pointer they start at. On a hit the input is moved to the end of the block,
+ * as if it was read, since merges iterate over the blocks sequentially.
+ */
+public class CachingDecompressor extends Decompressor {
+
+    private final Decompressor delegate;
+
+    private final BytesRef block = new BytesRef();
+
+    private long blockStart = -1;
+    private long blockEnd;
+    private int blockLength;
+
+    public CachingDecompressor(Decompressor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException {
+        final long start = in instanceof IndexInput ? ((IndexInput) in).getFilePointer() : -1;
+        if (start != -1 && start == blockStart && originalLength == blockLength) {
+            ((IndexInput) in).seek(blockEnd);
+        } else {
+            blockStart = -1;
+            delegate.decompress(in, originalLength, 0, originalLength, block);
+            if (start != -1) {
+                blockStart = start;
+                blockEnd = ((IndexInput) in).getFilePointer();
+                blockLength = originalLength;
+            }
+        }
+        bytes.bytes = block.bytes;
+        bytes.offset = block.offset + offset;
+        bytes.length = length;
+    }
+
+    @Override
+    public Decompressor clone() {
+        return new CachingDecompressor(delegate.clone());
+    }
+}
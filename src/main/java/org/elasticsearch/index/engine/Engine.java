@@ -38,6 +38,7 @@ import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.deletionpolicy.SnapshotIndexCommit;
 import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShardComponent;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.translog.Translog;
@@ -81,6 +82,13 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
 
     GetResult get(Get get) throws EngineException;
 
+    /**
+     * Executes several gets at once, sharing the version map, translog and index lookups. The results are
+     * returned in the order of the gets, a get failing (for example on a version conflict) has a <tt>null</tt>
+     * result and its failure set at the same position of <tt>failures</tt>.
+     */
+    GetResult[] get(Get[] gets, Throwable[] failures) throws EngineException;
+
     /**
      * Returns a new searcher instance. The consumer of this
      * API is responsible for releasing the returned seacher in a
@@ -136,6 +144,34 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
 
     void recover(RecoveryHandler recoveryHandler) throws EngineException;
 
+    /**
+     * Returns the local checkpoint of the engine: all operations with a sequence number up to
+     * (and including) it have been processed.
+     */
+    long localCheckpoint();
+
+    /**
+     * Marks the sequence number of an operation that could not be applied on this shard copy as processed,
+     * so that the local checkpoint moves past it.
+     */
+    void markSeqNoAsProcessed(long seqNo);
+
+    /**
+     * Returns the sequence number above which all operations are held by the current translog.
+     */
+    long translogSeqNo();
+
+    /**
+     * Returns the identifier of the sequence number history of this shard copy. Sequence numbers
+     * of two shard copies are only comparable if they share the same history.
+     */
+    String seqNoHistoryUUID();
+
+    /**
+     * Adopts the sequence number history of the primary, committed with the next flush.
+     */
+    void seqNoHistoryUUID(String seqNoHistoryUUID);
+
     static interface FailedEngineListener {
         void onFailedEngine(ShardId shardId, Throwable t);
     }
@@ -387,6 +423,9 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
         private long version = Versions.MATCH_ANY;
         private VersionType versionType = VersionType.INTERNAL;
         private Origin origin = Origin.PRIMARY;
+        private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
+        private boolean autoGeneratedId;
+        private boolean canHaveDuplicates;
 
         private long startTime;
         private long endTime;
@@ -482,6 +521,44 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
             return this.doc.source();
         }
 
+        /**
+         * The sequence number of the operation on its shard, assigned by the primary once the operation
+         * is applied. Replicas and recovery replay the sequence number given by the primary.
+         */
+        public long seqNo() {
+            return this.seqNo;
+        }
+
+        public Create seqNo(long seqNo) {
+            this.seqNo = seqNo;
+            return this;
+        }
+
+        /**
+         * Whether the id of the document was generated for this operation, in which case no other document
+         * can exist under it unless the operation was sent more than once.
+         */
+        public boolean autoGeneratedId() {
+            return this.autoGeneratedId;
+        }
+
+        public Create autoGeneratedId(boolean autoGeneratedId) {
+            this.autoGeneratedId = autoGeneratedId;
+            return this;
+        }
+
+        /**
+         * Whether the operation might have been applied already, typically because the request was retried.
+         */
+        public boolean canHaveDuplicates() {
+            return this.canHaveDuplicates;
+        }
+
+        public Create canHaveDuplicates(boolean canHaveDuplicates) {
+            this.canHaveDuplicates = canHaveDuplicates;
+            return this;
+        }
+
         public Create startTime(long startTime) {
             this.startTime = startTime;
             return this;
@@ -514,6 +591,7 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
         private long version = Versions.MATCH_ANY;
         private VersionType versionType = VersionType.INTERNAL;
         private Origin origin = Origin.PRIMARY;
+        private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
         private boolean created;
 
         private long startTime;
@@ -613,6 +691,19 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
             return this.doc.source();
         }
 
+        /**
+         * The sequence number of the operation on its shard, assigned by the primary once the operation
+         * is applied. Replicas and recovery replay the sequence number given by the primary.
+         */
+        public long seqNo() {
+            return this.seqNo;
+        }
+
+        public Index seqNo(long seqNo) {
+            this.seqNo = seqNo;
+            return this;
+        }
+
         public Index startTime(long startTime) {
             this.startTime = startTime;
             return this;
@@ -656,6 +747,7 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
         private long version = Versions.MATCH_ANY;
         private VersionType versionType = VersionType.INTERNAL;
         private Origin origin = Origin.PRIMARY;
+        private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
         private boolean notFound;
 
         private long startTime;
@@ -724,6 +816,19 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
             return this;
         }
 
+        /**
+         * The sequence number of the operation on its shard, assigned by the primary once the operation
+         * is applied. Replicas and recovery replay the sequence number given by the primary.
+         */
+        public long seqNo() {
+            return this.seqNo;
+        }
+
+        public Delete seqNo(long seqNo) {
+            this.seqNo = seqNo;
+            return this;
+        }
+
         public Delete startTime(long startTime) {
             this.startTime = startTime;
             return this;
@@ -757,6 +862,7 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
         private final String[] types;
         private final Filter parentFilter;
         private Operation.Origin origin = Operation.Origin.PRIMARY;
+        private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
 
         private long startTime;
         private long endTime;
@@ -807,6 +913,19 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
             return this.origin;
         }
 
+        /**
+         * The sequence number of the operation on its shard, assigned by the primary once the operation
+         * is applied. Replicas and recovery replay the sequence number given by the primary.
+         */
+        public long seqNo() {
+            return this.seqNo;
+        }
+
+        public DeleteByQuery seqNo(long seqNo) {
+            this.seqNo = seqNo;
+            return this;
+        }
+
         public DeleteByQuery startTime(long startTime) {
             this.startTime = startTime;
             return this;
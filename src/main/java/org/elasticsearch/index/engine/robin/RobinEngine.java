@@ -22,6 +22,7 @@ package org.elasticsearch.index.engine.robin;
 import com.google.common.collect.Lists;
 import org.apache.lucene.index.*;
 import org.apache.lucene.index.IndexWriter.IndexReaderWarmer;
+import org.apache.lucene.index.sorter.SortingMergePolicy;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SearcherFactory;
@@ -35,6 +36,7 @@ import org.elasticsearch.ElasticSearchIllegalStateException;
 import org.elasticsearch.cluster.routing.operation.hash.djb.DjbHashFunction;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Preconditions;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.HashedBytesRef;
@@ -58,8 +60,11 @@ import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.merge.OnGoingMerge;
 import org.elasticsearch.index.merge.policy.IndexUpgraderMergePolicy;
 import org.elasticsearch.index.merge.policy.MergePolicyProvider;
+import org.elasticsearch.index.merge.policy.NumericFieldSorter;
 import org.elasticsearch.index.merge.scheduler.MergeSchedulerProvider;
 import org.elasticsearch.index.search.nested.IncludeNestedDocsQuery;
+import org.elasticsearch.index.seqno.LocalCheckpointTracker;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.index.settings.IndexSettingsService;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
@@ -114,6 +119,8 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
     private final AnalysisService analysisService;
     private final SimilarityService similarityService;
     private final CodecService codecService;
+    @Nullable
+    private final NumericFieldSorter indexSorter;
 
 
     private final ReadWriteLock rwl = new ReentrantReadWriteLock();
@@ -151,12 +158,18 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
     private final ApplySettings applySettings = new ApplySettings();
 
     private volatile boolean failOnMergeFailure;
+    private final boolean optimizeAutoGeneratedId;
     private Throwable failedEngine = null;
     private final Object failedEngineMutex = new Object();
     private final CopyOnWriteArrayList<FailedEngineListener> failedEngineListeners = new CopyOnWriteArrayList<FailedEngineListener>();
 
     private final AtomicLong translogIdGenerator = new AtomicLong();
 
+    private volatile LocalCheckpointTracker localCheckpoint = new LocalCheckpointTracker(SequenceNumbers.UNASSIGNED_SEQ_NO);
+    // all operations with a higher sequence number are held by the current translog
+    private volatile long translogSeqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
+    private volatile String seqNoHistoryUUID;
+
     private SegmentInfos lastCommittedSegmentInfos;
 
     @Inject
@@ -188,6 +201,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
         this.analysisService = analysisService;
         this.similarityService = similarityService;
         this.codecService = codecService;
+        this.indexSorter = NumericFieldSorter.fromSettings(indexSettings);
         this.compoundOnFlush = indexSettings.getAsBoolean(INDEX_COMPOUND_ON_FLUSH, this.compoundOnFlush);
         this.indexConcurrency = indexSettings.getAsInt(INDEX_INDEX_CONCURRENCY, Math.max(IndexWriterConfig.DEFAULT_MAX_THREAD_STATES, (int) (EsExecutors.boundedNumberOfProcessors(indexSettings) * 0.65)));
         this.versionMap = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
@@ -199,6 +213,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
         this.indexSettingsService.addListener(applySettings);
 
         this.failOnMergeFailure = indexSettings.getAsBoolean(INDEX_FAIL_ON_MERGE_FAILURE, true);
+        this.optimizeAutoGeneratedId = indexSettings.getAsBoolean(INDEX_OPTIMIZE_AUTO_GENERATED_ID, true);
         if (failOnMergeFailure) {
             this.mergeScheduler.addFailureListener(new FailEngineOnMergeFailure());
         }
@@ -266,16 +281,18 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                 // we rely on that for the commit data translog id key
                 if (Lucene.indexExists(store.directory())) {
                     Map<String, String> commitUserData = Lucene.readSegmentInfos(store.directory()).getUserData();
+                    startSeqNoHistory(commitUserData);
                     if (commitUserData.containsKey(Translog.TRANSLOG_ID_KEY)) {
                         translogIdGenerator.set(Long.parseLong(commitUserData.get(Translog.TRANSLOG_ID_KEY)));
                     } else {
                         translogIdGenerator.set(System.currentTimeMillis());
-                        indexWriter.setCommitData(MapBuilder.<String, String>newMapBuilder().put(Translog.TRANSLOG_ID_KEY, Long.toString(translogIdGenerator.get())).map());
+                        indexWriter.setCommitData(commitData(translogIdGenerator.get(), translogSeqNo));
                         indexWriter.commit();
                     }
                 } else {
+                    startSeqNoHistory(null);
                     translogIdGenerator.set(System.currentTimeMillis());
-                    indexWriter.setCommitData(MapBuilder.<String, String>newMapBuilder().put(Translog.TRANSLOG_ID_KEY, Long.toString(translogIdGenerator.get())).map());
+                    indexWriter.setCommitData(commitData(translogIdGenerator.get(), translogSeqNo));
                     indexWriter.commit();
                 }
                 translog.newTranslog(translogIdGenerator.get());
@@ -374,6 +391,179 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
         }
     }
 
+    @Override
+    public GetResult[] get(Get[] gets, Throwable[] failures) throws EngineException {
+        GetResult[] results = new GetResult[gets.length];
+        VersionValue[] versionValues = new VersionValue[gets.length];
+        int[] translogReads = new int[gets.length];
+        int numTranslogReads = 0;
+        int[] indexLookups = new int[gets.length];
+        int numIndexLookups = 0;
+        rwl.readLock().lock();
+        try {
+            for (int i = 0; i < gets.length; i++) {
+                Get get = gets[i];
+                if (get.realtime()) {
+                    VersionValue versionValue = versionMap.get(versionKey(get.uid()));
+                    if (versionValue != null) {
+                        if (versionValue.delete()) {
+                            results[i] = GetResult.NOT_EXISTS;
+                            continue;
+                        }
+                        if (get.version() != Versions.MATCH_ANY) {
+                            if (get.versionType().isVersionConflict(versionValue.version(), get.version())) {
+                                Uid uid = Uid.createUid(get.uid().text());
+                                failures[i] = new VersionConflictEngineException(shardId, uid.type(), uid.id(), versionValue.version(), get.version());
+                                continue;
+                            }
+                        }
+                        if (!get.loadSource()) {
+                            results[i] = new GetResult(true, versionValue.version(), null);
+                            continue;
+                        }
+                        versionValues[i] = versionValue;
+                        translogReads[numTranslogReads++] = i;
+                        continue;
+                    }
+                }
+                indexLookups[numIndexLookups++] = i;
+            }
+
+            if (numTranslogReads > 0) {
+                Translog.Location[] locations = new Translog.Location[numTranslogReads];
+                for (int j = 0; j < numTranslogReads; j++) {
+                    locations[j] = versionValues[translogReads[j]].translogLocation();
+                }
+                byte[][] data = translog.read(locations);
+                for (int j = 0; j < numTranslogReads; j++) {
+                    int i = translogReads[j];
+                    if (data[j] != null) {
+                        try {
+                            Translog.Source source = TranslogStreams.readSource(data[j]);
+                            results[i] = new GetResult(true, versionValues[i].version(), source);
+                            continue;
+                        } catch (IOException e) {
+                            // switched on us, read it from the reader
+                        }
+                    }
+                    indexLookups[numIndexLookups++] = i;
+                }
+            }
+
+            if (numIndexLookups == 0) {
+                return results;
+            }
+
+            // no version, get the version from the index, we know that we refresh on flush
+            SearcherManager manager = this.searcherManager;
+            IndexSearcher searcher;
+            try {
+                searcher = manager.acquire();
+            } catch (IOException e) {
+                logger.error("failed to acquire searcher, source [get]", e);
+                throw new EngineException(shardId, e.getMessage());
+            }
+            try {
+                Term[] uids = new Term[numIndexLookups];
+                for (int j = 0; j < numIndexLookups; j++) {
+                    uids[j] = gets[indexLookups[j]].uid();
+                }
+                final Versions.DocIdAndVersion[] docIdAndVersions;
+                try {
+                    docIdAndVersions = Versions.loadDocIdAndVersions(searcher.getIndexReader(), uids);
+                } catch (Throwable e) {
+                    //TODO: A better exception goes here
+                    throw new EngineException(shardId(), "Couldn't resolve version", e);
+                }
+                for (int j = 0; j < numIndexLookups; j++) {
+                    int i = indexLookups[j];
+                    Get get = gets[i];
+                    Versions.DocIdAndVersion docIdAndVersion = docIdAndVersions[j];
+                    if (docIdAndVersion == null) {
+                        results[i] = GetResult.NOT_EXISTS;
+                        continue;
+                    }
+                    if (get.version() != Versions.MATCH_ANY) {
+                        if (get.versionType().isVersionConflict(docIdAndVersion.version, get.version())) {
+                            Uid uid = Uid.createUid(get.uid().text());
+                            failures[i] = new VersionConflictEngineException(shardId, uid.type(), uid.id(), docIdAndVersion.version, get.version());
+                            continue;
+                        }
+                    }
+                    // each result holds its own reference on the reader, it is the responsibility of the caller to call GetResult.release
+                    searcher.getIndexReader().incRef();
+                    results[i] = new GetResult(newSearcher("get", searcher, manager), docIdAndVersion);
+                }
+            } finally {
+                try {
+                    manager.release(searcher);
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+            return results;
+        } finally {
+            rwl.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resumes the sequence numbers from the commit the engine starts on. The translog is started
+     * empty, so only operations above the committed local checkpoint will make it into it.
+     */
+    private void startSeqNoHistory(@Nullable Map<String, String> commitUserData) {
+        long checkpoint = SequenceNumbers.readSeqNo(commitUserData, SequenceNumbers.LOCAL_CHECKPOINT_KEY);
+        localCheckpoint = new LocalCheckpointTracker(checkpoint);
+        translogSeqNo = Math.max(checkpoint, SequenceNumbers.readSeqNo(commitUserData, SequenceNumbers.TRANSLOG_SEQ_NO_KEY));
+        String historyUUID = commitUserData == null ? null : commitUserData.get(SequenceNumbers.HISTORY_UUID_KEY);
+        seqNoHistoryUUID = historyUUID == null ? Strings.randomBase64UUID() : historyUUID;
+    }
+
+    private Map<String, String> commitData(long translogId, long translogSeqNo) {
+        return MapBuilder.<String, String>newMapBuilder()
+                .put(Translog.TRANSLOG_ID_KEY, Long.toString(translogId))
+                .put(SequenceNumbers.LOCAL_CHECKPOINT_KEY, Long.toString(localCheckpoint.checkpoint()))
+                .put(SequenceNumbers.TRANSLOG_SEQ_NO_KEY, Long.toString(translogSeqNo))
+                .put(SequenceNumbers.HISTORY_UUID_KEY, seqNoHistoryUUID)
+                .map();
+    }
+
+    @Override
+    public long localCheckpoint() {
+        return localCheckpoint.checkpoint();
+    }
+
+    @Override
+    public void markSeqNoAsProcessed(long seqNo) {
+        localCheckpoint.markSeqNoAsProcessed(seqNo);
+    }
+
+    @Override
+    public long translogSeqNo() {
+        return translogSeqNo;
+    }
+
+    @Override
+    public String seqNoHistoryUUID() {
+        return seqNoHistoryUUID;
+    }
+
+    @Override
+    public void seqNoHistoryUUID(String seqNoHistoryUUID) {
+        rwl.readLock().lock();
+        try {
+            ensureOpen();
+            if (!seqNoHistoryUUID.equals(this.seqNoHistoryUUID)) {
+                // operations of the previous history we never received are gone with it
+                localCheckpoint.markAllSeqNoAsProcessed();
+                this.seqNoHistoryUUID = seqNoHistoryUUID;
+                flushNeeded = true;
+            }
+        } finally {
+            rwl.readLock().unlock();
+        }
+    }
+
     @Override
     public void create(Create create) throws EngineException {
         rwl.readLock().lock();
@@ -397,22 +587,34 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
             }
             throw new CreateFailedEngineException(shardId, create, e);
         } finally {
+            // on success as well as on failure, a sequence number left unprocessed would hold the checkpoint back for good
+            localCheckpoint.markSeqNoAsProcessed(create.seqNo());
             rwl.readLock().unlock();
         }
     }
 
     private void innerCreate(Create create, IndexWriter writer) throws IOException {
         synchronized (dirtyLock(create.uid())) {
+            if (create.origin() != Operation.Origin.PRIMARY) {
+                localCheckpoint.updateMaxSeqNo(create.seqNo());
+            }
             HashedBytesRef versionKey = versionKey(create.uid());
             final long currentVersion;
-            VersionValue versionValue = versionMap.get(versionKey);
-            if (versionValue == null) {
-                currentVersion = loadCurrentVersionFromIndex(create.uid());
+            final VersionValue versionValue;
+            if (optimizeAutoGeneratedId && create.autoGeneratedId() && !create.canHaveDuplicates() && create.origin() == Operation.Origin.PRIMARY) {
+                // the id was generated for this very operation, and it was not retried, no document can exist under it
+                versionValue = null;
+                currentVersion = Versions.NOT_FOUND;
             } else {
-                if (enableGcDeletes && versionValue.delete() && (threadPool.estimatedTimeInMillis() - versionValue.time()) > gcDeletesInMillis) {
-                    currentVersion = Versions.NOT_FOUND; // deleted, and GC
+                versionValue = versionMap.get(versionKey);
+                if (versionValue == null) {
+                    currentVersion = loadCurrentVersionFromIndex(create.uid());
                 } else {
-                    currentVersion = versionValue.version();
+                    if (enableGcDeletes && versionValue.delete() && (threadPool.estimatedTimeInMillis() - versionValue.time()) > gcDeletesInMillis) {
+                        currentVersion = Versions.NOT_FOUND; // deleted, and GC
+                    } else {
+                        currentVersion = versionValue.version();
+                    }
                 }
             }
 
@@ -462,6 +664,9 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
             } else {
                 writer.addDocument(create.docs().get(0), create.analyzer());
             }
+            if (create.origin() == Operation.Origin.PRIMARY) {
+                create.seqNo(localCheckpoint.generateSeqNo());
+            }
             Translog.Location translogLocation = translog.add(new Translog.Create(create));
 
             versionMap.put(versionKey, new VersionValue(updatedVersion, false, threadPool.estimatedTimeInMillis(), translogLocation));
@@ -494,12 +699,17 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
             }
             throw new IndexFailedEngineException(shardId, index, e);
         } finally {
+            // on success as well as on failure, a sequence number left unprocessed would hold the checkpoint back for good
+            localCheckpoint.markSeqNoAsProcessed(index.seqNo());
             rwl.readLock().unlock();
         }
     }
 
     private void innerIndex(Index index, IndexWriter writer) throws IOException {
         synchronized (dirtyLock(index.uid())) {
+            if (index.origin() != Operation.Origin.PRIMARY) {
+                localCheckpoint.updateMaxSeqNo(index.seqNo());
+            }
             HashedBytesRef versionKey = versionKey(index.uid());
             final long currentVersion;
             VersionValue versionValue = versionMap.get(versionKey);
@@ -554,6 +764,9 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                     writer.updateDocument(index.uid(), index.docs().get(0), index.analyzer());
                 }
             }
+            if (index.origin() == Operation.Origin.PRIMARY) {
+                index.seqNo(localCheckpoint.generateSeqNo());
+            }
             Translog.Location translogLocation = translog.add(new Translog.Index(index));
 
             versionMap.put(versionKey, new VersionValue(updatedVersion, false, threadPool.estimatedTimeInMillis(), translogLocation));
@@ -585,12 +798,17 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
             }
             throw new DeleteFailedEngineException(shardId, delete, e);
         } finally {
+            // on success as well as on failure, a sequence number left unprocessed would hold the checkpoint back for good
+            localCheckpoint.markSeqNoAsProcessed(delete.seqNo());
             rwl.readLock().unlock();
         }
     }
 
     private void innerDelete(Delete delete, IndexWriter writer) throws IOException {
         synchronized (dirtyLock(delete.uid())) {
+            if (delete.origin() != Operation.Origin.PRIMARY) {
+                localCheckpoint.updateMaxSeqNo(delete.seqNo());
+            }
             final long currentVersion;
             HashedBytesRef versionKey = versionKey(delete.uid());
             VersionValue versionValue = versionMap.get(versionKey);
@@ -629,16 +847,25 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
             if (currentVersion == Versions.NOT_FOUND) {
                 // doc does not exists and no prior deletes
                 delete.version(updatedVersion).notFound(true);
+                if (delete.origin() == Operation.Origin.PRIMARY) {
+                    delete.seqNo(localCheckpoint.generateSeqNo());
+                }
                 Translog.Location translogLocation = translog.add(new Translog.Delete(delete));
                 versionMap.put(versionKey, new VersionValue(updatedVersion, true, threadPool.estimatedTimeInMillis(), translogLocation));
             } else if (versionValue != null && versionValue.delete()) {
                 // a "delete on delete", in this case, we still increment the version, log it, and return that version
                 delete.version(updatedVersion).notFound(true);
+                if (delete.origin() == Operation.Origin.PRIMARY) {
+                    delete.seqNo(localCheckpoint.generateSeqNo());
+                }
                 Translog.Location translogLocation = translog.add(new Translog.Delete(delete));
                 versionMap.put(versionKey, new VersionValue(updatedVersion, true, threadPool.estimatedTimeInMillis(), translogLocation));
             } else {
                 delete.version(updatedVersion);
                 writer.deleteDocuments(delete.uid());
+                if (delete.origin() == Operation.Origin.PRIMARY) {
+                    delete.seqNo(localCheckpoint.generateSeqNo());
+                }
                 Translog.Location translogLocation = translog.add(new Translog.Delete(delete));
                 versionMap.put(versionKey, new VersionValue(updatedVersion, true, threadPool.estimatedTimeInMillis(), translogLocation));
             }
@@ -667,7 +894,13 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                 query = delete.query();
             }
 
-            writer.deleteDocuments(query);
+            if (delete.origin() == Operation.Origin.PRIMARY) {
+                writer.deleteDocuments(query);
+                delete.seqNo(localCheckpoint.generateSeqNo());
+            } else {
+                localCheckpoint.updateMaxSeqNo(delete.seqNo());
+                writer.deleteDocuments(query);
+            }
             translog.add(new Translog.DeleteByQuery(delete));
             dirty = true;
             possibleMergeNeeded = true;
@@ -675,6 +908,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
         } catch (IOException e) {
             throw new DeleteByQueryFailedEngineException(shardId, delete, e);
         } finally {
+            localCheckpoint.markSeqNoAsProcessed(delete.seqNo());
             rwl.readLock().unlock();
         }
         //TODO: This is heavy, since we refresh, but we really have to...
@@ -792,9 +1026,12 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                         if (flushNeeded || flush.force()) {
                             flushNeeded = false;
                             long translogId = translogIdGenerator.incrementAndGet();
-                            indexWriter.setCommitData(MapBuilder.<String, String>newMapBuilder().put(Translog.TRANSLOG_ID_KEY, Long.toString(translogId)).map());
+                            // no operation is in flight under the write lock, the new translog will hold all that follow
+                            long newTranslogSeqNo = localCheckpoint.maxSeqNo();
+                            indexWriter.setCommitData(commitData(translogId, newTranslogSeqNo));
                             indexWriter.commit();
                             translog.newTranslog(translogId);
+                            translogSeqNo = newTranslogSeqNo;
                         }
 
                         SearcherManager current = this.searcherManager;
@@ -832,13 +1069,17 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                         try {
                             long translogId = translogIdGenerator.incrementAndGet();
                             translog.newTransientTranslog(translogId);
-                            indexWriter.setCommitData(MapBuilder.<String, String>newMapBuilder().put(Translog.TRANSLOG_ID_KEY, Long.toString(translogId)).map());
+                            // operations only make it to the translog after their sequence number is accounted for,
+                            // so all operations above it that are not in the committed index are in the new translog
+                            long newTranslogSeqNo = localCheckpoint.maxSeqNo();
+                            indexWriter.setCommitData(commitData(translogId, newTranslogSeqNo));
                             indexWriter.commit();
                             refreshVersioningTable(threadPool.estimatedTimeInMillis());
                             // we need to move transient to current only after we refresh
                             // so items added to current will still be around for realtime get
                             // when tans overrides it
                             translog.makeTransientCurrent();
+                            translogSeqNo = newTranslogSeqNo;
                         } catch (OutOfMemoryError e) {
                             translog.revertTransient();
                             failEngine(e);
@@ -868,7 +1109,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                     // other flushes use flushLock
                     try {
                         long translogId = translog.currentId();
-                        indexWriter.setCommitData(MapBuilder.<String, String>newMapBuilder().put(Translog.TRANSLOG_ID_KEY, Long.toString(translogId)).map());
+                        indexWriter.setCommitData(commitData(translogId, translogSeqNo));
                         indexWriter.commit();
                     } catch (OutOfMemoryError e) {
                         translog.revertTransient();
@@ -1310,7 +1551,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
     private long loadCurrentVersionFromIndex(Term uid) throws IOException {
         Searcher searcher = acquireSearcher("load_version");
         try {
-            return Versions.loadVersion(searcher.reader(), uid);
+            return Versions.loadVersion(searcher.reader(), uid, indexingService.uidLookupStats());
         } finally {
             searcher.release();
         }
@@ -1340,9 +1581,15 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
             config.setIndexDeletionPolicy(deletionPolicy);
             config.setMergeScheduler(mergeScheduler.newMergeScheduler());
             MergePolicy mergePolicy = mergePolicyProvider.newMergePolicy();
-            // Give us the opportunity to upgrade old segments while performing
-            // background merges
-            mergePolicy = new IndexUpgraderMergePolicy(mergePolicy);
+            if (indexSorter != null) {
+                // sorted indices are created on this version, so they don't have old segments to upgrade, and both
+                // policies can't be combined since each one of them replaces the readers of the merges it wraps
+                mergePolicy = new SortingMergePolicy(mergePolicy, indexSorter);
+            } else {
+                // Give us the opportunity to upgrade old segments while performing
+                // background merges
+                mergePolicy = new IndexUpgraderMergePolicy(mergePolicy);
+            }
             config.setMergePolicy(mergePolicy);
             config.setSimilarity(similarityService.similarity());
             config.setRAMBufferSizeMB(indexingBufferSize.mbFrac());
@@ -1393,6 +1640,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
     public static final String INDEX_COMPOUND_ON_FLUSH = "index.compound_on_flush";
     public static final String INDEX_GC_DELETES = "index.gc_deletes";
     public static final String INDEX_FAIL_ON_MERGE_FAILURE = "index.fail_on_merge_failure";
+    public static final String INDEX_OPTIMIZE_AUTO_GENERATED_ID = "index.optimize_auto_generated_id";
 
     class ApplySettings implements IndexSettingsService.Listener {
 
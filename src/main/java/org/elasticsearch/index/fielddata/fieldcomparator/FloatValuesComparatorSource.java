@@ -41,6 +41,21 @@ public class FloatValuesComparatorSource extends IndexFieldData.XFieldComparator
         this.sortMode = sortMode;
     }
 
+    /**
+     * The value docs without a value sort with, <tt>null</tt> (the default) to sort them last.
+     */
+    @Nullable
+    public Object missingValue() {
+        return missingValue;
+    }
+
+    /**
+     * The value multi valued docs sort with.
+     */
+    public SortMode sortMode() {
+        return sortMode;
+    }
+
     @Override
     public SortField.Type reducedType() {
         return SortField.Type.FLOAT;
@@ -198,6 +198,8 @@ public class IndexShardGatewayService extends AbstractIndexShardComponent implem
                     if (indexShard.state() != IndexShardState.POST_RECOVERY) {
                         indexShard.postRecovery("post recovery from gateway");
                     }
+                    // other copies of the shard might hold operations the gateway did not
+                    indexShard.startNewSeqNoHistory("recovered from gateway");
                     // refresh the shard
                     indexShard.refresh(new Engine.Refresh("post_gateway").force(true));
 
@@ -55,6 +55,7 @@ import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.search.lookup.SourceLookup;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -115,6 +116,95 @@ public class ShardGetService extends AbstractIndexShardComponent {
         }
     }
 
+    /**
+     * Gets several documents at once, the lookups of all of them being executed in a single pass over the version
+     * map, the translog and the index (see {@link Engine#get(Engine.Get[], Throwable[])}). The results are returned
+     * in the order of the ids, a get failing has a <tt>null</tt> result and its failure set at the same position of
+     * <tt>failures</tt>.
+     */
+    public GetResult[] multiGet(List<String> types, List<String> ids, List<String[]> gFields, boolean realtime, long[] versions,
+                                List<VersionType> versionTypes, List<FetchSourceContext> fetchSourceContexts, Throwable[] failures)
+            throws ElasticSearchException {
+        final int size = ids.size();
+        GetResult[] results = new GetResult[size];
+        if (size == 0) {
+            return results;
+        }
+        currentMetric.inc(size);
+        try {
+            long now = System.nanoTime();
+
+            // a get on all types can only be batched when there is a single one to look into
+            String singleType = null;
+            if (mapperService.types().size() == 1) {
+                singleType = mapperService.types().iterator().next();
+            }
+
+            FetchSourceContext[] normalizedFetchSourceContexts = new FetchSourceContext[size];
+            String[] lookupTypes = new String[size];
+            int[] batched = new int[size];
+            Engine.Get[] gets = new Engine.Get[size];
+            int numGets = 0;
+            for (int i = 0; i < size; i++) {
+                String type = types.get(i);
+                String id = ids.get(i);
+                VersionType versionType = versionTypes.get(i) == null ? VersionType.INTERNAL : versionTypes.get(i);
+                if (type == null || type.equals("_all")) {
+                    if (singleType == null) {
+                        try {
+                            results[i] = innerGet(type, id, gFields.get(i), realtime, versions[i], versionType, fetchSourceContexts.get(i));
+                        } catch (Throwable t) {
+                            failures[i] = t;
+                        }
+                        continue;
+                    }
+                    type = singleType;
+                }
+                lookupTypes[i] = type;
+                normalizedFetchSourceContexts[i] = normalizeFetchSourceContent(fetchSourceContexts.get(i), gFields.get(i));
+                boolean loadSource = (gFields.get(i) != null && gFields.get(i).length > 0) || normalizedFetchSourceContexts[i].fetchSource();
+                gets[numGets] = new Engine.Get(realtime, new Term(UidFieldMapper.NAME, Uid.createUidAsBytes(type, id)))
+                        .loadSource(loadSource).version(versions[i]).versionType(versionType);
+                batched[numGets++] = i;
+            }
+
+            if (numGets > 0) {
+                if (numGets < size) {
+                    gets = Arrays.copyOf(gets, numGets);
+                }
+                Throwable[] getFailures = new Throwable[numGets];
+                Engine.GetResult[] getResults = indexShard.get(gets, getFailures);
+                for (int j = 0; j < numGets; j++) {
+                    int i = batched[j];
+                    if (getFailures[j] != null) {
+                        failures[i] = getFailures[j];
+                    } else if (!getResults[j].exists()) {
+                        getResults[j].release();
+                        results[i] = new GetResult(shardId.index().name(), types.get(i), ids.get(i), -1, false, null, null);
+                    } else {
+                        try {
+                            results[i] = innerGetLoadFromEngineResult(lookupTypes[i], ids.get(i), gFields.get(i), normalizedFetchSourceContexts[i], getResults[j]);
+                        } catch (Throwable t) {
+                            failures[i] = t;
+                        }
+                    }
+                }
+            }
+
+            long took = (System.nanoTime() - now) / size;
+            for (GetResult result : results) {
+                if (result != null && result.isExists()) {
+                    existsMetric.inc(took);
+                } else {
+                    missingMetric.inc(took);
+                }
+            }
+            return results;
+        } finally {
+            currentMetric.dec(size);
+        }
+    }
+
     /**
      * Returns {@link GetResult} based on the specified {@link Engine.GetResult} argument.
      * This method basically loads specified fields for the associated document in the engineGetResult.
@@ -199,6 +289,14 @@ public class ShardGetService extends AbstractIndexShardComponent {
             }
         }
 
+        return innerGetLoadFromEngineResult(type, id, gFields, fetchSourceContext, get);
+    }
+
+    /**
+     * Loads the document found by the engine, either from the stored fields or from the translog source.
+     * Releases the engine result.
+     */
+    private GetResult innerGetLoadFromEngineResult(String type, String id, String[] gFields, FetchSourceContext fetchSourceContext, Engine.GetResult get) {
         DocumentMapper docMapper = mapperService.documentMapper(type);
         if (docMapper == null) {
             get.release();
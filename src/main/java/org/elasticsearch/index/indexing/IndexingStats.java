@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.indexing;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -46,6 +47,10 @@ public class IndexingStats implements Streamable, ToXContent {
         private long deleteTimeInMillis;
         private long deleteCurrent;
 
+        private long uidLookupCount;
+        private long uidLookupBloomSkipped;
+        private long uidLookupBloomFalsePositives;
+
         Stats() {
 
         }
@@ -59,6 +64,14 @@ public class IndexingStats implements Streamable, ToXContent {
             this.deleteCurrent = deleteCurrent;
         }
 
+        public Stats(long indexCount, long indexTimeInMillis, long indexCurrent, long deleteCount, long deleteTimeInMillis, long deleteCurrent,
+                     long uidLookupCount, long uidLookupBloomSkipped, long uidLookupBloomFalsePositives) {
+            this(indexCount, indexTimeInMillis, indexCurrent, deleteCount, deleteTimeInMillis, deleteCurrent);
+            this.uidLookupCount = uidLookupCount;
+            this.uidLookupBloomSkipped = uidLookupBloomSkipped;
+            this.uidLookupBloomFalsePositives = uidLookupBloomFalsePositives;
+        }
+
         public void add(Stats stats) {
             indexCount += stats.indexCount;
             indexTimeInMillis += stats.indexTimeInMillis;
@@ -67,6 +80,10 @@ public class IndexingStats implements Streamable, ToXContent {
             deleteCount += stats.deleteCount;
             deleteTimeInMillis += stats.deleteTimeInMillis;
             deleteCurrent += stats.deleteCurrent;
+
+            uidLookupCount += stats.uidLookupCount;
+            uidLookupBloomSkipped += stats.uidLookupBloomSkipped;
+            uidLookupBloomFalsePositives += stats.uidLookupBloomFalsePositives;
         }
 
         public long getIndexCount() {
@@ -101,6 +118,27 @@ public class IndexingStats implements Streamable, ToXContent {
             return deleteCurrent;
         }
 
+        /**
+         * The number of uids looked up in the index to resolve the current version of a document.
+         */
+        public long getUidLookupCount() {
+            return uidLookupCount;
+        }
+
+        /**
+         * The number of segments the uid lookups skipped because the bloom filter of the segment ruled the uid out.
+         */
+        public long getUidLookupBloomSkipped() {
+            return uidLookupBloomSkipped;
+        }
+
+        /**
+         * The number of segments the bloom filter did not rule out while they didn't contain the uid.
+         */
+        public long getUidLookupBloomFalsePositives() {
+            return uidLookupBloomFalsePositives;
+        }
+
         public static Stats readStats(StreamInput in) throws IOException {
             Stats stats = new Stats();
             stats.readFrom(in);
@@ -116,6 +154,12 @@ public class IndexingStats implements Streamable, ToXContent {
             deleteCount = in.readVLong();
             deleteTimeInMillis = in.readVLong();
             deleteCurrent = in.readVLong();
+
+            if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+                uidLookupCount = in.readVLong();
+                uidLookupBloomSkipped = in.readVLong();
+                uidLookupBloomFalsePositives = in.readVLong();
+            }
         }
 
         @Override
@@ -127,6 +171,12 @@ public class IndexingStats implements Streamable, ToXContent {
             out.writeVLong(deleteCount);
             out.writeVLong(deleteTimeInMillis);
             out.writeVLong(deleteCurrent);
+
+            if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+                out.writeVLong(uidLookupCount);
+                out.writeVLong(uidLookupBloomSkipped);
+                out.writeVLong(uidLookupBloomFalsePositives);
+            }
         }
 
         @Override
@@ -139,6 +189,10 @@ public class IndexingStats implements Streamable, ToXContent {
             builder.timeValueField(Fields.DELETE_TIME_IN_MILLIS, Fields.DELETE_TIME, deleteTimeInMillis);
             builder.field(Fields.DELETE_CURRENT, deleteCurrent);
 
+            builder.field(Fields.UID_LOOKUP_TOTAL, uidLookupCount);
+            builder.field(Fields.UID_LOOKUP_BLOOM_SKIPPED, uidLookupBloomSkipped);
+            builder.field(Fields.UID_LOOKUP_BLOOM_FALSE_POSITIVES, uidLookupBloomFalsePositives);
+
             return builder;
         }
     }
@@ -218,6 +272,9 @@ public class IndexingStats implements Streamable, ToXContent {
         static final XContentBuilderString DELETE_TIME = new XContentBuilderString("delete_time");
         static final XContentBuilderString DELETE_TIME_IN_MILLIS = new XContentBuilderString("delete_time_in_millis");
         static final XContentBuilderString DELETE_CURRENT = new XContentBuilderString("delete_current");
+        static final XContentBuilderString UID_LOOKUP_TOTAL = new XContentBuilderString("uid_lookup_total");
+        static final XContentBuilderString UID_LOOKUP_BLOOM_SKIPPED = new XContentBuilderString("uid_lookup_bloom_skipped");
+        static final XContentBuilderString UID_LOOKUP_BLOOM_FALSE_POSITIVES = new XContentBuilderString("uid_lookup_bloom_false_positives");
     }
 
     public static IndexingStats readIndexingStats(StreamInput in) throws IOException {
@@ -22,6 +22,7 @@ package org.elasticsearch.index.indexing;
 import com.google.common.collect.ImmutableMap;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
@@ -44,6 +45,8 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
 
     private final StatsHolder totalStats = new StatsHolder();
 
+    private final Versions.LookupStats uidLookupStats = new Versions.LookupStats();
+
     private volatile Map<String, StatsHolder> typesStats = ImmutableMap.of();
 
     private CopyOnWriteArrayList<IndexingOperationListener> listeners = null;
@@ -60,7 +63,7 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
      * <tt>_all</tt> for all types.
      */
     public IndexingStats stats(String... types) {
-        IndexingStats.Stats total = totalStats.stats();
+        IndexingStats.Stats total = totalStats.stats(uidLookupStats);
         Map<String, IndexingStats.Stats> typesSt = null;
         if (types != null && types.length > 0) {
             if (types.length == 1 && types[0].equals("_all")) {
@@ -81,6 +84,13 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
         return new IndexingStats(total, typesSt);
     }
 
+    /**
+     * The stats the engine records its uid lookups (to resolve the current version of documents) in.
+     */
+    public Versions.LookupStats uidLookupStats() {
+        return uidLookupStats;
+    }
+
     public synchronized void addListener(IndexingOperationListener listener) {
         if (listeners == null) {
             listeners = new CopyOnWriteArrayList<IndexingOperationListener>();
@@ -292,6 +302,13 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
                     deleteMetric.count(), TimeUnit.NANOSECONDS.toMillis(deleteMetric.sum()), deleteCurrent.count());
         }
 
+        public IndexingStats.Stats stats(Versions.LookupStats uidLookupStats) {
+            return new IndexingStats.Stats(
+                    indexMetric.count(), TimeUnit.NANOSECONDS.toMillis(indexMetric.sum()), indexCurrent.count(),
+                    deleteMetric.count(), TimeUnit.NANOSECONDS.toMillis(deleteMetric.sum()), deleteCurrent.count(),
+                    uidLookupStats.lookups.count(), uidLookupStats.bloomSkipped.count(), uidLookupStats.bloomFalsePositives.count());
+        }
+
         public long totalCurrent() {
             return indexCurrent.count() + deleteMetric.count();
         }
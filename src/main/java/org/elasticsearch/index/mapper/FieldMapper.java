@@ -178,7 +178,7 @@ public interface FieldMapper<T> extends Mapper {
 
     Filter rangeFilter(Object lowerTerm, Object upperTerm, boolean includeLower, boolean includeUpper, @Nullable QueryParseContext context);
 
-    Query fuzzyQuery(String value, String minSim, int prefixLength, int maxExpansions, boolean transpositions);
+    Query fuzzyQuery(String value, String minSim, int prefixLength, int maxExpansions, boolean transpositions, @Nullable QueryParseContext context);
 
     Query prefixQuery(Object value, @Nullable MultiTermQuery.RewriteMethod method, @Nullable QueryParseContext context);
 
@@ -22,7 +22,7 @@ package org.elasticsearch.index.mapper;
 import com.google.common.base.Charsets;
 import com.google.common.collect.*;
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.AnalyzerWrapper;
+import org.apache.lucene.analysis.DelegatingAnalyzerWrapper;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.FilterClause;
 import org.apache.lucene.queries.TermFilter;
@@ -62,6 +62,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.elasticsearch.common.collect.MapBuilder.newMapBuilder;
 import static org.elasticsearch.index.mapper.DocumentMapper.MergeFlags.mergeFlags;
@@ -88,6 +89,8 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
     private final Object typeMutex = new Object();
     private final Object mappersMutex = new Object();
 
+    private final AtomicLong mappingsVersion = new AtomicLong();
+
     private final FieldMappersLookup fieldMappers = new FieldMappersLookup();
     private volatile ImmutableOpenMap<String, ObjectMappers> fullPathObjectMappers = ImmutableOpenMap.of();
     private boolean hasNested = false; // updated dynamically to true when a nested object is added
@@ -203,6 +206,14 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
         return this.hasNested;
     }
 
+    /**
+     * A version incremented each time mappings are added, merged or removed, allowing to tell whether state derived
+     * from the mappings is still up to date.
+     */
+    public long mappingsVersion() {
+        return mappingsVersion.get();
+    }
+
     @Override
     public UnmodifiableIterator<DocumentMapper> iterator() {
         return Iterators.unmodifiableIterator(mappers.values().iterator());
@@ -266,6 +277,7 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
 
             if (oldMapper != null) {
                 DocumentMapper.MergeResult result = oldMapper.merge(mapper, mergeFlags().simulate(false));
+                mappingsVersion.incrementAndGet();
                 if (result.hasConflicts()) {
                     // TODO: What should we do???
                     if (logger.isDebugEnabled()) {
@@ -285,6 +297,7 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
                 mapper.addObjectMapperListener(objectMapperListener, false);
 
                 mappers = newMapBuilder(mappers).put(mapper.type(), mapper).map();
+                mappingsVersion.incrementAndGet();
                 for (DocumentTypeListener typeListener : typeListeners) {
                     typeListener.created(mapper.type());
                 }
@@ -310,12 +323,14 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
                 }
             }
             this.fullPathObjectMappers = fullPathObjectMappers.build();
+            mappingsVersion.incrementAndGet();
         }
     }
 
     private void addFieldMappers(FieldMapper[] fieldMappers) {
         synchronized (mappersMutex) {
             this.fieldMappers.addNewMappers(Arrays.asList(fieldMappers));
+            mappingsVersion.incrementAndGet();
         }
     }
 
@@ -352,6 +367,7 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
             }
 
             this.fullPathObjectMappers = fullPathObjectMappers.build();
+            mappingsVersion.incrementAndGet();
         }
     }
 
@@ -948,11 +964,12 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
         }
     }
 
-    final class SmartIndexNameSearchAnalyzer extends AnalyzerWrapper {
+    final class SmartIndexNameSearchAnalyzer extends DelegatingAnalyzerWrapper {
 
         private final Analyzer defaultAnalyzer;
 
         SmartIndexNameSearchAnalyzer(Analyzer defaultAnalyzer) {
+            super(Analyzer.PER_FIELD_REUSE_STRATEGY);
             this.defaultAnalyzer = defaultAnalyzer;
         }
 
@@ -977,18 +994,14 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
             }
             return defaultAnalyzer;
         }
-
-        @Override
-        protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
-            return components;
-        }
     }
 
-    final class SmartIndexNameSearchQuoteAnalyzer extends AnalyzerWrapper {
+    final class SmartIndexNameSearchQuoteAnalyzer extends DelegatingAnalyzerWrapper {
 
         private final Analyzer defaultAnalyzer;
 
         SmartIndexNameSearchQuoteAnalyzer(Analyzer defaultAnalyzer) {
+            super(Analyzer.PER_FIELD_REUSE_STRATEGY);
             this.defaultAnalyzer = defaultAnalyzer;
         }
 
@@ -1013,11 +1026,6 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
             }
             return defaultAnalyzer;
         }
-
-        @Override
-        protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
-            return components;
-        }
     }
 
     class InternalFieldMapperListener extends FieldMapperListener {
@@ -283,8 +283,8 @@ public class DateFieldMapper extends NumberFieldMapper<Long> {
     }
 
     @Override
-    public Query fuzzyQuery(String value, String minSim, int prefixLength, int maxExpansions, boolean transpositions) {
-        long iValue = dateMathParser.parse(value, System.currentTimeMillis());
+    public Query fuzzyQuery(String value, String minSim, int prefixLength, int maxExpansions, boolean transpositions, @Nullable QueryParseContext context) {
+        long iValue = parseToMilliseconds(value, context);
         long iSim;
         try {
             iSim = TimeValue.parseTimeValue(minSim, null).millis();
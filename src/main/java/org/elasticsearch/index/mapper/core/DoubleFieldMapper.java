@@ -177,7 +177,7 @@ public class DoubleFieldMapper extends NumberFieldMapper<Double> {
     }
 
     @Override
-    public Query fuzzyQuery(String value, String minSim, int prefixLength, int maxExpansions, boolean transpositions) {
+    public Query fuzzyQuery(String value, String minSim, int prefixLength, int maxExpansions, boolean transpositions, @Nullable QueryParseContext context) {
         double iValue = Double.parseDouble(value);
         double iSim = Double.parseDouble(minSim);
         return NumericRangeQuery.newDoubleRange(names.indexName(), precisionStep,
@@ -89,6 +89,8 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
 
         private Boolean compress = null;
 
+        private String compressType = null;
+
         private String format = Defaults.FORMAT;
 
         private String[] includes = null;
@@ -108,6 +110,11 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
             return this;
         }
 
+        public Builder compressType(String compressType) {
+            this.compressType = compressType;
+            return this;
+        }
+
         public Builder compressThreshold(long compressThreshold) {
             this.compressThreshold = compressThreshold;
             return this;
@@ -130,7 +137,7 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
 
         @Override
         public SourceFieldMapper build(BuilderContext context) {
-            return new SourceFieldMapper(name, enabled, format, compress, compressThreshold, includes, excludes);
+            return new SourceFieldMapper(name, enabled, format, compress, compressType, compressThreshold, includes, excludes);
         }
     }
 
@@ -154,6 +161,13 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
                         builder.compressThreshold(ByteSizeValue.parseBytesSizeValue(fieldNode.toString()).bytes());
                         builder.compress(true);
                     }
+                } else if (fieldName.equals("compress_type") && fieldNode != null) {
+                    String compressType = fieldNode.toString();
+                    if (CompressorFactory.compressor(compressType) == null) {
+                        throw new MapperParsingException("unknown compress_type [" + compressType + "] for the [_source] field");
+                    }
+                    builder.compressType(compressType);
+                    builder.compress(true);
                 } else if ("format".equals(fieldName)) {
                     builder.format(nodeStringValue(fieldNode, null));
                 } else if (fieldName.equals("includes")) {
@@ -180,6 +194,7 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
     private final boolean enabled;
 
     private Boolean compress;
+    private String compressType;
     private long compressThreshold;
 
     private String[] includes;
@@ -190,15 +205,16 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
     private XContentType formatContentType;
 
     public SourceFieldMapper() {
-        this(Defaults.NAME, Defaults.ENABLED, Defaults.FORMAT, null, -1, null, null);
+        this(Defaults.NAME, Defaults.ENABLED, Defaults.FORMAT, null, null, -1, null, null);
     }
 
-    protected SourceFieldMapper(String name, boolean enabled, String format, Boolean compress, long compressThreshold,
+    protected SourceFieldMapper(String name, boolean enabled, String format, Boolean compress, String compressType, long compressThreshold,
                                 String[] includes, String[] excludes) {
         super(new Names(name, name, name, name), Defaults.BOOST, new FieldType(Defaults.FIELD_TYPE),
                 Lucene.KEYWORD_ANALYZER, Lucene.KEYWORD_ANALYZER, null, null, null, null, null); // Only stored.
         this.enabled = enabled;
         this.compress = compress;
+        this.compressType = compressType;
         this.compressThreshold = compressThreshold;
         this.includes = includes;
         this.excludes = excludes;
@@ -210,6 +226,16 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
         return this.enabled;
     }
 
+    /**
+     * The compressor the source is compressed with, the node's default one unless a <tt>compress_type</tt> is set.
+     */
+    private Compressor compressor() {
+        if (compressType == null) {
+            return CompressorFactory.defaultCompressor();
+        }
+        return CompressorFactory.compressor(compressType);
+    }
+
     public String[] excludes() {
         return this.excludes != null ? this.excludes : Strings.EMPTY_ARRAY;
 
@@ -279,7 +305,7 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
             BytesStreamOutput bStream = new BytesStreamOutput();
             StreamOutput streamOutput = bStream;
             if (compress != null && compress && (compressThreshold == -1 || source.length() > compressThreshold)) {
-                streamOutput = CompressorFactory.defaultCompressor().streamOutput(bStream);
+                streamOutput = compressor().streamOutput(bStream);
             }
             XContentType contentType = formatContentType;
             if (contentType == null) {
@@ -294,11 +320,11 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
                 BytesStreamOutput bStream = new BytesStreamOutput();
                 XContentType contentType = XContentFactory.xContentType(source);
                 if (formatContentType != null && formatContentType != contentType) {
-                    XContentBuilder builder = XContentFactory.contentBuilder(formatContentType, CompressorFactory.defaultCompressor().streamOutput(bStream));
+                    XContentBuilder builder = XContentFactory.contentBuilder(formatContentType, compressor().streamOutput(bStream));
                     builder.copyCurrentStructure(XContentFactory.xContent(contentType).createParser(source));
                     builder.close();
                 } else {
-                    StreamOutput streamOutput = CompressorFactory.defaultCompressor().streamOutput(bStream);
+                    StreamOutput streamOutput = compressor().streamOutput(bStream);
                     source.writeTo(streamOutput);
                     streamOutput.close();
                 }
@@ -316,7 +342,7 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
                 if (contentType != formatContentType) {
                     // we need to reread and store back, compressed....
                     BytesStreamOutput bStream = new BytesStreamOutput();
-                    StreamOutput streamOutput = CompressorFactory.defaultCompressor().streamOutput(bStream);
+                    StreamOutput streamOutput = compressor().streamOutput(bStream);
                     XContentBuilder builder = XContentFactory.contentBuilder(formatContentType, streamOutput);
                     builder.copyCurrentStructure(XContentFactory.xContent(contentType).createParser(compressedStreamInput));
                     builder.close();
@@ -373,7 +399,7 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
         boolean includeDefaults = params.paramAsBoolean("include_defaults", false);
 
         // all are defaults, no need to write it at all
-        if (!includeDefaults && enabled == Defaults.ENABLED && compress == null && compressThreshold == -1 && includes == null && excludes == null) {
+        if (!includeDefaults && enabled == Defaults.ENABLED && compress == null && compressType == null && compressThreshold == -1 && includes == null && excludes == null) {
             return builder;
         }
         builder.startObject(contentType());
@@ -388,6 +414,11 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
         } else if (includeDefaults) {
             builder.field("compress", false);
         }
+        if (compressType != null) {
+            builder.field("compress_type", compressType);
+        } else if (includeDefaults) {
+            builder.field("compress_type", CompressorFactory.defaultCompressor().type());
+        }
         if (compressThreshold != -1) {
             builder.field("compress_threshold", new ByteSizeValue(compressThreshold).toString());
         } else if (includeDefaults) {
@@ -417,6 +448,9 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
             if (sourceMergeWith.compress != null) {
                 this.compress = sourceMergeWith.compress;
             }
+            if (sourceMergeWith.compressType != null) {
+                this.compressType = sourceMergeWith.compressType;
+            }
             if (sourceMergeWith.compressThreshold != -1) {
                 this.compressThreshold = sourceMergeWith.compressThreshold;
             }
@@ -0,0 +1,176 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge.policy;
+
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.DocsEnum;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.index.sorter.Sorter;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FieldComparatorSource;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.fielddata.fieldcomparator.DoubleValuesComparatorSource;
+import org.elasticsearch.index.fielddata.fieldcomparator.FloatValuesComparatorSource;
+import org.elasticsearch.index.fielddata.fieldcomparator.LongValuesComparatorSource;
+import org.elasticsearch.index.fielddata.fieldcomparator.SortMode;
+
+import java.io.IOException;
+
+/**
+ * A {@link Sorter} that sorts the docs of merged segments by the value of a numeric (or date) field, reading the
+ * full precision terms of the field. Multi valued docs sort by their minimum value when ascending and by their
+ * maximum value when descending, docs without a value sort last, which matches the defaults of a search sort on
+ * the same field.
+ * <p/>
+ * Segments sorted this way allow to stop collecting a segment early when searching with the same sort.
+ */
+public class NumericFieldSorter extends Sorter {
+
+    public static final String INDEX_SORT_FIELD = "index.sort.field";
+    public static final String INDEX_SORT_ORDER = "index.sort.order";
+
+    private final String field;
+
+    private final boolean reverse;
+
+    public NumericFieldSorter(String field, boolean reverse) {
+        this.field = field;
+        this.reverse = reverse;
+    }
+
+    /**
+     * Returns the sorter configured through {@link #INDEX_SORT_FIELD} and {@link #INDEX_SORT_ORDER} in the index
+     * settings, or <tt>null</tt> if the index is not sorted.
+     */
+    @Nullable
+    public static NumericFieldSorter fromSettings(Settings indexSettings) {
+        String field = indexSettings.get(INDEX_SORT_FIELD);
+        if (field == null) {
+            return null;
+        }
+        String order = indexSettings.get(INDEX_SORT_ORDER, "asc");
+        if ("asc".equals(order)) {
+            return new NumericFieldSorter(field, false);
+        } else if ("desc".equals(order)) {
+            return new NumericFieldSorter(field, true);
+        }
+        throw new ElasticSearchIllegalArgumentException("[" + INDEX_SORT_ORDER + "] must be either [asc] or [desc], got [" + order + "]");
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public boolean reverse() {
+        return reverse;
+    }
+
+    /**
+     * Does a search on the given sort collect the docs of segments sorted by this sorter in order? It must sort on
+     * the same field and order, not nested, by the minimum value ascending or the maximum value descending, with
+     * the docs without a value last.
+     */
+    public boolean matches(SortField[] sortFields) {
+        if (sortFields.length != 1 || !field.equals(sortFields[0].getField()) || reverse != sortFields[0].getReverse()) {
+            return false;
+        }
+        FieldComparatorSource comparatorSource = sortFields[0].getComparatorSource();
+        final SortMode sortMode;
+        final Object missingValue;
+        if (comparatorSource instanceof LongValuesComparatorSource) {
+            sortMode = ((LongValuesComparatorSource) comparatorSource).sortMode();
+            missingValue = ((LongValuesComparatorSource) comparatorSource).missingValue();
+        } else if (comparatorSource instanceof DoubleValuesComparatorSource) {
+            sortMode = ((DoubleValuesComparatorSource) comparatorSource).sortMode();
+            missingValue = ((DoubleValuesComparatorSource) comparatorSource).missingValue();
+        } else if (comparatorSource instanceof FloatValuesComparatorSource) {
+            sortMode = ((FloatValuesComparatorSource) comparatorSource).sortMode();
+            missingValue = ((FloatValuesComparatorSource) comparatorSource).missingValue();
+        } else {
+            // nested sorts, scripts and non numeric fields
+            return false;
+        }
+        if (sortMode != (reverse ? SortMode.MAX : SortMode.MIN)) {
+            return false;
+        }
+        return missingValue == null || "_last".equals(missingValue);
+    }
+
+    @Override
+    public DocMap sort(AtomicReader reader) throws IOException {
+        final int maxDoc = reader.maxDoc();
+        final long[] values = new long[maxDoc];
+        final FixedBitSet docsWithValue = new FixedBitSet(maxDoc);
+        Terms terms = reader.terms(field);
+        if (terms != null) {
+            TermsEnum termsEnum = terms.iterator(null);
+            DocsEnum docsEnum = null;
+            for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+                // only full precision terms, they come in increasing value order
+                final long value;
+                if (term.bytes[term.offset] == NumericUtils.SHIFT_START_LONG) {
+                    value = NumericUtils.prefixCodedToLong(term);
+                } else if (term.bytes[term.offset] == NumericUtils.SHIFT_START_INT) {
+                    value = NumericUtils.prefixCodedToInt(term);
+                } else {
+                    continue;
+                }
+                docsEnum = termsEnum.docs(null, docsEnum, DocsEnum.FLAG_NONE);
+                for (int doc = docsEnum.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docsEnum.nextDoc()) {
+                    if (!reverse && docsWithValue.get(doc)) {
+                        // ascending uses the min value
+                        continue;
+                    }
+                    values[doc] = value;
+                    docsWithValue.set(doc);
+                }
+            }
+        }
+        return sort(maxDoc, new DocComparator() {
+            @Override
+            public int compare(int docID1, int docID2) {
+                final boolean has1 = docsWithValue.get(docID1);
+                final boolean has2 = docsWithValue.get(docID2);
+                if (has1 != has2) {
+                    return has1 ? -1 : 1;
+                }
+                if (!has1) {
+                    return 0;
+                }
+                final long v1 = values[docID1];
+                final long v2 = values[docID2];
+                final int cmp = v1 < v2 ? -1 : (v1 == v2 ? 0 : 1);
+                return reverse ? -cmp : cmp;
+            }
+        });
+    }
+
+    @Override
+    public String getID() {
+        return "NumericFieldSorter(" + field + "," + (reverse ? "desc" : "asc") + ")";
+    }
+}
@@ -19,7 +19,11 @@
 
 package org.elasticsearch.index.query;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.util.CloseableThreadLocal;
@@ -30,6 +34,8 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.index.AbstractIndexComponent;
@@ -46,6 +52,7 @@ import org.elasticsearch.indices.query.IndicesQueriesRegistry;
 import org.elasticsearch.script.ScriptService;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -61,6 +68,33 @@ public class IndexQueryParserService extends AbstractIndexComponent {
     public static final class Defaults {
         public static final String QUERY_PREFIX = "index.queryparser.query";
         public static final String FILTER_PREFIX = "index.queryparser.filter";
+        public static final String CACHE_SIZE = "index.queryparser.cache.size";
+    }
+
+    /**
+     * The parsers building queries and filters that don't hold any per search state, and can therefore be shared
+     * by searches having the exact same query source.
+     */
+    private static final ImmutableSet<Class<?>> CACHEABLE_PARSERS = ImmutableSet.<Class<?>>builder()
+            .add(AndFilterParser.class).add(BoolFilterParser.class).add(BoolQueryParser.class).add(BoostingQueryParser.class)
+            .add(CommonTermsQueryParser.class).add(ConstantScoreQueryParser.class).add(DisMaxQueryParser.class)
+            .add(ExistsFilterParser.class).add(FQueryFilterParser.class).add(FieldQueryParser.class).add(FilteredQueryParser.class)
+            .add(FuzzyQueryParser.class).add(IdsFilterParser.class).add(IdsQueryParser.class).add(LimitFilterParser.class)
+            .add(MatchAllFilterParser.class).add(MatchAllQueryParser.class).add(MatchQueryParser.class)
+            .add(MissingFilterParser.class).add(MultiMatchQueryParser.class).add(NotFilterParser.class).add(OrFilterParser.class)
+            .add(PrefixFilterParser.class).add(PrefixQueryParser.class).add(QueryFilterParser.class).add(QueryStringQueryParser.class)
+            .add(RangeFilterParser.class).add(RangeQueryParser.class).add(RegexpFilterParser.class).add(RegexpQueryParser.class)
+            .add(SpanFirstQueryParser.class).add(SpanNearQueryParser.class).add(SpanNotQueryParser.class).add(SpanOrQueryParser.class)
+            .add(SpanTermQueryParser.class).add(TermFilterParser.class).add(TermQueryParser.class).add(TermsQueryParser.class)
+            .add(TypeFilterParser.class).add(WildcardQueryParser.class)
+            .build();
+
+    static boolean isCacheable(QueryParser queryParser) {
+        return CACHEABLE_PARSERS.contains(queryParser.getClass());
+    }
+
+    static boolean isCacheable(FilterParser filterParser) {
+        return CACHEABLE_PARSERS.contains(filterParser.getClass());
     }
 
     private CloseableThreadLocal<QueryParseContext> cache = new CloseableThreadLocal<QueryParseContext>() {
@@ -93,6 +127,9 @@ public class IndexQueryParserService extends AbstractIndexComponent {
     private String defaultField;
     private boolean queryStringLenient;
 
+    @Nullable
+    private final Cache<ParsedQueryCacheKey, ParsedQuery> parsedQueryCache;
+
     @Inject
     public IndexQueryParserService(Index index, @IndexSettings Settings indexSettings,
                                    IndicesQueriesRegistry indicesQueriesRegistry, CacheRecycler cacheRecycler,
@@ -114,6 +151,16 @@ public class IndexQueryParserService extends AbstractIndexComponent {
         this.defaultField = indexSettings.get("index.query.default_field", AllFieldMapper.NAME);
         this.queryStringLenient = indexSettings.getAsBoolean("index.query_string.lenient", false);
 
+        ByteSizeValue cacheSize = indexSettings.getAsBytesSize(Defaults.CACHE_SIZE, new ByteSizeValue(0));
+        if (cacheSize.bytes() > 0) {
+            this.parsedQueryCache = CacheBuilder.newBuilder()
+                    .maximumWeight(cacheSize.bytes())
+                    .weigher(new ParsedQueryWeigher())
+                    .build();
+        } else {
+            this.parsedQueryCache = null;
+        }
+
         List<QueryParser> queryParsers = newArrayList();
         if (namedQueryParsers != null) {
             Map<String, Settings> queryParserGroups = indexSettings.getGroups(IndexQueryParserService.Defaults.QUERY_PREFIX);
@@ -163,6 +210,9 @@ public class IndexQueryParserService extends AbstractIndexComponent {
 
     public void close() {
         cache.close();
+        if (parsedQueryCache != null) {
+            parsedQueryCache.invalidateAll();
+        }
     }
 
     public String defaultField() {
@@ -252,12 +302,42 @@ public class IndexQueryParserService extends AbstractIndexComponent {
 
     public ParsedQuery parse(XContentParser parser) {
         try {
+            if (parsedQueryCache != null && parser.currentToken() == XContentParser.Token.START_OBJECT) {
+                return parseCached(parser);
+            }
             return parse(cache.get(), parser);
         } catch (IOException e) {
             throw new QueryParsingException(index, "Failed to parse", e);
         }
     }
 
+    /**
+     * Parses the query the parser is positioned on, reusing the query parsed for a previous search having the same
+     * source, types and mappings if there is one in the cache.
+     */
+    private ParsedQuery parseCached(XContentParser parser) throws IOException {
+        XContentBuilder builder = XContentFactory.contentBuilder(parser.contentType());
+        builder.copyCurrentStructure(parser);
+        BytesReference source = builder.bytes();
+        ParsedQueryCacheKey key = new ParsedQueryCacheKey(source, QueryParseContext.getTypes(), mapperService.mappingsVersion());
+        ParsedQuery parsedQuery = parsedQueryCache.getIfPresent(key);
+        if (parsedQuery != null) {
+            return parsedQuery;
+        }
+        XContentParser sourceParser = XContentFactory.xContent(source).createParser(source);
+        try {
+            QueryParseContext parseContext = cache.get();
+            parsedQuery = parse(parseContext, sourceParser);
+            if (parseContext.isCacheable()) {
+                // don't hold on to the builder buffer which is usually bigger than the source
+                parsedQueryCache.put(new ParsedQueryCacheKey(source.copyBytesArray(), key.types, key.mappingsVersion), parsedQuery);
+            }
+            return parsedQuery;
+        } finally {
+            sourceParser.close();
+        }
+    }
+
     /**
      * Parses an inner filter, returning null if the filter should be ignored.
      */
@@ -288,6 +368,47 @@ public class IndexQueryParserService extends AbstractIndexComponent {
         return new ParsedQuery(query, parseContext.copyNamedFilters());
     }
 
+    static class ParsedQueryCacheKey {
+
+        final BytesReference source;
+        final String[] types;
+        final long mappingsVersion;
+
+        ParsedQueryCacheKey(BytesReference source, @Nullable String[] types, long mappingsVersion) {
+            this.source = source;
+            this.types = types;
+            this.mappingsVersion = mappingsVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ParsedQueryCacheKey that = (ParsedQueryCacheKey) o;
+            return mappingsVersion == that.mappingsVersion && source.equals(that.source) && Arrays.equals(types, that.types);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = source.hashCode();
+            result = 31 * result + Arrays.hashCode(types);
+            result = 31 * result + (int) (mappingsVersion ^ (mappingsVersion >>> 32));
+            return result;
+        }
+    }
+
+    static class ParsedQueryWeigher implements Weigher<ParsedQueryCacheKey, ParsedQuery> {
+
+        // rough size of the key, the parsed query and the cache entry themselves
+        static final int ENTRY_OVERHEAD = 256;
+
+        @Override
+        public int weigh(ParsedQueryCacheKey key, ParsedQuery value) {
+            // the parsed query holds about as many bytes of terms as its source
+            return 2 * key.source.length() + ENTRY_OVERHEAD;
+        }
+    }
+
     private void add(Map<String, FilterParser> map, FilterParser filterParser) {
         for (String name : filterParser.names()) {
             map.put(name.intern(), filterParser);
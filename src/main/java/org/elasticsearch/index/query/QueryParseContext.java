@@ -85,6 +85,8 @@ public class QueryParseContext {
 
     private XContentParser parser;
 
+    private boolean cacheable;
+
     public QueryParseContext(Index index, IndexQueryParserService indexQueryParser) {
         this.index = index;
         this.indexQueryParser = indexQueryParser;
@@ -94,6 +96,16 @@ public class QueryParseContext {
         this.lookup = null;
         this.parser = jp;
         this.namedFilters.clear();
+        this.cacheable = true;
+    }
+
+    /**
+     * Can the query parsed since the last {@link #reset(XContentParser)} be reused by other searches? Only queries
+     * and filters built by parsers that are known not to hold per search state are, and only as long as they did
+     * not depend on the current time or on a script lookup.
+     */
+    public boolean isCacheable() {
+        return cacheable;
     }
 
     public Index index() {
@@ -204,6 +216,9 @@ public class QueryParseContext {
         if (queryParser == null) {
             throw new QueryParsingException(index, "No query registered for [" + queryName + "]");
         }
+        if (!IndexQueryParserService.isCacheable(queryParser)) {
+            cacheable = false;
+        }
         Query result = queryParser.parse(this);
         if (parser.currentToken() == XContentParser.Token.END_OBJECT || parser.currentToken() == XContentParser.Token.END_ARRAY) {
             // if we are at END_OBJECT, move to the next one...
@@ -241,6 +256,9 @@ public class QueryParseContext {
         if (filterParser == null) {
             throw new QueryParsingException(index, "No filter registered for [" + filterName + "]");
         }
+        if (!IndexQueryParserService.isCacheable(filterParser)) {
+            cacheable = false;
+        }
         Filter result = filterParser.parse(this);
         if (parser.currentToken() == XContentParser.Token.END_OBJECT || parser.currentToken() == XContentParser.Token.END_ARRAY) {
             // if we are at END_OBJECT, move to the next one...
@@ -254,6 +272,9 @@ public class QueryParseContext {
         if (filterParser == null) {
             throw new QueryParsingException(index, "No filter registered for [" + filterName + "]");
         }
+        if (!IndexQueryParserService.isCacheable(filterParser)) {
+            cacheable = false;
+        }
         Filter result = filterParser.parse(this);
         // don't move to the nextToken in this case...
 //        if (parser.currentToken() == XContentParser.Token.END_OBJECT || parser.currentToken() == XContentParser.Token.END_ARRAY) {
@@ -312,6 +333,7 @@ public class QueryParseContext {
     private SearchLookup lookup = null;
 
     public SearchLookup lookup() {
+        cacheable = false;
         SearchContext current = SearchContext.current();
         if (current != null) {
             return current.lookup();
@@ -323,6 +345,7 @@ public class QueryParseContext {
     }
 
     public long nowInMillis() {
+        cacheable = false;
         SearchContext current = SearchContext.current();
         if (current != null) {
             return current.nowInMillis();
@@ -0,0 +1,104 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.seqno;
+
+import com.carrotsearch.hppc.LongOpenHashSet;
+
+/**
+ * Generates the sequence numbers of a shard on the primary and tracks the local checkpoint, the
+ * highest sequence number below which all operations have been processed, on every shard copy.
+ * Operations can be processed out of order, those above the checkpoint are kept until the gap
+ * below them is filled.
+ */
+public class LocalCheckpointTracker {
+
+    private final LongOpenHashSet processedAboveCheckpoint = new LongOpenHashSet();
+
+    private long maxSeqNo;
+
+    private long checkpoint;
+
+    public LocalCheckpointTracker(long checkpoint) {
+        this.checkpoint = checkpoint;
+        this.maxSeqNo = checkpoint;
+    }
+
+    /**
+     * Returns the next sequence number, to be used by the primary.
+     */
+    public synchronized long generateSeqNo() {
+        return ++maxSeqNo;
+    }
+
+    /**
+     * Accounts for a sequence number assigned by the primary before the operation is processed.
+     */
+    public synchronized void updateMaxSeqNo(long seqNo) {
+        if (seqNo > maxSeqNo) {
+            maxSeqNo = seqNo;
+        }
+    }
+
+    /**
+     * Marks the operation with the given sequence number as processed, moving the checkpoint
+     * forward if it was filling a gap.
+     */
+    public synchronized void markSeqNoAsProcessed(long seqNo) {
+        if (seqNo < 0) {
+            return;
+        }
+        if (seqNo > maxSeqNo) {
+            maxSeqNo = seqNo;
+        }
+        if (seqNo <= checkpoint) {
+            return;
+        }
+        if (seqNo == checkpoint + 1) {
+            checkpoint = seqNo;
+            while (!processedAboveCheckpoint.isEmpty() && processedAboveCheckpoint.remove(checkpoint + 1)) {
+                checkpoint++;
+            }
+        } else {
+            processedAboveCheckpoint.add(seqNo);
+        }
+    }
+
+    /**
+     * Moves the checkpoint to the highest sequence number known, giving up on the gaps below it.
+     */
+    public synchronized void markAllSeqNoAsProcessed() {
+        checkpoint = maxSeqNo;
+        processedAboveCheckpoint.clear();
+    }
+
+    /**
+     * Returns the highest sequence number below which all operations have been processed.
+     */
+    public synchronized long checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Returns the highest sequence number generated or processed so far.
+     */
+    public synchronized long maxSeqNo() {
+        return maxSeqNo;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.seqno;
+
+import org.elasticsearch.common.Nullable;
+
+import java.util.Map;
+
+/**
+ * Constants and helpers around the per shard sequence numbers assigned to operations by the primary.
+ */
+public final class SequenceNumbers {
+
+    /**
+     * The sequence number of an operation that has not been assigned one (yet), or that
+     * originates from a node that does not assign sequence numbers.
+     */
+    public static final long UNASSIGNED_SEQ_NO = -1;
+
+    /**
+     * Commit user data key holding the local checkpoint of the engine at commit time.
+     */
+    public static final String LOCAL_CHECKPOINT_KEY = "local_checkpoint";
+
+    /**
+     * Commit user data key holding the sequence number after which all operations are
+     * held by the translog associated with the commit.
+     */
+    public static final String TRANSLOG_SEQ_NO_KEY = "translog_seq_no";
+
+    /**
+     * Commit user data key holding the sequence number history of the shard copy.
+     */
+    public static final String HISTORY_UUID_KEY = "seq_no_history_uuid";
+
+    private SequenceNumbers() {
+    }
+
+    /**
+     * Reads a sequence number stored under the given key in commit user data, returning
+     * {@link #UNASSIGNED_SEQ_NO} if it's missing.
+     */
+    public static long readSeqNo(@Nullable Map<String, String> commitUserData, String key) {
+        if (commitUserData == null) {
+            return UNASSIGNED_SEQ_NO;
+        }
+        String value = commitUserData.get(key);
+        if (value == null) {
+            return UNASSIGNED_SEQ_NO;
+        }
+        return Long.parseLong(value);
+    }
+}
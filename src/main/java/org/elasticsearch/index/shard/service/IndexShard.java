@@ -42,6 +42,7 @@ import org.elasticsearch.index.indexing.ShardIndexingService;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.merge.policy.NumericFieldSorter;
 import org.elasticsearch.index.merge.MergeStats;
 import org.elasticsearch.index.percolator.PercolatorQueriesRegistry;
 import org.elasticsearch.index.percolator.stats.ShardPercolateService;
@@ -119,6 +120,12 @@ public interface IndexShard extends IndexShardComponent {
 
     IndexService indexService();
 
+    /**
+     * The order the docs of merged segments are sorted in, <tt>null</tt> if the index is not sorted.
+     */
+    @Nullable
+    NumericFieldSorter indexSorter();
+
     IndexShardState state();
 
     Engine.Create prepareCreate(SourceToParse source) throws ElasticSearchException;
@@ -137,8 +144,16 @@ public interface IndexShard extends IndexShardComponent {
 
     void deleteByQuery(Engine.DeleteByQuery deleteByQuery) throws ElasticSearchException;
 
+    /**
+     * Marks the sequence number of an operation sent by the primary that failed to apply on this shard copy as
+     * processed, so it does not hold the local checkpoint back.
+     */
+    void markSeqNoAsProcessed(long seqNo) throws ElasticSearchException;
+
     Engine.GetResult get(Engine.Get get) throws ElasticSearchException;
 
+    Engine.GetResult[] get(Engine.Get[] gets, Throwable[] failures) throws ElasticSearchException;
+
     void refresh(Engine.Refresh refresh) throws ElasticSearchException;
 
     void flush(Engine.Flush flush) throws ElasticSearchException;
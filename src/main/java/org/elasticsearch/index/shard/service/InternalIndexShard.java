@@ -60,6 +60,7 @@ import org.elasticsearch.index.indexing.IndexingStats;
 import org.elasticsearch.index.indexing.ShardIndexingService;
 import org.elasticsearch.index.mapper.*;
 import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.merge.policy.NumericFieldSorter;
 import org.elasticsearch.index.merge.scheduler.MergeSchedulerProvider;
 import org.elasticsearch.index.percolator.PercolatorQueriesRegistry;
 import org.elasticsearch.index.percolator.stats.ShardPercolateService;
@@ -118,6 +119,9 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
     private final PercolatorQueriesRegistry percolatorQueriesRegistry;
     private final ShardPercolateService shardPercolateService;
     private final CodecService codecService;
+
+    @Nullable
+    private final NumericFieldSorter indexSorter;
     private final ShardTermVectorService termVectorService;
     private final IndexFieldDataService indexFieldDataService;
     private final IndexService indexService;
@@ -172,6 +176,7 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
         this.indexFieldDataService = indexFieldDataService;
         this.indexService = indexService;
         this.codecService = codecService;
+        this.indexSorter = NumericFieldSorter.fromSettings(indexSettings);
         state = IndexShardState.CREATED;
 
         this.refreshInterval = indexSettings.getAsTime("engine.robin.refresh_interval", indexSettings.getAsTime(INDEX_REFRESH_INTERVAL, engine.defaultRefreshInterval()));
@@ -229,6 +234,11 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
         return indexService;
     }
 
+    @Override
+    public NumericFieldSorter indexSorter() {
+        return indexSorter;
+    }
+
     @Override
     public ShardSearchService searchService() {
         return this.searchService;
@@ -302,6 +312,10 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
             }
         }
 
+        if (currentRouting != null && !currentRouting.primary() && newRouting.primary()) {
+            startNewSeqNoHistory("promoted to primary");
+        }
+
         this.shardRouting = newRouting;
         indicesLifecycle.shardRoutingChanged(this, currentRouting, newRouting);
 
@@ -449,12 +463,24 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
         indexingService.postDeleteByQuery(deleteByQuery);
     }
 
+    @Override
+    public void markSeqNoAsProcessed(long seqNo) throws ElasticSearchException {
+        verifyNotClosed();
+        engine.markSeqNoAsProcessed(seqNo);
+    }
+
     @Override
     public Engine.GetResult get(Engine.Get get) throws ElasticSearchException {
         readAllowed();
         return engine.get(get);
     }
 
+    @Override
+    public Engine.GetResult[] get(Engine.Get[] gets, Throwable[] failures) throws ElasticSearchException {
+        readAllowed();
+        return engine.get(gets, failures);
+    }
+
     @Override
     public void refresh(Engine.Refresh refresh) throws ElasticSearchException {
         verifyNotClosed();
@@ -704,6 +730,20 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
         engine.start();
     }
 
+    /**
+     * Starts a new sequence number history for this shard. Needed whenever this copy becomes the source of
+     * truth while other copies might hold operations it misses, so they can't recover based on operations.
+     */
+    public void startNewSeqNoHistory(String reason) {
+        String seqNoHistoryUUID = Strings.randomBase64UUID();
+        logger.debug("starting new sequence number history [{}], reason [{}]", seqNoHistoryUUID, reason);
+        try {
+            engine.seqNoHistoryUUID(seqNoHistoryUUID);
+        } catch (EngineClosedException e) {
+            // ignore, the shard is closing
+        }
+    }
+
     /**
      * The peer recovery status if this shard recovered from a peer shard.
      */
@@ -741,23 +781,23 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
                     Translog.Create create = (Translog.Create) operation;
                     engine.create(prepareCreate(source(create.source()).type(create.type()).id(create.id())
                             .routing(create.routing()).parent(create.parent()).timestamp(create.timestamp()).ttl(create.ttl())).version(create.version())
-                            .origin(Engine.Operation.Origin.RECOVERY));
+                            .seqNo(create.seqNo()).origin(Engine.Operation.Origin.RECOVERY));
                     break;
                 case SAVE:
                     Translog.Index index = (Translog.Index) operation;
                     engine.index(prepareIndex(source(index.source()).type(index.type()).id(index.id())
                             .routing(index.routing()).parent(index.parent()).timestamp(index.timestamp()).ttl(index.ttl())).version(index.version())
-                            .origin(Engine.Operation.Origin.RECOVERY));
+                            .seqNo(index.seqNo()).origin(Engine.Operation.Origin.RECOVERY));
                     break;
                 case DELETE:
                     Translog.Delete delete = (Translog.Delete) operation;
                     Uid uid = Uid.createUid(delete.uid().text());
                     engine.delete(new Engine.Delete(uid.type(), uid.id(), delete.uid()).version(delete.version())
-                            .origin(Engine.Operation.Origin.RECOVERY));
+                            .seqNo(delete.seqNo()).origin(Engine.Operation.Origin.RECOVERY));
                     break;
                 case DELETE_BY_QUERY:
                     Translog.DeleteByQuery deleteByQuery = (Translog.DeleteByQuery) operation;
-                    engine.delete(prepareDeleteByQuery(deleteByQuery.source(), deleteByQuery.filteringAliases(), deleteByQuery.types()).origin(Engine.Operation.Origin.RECOVERY));
+                    engine.delete(prepareDeleteByQuery(deleteByQuery.source(), deleteByQuery.filteringAliases(), deleteByQuery.types()).seqNo(deleteByQuery.seqNo()).origin(Engine.Operation.Origin.RECOVERY));
                     break;
                 default:
                     throw new ElasticSearchIllegalStateException("No operation defined for [" + operation + "]");
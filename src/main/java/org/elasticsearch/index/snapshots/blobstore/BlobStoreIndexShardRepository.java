@@ -24,8 +24,10 @@ import com.google.common.collect.Lists;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimiter;
 import org.apache.lucene.util.IOUtils;
 import org.elasticsearch.cluster.metadata.SnapshotId;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.blobstore.*;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
@@ -47,10 +49,12 @@ import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.repositories.RepositoryName;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -69,10 +73,18 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
 
     private ByteSizeValue chunkSize;
 
+    private RateLimiter snapshotRateLimiter;
+
+    private RateLimiter restoreRateLimiter;
+
+    private Semaphore uploadPermits;
+
     private final IndicesService indicesService;
 
     private static final String SNAPSHOT_PREFIX = "snapshot-";
 
+    private static final String PENDING_PREFIX = "pending-";
+
     @Inject
     BlobStoreIndexShardRepository(Settings settings, RepositoryName repositoryName, IndicesService indicesService) {
         super(settings);
@@ -86,11 +98,18 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
      * @param blobStore blob store
      * @param basePath  base path to blob store
      * @param chunkSize chunk size
+     * @param snapshotRateLimiter limits the rate files are read at while snapshotting, null if not limited
+     * @param restoreRateLimiter  limits the rate files are written at while restoring, null if not limited
+     * @param concurrentUploads   maximum number of chunks uploaded at the same time on this node
      */
-    public void initialize(BlobStore blobStore, BlobPath basePath, ByteSizeValue chunkSize) {
+    public void initialize(BlobStore blobStore, BlobPath basePath, ByteSizeValue chunkSize, @Nullable RateLimiter snapshotRateLimiter,
+                           @Nullable RateLimiter restoreRateLimiter, int concurrentUploads) {
         this.blobStore = blobStore;
         this.basePath = basePath;
         this.chunkSize = chunkSize;
+        this.snapshotRateLimiter = snapshotRateLimiter;
+        this.restoreRateLimiter = restoreRateLimiter;
+        this.uploadPermits = new Semaphore(concurrentUploads);
     }
 
     /**
@@ -161,6 +180,17 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
         return SNAPSHOT_PREFIX + snapshotId.getSnapshot();
     }
 
+    /**
+     * Returns the name of the file listing the files that are being uploaded by a shard snapshot, it is kept
+     * if the snapshot fails so that the next snapshot can resume these files
+     *
+     * @param snapshotId snapshot id
+     * @return pending shard snapshot file name
+     */
+    private String pendingBlobName(SnapshotId snapshotId) {
+        return PENDING_PREFIX + snapshotId.getSnapshot();
+    }
+
     /**
      * Serializes snapshot to JSON
      *
@@ -321,6 +351,26 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
             }
             return new BlobStoreIndexShardSnapshots(snapshots);
         }
+
+        /**
+         * Loads the files that were being uploaded by snapshots that didn't complete
+         *
+         * @param blobs list of blobs in repository
+         * @return BlobStoreIndexShardSnapshots
+         */
+        protected BlobStoreIndexShardSnapshots buildPendingIndexShardSnapshots(ImmutableMap<String, BlobMetaData> blobs) {
+            List<BlobStoreIndexShardSnapshot> snapshots = Lists.newArrayList();
+            for (String name : blobs.keySet()) {
+                if (name.startsWith(PENDING_PREFIX)) {
+                    try {
+                        snapshots.add(readSnapshot(blobContainer.readBlobFully(name)));
+                    } catch (IOException e) {
+                        logger.warn("failed to read pending commit point [{}]", e, name);
+                    }
+                }
+            }
+            return new BlobStoreIndexShardSnapshots(snapshots);
+        }
     }
 
     /**
@@ -362,12 +412,13 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
 
             long generation = findLatestFileNameGeneration(blobs);
             BlobStoreIndexShardSnapshots snapshots = buildBlobStoreIndexShardSnapshots(blobs);
+            BlobStoreIndexShardSnapshots pendingSnapshots = buildPendingIndexShardSnapshots(blobs);
 
             snapshotStatus.updateStage(IndexShardSnapshotStatus.Stage.STARTED);
 
-            final CountDownLatch indexLatch = new CountDownLatch(snapshotIndexCommit.getFiles().length);
             final CopyOnWriteArrayList<Throwable> failures = new CopyOnWriteArrayList<Throwable>();
             final List<BlobStoreIndexShardSnapshot.FileInfo> indexCommitPointFiles = newArrayList();
+            final List<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot = newArrayList();
 
             int indexNumberOfFiles = 0;
             long indexTotalFilesSize = 0;
@@ -400,23 +451,38 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                 if (snapshotRequired) {
                     indexNumberOfFiles++;
                     indexTotalFilesSize += md.length();
-                    // create a new FileInfo
-                    try {
-                        BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo = new BlobStoreIndexShardSnapshot.FileInfo(fileNameFromGeneration(++generation), fileName, md.length(), chunkSize, md.checksum());
-                        indexCommitPointFiles.add(snapshotFileInfo);
-                        snapshotFile(snapshotFileInfo, indexLatch, failures);
-                    } catch (IOException e) {
-                        failures.add(e);
+                    // resume the file if a snapshot that didn't complete already uploaded some of its parts
+                    BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo = findResumableFile(pendingSnapshots, md, blobs);
+                    if (snapshotFileInfo != null) {
+                        logger.trace("[{}] [{}] Resuming [{}] from [{}]", shardId, snapshotId, fileName, snapshotFileInfo.name());
+                    } else {
+                        // create a new FileInfo
+                        snapshotFileInfo = new BlobStoreIndexShardSnapshot.FileInfo(fileNameFromGeneration(++generation), fileName, md.length(), chunkSize, md.checksum());
                     }
+                    indexCommitPointFiles.add(snapshotFileInfo);
+                    filesToSnapshot.add(snapshotFileInfo);
                 } else {
                     indexCommitPointFiles.add(fileInfo);
-                    indexLatch.countDown();
                 }
             }
 
             snapshotStatus.files(indexNumberOfFiles, indexTotalFilesSize);
             snapshotStatus.indexVersion(snapshotIndexCommit.getGeneration());
 
+            // record the files we are about to upload, so that the next snapshot can resume them if this one fails
+            String pendingName = pendingBlobName(snapshotId);
+            try {
+                byte[] pendingData = writeSnapshot(new BlobStoreIndexShardSnapshot(snapshotId.getSnapshot(), snapshotIndexCommit.getGeneration(), filesToSnapshot));
+                blobContainer.writeBlob(pendingName, new BytesStreamInput(pendingData, false), pendingData.length);
+            } catch (IOException e) {
+                throw new IndexShardSnapshotFailedException(shardId, "Failed to write pending commit point", e);
+            }
+
+            final CountDownLatch indexLatch = new CountDownLatch(filesToSnapshot.size());
+            for (BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo : filesToSnapshot) {
+                snapshotFile(snapshotFileInfo, blobs, indexLatch, failures);
+            }
+
             try {
                 indexLatch.await();
             } catch (InterruptedException e) {
@@ -448,34 +514,111 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                 newSnapshotsList.add(point);
             }
             cleanup(newSnapshotsList, blobs);
+            // the files of the snapshots that didn't complete are now either part of this snapshot or deleted
+            for (String blobName : blobs.keySet()) {
+                if (blobName.startsWith(PENDING_PREFIX)) {
+                    deletePendingBlob(blobName);
+                }
+            }
+            deletePendingBlob(pendingName);
             snapshotStatus.updateStage(IndexShardSnapshotStatus.Stage.DONE);
         }
 
+        private void deletePendingBlob(String blobName) {
+            try {
+                blobContainer.deleteBlob(blobName);
+            } catch (IOException e) {
+                logger.debug("[{}] [{}] error deleting pending commit point [{}]", e, shardId, snapshotId, blobName);
+            }
+        }
+
+        /**
+         * Finds a file that a snapshot that didn't complete started to upload, and that can be resumed
+         * <p/>
+         * The file is only resumed if it is the same as the local one, if it is split in the same parts and if at
+         * least one of its parts is in the repository, otherwise its name might be reused for another file.
+         *
+         * @param pendingSnapshots files uploaded by the snapshots that didn't complete
+         * @param md               local file
+         * @param blobs            list of blobs
+         * @return file to resume or null if the file should be uploaded from scratch
+         */
+        private BlobStoreIndexShardSnapshot.FileInfo findResumableFile(BlobStoreIndexShardSnapshots pendingSnapshots, StoreFileMetaData md, ImmutableMap<String, BlobMetaData> blobs) {
+            for (BlobStoreIndexShardSnapshot pendingSnapshot : pendingSnapshots) {
+                BlobStoreIndexShardSnapshot.FileInfo pendingFileInfo = pendingSnapshot.findPhysicalIndexFile(md.name());
+                if (pendingFileInfo == null || !pendingFileInfo.isSame(md)) {
+                    continue;
+                }
+                BlobStoreIndexShardSnapshot.FileInfo fileInfo = new BlobStoreIndexShardSnapshot.FileInfo(pendingFileInfo.name(), md.name(), md.length(), chunkSize, md.checksum());
+                if (fileInfo.partBytes() != pendingFileInfo.partBytes()) {
+                    continue;
+                }
+                for (long i = 0; i < fileInfo.numberOfParts(); i++) {
+                    if (partExistsInBlobs(fileInfo, i, blobs)) {
+                        return fileInfo;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Checks if a part of a file was fully uploaded
+         *
+         * @param fileInfo file
+         * @param part     part number
+         * @param blobs    list of blobs
+         * @return true if the part exists in the list of blobs with the expected length
+         */
+        private boolean partExistsInBlobs(BlobStoreIndexShardSnapshot.FileInfo fileInfo, long part, ImmutableMap<String, BlobMetaData> blobs) {
+            BlobMetaData blobMetaData = blobs.get(fileInfo.partName(part));
+            if (blobMetaData == null) {
+                return false;
+            }
+            return blobMetaData.length() == Math.min(fileInfo.partBytes(), fileInfo.length() - part * fileInfo.partBytes());
+        }
+
         /**
          * Snapshot individual file
          * <p/>
          * This is asynchronous method. Upon completion of the operation latch is getting counted down and any failures are
-         * added to the {@code failures} list
+         * added to the {@code failures} list. Parts that were already fully uploaded are skipped, and the calling thread
+         * blocks while this node uploads as many parts as it is allowed to at the same time.
          *
          * @param fileInfo file to be snapshotted
+         * @param blobs    list of blobs in the repository before the snapshot started
          * @param latch    latch that should be counted down once file is snapshoted
          * @param failures thread-safe list of failures
-         * @throws IOException
          */
-        private void snapshotFile(final BlobStoreIndexShardSnapshot.FileInfo fileInfo, final CountDownLatch latch, final List<Throwable> failures) throws IOException {
+        private void snapshotFile(final BlobStoreIndexShardSnapshot.FileInfo fileInfo, ImmutableMap<String, BlobMetaData> blobs, final CountDownLatch latch, final List<Throwable> failures) {
             final AtomicLong counter = new AtomicLong(fileInfo.numberOfParts());
             for (long i = 0; i < fileInfo.numberOfParts(); i++) {
+                if (partExistsInBlobs(fileInfo, i, blobs)) {
+                    logger.trace("[{}] [{}] Skipping part [{}], already uploaded", shardId, snapshotId, fileInfo.partName(i));
+                    if (counter.decrementAndGet() == 0) {
+                        latch.countDown();
+                    }
+                    continue;
+                }
                 IndexInput indexInput = null;
+                boolean acquired = false;
                 try {
+                    if (snapshotStatus.aborted()) {
+                        throw new IndexShardSnapshotFailedException(shardId, "Aborted");
+                    }
+                    uploadPermits.acquire();
+                    acquired = true;
                     indexInput = store.openInputRaw(fileInfo.physicalName(), IOContext.READONCE);
                     indexInput.seek(i * fileInfo.partBytes());
                     InputStreamIndexInput is = new ThreadSafeInputStreamIndexInput(indexInput, fileInfo.partBytes());
+                    InputStream inputStream = snapshotRateLimiter == null ? is : new RateLimitingInputStream(is, snapshotRateLimiter);
 
                     final IndexInput fIndexInput = indexInput;
-                    blobContainer.writeBlob(fileInfo.partName(i), is, is.actualSizeToRead(), new ImmutableBlobContainer.WriterListener() {
+                    blobContainer.writeBlob(fileInfo.partName(i), inputStream, is.actualSizeToRead(), new ImmutableBlobContainer.WriterListener() {
                         @Override
                         public void onCompleted() {
                             IOUtils.closeWhileHandlingException(fIndexInput);
+                            uploadPermits.release();
                             if (counter.decrementAndGet() == 0) {
                                 latch.countDown();
                             }
@@ -484,6 +627,7 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                         @Override
                         public void onFailure(Throwable t) {
                             IOUtils.closeWhileHandlingException(fIndexInput);
+                            uploadPermits.release();
                             failures.add(t);
                             if (counter.decrementAndGet() == 0) {
                                 latch.countDown();
@@ -492,8 +636,18 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                     });
                 } catch (Throwable e) {
                     IOUtils.closeWhileHandlingException(indexInput);
+                    if (acquired) {
+                        uploadPermits.release();
+                    }
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
                     failures.add(e);
-                    latch.countDown();
+                    // the remaining parts are not uploaded
+                    if (counter.getAndSet(0) > 0) {
+                        latch.countDown();
+                    }
+                    return;
                 }
             }
         }
@@ -580,7 +734,7 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                 }
                 numberOfFiles++;
                 // we don't compute checksum for segments, so always recover them
-                if (!fileName.startsWith("segments") && md != null && fileInfo.isSame(md)) {
+                if (!fileName.startsWith("segments") && md != null && isSameAsLocal(fileInfo, md)) {
                     totalSize += md.length();
                     numberOfReusedFiles++;
                     reusedTotalSize += md.length();
@@ -654,6 +808,31 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
             }
         }
 
+        /**
+         * Checks if the local file is identical to the file in the snapshot and can be reused. If the local store lost
+         * the checksum of a file of the right length, the checksum is computed from the local content and recorded
+         * in the store so that we don't have to copy the whole file over again.
+         */
+        private boolean isSameAsLocal(FileInfo fileInfo, StoreFileMetaData md) {
+            if (fileInfo.isSame(md)) {
+                return true;
+            }
+            if (md.checksum() != null || fileInfo.checksum() == null || md.length() != fileInfo.length()) {
+                return false;
+            }
+            try {
+                String checksum = store.computeChecksum(md.name());
+                if (!checksum.equals(fileInfo.checksum())) {
+                    return false;
+                }
+                store.writeChecksum(md.name(), checksum);
+                return true;
+            } catch (IOException e) {
+                logger.trace("[{}] failed to compute checksum of local file [{}]", e, shardId, md.name());
+                return false;
+            }
+        }
+
         /**
          * Restores a file
          * This is asynchronous method. Upon completion of the operation latch is getting counted down and any failures are
@@ -683,6 +862,9 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                 public synchronized void onPartial(byte[] data, int offset, int size) throws IOException {
                     recoveryStatus.index().addCurrentFilesSize(size);
                     indexOutput.writeBytes(data, offset, size);
+                    if (restoreRateLimiter != null) {
+                        restoreRateLimiter.pause(size);
+                    }
                 }
 
                 @Override
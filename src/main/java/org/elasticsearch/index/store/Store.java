@@ -22,14 +22,17 @@ package org.elasticsearch.index.store;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.store.*;
 import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.Directories;
+import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.store.BufferedChecksumIndexOutput;
 import org.elasticsearch.common.lucene.store.ChecksumIndexOutput;
 import org.elasticsearch.common.settings.Settings;
@@ -110,6 +113,24 @@ public class Store extends AbstractIndexShardComponent implements CloseableIndex
         return md;
     }
 
+    /**
+     * Returns the user data of the last commit point of the store, <tt>null</tt> if the store
+     * holds no complete commit point.
+     */
+    @Nullable
+    public Map<String, String> readLastCommittedUserData() throws IOException {
+        if (!Lucene.indexExists(directory)) {
+            return null;
+        }
+        SegmentInfos segmentInfos = Lucene.readSegmentInfos(directory);
+        for (String name : segmentInfos.files(directory, true)) {
+            if (metaData(name) == null) {
+                return null;
+            }
+        }
+        return segmentInfos.getUserData();
+    }
+
     /**
      * Deletes the content of a shard store. Be careful calling this!.
      */
@@ -275,6 +296,28 @@ public class Store extends AbstractIndexShardComponent implements CloseableIndex
         return metaData.directory().openInput(name, context);
     }
 
+    /**
+     * Computes the checksum of a file from its raw content, the same way it is computed while the file is written.
+     * Used for files we lost the checksum for, reading a local file is much cheaper than copying it over again.
+     */
+    public String computeChecksum(String name) throws IOException {
+        IndexInput indexInput = openInputRaw(name, IOContext.READONCE);
+        try {
+            Adler32 checksum = new Adler32();
+            byte[] buffer = new byte[BufferedIndexInput.BUFFER_SIZE * 4];
+            long remaining = indexInput.length();
+            while (remaining > 0) {
+                int length = (int) Math.min(buffer.length, remaining);
+                indexInput.readBytes(buffer, 0, length);
+                checksum.update(buffer, 0, length);
+                remaining -= length;
+            }
+            return Long.toString(checksum.getValue(), Character.MAX_RADIX);
+        } finally {
+            indexInput.close();
+        }
+    }
+
     public void writeChecksum(String name, String checksum) throws IOException {
         // update the metadata to include the checksum and write a new checksums file
         synchronized (mutex) {
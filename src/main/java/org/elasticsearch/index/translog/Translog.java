@@ -21,6 +21,7 @@ package org.elasticsearch.index.translog;
 
 import org.apache.lucene.index.Term;
 import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesArray;
@@ -32,6 +33,7 @@ import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.CloseableIndexComponent;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShardComponent;
 
 import java.io.IOException;
@@ -104,6 +106,12 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
 
     byte[] read(Location location);
 
+    /**
+     * Reads the operations at the given locations at once, in the order they were written. The data is returned
+     * in the order of the locations, <tt>null</tt> for the ones that can't be read anymore.
+     */
+    byte[][] read(Location[] locations);
+
     /**
      * Snapshots the current transaction log allowing to safely iterate over the snapshot.
      */
@@ -222,6 +230,11 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
 
         long estimateSize();
 
+        /**
+         * The sequence number of the operation, {@link SequenceNumbers#UNASSIGNED_SEQ_NO} if it has none.
+         */
+        long seqNo();
+
         Source readSource(StreamInput in) throws IOException;
     }
 
@@ -250,6 +263,7 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
         private long timestamp;
         private long ttl;
         private long version;
+        private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
 
         public Create() {
         }
@@ -263,6 +277,7 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             this.timestamp = create.timestamp();
             this.ttl = create.ttl();
             this.version = create.version();
+            this.seqNo = create.seqNo();
         }
 
         public Create(String type, String id, byte[] source) {
@@ -313,6 +328,11 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             return this.version;
         }
 
+        @Override
+        public long seqNo() {
+            return this.seqNo;
+        }
+
         @Override
         public Source readSource(StreamInput in) throws IOException {
             readFrom(in);
@@ -344,11 +364,15 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             if (version >= 5) {
                 this.ttl = in.readLong();
             }
+            if (version >= 6) {
+                this.seqNo = in.readLong();
+            }
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
-            out.writeVInt(5); // version
+            boolean withSeqNo = out.getVersion().onOrAfter(Version.V_1_0_0_Beta2);
+            out.writeVInt(withSeqNo ? 6 : 5); // version
             out.writeString(id);
             out.writeString(type);
             out.writeBytesReference(source);
@@ -367,6 +391,9 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             out.writeLong(version);
             out.writeLong(timestamp);
             out.writeLong(ttl);
+            if (withSeqNo) {
+                out.writeLong(seqNo);
+            }
         }
     }
 
@@ -379,6 +406,7 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
         private String parent;
         private long timestamp;
         private long ttl;
+        private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
 
         public Index() {
         }
@@ -392,6 +420,7 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             this.version = index.version();
             this.timestamp = index.timestamp();
             this.ttl = index.ttl();
+            this.seqNo = index.seqNo();
         }
 
         public Index(String type, String id, byte[] source) {
@@ -442,6 +471,11 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             return this.version;
         }
 
+        @Override
+        public long seqNo() {
+            return this.seqNo;
+        }
+
         @Override
         public Source readSource(StreamInput in) throws IOException {
             readFrom(in);
@@ -473,11 +507,15 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             if (version >= 5) {
                 this.ttl = in.readLong();
             }
+            if (version >= 6) {
+                this.seqNo = in.readLong();
+            }
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
-            out.writeVInt(5); // version
+            boolean withSeqNo = out.getVersion().onOrAfter(Version.V_1_0_0_Beta2);
+            out.writeVInt(withSeqNo ? 6 : 5); // version
             out.writeString(id);
             out.writeString(type);
             out.writeBytesReference(source);
@@ -496,12 +534,16 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             out.writeLong(version);
             out.writeLong(timestamp);
             out.writeLong(ttl);
+            if (withSeqNo) {
+                out.writeLong(seqNo);
+            }
         }
     }
 
     static class Delete implements Operation {
         private Term uid;
         private long version;
+        private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
 
         public Delete() {
         }
@@ -509,6 +551,7 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
         public Delete(Engine.Delete delete) {
             this(delete.uid());
             this.version = delete.version();
+            this.seqNo = delete.seqNo();
         }
 
         public Delete(Term uid) {
@@ -533,6 +576,11 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             return this.version;
         }
 
+        @Override
+        public long seqNo() {
+            return this.seqNo;
+        }
+
         @Override
         public Source readSource(StreamInput in) throws IOException {
             throw new ElasticSearchIllegalStateException("trying to read doc source from delete operation");
@@ -545,14 +593,21 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             if (version >= 1) {
                 this.version = in.readLong();
             }
+            if (version >= 2) {
+                this.seqNo = in.readLong();
+            }
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
-            out.writeVInt(1); // version
+            boolean withSeqNo = out.getVersion().onOrAfter(Version.V_1_0_0_Beta2);
+            out.writeVInt(withSeqNo ? 2 : 1); // version
             out.writeString(uid.field());
             out.writeString(uid.text());
             out.writeLong(version);
+            if (withSeqNo) {
+                out.writeLong(seqNo);
+            }
         }
     }
 
@@ -561,12 +616,14 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
         @Nullable
         private String[] filteringAliases;
         private String[] types = Strings.EMPTY_ARRAY;
+        private long seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
 
         public DeleteByQuery() {
         }
 
         public DeleteByQuery(Engine.DeleteByQuery deleteByQuery) {
             this(deleteByQuery.source(), deleteByQuery.filteringAliases(), deleteByQuery.types());
+            this.seqNo = deleteByQuery.seqNo();
         }
 
         public DeleteByQuery(BytesReference source, String[] filteringAliases, String... types) {
@@ -597,6 +654,11 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             return this.types;
         }
 
+        @Override
+        public long seqNo() {
+            return this.seqNo;
+        }
+
         @Override
         public Source readSource(StreamInput in) throws IOException {
             throw new ElasticSearchIllegalStateException("trying to read doc source from delete_by_query operation");
@@ -628,11 +690,15 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
                     }
                 }
             }
+            if (version >= 3) {
+                this.seqNo = in.readLong();
+            }
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
-            out.writeVInt(2); // version
+            boolean withSeqNo = out.getVersion().onOrAfter(Version.V_1_0_0_Beta2);
+            out.writeVInt(withSeqNo ? 3 : 2); // version
             out.writeBytesReference(source);
             out.writeVInt(types.length);
             for (String type : types) {
@@ -646,6 +712,9 @@ public interface Translog extends IndexShardComponent, CloseableIndexComponent {
             } else {
                 out.writeVInt(0);
             }
+            if (withSeqNo) {
+                out.writeLong(seqNo);
+            }
         }
     }
 }
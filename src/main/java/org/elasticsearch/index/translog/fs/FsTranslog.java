@@ -38,6 +38,8 @@ import org.elasticsearch.index.translog.TranslogStreams;
 import java.io.File;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -326,6 +328,51 @@ public class FsTranslog extends AbstractIndexShardComponent implements Translog
         }
     }
 
+    @Override
+    public byte[][] read(final Location[] locations) {
+        Integer[] order = new Integer[locations.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // read sequentially through the files
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                Location l1 = locations[o1];
+                Location l2 = locations[o2];
+                if (l1.translogId != l2.translogId) {
+                    return l1.translogId < l2.translogId ? -1 : 1;
+                }
+                return l1.translogLocation < l2.translogLocation ? -1 : (l1.translogLocation == l2.translogLocation ? 0 : 1);
+            }
+        });
+        byte[][] data = new byte[locations.length][];
+        rwl.readLock().lock();
+        try {
+            FsTranslogFile trans = this.trans;
+            FsTranslogFile current = this.current;
+            for (int index : order) {
+                Location location = locations[index];
+                FsTranslogFile file = null;
+                if (trans != null && trans.id() == location.translogId) {
+                    file = trans;
+                } else if (current.id() == location.translogId) {
+                    file = current;
+                }
+                if (file != null) {
+                    try {
+                        data[index] = file.read(location);
+                    } catch (Exception e) {
+                        // ignore
+                    }
+                }
+            }
+            return data;
+        } finally {
+            rwl.readLock().unlock();
+        }
+    }
+
     @Override
     public Location add(Operation operation) throws TranslogException {
         rwl.readLock().lock();
@@ -62,10 +62,12 @@ import java.io.Reader;
 import java.util.Locale;
 import java.util.Map;
 
+import static com.google.common.collect.Maps.newHashMap;
 import static org.elasticsearch.common.settings.ImmutableSettings.Builder.EMPTY_SETTINGS;
 
 /**
- * A node level registry of analyzers, to be reused by different indices which use default analyzers.
+ * A node level registry of analyzers, to be reused by different indices which use default analyzers, or
+ * which are created with the same analysis settings.
  */
 public class IndicesAnalysisService extends AbstractComponent {
 
@@ -74,6 +76,9 @@ public class IndicesAnalysisService extends AbstractComponent {
     private final Map<String, PreBuiltTokenFilterFactoryFactory> tokenFilterFactories = ConcurrentCollections.newConcurrentMap();
     private final Map<String, PreBuiltCharFilterFactoryFactory> charFilterFactories = ConcurrentCollections.newConcurrentMap();
 
+    private final Map<SharedAnalyzerKey, SharedAnalyzer> sharedAnalyzers = newHashMap();
+    private long sharedAnalyzersReuseCount;
+
     public IndicesAnalysisService() {
         super(EMPTY_SETTINGS);
     }
@@ -717,4 +722,106 @@ public class IndicesAnalysisService extends AbstractComponent {
             }
         }
     }
+
+    /**
+     * Returns the analyzer shared by the indices under the given key, registering the given analyzer as
+     * the shared one if there is none yet. Each call must be matched by a call to {@link #releaseSharedAnalyzer(SharedAnalyzerKey)}.
+     */
+    public synchronized NamedAnalyzer acquireSharedAnalyzer(SharedAnalyzerKey key, NamedAnalyzer analyzer) {
+        SharedAnalyzer sharedAnalyzer = sharedAnalyzers.get(key);
+        if (sharedAnalyzer == null) {
+            sharedAnalyzer = new SharedAnalyzer(analyzer);
+            sharedAnalyzers.put(key, sharedAnalyzer);
+        } else {
+            sharedAnalyzersReuseCount++;
+        }
+        sharedAnalyzer.refCount++;
+        return sharedAnalyzer.analyzer;
+    }
+
+    /**
+     * Releases the analyzer shared under the given key, closing it once no index uses it anymore.
+     */
+    public synchronized void releaseSharedAnalyzer(SharedAnalyzerKey key) {
+        SharedAnalyzer sharedAnalyzer = sharedAnalyzers.get(key);
+        if (sharedAnalyzer == null || --sharedAnalyzer.refCount > 0) {
+            return;
+        }
+        sharedAnalyzers.remove(key);
+        try {
+            sharedAnalyzer.analyzer.close();
+        } catch (Exception e) {
+            logger.debug("failed to close shared analyzer {}", e, sharedAnalyzer.analyzer);
+        }
+    }
+
+    /**
+     * The number of analyzers currently shared by the indices.
+     */
+    public synchronized int sharedAnalyzersCount() {
+        return sharedAnalyzers.size();
+    }
+
+    /**
+     * The number of times an index used an already shared analyzer instead of its own.
+     */
+    public synchronized long sharedAnalyzersReuseCount() {
+        return sharedAnalyzersReuseCount;
+    }
+
+    public synchronized SharedAnalyzersStats sharedAnalyzersStats() {
+        return new SharedAnalyzersStats(sharedAnalyzers.size(), sharedAnalyzersReuseCount);
+    }
+
+    private static class SharedAnalyzer {
+
+        final NamedAnalyzer analyzer;
+
+        int refCount;
+
+        SharedAnalyzer(NamedAnalyzer analyzer) {
+            this.analyzer = analyzer;
+        }
+    }
+
+    /**
+     * Identifies an analyzer by its name and provider, and by the version and analysis settings of the index
+     * it is built for, so that indices created with the same analysis settings, typically from the same
+     * template, share their analyzers.
+     */
+    public static final class SharedAnalyzerKey {
+
+        private final String name;
+        private final Class<?> providerClass;
+        private final Version indexVersion;
+        private final Settings analysisSettings;
+        private final int hashCode;
+
+        public SharedAnalyzerKey(String name, Class<?> providerClass, Version indexVersion, Settings analysisSettings) {
+            this.name = name;
+            this.providerClass = providerClass;
+            this.indexVersion = indexVersion;
+            this.analysisSettings = analysisSettings;
+            int hashCode = name.hashCode();
+            hashCode = 31 * hashCode + providerClass.hashCode();
+            hashCode = 31 * hashCode + indexVersion.hashCode();
+            hashCode = 31 * hashCode + analysisSettings.getAsMap().hashCode();
+            this.hashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            SharedAnalyzerKey that = (SharedAnalyzerKey) o;
+            return hashCode == that.hashCode && name.equals(that.name) && providerClass.equals(that.providerClass)
+                    && indexVersion.equals(that.indexVersion) && analysisSettings.getAsMap().equals(that.analysisSettings.getAsMap());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
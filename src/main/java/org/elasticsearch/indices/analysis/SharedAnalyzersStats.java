@@ -0,0 +1,93 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.analysis;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentBuilderString;
+
+import java.io.IOException;
+
+/**
+ */
+public class SharedAnalyzersStats implements Streamable, ToXContent {
+
+    private long count;
+    private long reused;
+
+    SharedAnalyzersStats() {
+
+    }
+
+    public SharedAnalyzersStats(long count, long reused) {
+        this.count = count;
+        this.reused = reused;
+    }
+
+    /**
+     * The number of analyzers currently shared by the indices of the node.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * The number of times an index used an already shared analyzer instead of building its own.
+     */
+    public long getReused() {
+        return this.reused;
+    }
+
+    public static SharedAnalyzersStats readSharedAnalyzersStats(StreamInput in) throws IOException {
+        SharedAnalyzersStats stats = new SharedAnalyzersStats();
+        stats.readFrom(in);
+        return stats;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        count = in.readVLong();
+        reused = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(count);
+        out.writeVLong(reused);
+    }
+
+    static final class Fields {
+        static final XContentBuilderString SHARED_ANALYZERS = new XContentBuilderString("shared_analyzers");
+        static final XContentBuilderString COUNT = new XContentBuilderString("count");
+        static final XContentBuilderString REUSED = new XContentBuilderString("reused");
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.SHARED_ANALYZERS);
+        builder.field(Fields.COUNT, count);
+        builder.field(Fields.REUSED, reused);
+        builder.endObject();
+        return builder;
+    }
+}
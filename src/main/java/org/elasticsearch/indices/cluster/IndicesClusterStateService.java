@@ -34,6 +34,7 @@ import org.elasticsearch.cluster.metadata.MappingMetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.*;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.compress.CompressedString;
@@ -684,7 +685,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent<Indic
                     final DiscoveryNode sourceNode = nodes.get(entry.currentNodeId());
                     try {
                         // we are recovering a backup from a primary, so no need to mark it as relocated
-                        final StartRecoveryRequest request = new StartRecoveryRequest(indexShard.shardId(), sourceNode, nodes.localNode(), false, indexShard.store().list());
+                        final StartRecoveryRequest request = new StartRecoveryRequest(indexShard.shardId(), sourceNode, nodes.localNode(), false, indexShard.store().list(), lastCommitUserData(indexShard));
                         recoveryTarget.startRecovery(request, indexShard, new PeerRecoveryListener(request, shardRouting, indexService, indexMetaData));
                     } catch (Throwable e) {
                         handleRecoveryFailure(indexService, indexMetaData, shardRouting, true, e);
@@ -720,7 +721,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent<Indic
                 try {
                     // we don't mark this one as relocated at the end, requests in any case are routed to both when its relocating
                     // and that way we handle the edge case where its mark as relocated, and we might need to roll it back...
-                    final StartRecoveryRequest request = new StartRecoveryRequest(indexShard.shardId(), sourceNode, nodes.localNode(), false, indexShard.store().list());
+                    final StartRecoveryRequest request = new StartRecoveryRequest(indexShard.shardId(), sourceNode, nodes.localNode(), false, indexShard.store().list(), lastCommitUserData(indexShard));
                     recoveryTarget.startRecovery(request, indexShard, new PeerRecoveryListener(request, shardRouting, indexService, indexMetaData));
                 } catch (Throwable e) {
                     handleRecoveryFailure(indexService, indexMetaData, shardRouting, true, e);
@@ -729,6 +730,19 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent<Indic
         }
     }
 
+    /**
+     * Reads the user data of the last local commit, so the source can only send the operations the shard misses.
+     */
+    @Nullable
+    private Map<String, String> lastCommitUserData(InternalIndexShard indexShard) {
+        try {
+            return indexShard.store().readLastCommittedUserData();
+        } catch (Throwable e) {
+            logger.trace("[{}][{}] failed to read the last commit, recovering files", e, indexShard.shardId().index().name(), indexShard.shardId().id());
+            return null;
+        }
+    }
+
     private class PeerRecoveryListener implements RecoveryTarget.RecoveryListener {
 
         private final StartRecoveryRequest request;
@@ -19,6 +19,8 @@
 
 package org.elasticsearch.indices.recovery;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.index.shard.ShardId;
@@ -33,13 +35,15 @@ class RecoveryPrepareForTranslogOperationsRequest extends TransportRequest {
 
     private long recoveryId;
     private ShardId shardId;
+    private String seqNoHistoryUUID;
 
     RecoveryPrepareForTranslogOperationsRequest() {
     }
 
-    RecoveryPrepareForTranslogOperationsRequest(long recoveryId, ShardId shardId) {
+    RecoveryPrepareForTranslogOperationsRequest(long recoveryId, ShardId shardId, String seqNoHistoryUUID) {
         this.recoveryId = recoveryId;
         this.shardId = shardId;
+        this.seqNoHistoryUUID = seqNoHistoryUUID;
     }
 
     public long recoveryId() {
@@ -50,11 +54,22 @@ class RecoveryPrepareForTranslogOperationsRequest extends TransportRequest {
         return shardId;
     }
 
+    /**
+     * The sequence number history of the source, adopted by the target. <tt>null</tt> if the source does not know it.
+     */
+    @Nullable
+    public String seqNoHistoryUUID() {
+        return seqNoHistoryUUID;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
         recoveryId = in.readLong();
         shardId = ShardId.readShardId(in);
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            seqNoHistoryUUID = in.readOptionalString();
+        }
     }
 
     @Override
@@ -62,5 +77,8 @@ class RecoveryPrepareForTranslogOperationsRequest extends TransportRequest {
         super.writeTo(out);
         out.writeLong(recoveryId);
         shardId.writeTo(out);
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeOptionalString(seqNoHistoryUUID);
+        }
     }
 }
@@ -38,6 +38,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.deletionpolicy.SnapshotIndexCommit;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IllegalIndexShardStateException;
 import org.elasticsearch.index.shard.IndexShardClosedException;
 import org.elasticsearch.index.shard.IndexShardState;
@@ -115,8 +116,20 @@ public class RecoverySource extends AbstractComponent {
         logger.trace("[{}][{}] starting recovery to {}, mark_as_relocated {}", request.shardId().index().name(), request.shardId().id(), request.targetNode(), request.markAsRelocated());
         final RecoveryResponse response = new RecoveryResponse();
         shard.recover(new Engine.RecoveryHandler() {
+
+            // operations up to this sequence number are already held by the target
+            private long skipUpToSeqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
+
             @Override
             public void phase1(final SnapshotIndexCommit snapshot) throws ElasticSearchException {
+                Engine engine = shard.engine();
+                if (request.seqNoHistoryUUID() != null && request.seqNoHistoryUUID().equals(engine.seqNoHistoryUUID())
+                        && request.localCheckpoint() >= engine.translogSeqNo()) {
+                    // all operations the target misses are in our translog, no need to send any file
+                    skipUpToSeqNo = request.localCheckpoint();
+                    logger.trace("[{}][{}] recovery [phase1] to {}: skipping, target holds operations up to [{}], our translog holds all operations above [{}]", request.shardId().index().name(), request.shardId().id(), request.targetNode(), request.localCheckpoint(), engine.translogSeqNo());
+                    return;
+                }
                 long totalSize = 0;
                 long existingTotalSize = 0;
                 try {
@@ -224,6 +237,9 @@ public class RecoverySource extends AbstractComponent {
                     Set<String> snapshotFiles = Sets.newHashSet(snapshot.getFiles());
                     transportService.submitRequest(request.targetNode(), RecoveryTarget.Actions.CLEAN_FILES, new RecoveryCleanFilesRequest(request.recoveryId(), shard.shardId(), snapshotFiles), TransportRequestOptions.options().withTimeout(internalActionTimeout), EmptyTransportResponseHandler.INSTANCE_SAME).txGet();
 
+                    // operations up to the checkpoint of the commit are in the files we sent
+                    skipUpToSeqNo = SequenceNumbers.readSeqNo(snapshot.getUserData(), SequenceNumbers.LOCAL_CHECKPOINT_KEY);
+
                     stopWatch.stop();
                     logger.trace("[{}][{}] recovery [phase1] to {}: took [{}]", request.shardId().index().name(), request.shardId().id(), request.targetNode(), stopWatch.totalTime());
                     response.phase1Time = stopWatch.totalTime().millis();
@@ -239,7 +255,7 @@ public class RecoverySource extends AbstractComponent {
                 }
                 logger.trace("[{}][{}] recovery [phase2] to {}: start", request.shardId().index().name(), request.shardId().id(), request.targetNode());
                 StopWatch stopWatch = new StopWatch().start();
-                transportService.submitRequest(request.targetNode(), RecoveryTarget.Actions.PREPARE_TRANSLOG, new RecoveryPrepareForTranslogOperationsRequest(request.recoveryId(), request.shardId()), TransportRequestOptions.options().withTimeout(internalActionTimeout), EmptyTransportResponseHandler.INSTANCE_SAME).txGet();
+                transportService.submitRequest(request.targetNode(), RecoveryTarget.Actions.PREPARE_TRANSLOG, new RecoveryPrepareForTranslogOperationsRequest(request.recoveryId(), request.shardId(), shard.engine().seqNoHistoryUUID()), TransportRequestOptions.options().withTimeout(internalActionTimeout), EmptyTransportResponseHandler.INSTANCE_SAME).txGet();
                 stopWatch.stop();
                 response.startTime = stopWatch.totalTime().millis();
                 logger.trace("[{}][{}] recovery [phase2] to {}: start took [{}]", request.shardId().index().name(), request.shardId().id(), request.targetNode(), stopWatch.totalTime());
@@ -288,6 +304,9 @@ public class RecoverySource extends AbstractComponent {
                         throw new IndexShardClosedException(request.shardId());
                     }
                     Translog.Operation operation = snapshot.next();
+                    if (operation.seqNo() >= 0 && operation.seqNo() <= skipUpToSeqNo) {
+                        continue;
+                    }
                     operations.add(operation);
                     ops += 1;
                     size += operation.estimateSize();
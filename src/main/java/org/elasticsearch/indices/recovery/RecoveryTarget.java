@@ -387,6 +387,9 @@ public class RecoveryTarget extends AbstractComponent {
             onGoingRecovery.stage = RecoveryStatus.Stage.TRANSLOG;
 
             onGoingRecovery.indexShard.performRecoveryPrepareForTranslog();
+            if (request.seqNoHistoryUUID() != null) {
+                onGoingRecovery.indexShard.engine().seqNoHistoryUUID(request.seqNoHistoryUUID());
+            }
             channel.sendResponse(TransportResponse.Empty.INSTANCE);
         }
     }
@@ -20,9 +20,12 @@
 package org.elasticsearch.indices.recovery;
 
 import com.google.common.collect.Maps;
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.transport.TransportRequest;
@@ -50,6 +53,10 @@ public class StartRecoveryRequest extends TransportRequest {
 
     private Map<String, StoreFileMetaData> existingFiles;
 
+    private long localCheckpoint = SequenceNumbers.UNASSIGNED_SEQ_NO;
+
+    private String seqNoHistoryUUID;
+
     StartRecoveryRequest() {
     }
 
@@ -61,14 +68,20 @@ public class StartRecoveryRequest extends TransportRequest {
      * @param targetNode      The node to recover to
      * @param markAsRelocated
      * @param existingFiles
+     * @param lastCommitUserData The user data of the last commit in the local store, if there is one
      */
-    public StartRecoveryRequest(ShardId shardId, DiscoveryNode sourceNode, DiscoveryNode targetNode, boolean markAsRelocated, Map<String, StoreFileMetaData> existingFiles) {
+    public StartRecoveryRequest(ShardId shardId, DiscoveryNode sourceNode, DiscoveryNode targetNode, boolean markAsRelocated, Map<String, StoreFileMetaData> existingFiles,
+                                @Nullable Map<String, String> lastCommitUserData) {
         this.recoveryId = recoveryIdGenerator.incrementAndGet();
         this.shardId = shardId;
         this.sourceNode = sourceNode;
         this.targetNode = targetNode;
         this.markAsRelocated = markAsRelocated;
         this.existingFiles = existingFiles;
+        if (lastCommitUserData != null) {
+            this.localCheckpoint = SequenceNumbers.readSeqNo(lastCommitUserData, SequenceNumbers.LOCAL_CHECKPOINT_KEY);
+            this.seqNoHistoryUUID = lastCommitUserData.get(SequenceNumbers.HISTORY_UUID_KEY);
+        }
     }
 
     public long recoveryId() {
@@ -95,6 +108,21 @@ public class StartRecoveryRequest extends TransportRequest {
         return existingFiles;
     }
 
+    /**
+     * The local checkpoint of the last commit of the target, all operations up to it are in its local store.
+     */
+    public long localCheckpoint() {
+        return localCheckpoint;
+    }
+
+    /**
+     * The sequence number history of the last commit of the target, <tt>null</tt> if unknown.
+     */
+    @Nullable
+    public String seqNoHistoryUUID() {
+        return seqNoHistoryUUID;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -109,6 +137,10 @@ public class StartRecoveryRequest extends TransportRequest {
             StoreFileMetaData md = StoreFileMetaData.readStoreFileMetaData(in);
             existingFiles.put(md.name(), md);
         }
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            localCheckpoint = in.readLong();
+            seqNoHistoryUUID = in.readOptionalString();
+        }
     }
 
     @Override
@@ -123,5 +155,9 @@ public class StartRecoveryRequest extends TransportRequest {
         for (StoreFileMetaData md : existingFiles.values()) {
             md.writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeLong(localCheckpoint);
+            out.writeOptionalString(seqNoHistoryUUID);
+        }
     }
 }
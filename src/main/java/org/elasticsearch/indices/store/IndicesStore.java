@@ -22,16 +22,21 @@ package org.elasticsearch.indices.store;
 import org.apache.lucene.store.StoreRateLimiting;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.ClusterStateUpdateTask;
 import org.elasticsearch.cluster.routing.IndexRoutingTable;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.FileSystemUtils;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.index.service.IndexService;
 import org.elasticsearch.index.shard.ShardId;
@@ -40,6 +45,7 @@ import org.elasticsearch.node.settings.NodeSettingsService;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.File;
+import java.util.Set;
 
 /**
  *
@@ -48,6 +54,7 @@ public class IndicesStore extends AbstractComponent implements ClusterStateListe
 
     public static final String INDICES_STORE_THROTTLE_TYPE = "indices.store.throttle.type";
     public static final String INDICES_STORE_THROTTLE_MAX_BYTES_PER_SEC = "indices.store.throttle.max_bytes_per_sec";
+    public static final String INDICES_STORE_UNALLOCATED_SHARD_RETENTION = "indices.store.unallocated_shard_retention";
 
     class ApplySettings implements NodeSettingsService.Listener {
         @Override
@@ -79,6 +86,12 @@ public class IndicesStore extends AbstractComponent implements ClusterStateListe
 
     private final ClusterService clusterService;
 
+    private final ThreadPool threadPool;
+
+    private final TimeValue unallocatedShardRetention;
+
+    private final Set<ShardId> retainedShards = ConcurrentCollections.newConcurrentSet();
+
     private volatile String rateLimitingType;
     private volatile ByteSizeValue rateLimitingThrottle;
     private final StoreRateLimiting rateLimiting = new StoreRateLimiting();
@@ -92,13 +105,15 @@ public class IndicesStore extends AbstractComponent implements ClusterStateListe
         this.nodeSettingsService = nodeSettingsService;
         this.indicesService = indicesService;
         this.clusterService = clusterService;
+        this.threadPool = threadPool;
+        this.unallocatedShardRetention = componentSettings.getAsTime("unallocated_shard_retention", TimeValue.timeValueMillis(0));
         // we limit with 20MB / sec by default with a default type set to merge sice 0.90.1
         this.rateLimitingType = componentSettings.get("throttle.type", StoreRateLimiting.Type.MERGE.name());
         rateLimiting.setType(rateLimitingType);
         this.rateLimitingThrottle = componentSettings.getAsBytesSize("throttle.max_bytes_per_sec", new ByteSizeValue(20, ByteSizeUnit.MB));
         rateLimiting.setMaxRate(rateLimitingThrottle);
 
-        logger.debug("using indices.store.throttle.type [{}], with index.store.throttle.max_bytes_per_sec [{}]", rateLimitingType, rateLimitingThrottle);
+        logger.debug("using indices.store.throttle.type [{}], with index.store.throttle.max_bytes_per_sec [{}], unallocated_shard_retention [{}]", rateLimitingType, rateLimitingThrottle, unallocatedShardRetention);
 
         nodeSettingsService.addListener(applySettings);
         clusterService.addLast(this);
@@ -126,58 +141,117 @@ public class IndicesStore extends AbstractComponent implements ClusterStateListe
         for (IndexRoutingTable indexRoutingTable : event.state().routingTable()) {
             // Note, closed indices will not have any routing information, so won't be deleted
             for (IndexShardRoutingTable indexShardRoutingTable : indexRoutingTable) {
-                ShardId shardId = indexShardRoutingTable.shardId();
-                // a shard can be deleted if all its copies are active, and its not allocated on this node
-                boolean shardCanBeDeleted = true;
-                if (indexShardRoutingTable.size() == 0) {
-                    // should not really happen, there should always be at least 1 (primary) shard in a
-                    // shard replication group, in any case, protected from deleting something by mistake
-                    shardCanBeDeleted = false;
+                if (!shardCanBeDeleted(indexShardRoutingTable)) {
+                    continue;
+                }
+                if (unallocatedShardRetention.millis() > 0) {
+                    retainShard(indexShardRoutingTable.shardId());
                 } else {
-                    for (ShardRouting shardRouting : indexShardRoutingTable) {
-                        // be conservative here, check on started, not even active
-                        if (!shardRouting.started()) {
-                            shardCanBeDeleted = false;
-                            break;
+                    deleteShard(indexShardRoutingTable.shardId());
+                }
+            }
+        }
+    }
+
+    private boolean shardCanBeDeleted(IndexShardRoutingTable indexShardRoutingTable) {
+        // a shard can be deleted if all its copies are active, and its not allocated on this node
+        if (indexShardRoutingTable.size() == 0) {
+            // should not really happen, there should always be at least 1 (primary) shard in a
+            // shard replication group, in any case, protected from deleting something by mistake
+            return false;
+        }
+        for (ShardRouting shardRouting : indexShardRoutingTable) {
+            // be conservative here, check on started, not even active
+            if (!shardRouting.started()) {
+                return false;
+            }
+            String localNodeId = clusterService.localNode().id();
+            // check if shard is active on the current node or is getting relocated to the our node
+            if (localNodeId.equals(shardRouting.currentNodeId()) || localNodeId.equals(shardRouting.relocatingNodeId())) {
+                // shard will be used locally - keep it
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the data of a shard no longer allocated on this node for a while, typically a shard that relocated away
+     * because of rebalancing. If it is allocated back in the meantime, the recovery only copies the files that
+     * changed since.
+     */
+    private void retainShard(final ShardId shardId) {
+        if (!hasShardData(shardId) || !retainedShards.add(shardId)) {
+            return;
+        }
+        logger.debug("[{}][{}] keeping shard that is no longer used for [{}]", shardId.index().name(), shardId.id(), unallocatedShardRetention);
+        threadPool.schedule(unallocatedShardRetention, ThreadPool.Names.SAME, new Runnable() {
+            @Override
+            public void run() {
+                // check and delete on the cluster state thread, so the shard can't get allocated back concurrently
+                clusterService.submitStateUpdateTask("indices_store_delete_unallocated_shard [" + shardId + "]", Priority.LOW, new ClusterStateUpdateTask() {
+                    @Override
+                    public ClusterState execute(ClusterState currentState) throws Exception {
+                        retainedShards.remove(shardId);
+                        if (currentState.blocks().disableStatePersistence()) {
+                            return currentState;
                         }
-                        String localNodeId = clusterService.localNode().id();
-                        // check if shard is active on the current node or is getting relocated to the our node
-                        if (localNodeId.equals(shardRouting.currentNodeId()) || localNodeId.equals(shardRouting.relocatingNodeId())) {
-                            // shard will be used locally - keep it
-                            shardCanBeDeleted = false;
-                            break;
+                        IndexRoutingTable indexRoutingTable = currentState.routingTable().index(shardId.index().name());
+                        if (indexRoutingTable == null) {
+                            // the index was deleted or closed since
+                            return currentState;
                         }
+                        IndexShardRoutingTable indexShardRoutingTable = indexRoutingTable.shard(shardId.id());
+                        if (indexShardRoutingTable != null && shardCanBeDeleted(indexShardRoutingTable)) {
+                            deleteShard(shardId);
+                        }
+                        return currentState;
                     }
+
+                    @Override
+                    public void onFailure(String source, Throwable t) {
+                        retainedShards.remove(shardId);
+                        logger.debug("[{}][{}] failed to delete unallocated shard, ignoring", t, shardId.index().name(), shardId.id());
+                    }
+                });
+            }
+        });
+    }
+
+    private boolean hasShardData(ShardId shardId) {
+        IndexService indexService = indicesService.indexService(shardId.index().name());
+        if (indexService == null) {
+            return nodeEnv.hasNodeFile() && FileSystemUtils.exists(nodeEnv.shardLocations(shardId));
+        }
+        return !indexService.hasShard(shardId.id()) && indexService.store().canDeleteUnallocated(shardId);
+    }
+
+    private void deleteShard(ShardId shardId) {
+        IndexService indexService = indicesService.indexService(shardId.index().name());
+        if (indexService == null) {
+            // not physical allocation of the index, delete it from the file system if applicable
+            if (nodeEnv.hasNodeFile()) {
+                File[] shardLocations = nodeEnv.shardLocations(shardId);
+                if (FileSystemUtils.exists(shardLocations)) {
+                    logger.debug("[{}][{}] deleting shard that is no longer used", shardId.index().name(), shardId.id());
+                    FileSystemUtils.deleteRecursively(shardLocations);
                 }
-                if (shardCanBeDeleted) {
-                    IndexService indexService = indicesService.indexService(indexRoutingTable.index());
-                    if (indexService == null) {
-                        // not physical allocation of the index, delete it from the file system if applicable
-                        if (nodeEnv.hasNodeFile()) {
-                            File[] shardLocations = nodeEnv.shardLocations(shardId);
-                            if (FileSystemUtils.exists(shardLocations)) {
-                                logger.debug("[{}][{}] deleting shard that is no longer used", shardId.index().name(), shardId.id());
-                                FileSystemUtils.deleteRecursively(shardLocations);
-                            }
-                        }
-                    } else {
-                        if (!indexService.hasShard(shardId.id())) {
-                            if (indexService.store().canDeleteUnallocated(shardId)) {
-                                logger.debug("[{}][{}] deleting shard that is no longer used", shardId.index().name(), shardId.id());
-                                try {
-                                    indexService.store().deleteUnallocated(indexShardRoutingTable.shardId());
-                                } catch (Exception e) {
-                                    logger.debug("[{}][{}] failed to delete unallocated shard, ignoring", e, indexShardRoutingTable.shardId().index().name(), indexShardRoutingTable.shardId().id());
-                                }
-                            }
-                        } else {
-                            // this state is weird, should we log?
-                            // basically, it means that the shard is not allocated on this node using the routing
-                            // but its still physically exists on an IndexService
-                            // Note, this listener should run after IndicesClusterStateService...
-                        }
+            }
+        } else {
+            if (!indexService.hasShard(shardId.id())) {
+                if (indexService.store().canDeleteUnallocated(shardId)) {
+                    logger.debug("[{}][{}] deleting shard that is no longer used", shardId.index().name(), shardId.id());
+                    try {
+                        indexService.store().deleteUnallocated(shardId);
+                    } catch (Exception e) {
+                        logger.debug("[{}][{}] failed to delete unallocated shard, ignoring", e, shardId.index().name(), shardId.id());
                     }
                 }
+            } else {
+                // this state is weird, should we log?
+                // basically, it means that the shard is not allocated on this node using the routing
+                // but its still physically exists on an IndexService
+                // Note, this listener should run after IndicesClusterStateService...
             }
         }
     }
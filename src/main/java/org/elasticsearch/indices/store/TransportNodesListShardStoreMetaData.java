@@ -22,8 +22,14 @@ package org.elasticsearch.indices.store;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
 import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.FailedNodeException;
 import org.elasticsearch.action.support.nodes.*;
 import org.elasticsearch.cluster.ClusterName;
@@ -35,9 +41,11 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.env.NodeEnvironment;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.service.IndexService;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.service.InternalIndexShard;
@@ -76,6 +84,10 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesOperatio
         return execute(new Request(shardId, onlyUnallocated, nodesIds).timeout(timeout));
     }
 
+    public void list(ShardId shardId, boolean onlyUnallocated, Set<String> nodesIds, @Nullable TimeValue timeout, ActionListener<NodesStoreFilesMetaData> listener) {
+        execute(new Request(shardId, onlyUnallocated, nodesIds).timeout(timeout), listener);
+    }
+
     @Override
     protected String executor() {
         return ThreadPool.Names.GENERIC;
@@ -149,17 +161,17 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesOperatio
         if (indexService != null) {
             InternalIndexShard indexShard = (InternalIndexShard) indexService.shard(shardId.id());
             if (indexShard != null) {
-                return new StoreFilesMetaData(true, shardId, indexShard.store().list());
+                return new StoreFilesMetaData(true, shardId, indexShard.store().list(), indexShard.engine().seqNoHistoryUUID());
             }
         }
         // try and see if we an list unallocated
         IndexMetaData metaData = clusterService.state().metaData().index(shardId.index().name());
         if (metaData == null) {
-            return new StoreFilesMetaData(false, shardId, ImmutableMap.<String, StoreFileMetaData>of());
+            return new StoreFilesMetaData(false, shardId, ImmutableMap.<String, StoreFileMetaData>of(), null);
         }
         String storeType = metaData.settings().get("index.store.type", "fs");
         if (!storeType.contains("fs")) {
-            return new StoreFilesMetaData(false, shardId, ImmutableMap.<String, StoreFileMetaData>of());
+            return new StoreFilesMetaData(false, shardId, ImmutableMap.<String, StoreFileMetaData>of(), null);
         }
         File[] shardLocations = nodeEnv.shardLocations(shardId);
         File[] shardIndexLocations = new File[shardLocations.length];
@@ -174,7 +186,7 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesOperatio
             }
         }
         if (!exists) {
-            return new StoreFilesMetaData(false, shardId, ImmutableMap.<String, StoreFileMetaData>of());
+            return new StoreFilesMetaData(false, shardId, ImmutableMap.<String, StoreFileMetaData>of(), null);
         }
 
         Map<String, String> checksums = Store.readChecksums(shardIndexLocations);
@@ -200,7 +212,32 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesOperatio
             }
         }
 
-        return new StoreFilesMetaData(false, shardId, files);
+        return new StoreFilesMetaData(false, shardId, files, readSeqNoHistoryUUID(shardId, shardIndexLocations));
+    }
+
+    /**
+     * Reads the sequence number history of the last commit of an unallocated shard, or <tt>null</tt> if it
+     * has no readable commit.
+     */
+    @Nullable
+    private String readSeqNoHistoryUUID(ShardId shardId, File[] shardIndexLocations) {
+        for (File shardIndexLocation : shardIndexLocations) {
+            if (!shardIndexLocation.exists()) {
+                continue;
+            }
+            Directory directory = null;
+            try {
+                directory = FSDirectory.open(shardIndexLocation);
+                if (DirectoryReader.indexExists(directory)) {
+                    return Lucene.readSegmentInfos(directory).getUserData().get(SequenceNumbers.HISTORY_UUID_KEY);
+                }
+            } catch (IOException e) {
+                logger.trace("{} failed to read last commit from [{}]", e, shardId, shardIndexLocation);
+            } finally {
+                IOUtils.closeWhileHandlingException(directory);
+            }
+        }
+        return null;
     }
 
     @Override
@@ -212,14 +249,16 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesOperatio
         private boolean allocated;
         private ShardId shardId;
         private Map<String, StoreFileMetaData> files;
+        private String seqNoHistoryUUID;
 
         StoreFilesMetaData() {
         }
 
-        public StoreFilesMetaData(boolean allocated, ShardId shardId, Map<String, StoreFileMetaData> files) {
+        public StoreFilesMetaData(boolean allocated, ShardId shardId, Map<String, StoreFileMetaData> files, @Nullable String seqNoHistoryUUID) {
             this.allocated = allocated;
             this.shardId = shardId;
             this.files = files;
+            this.seqNoHistoryUUID = seqNoHistoryUUID;
         }
 
         public boolean allocated() {
@@ -230,6 +269,15 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesOperatio
             return this.shardId;
         }
 
+        /**
+         * The sequence number history of the shard copy, copies sharing it only differ by the operations
+         * they miss. <tt>null</tt> if unknown.
+         */
+        @Nullable
+        public String seqNoHistoryUUID() {
+            return this.seqNoHistoryUUID;
+        }
+
         public long totalSizeInBytes() {
             long totalSizeInBytes = 0;
             for (StoreFileMetaData file : this) {
@@ -267,6 +315,9 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesOperatio
                 StoreFileMetaData md = StoreFileMetaData.readStoreFileMetaData(in);
                 files.put(md.name(), md);
             }
+            if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+                seqNoHistoryUUID = in.readOptionalString();
+            }
         }
 
         @Override
@@ -277,6 +328,9 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesOperatio
             for (StoreFileMetaData md : files.values()) {
                 md.writeTo(out);
             }
+            if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+                out.writeOptionalString(seqNoHistoryUUID);
+            }
         }
     }
 
@@ -30,12 +30,16 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.deletebyquery.ShardDeleteByQueryRequest;
+import org.elasticsearch.action.deletebyquery.ShardDeleteByQueryResponse;
+import org.elasticsearch.action.deletebyquery.TransportShardDeleteByQueryAction;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
@@ -48,6 +52,7 @@ import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.mapper.internal.TTLFieldMapper;
 import org.elasticsearch.index.mapper.internal.UidFieldMapper;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.service.IndexService;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.service.IndexShard;
@@ -66,21 +71,30 @@ public class IndicesTTLService extends AbstractLifecycleComponent<IndicesTTLServ
 
     public static final String INDICES_TTL_INTERVAL = "indices.ttl.interval";
     public static final String INDEX_TTL_DISABLE_PURGE = "index.ttl.disable_purge";
+    /**
+     * How expired docs of an index are purged. <tt>bulk</tt> (the default) deletes them one by one using bulk
+     * requests. <tt>segments</tt> deletes them with a single delete by query per shard, letting Lucene drop the
+     * segments whose docs all expired and merges reclaim the others, and hides them from searches until then.
+     */
+    public static final String INDEX_TTL_PURGE_MODE = "index.ttl.purge_mode";
 
     private final ClusterService clusterService;
     private final IndicesService indicesService;
     private final Client client;
+    private final TransportShardDeleteByQueryAction shardDeleteByQueryAction;
 
     private volatile TimeValue interval;
     private final int bulkSize;
     private PurgerThread purgerThread;
 
     @Inject
-    public IndicesTTLService(Settings settings, ClusterService clusterService, IndicesService indicesService, NodeSettingsService nodeSettingsService, Client client) {
+    public IndicesTTLService(Settings settings, ClusterService clusterService, IndicesService indicesService, NodeSettingsService nodeSettingsService, Client client,
+                             TransportShardDeleteByQueryAction shardDeleteByQueryAction) {
         super(settings);
         this.clusterService = clusterService;
         this.indicesService = indicesService;
         this.client = client;
+        this.shardDeleteByQueryAction = shardDeleteByQueryAction;
         this.interval = componentSettings.getAsTime("interval", TimeValue.timeValueSeconds(60));
         this.bulkSize = componentSettings.getAsInt("bulk_size", 10000);
 
@@ -176,8 +190,22 @@ public class IndicesTTLService extends AbstractLifecycleComponent<IndicesTTLServ
         }
     }
 
+    /**
+     * Returns whether the expired docs of the index are purged by segments rather than deleted one by one,
+     * see {@link #INDEX_TTL_PURGE_MODE}.
+     */
+    public static boolean purgeBySegments(Settings indexSettings) {
+        return "segments".equals(indexSettings.get(INDEX_TTL_PURGE_MODE, "bulk"));
+    }
+
     private void purgeShards(List<IndexShard> shardsToPurge) {
+        MetaData metaData = clusterService.state().metaData();
         for (IndexShard shardToPurge : shardsToPurge) {
+            IndexMetaData indexMetaData = metaData.index(shardToPurge.shardId().index().name());
+            if (indexMetaData != null && purgeBySegments(indexMetaData.settings())) {
+                purgeShardSegments(shardToPurge);
+                continue;
+            }
             Query query = NumericRangeQuery.newLongRange(TTLFieldMapper.NAME, null, System.currentTimeMillis(), false, true);
             Engine.Searcher searcher = shardToPurge.acquireSearcher("indices_ttl");
             try {
@@ -199,6 +227,41 @@ public class IndicesTTLService extends AbstractLifecycleComponent<IndicesTTLServ
         }
     }
 
+    /**
+     * Deletes all the expired docs of the shard at once. The delete by query is a single operation in the
+     * translog and on the replicas, and segments whose docs are all deleted are dropped by Lucene without
+     * being merged. Unless the index resolves deletes by query into ids, this refreshes the shard and clears its
+     * version map on every interval some docs expired in.
+     */
+    private void purgeShardSegments(IndexShard shardToPurge) {
+        final long now = System.currentTimeMillis();
+        Engine.Searcher searcher = shardToPurge.acquireSearcher("indices_ttl");
+        try {
+            if (Lucene.count(searcher.searcher(), NumericRangeQuery.newLongRange(TTLFieldMapper.NAME, null, now, false, true)) == 0) {
+                return;
+            }
+        } catch (Exception e) {
+            logger.warn("failed to purge", e);
+            return;
+        } finally {
+            searcher.release();
+        }
+        logger.debug("[{}][{}] purging shard segments", shardToPurge.routingEntry().index(), shardToPurge.routingEntry().id());
+        ShardDeleteByQueryRequest request = new ShardDeleteByQueryRequest(shardToPurge.routingEntry().index(), shardToPurge.routingEntry().id(),
+                QueryBuilders.rangeQuery(TTLFieldMapper.NAME).lte(now).buildAsBytes());
+        shardDeleteByQueryAction.execute(request, new ActionListener<ShardDeleteByQueryResponse>() {
+            @Override
+            public void onResponse(ShardDeleteByQueryResponse response) {
+                logger.trace("purged expired docs older than [{}]", now);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                logger.warn("failed to purge expired docs", e);
+            }
+        });
+    }
+
     private static class DocToPurge {
         public final String type;
         public final String id;
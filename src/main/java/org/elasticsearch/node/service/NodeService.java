@@ -24,6 +24,7 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.admin.cluster.node.info.NodeInfo;
 import org.elasticsearch.action.admin.cluster.node.stats.NodeStats;
 import org.elasticsearch.action.admin.indices.stats.CommonStatsFlags;
+import org.elasticsearch.cache.recycler.PageCacheRecycler;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.component.AbstractComponent;
@@ -33,6 +34,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.discovery.Discovery;
 import org.elasticsearch.http.HttpServer;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.analysis.IndicesAnalysisService;
 import org.elasticsearch.monitor.MonitorService;
 import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -54,6 +56,10 @@ public class NodeService extends AbstractComponent {
 
     private final PluginsService pluginService;
 
+    private final PageCacheRecycler pageCacheRecycler;
+
+    private final IndicesAnalysisService indicesAnalysisService;
+
     @Nullable
     private HttpServer httpServer;
 
@@ -69,8 +75,11 @@ public class NodeService extends AbstractComponent {
     @Inject
     public NodeService(Settings settings, ThreadPool threadPool, MonitorService monitorService, Discovery discovery,
                        TransportService transportService, IndicesService indicesService,
-                       PluginsService pluginService, Version version) {
+                       PluginsService pluginService, PageCacheRecycler pageCacheRecycler, IndicesAnalysisService indicesAnalysisService,
+                       Version version) {
         super(settings);
+        this.pageCacheRecycler = pageCacheRecycler;
+        this.indicesAnalysisService = indicesAnalysisService;
         this.threadPool = threadPool;
         this.monitorService = monitorService;
         this.transportService = transportService;
@@ -155,11 +164,14 @@ public class NodeService extends AbstractComponent {
                 monitorService.networkService().stats(),
                 monitorService.fsService().stats(),
                 transportService.stats(),
-                httpServer == null ? null : httpServer.stats()
+                httpServer == null ? null : httpServer.stats(),
+                pageCacheRecycler.stats(),
+                indicesAnalysisService.sharedAnalyzersStats()
         );
     }
 
-    public NodeStats stats(CommonStatsFlags indices, boolean os, boolean process, boolean jvm, boolean threadPool, boolean network, boolean fs, boolean transport, boolean http) {
+    public NodeStats stats(CommonStatsFlags indices, boolean os, boolean process, boolean jvm, boolean threadPool, boolean network, boolean fs, boolean transport, boolean http, boolean pageRecycler,
+                           boolean sharedAnalyzers) {
         // for indices stats we want to include previous allocated shards stats as well (it will
         // only be applied to the sensible ones to use, like refresh/merge/flush/indexing stats)
         return new NodeStats(disovery.localNode(), System.currentTimeMillis(), hostname,
@@ -171,7 +183,9 @@ public class NodeService extends AbstractComponent {
                 network ? monitorService.networkService().stats() : null,
                 fs ? monitorService.fsService().stats() : null,
                 transport ? transportService.stats() : null,
-                http ? (httpServer == null ? null : httpServer.stats()) : null
+                http ? (httpServer == null ? null : httpServer.stats()) : null,
+                pageRecycler ? pageCacheRecycler.stats() : null,
+                sharedAnalyzers ? indicesAnalysisService.sharedAnalyzersStats() : null
         );
     }
 }
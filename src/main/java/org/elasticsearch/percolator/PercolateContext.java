@@ -68,6 +68,7 @@ import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.rescore.RescoreSearchContext;
 import org.elasticsearch.search.scan.ScanContext;
+import org.elasticsearch.search.slice.SliceContext;
 import org.elasticsearch.search.suggest.SuggestionSearchContext;
 
 import java.io.IOException;
@@ -217,6 +218,11 @@ public class PercolateContext extends SearchContext {
         return searchLookup;
     }
 
+    @Override
+    public boolean hasLookup() {
+        return searchLookup != null;
+    }
+
     @Override
     public boolean release() throws ElasticSearchException {
         try {
@@ -495,6 +501,16 @@ public class PercolateContext extends SearchContext {
         return null;
     }
 
+    @Override
+    public SearchContext slice(SliceContext slice) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SliceContext slice() {
+        return null;
+    }
+
     @Override
     public SearchContext sort(Sort sort) {
         throw new UnsupportedOperationException();
@@ -515,6 +531,16 @@ public class PercolateContext extends SearchContext {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public SearchContext searchAfter(Object[] searchAfter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object[] searchAfter() {
+        return null;
+    }
+
     @Override
     public SearchContext parsedFilter(ParsedFilter filter) {
         throw new UnsupportedOperationException();
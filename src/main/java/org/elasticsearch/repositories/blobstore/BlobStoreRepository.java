@@ -22,6 +22,7 @@ package org.elasticsearch.repositories.blobstore;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import org.apache.lucene.store.RateLimiter;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.ElasticSearchParseException;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
@@ -35,6 +36,7 @@ import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.xcontent.*;
 import org.elasticsearch.index.shard.ShardId;
@@ -82,6 +84,7 @@ import static com.google.common.collect.Lists.newArrayList;
  *      |  |  .....
  *      |  |  |- snapshot-20131010 - JSON serialized BlobStoreIndexShardSnapshot for snapshot "20131010"
  *      |  |  |- snapshot-20131011 - JSON serialized BlobStoreIndexShardSnapshot for snapshot "20131011"
+ *      |  |  |- pending-20131012  - JSON serialized BlobStoreIndexShardSnapshot of the files being uploaded by snapshot "20131012"
  *      |  |
  *      |  |- 1/ - data for shard "1" of index "foo"
  *      |  |  |- __1
@@ -94,6 +97,13 @@ import static com.google.common.collect.Lists.newArrayList;
  *      ......
  * }
  * </pre>
+ * <p/>
+ * All blob store repositories support the following settings
+ * <dl>
+ * <dt>{@code max_snapshot_bytes_per_sec}</dt><dd>Throttles the rate files are read at while snapshotting, per node. Defaults to 20mb.</dd>
+ * <dt>{@code max_restore_bytes_per_sec}</dt><dd>Throttles the rate files are written at while restoring, per node. Defaults to 20mb.</dd>
+ * <dt>{@code concurrent_uploads}</dt><dd>Number of chunks uploaded at the same time, per node. Defaults to 5.</dd>
+ * </dl>
  */
 public abstract class BlobStoreRepository extends AbstractLifecycleComponent<Repository> implements Repository {
 
@@ -113,6 +123,12 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent<Rep
 
     private final ToXContent.Params globalOnlyFormatParams;
 
+    private final RateLimiter snapshotRateLimiter;
+
+    private final RateLimiter restoreRateLimiter;
+
+    private final int concurrentUploads;
+
     /**
      * Constructs new BlobStoreRepository
      *
@@ -128,6 +144,12 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent<Rep
         Map<String, String> globalOnlyParams = Maps.newHashMap();
         globalOnlyParams.put(MetaData.GLOBAL_PERSISTENT_ONLY_PARAM, "true");
         globalOnlyFormatParams = new ToXContent.MapParams(globalOnlyParams);
+        snapshotRateLimiter = getRateLimiter(repositorySettings, "max_snapshot_bytes_per_sec", new ByteSizeValue(20, ByteSizeUnit.MB));
+        restoreRateLimiter = getRateLimiter(repositorySettings, "max_restore_bytes_per_sec", new ByteSizeValue(20, ByteSizeUnit.MB));
+        concurrentUploads = repositorySettings.settings().getAsInt("concurrent_uploads", componentSettings.getAsInt("concurrent_uploads", 5));
+        if (concurrentUploads < 1) {
+            throw new RepositoryException(repositoryName, "concurrent_uploads must be at least 1, got [" + concurrentUploads + "]");
+        }
     }
 
     /**
@@ -136,7 +158,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent<Rep
     @Override
     protected void doStart() throws ElasticSearchException {
         this.snapshotsBlobContainer = blobStore().immutableBlobContainer(basePath);
-        indexShardRepository.initialize(blobStore(), basePath, chunkSize());
+        indexShardRepository.initialize(blobStore(), basePath, chunkSize(), snapshotRateLimiter, restoreRateLimiter, concurrentUploads);
     }
 
     /**
@@ -158,6 +180,24 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent<Rep
         }
     }
 
+    /**
+     * Configures RateLimiter based on repository and global settings
+     *
+     * @param repositorySettings repository settings
+     * @param setting            setting to use to configure rate limiter
+     * @param defaultRate        default limiting rate
+     * @return rate limiter or null if no throttling is needed
+     */
+    private RateLimiter getRateLimiter(RepositorySettings repositorySettings, String setting, ByteSizeValue defaultRate) {
+        ByteSizeValue maxBytesPerSec = repositorySettings.settings().getAsBytesSize(setting,
+                componentSettings.getAsBytesSize(setting, defaultRate));
+        if (maxBytesPerSec.bytes() <= 0) {
+            return null;
+        } else {
+            return new RateLimiter.SimpleRateLimiter(maxBytesPerSec.mbFrac());
+        }
+    }
+
     /**
      * Returns initialized and ready to use BlobStore
      * <p/>
@@ -0,0 +1,85 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.io.BytesStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A response whose content was written to a stream obtained using
+ * {@link org.elasticsearch.rest.action.support.RestXContentBuilder#restResponseStream(RestRequest, RestChannel, RestStatus, String)},
+ * see {@link StreamingRestChannel}.
+ */
+public class StreamRestResponse extends AbstractRestResponse {
+
+    private final RestStatus status;
+
+    private final String contentType;
+
+    private final OutputStream stream;
+
+    public StreamRestResponse(RestStatus status, String contentType, OutputStream stream) {
+        this.status = status;
+        this.contentType = contentType;
+        this.stream = stream;
+    }
+
+    public OutputStream stream() {
+        return this.stream;
+    }
+
+    @Override
+    public boolean contentThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public String contentType() {
+        return contentType;
+    }
+
+    @Override
+    public byte[] content() throws IOException {
+        return bytes().array();
+    }
+
+    @Override
+    public int contentLength() throws IOException {
+        return bytes().length();
+    }
+
+    @Override
+    public int contentOffset() throws IOException {
+        return bytes().arrayOffset();
+    }
+
+    @Override
+    public RestStatus status() {
+        return status;
+    }
+
+    private BytesArray bytes() throws IOException {
+        stream.flush();
+        return ((BytesStream) stream).bytes().toBytesArray();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.Nullable;
+
+import java.io.OutputStream;
+
+/**
+ * A {@link RestChannel} that can stream the content of a response to the client while it is being built,
+ * instead of requiring it to be fully buffered in memory first.
+ * <p/>
+ * The content written to the returned stream is buffered up to a bounded size. If the response completes
+ * within that size, it is sent as a regular response, otherwise the status and headers are sent along with
+ * the first buffer, and each buffer is written to the client as it fills up. The response is completed by
+ * calling {@link #sendResponse(RestResponse)} with either an {@link XContentRestResponse} whose builder writes to
+ * the stream, or a {@link StreamRestResponse} over the stream. Any other response sent once part of the content
+ * was written out aborts the response by closing the connection.
+ */
+public interface StreamingRestChannel extends RestChannel {
+
+    /**
+     * Returns a stream to write the content of a response with the provided status and content type to, or
+     * <tt>null</tt> if this channel can't stream the response.
+     */
+    @Nullable
+    OutputStream responseStream(RestStatus status, String contentType);
+}
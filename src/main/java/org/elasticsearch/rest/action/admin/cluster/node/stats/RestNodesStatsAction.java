@@ -116,6 +116,18 @@ public class RestNodesStatsAction extends BaseRestHandler {
         controller.registerHandler(RestRequest.Method.GET, "/_nodes/{nodeId}/stats/http", httpHandler);
         controller.registerHandler(RestRequest.Method.GET, "/_nodes/http/stats", httpHandler);
         controller.registerHandler(RestRequest.Method.GET, "/_nodes/{nodeId}/http/stats", httpHandler);
+
+        RestPageRecyclerHandler pageRecyclerHandler = new RestPageRecyclerHandler();
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/stats/page_recycler", pageRecyclerHandler);
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/{nodeId}/stats/page_recycler", pageRecyclerHandler);
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/page_recycler/stats", pageRecyclerHandler);
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/{nodeId}/page_recycler/stats", pageRecyclerHandler);
+
+        RestSharedAnalyzersHandler sharedAnalyzersHandler = new RestSharedAnalyzersHandler();
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/stats/shared_analyzers", sharedAnalyzersHandler);
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/{nodeId}/stats/shared_analyzers", sharedAnalyzersHandler);
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/shared_analyzers/stats", sharedAnalyzersHandler);
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/{nodeId}/shared_analyzers/stats", sharedAnalyzersHandler);
     }
 
     @Override
@@ -141,6 +153,8 @@ public class RestNodesStatsAction extends BaseRestHandler {
         nodesStatsRequest.fs(request.paramAsBoolean("fs", nodesStatsRequest.fs()));
         nodesStatsRequest.transport(request.paramAsBoolean("transport", nodesStatsRequest.transport()));
         nodesStatsRequest.http(request.paramAsBoolean("http", nodesStatsRequest.http()));
+        nodesStatsRequest.pageRecycler(request.paramAsBoolean("page_recycler", nodesStatsRequest.pageRecycler()));
+        nodesStatsRequest.sharedAnalyzers(request.paramAsBoolean("shared_analyzers", nodesStatsRequest.sharedAnalyzers()));
         executeNodeStats(request, channel, nodesStatsRequest);
     }
 
@@ -264,4 +278,22 @@ public class RestNodesStatsAction extends BaseRestHandler {
             executeNodeStats(request, channel, nodesStatsRequest);
         }
     }
+
+    class RestPageRecyclerHandler implements RestHandler {
+        @Override
+        public void handleRequest(final RestRequest request, final RestChannel channel) {
+            NodesStatsRequest nodesStatsRequest = new NodesStatsRequest(Strings.splitStringByCommaToArray(request.param("nodeId")));
+            nodesStatsRequest.clear().pageRecycler(true);
+            executeNodeStats(request, channel, nodesStatsRequest);
+        }
+    }
+
+    class RestSharedAnalyzersHandler implements RestHandler {
+        @Override
+        public void handleRequest(final RestRequest request, final RestChannel channel) {
+            NodesStatsRequest nodesStatsRequest = new NodesStatsRequest(Strings.splitStringByCommaToArray(request.param("nodeId")));
+            nodesStatsRequest.clear().sharedAnalyzers(true);
+            executeNodeStats(request, channel, nodesStatsRequest);
+        }
+    }
 }
@@ -113,6 +113,15 @@ public class RestDeleteByQueryAction extends BaseRestHandler {
                         builder.field("failed", indexDeleteByQueryResponse.getFailedShards());
                         builder.endObject();
 
+                        if (indexDeleteByQueryResponse.getDeleted() >= 0) {
+                            builder.field("deleted", indexDeleteByQueryResponse.getDeleted());
+                            builder.field("version_conflicts", indexDeleteByQueryResponse.getVersionConflicts());
+                            builder.field("failed", indexDeleteByQueryResponse.getFailed());
+                        }
+                        if (indexDeleteByQueryResponse.getDeleteFailures().length > 0) {
+                            builder.array("delete_failures", indexDeleteByQueryResponse.getDeleteFailures());
+                        }
+
                         builder.endObject();
                     }
                     builder.endObject();
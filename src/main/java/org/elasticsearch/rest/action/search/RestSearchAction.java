@@ -93,7 +93,7 @@ public class RestSearchAction extends BaseRestHandler {
             @Override
             public void onResponse(SearchResponse response) {
                 try {
-                    XContentBuilder builder = restContentBuilder(request);
+                    XContentBuilder builder = restContentBuilder(request, channel, response.status());
                     builder.startObject();
                     response.toXContent(builder, request);
                     builder.endObject();
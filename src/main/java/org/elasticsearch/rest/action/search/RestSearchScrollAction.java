@@ -88,7 +88,7 @@ public class RestSearchScrollAction extends BaseRestHandler {
             @Override
             public void onResponse(SearchResponse response) {
                 try {
-                    XContentBuilder builder = restContentBuilder(request);
+                    XContentBuilder builder = restContentBuilder(request, channel, response.status());
                     builder.startObject();
                     response.toXContent(builder, request);
                     builder.endObject();
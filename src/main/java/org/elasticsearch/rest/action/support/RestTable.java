@@ -19,6 +19,7 @@
 
 package org.elasticsearch.rest.action.support;
 
+import com.google.common.base.Charsets;
 import org.elasticsearch.common.Booleans;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.Table;
@@ -29,6 +30,10 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.rest.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -37,6 +42,8 @@ import java.util.Set;
  */
 public class RestTable {
 
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=UTF-8";
+
     public static RestResponse buildResponse(Table table, RestRequest request, RestChannel channel) throws Exception {
         XContentType xContentType = XContentType.fromRestContentType(request.param("format", request.header("Content-Type")));
         if (xContentType != null) {
@@ -46,7 +53,7 @@ public class RestTable {
     }
 
     public static RestResponse buildXContentBuilder(Table table, RestRequest request, RestChannel channel) throws Exception {
-        XContentBuilder builder = RestXContentBuilder.restContentBuilder(request);
+        XContentBuilder builder = RestXContentBuilder.restContentBuilder(request, channel, RestStatus.OK);
         Set<String> displayHeaders = buildDisplayHeaders(table, request);
 
         List<Table.Cell> headers = table.getHeaders();
@@ -65,12 +72,13 @@ public class RestTable {
         return new XContentRestResponse(request, RestStatus.OK, builder);
     }
 
-    public static RestResponse buildTextPlainResponse(Table table, RestRequest request, RestChannel channel) {
+    public static RestResponse buildTextPlainResponse(Table table, RestRequest request, RestChannel channel) throws IOException {
         boolean verbose = request.paramAsBoolean("v", false);
         int[] width = buildWidths(table, request, verbose);
         Set<String> displayHeaders = buildDisplayHeaders(table, request);
 
-        StringBuilder out = new StringBuilder();
+        OutputStream stream = RestXContentBuilder.restResponseStream(request, channel, RestStatus.OK, TEXT_CONTENT_TYPE);
+        Writer out = new OutputStreamWriter(stream, Charsets.UTF_8);
         if (verbose) {
             // print the headers
             for (int i = 0; i < width.length; i++) {
@@ -92,8 +100,9 @@ public class RestTable {
             }
             out.append("\n");
         }
+        out.flush();
 
-        return new StringRestResponse(RestStatus.OK, out.toString());
+        return new StreamRestResponse(RestStatus.OK, TEXT_CONTENT_TYPE, stream);
     }
 
     private static Set<String> buildDisplayHeaders(Table table, RestRequest request) {
@@ -138,7 +147,7 @@ public class RestTable {
         return width;
     }
 
-    private static void pad(Table.Cell cell, int width, RestRequest request, StringBuilder out) {
+    private static void pad(Table.Cell cell, int width, RestRequest request, Writer out) throws IOException {
         String sValue = renderValue(request, cell.value);
         int length = sValue == null ? 0 : sValue.length();
         byte leftOver = (byte) (width - length);
@@ -23,9 +23,10 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.*;
-import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.*;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  *
@@ -38,6 +39,36 @@ public class RestXContentBuilder {
     }
 
     public static XContentBuilder restContentBuilder(RestRequest request, @Nullable BytesReference autoDetectSource) throws IOException {
+        return restContentBuilder(request, contentType(request, autoDetectSource), new BytesStreamOutput());
+    }
+
+    /**
+     * A builder for the content of a response with the provided status, streaming it to the client while it
+     * is being built when the channel supports it, see {@link StreamingRestChannel}. The builder must be sent
+     * using an {@link XContentRestResponse} with the same status.
+     */
+    public static XContentBuilder restContentBuilder(RestRequest request, RestChannel channel, RestStatus status) throws IOException {
+        XContentType contentType = contentType(request, request.hasContent() ? request.content() : null);
+        return restContentBuilder(request, contentType, restResponseStream(request, channel, status, contentType.restContentType()));
+    }
+
+    /**
+     * Returns a stream to write the content of a response with the provided status to, streaming it to the client
+     * when the channel supports it, see {@link StreamingRestChannel}. The response must be sent using a
+     * {@link StreamRestResponse} with the same status and content type.
+     */
+    public static OutputStream restResponseStream(RestRequest request, RestChannel channel, RestStatus status, String contentType) {
+        // jsonp responses wrap the content with the callback, so they are not streamed
+        if (channel instanceof StreamingRestChannel && request.param("callback") == null) {
+            OutputStream stream = ((StreamingRestChannel) channel).responseStream(status, contentType);
+            if (stream != null) {
+                return stream;
+            }
+        }
+        return new BytesStreamOutput();
+    }
+
+    private static XContentType contentType(RestRequest request, @Nullable BytesReference autoDetectSource) {
         XContentType contentType = XContentType.fromRestContentType(request.param("format", request.header("Content-Type")));
         if (contentType == null) {
             // try and guess it from the auto detect source
@@ -49,7 +80,11 @@ public class RestXContentBuilder {
             // default to JSON
             contentType = XContentType.JSON;
         }
-        XContentBuilder builder = new XContentBuilder(XContentFactory.xContent(contentType), new BytesStreamOutput());
+        return contentType;
+    }
+
+    private static XContentBuilder restContentBuilder(RestRequest request, XContentType contentType, OutputStream stream) throws IOException {
+        XContentBuilder builder = new XContentBuilder(XContentFactory.xContent(contentType), stream);
         if (request.paramAsBoolean("pretty", false)) {
             builder.prettyPrint().lfAtEnd();
         }
@@ -92,10 +92,16 @@ public class SearchSourceBuilder implements ToXContent {
 
     private boolean trackScores = false;
 
+    private Object[] searchAfter;
+
     private Float minScore;
 
     private long timeoutInMillis = -1;
 
+    private int sliceId = -1;
+
+    private int sliceMax = -1;
+
     private List<String> fieldNames;
     private List<ScriptField> scriptFields;
     private List<PartialField> partialFields;
@@ -301,6 +307,16 @@ public class SearchSourceBuilder implements ToXContent {
         return this;
     }
 
+    /**
+     * Restricts the search to the slice <tt>id</tt> out of <tt>max</tt> slices, allowing to consume the
+     * same scan / scroll from <tt>max</tt> clients in parallel.
+     */
+    public SearchSourceBuilder slice(int id, int max) {
+        this.sliceId = id;
+        this.sliceMax = max;
+        return this;
+    }
+
     /**
      * Adds a sort against the given field name and the sort ordering.
      *
@@ -340,6 +356,15 @@ public class SearchSourceBuilder implements ToXContent {
         return this;
     }
 
+    /**
+     * Only returns the hits that sort after the provided sort values, typically the ones of the last hit of
+     * the previous page. Requires a sort, which should end with a unique field (like <tt>_uid</tt>) to break ties.
+     */
+    public SearchSourceBuilder searchAfter(Object... values) {
+        this.searchAfter = values;
+        return this;
+    }
+
     /**
      * Add a facet to perform as part of the search.
      */
@@ -644,6 +669,13 @@ public class SearchSourceBuilder implements ToXContent {
             builder.field("timeout", timeoutInMillis);
         }
 
+        if (sliceMax != -1) {
+            builder.startObject("slice");
+            builder.field("id", sliceId);
+            builder.field("max", sliceMax);
+            builder.endObject();
+        }
+
         if (queryBuilder != null) {
             builder.field("query");
             queryBuilder.toXContent(builder, params);
@@ -759,6 +791,14 @@ public class SearchSourceBuilder implements ToXContent {
             builder.field("track_scores", trackScores);
         }
 
+        if (searchAfter != null) {
+            builder.startArray("search_after");
+            for (Object value : searchAfter) {
+                builder.value(value);
+            }
+            builder.endArray();
+        }
+
         if (indexBoost != null) {
             builder.startObject("indices_boost");
             final boolean[] states = indexBoost.allocated;
@@ -357,11 +357,15 @@ public class SearchPhaseController extends AbstractComponent {
         long totalHits = 0;
         float maxScore = Float.NEGATIVE_INFINITY;
         boolean timedOut = false;
+        boolean terminatedEarly = false;
         for (AtomicArray.Entry<? extends QuerySearchResultProvider> entry : queryResults) {
             QuerySearchResult result = entry.value.queryResult();
             if (result.searchTimedOut()) {
                 timedOut = true;
             }
+            if (result.terminatedEarly()) {
+                terminatedEarly = true;
+            }
             totalHits += result.topDocs().totalHits;
             if (!Float.isNaN(result.topDocs().getMaxScore())) {
                 maxScore = Math.max(maxScore, result.topDocs().getMaxScore());
@@ -423,7 +427,7 @@ public class SearchPhaseController extends AbstractComponent {
         }
 
         InternalSearchHits searchHits = new InternalSearchHits(hits.toArray(new InternalSearchHit[hits.size()]), totalHits, maxScore);
-        return new InternalSearchResponse(searchHits, facets, suggest, timedOut);
+        return new InternalSearchResponse(searchHits, facets, suggest, timedOut, terminatedEarly);
     }
 
 }
@@ -21,17 +21,23 @@ package org.elasticsearch.search.internal;
 
 import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.search.*;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.common.lucene.MinimumScoreCollector;
 import org.elasticsearch.common.lucene.MultiCollector;
 import org.elasticsearch.common.lucene.search.FilteredCollector;
 import org.elasticsearch.common.lucene.search.XCollector;
 import org.elasticsearch.common.lucene.search.XFilteredQuery;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.search.dfs.CachedDfSource;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.*;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
@@ -43,6 +49,14 @@ public class ContextIndexSearcher extends IndexSearcher {
         MAIN_QUERY
     }
 
+    /**
+     * Creates the collector of one slice of the leaves when searching concurrently.
+     */
+    public static interface SliceCollectorFactory<C extends Collector> {
+
+        C newCollector() throws IOException;
+    }
+
     /** The wrapped {@link IndexSearcher}. The reason why we sometimes prefer delegating to this searcher instead of <tt>super</tt> is that
      *  this instance may have more assertions, for example if it comes from MockRobinEngine which wraps the IndexSearcher into an
      *  AssertingIndexSearcher. */
@@ -191,6 +205,129 @@ public class ContextIndexSearcher extends IndexSearcher {
         }
     }
 
+    /**
+     * Executes the main query over up to <tt>maxSlices</tt> slices of the leaves concurrently, each slice collected
+     * by its own collector, and returns the collectors in slice order so that the caller can merge them.
+     * <p/>
+     * The timeout, the post filter and the minimum score are applied to each slice, main query collectors (facets)
+     * and the main doc id set collector can't be shared across threads and must not be enabled.
+     */
+    public <C extends Collector> List<C> searchConcurrently(Query query, final SliceCollectorFactory<C> factory, int maxSlices, Executor executor) throws IOException {
+        assert currentState == Stage.MAIN_QUERY;
+        assert !enableMainDocIdSetCollector && (queryCollectors == null || queryCollectors.isEmpty());
+        try {
+            final Weight weight = createNormalizedWeight(query);
+            List<List<AtomicReaderContext>> slices = slices(leafContexts, maxSlices);
+            List<FutureTask<C>> tasks = new ArrayList<FutureTask<C>>(slices.size());
+            for (final List<AtomicReaderContext> slice : slices) {
+                tasks.add(new FutureTask<C>(new Callable<C>() {
+                    @Override
+                    public C call() throws Exception {
+                        SearchContext previous = SearchContext.current();
+                        SearchContext.setCurrent(searchContext);
+                        try {
+                            C collector = factory.newCollector();
+                            searchSlice(slice, weight, collector);
+                            return collector;
+                        } finally {
+                            if (previous == null) {
+                                SearchContext.removeCurrent();
+                            } else {
+                                SearchContext.setCurrent(previous);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (int i = 1; i < tasks.size(); i++) {
+                try {
+                    executor.execute(tasks.get(i));
+                } catch (RejectedExecutionException e) {
+                    // executed by the calling thread below
+                } catch (EsRejectedExecutionException e) {
+                    // executed by the calling thread below
+                }
+            }
+            // the calling thread also runs the slices the executor did not start yet (running a task twice is a noop),
+            // so a busy executor never blocks the search on slices queued behind other searches
+            for (FutureTask<C> task : tasks) {
+                task.run();
+            }
+            List<C> collectors = new ArrayList<C>(tasks.size());
+            for (FutureTask<C> task : tasks) {
+                try {
+                    collectors.add(task.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ThreadInterruptedException(e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new ElasticSearchException("failed to search slice", cause);
+                }
+            }
+            return collectors;
+        } finally {
+            searchContext.clearReleasables();
+        }
+    }
+
+    private void searchSlice(List<AtomicReaderContext> leaves, Weight weight, Collector collector) throws IOException {
+        if (searchContext.parsedFilter() != null) {
+            collector = new FilteredCollector(collector, searchContext.parsedFilter().filter());
+        }
+        if (searchContext.minimumScore() != null) {
+            collector = new MinimumScoreCollector(collector, searchContext.minimumScore());
+        }
+        if (searchContext.timeoutInMillis() != -1) {
+            collector = new TimeLimitingCollector(collector, TimeLimitingCollector.getGlobalCounter(), searchContext.timeoutInMillis());
+            try {
+                super.search(leaves, weight, collector);
+            } catch (TimeLimitingCollector.TimeExceededException e) {
+                searchContext.queryResult().searchTimedOut(true);
+            }
+        } else {
+            super.search(leaves, weight, collector);
+        }
+    }
+
+    /**
+     * Splits the leaves in up to <tt>maxSlices</tt> slices having about the same number of docs, each leaf going
+     * to the slice with the least docs so far, biggest leaves first.
+     */
+    static List<List<AtomicReaderContext>> slices(List<AtomicReaderContext> leaves, int maxSlices) {
+        List<AtomicReaderContext> sortedLeaves = new ArrayList<AtomicReaderContext>(leaves);
+        Collections.sort(sortedLeaves, new Comparator<AtomicReaderContext>() {
+            @Override
+            public int compare(AtomicReaderContext o1, AtomicReaderContext o2) {
+                return o2.reader().maxDoc() - o1.reader().maxDoc();
+            }
+        });
+        int numSlices = Math.max(1, Math.min(maxSlices, sortedLeaves.size()));
+        List<List<AtomicReaderContext>> slices = new ArrayList<List<AtomicReaderContext>>(numSlices);
+        long[] sliceDocs = new long[numSlices];
+        for (int i = 0; i < numSlices; i++) {
+            slices.add(new ArrayList<AtomicReaderContext>());
+        }
+        for (AtomicReaderContext leaf : sortedLeaves) {
+            int smallest = 0;
+            for (int i = 1; i < numSlices; i++) {
+                if (sliceDocs[i] < sliceDocs[smallest]) {
+                    smallest = i;
+                }
+            }
+            slices.get(smallest).add(leaf);
+            sliceDocs[smallest] += leaf.reader().maxDoc();
+        }
+        return slices;
+    }
+
     @Override
     public Explanation explain(Query query, int doc) throws IOException {
         try {
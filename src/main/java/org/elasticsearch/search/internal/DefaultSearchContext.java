@@ -22,14 +22,17 @@ package org.elasticsearch.search.internal;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.NumericRangeFilter;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.cache.recycler.CacheRecycler;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lucene.search.AndFilter;
+import org.elasticsearch.common.lucene.search.NotFilter;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.lucene.search.XConstantScoreQuery;
 import org.elasticsearch.common.lucene.search.XFilteredQuery;
@@ -44,12 +47,14 @@ import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.mapper.FieldMapper;
 import org.elasticsearch.index.mapper.FieldMappers;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.internal.TTLFieldMapper;
 import org.elasticsearch.index.query.IndexQueryParserService;
 import org.elasticsearch.index.query.ParsedFilter;
 import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.service.IndexService;
 import org.elasticsearch.index.shard.service.IndexShard;
 import org.elasticsearch.index.similarity.SimilarityService;
+import org.elasticsearch.indices.ttl.IndicesTTLService;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.SearchShardTarget;
@@ -64,6 +69,7 @@ import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.rescore.RescoreSearchContext;
 import org.elasticsearch.search.scan.ScanContext;
+import org.elasticsearch.search.slice.SliceContext;
 import org.elasticsearch.search.suggest.SuggestionSearchContext;
 
 import java.util.ArrayList;
@@ -130,8 +136,12 @@ public class DefaultSearchContext extends SearchContext {
 
     private Float minimumScore;
 
+    private SliceContext slice;
+
     private boolean trackScores = false; // when sorting, track scores as well...
 
+    private Object[] searchAfter;
+
     private ParsedQuery originalQuery;
 
     private Query query;
@@ -214,6 +224,21 @@ public class DefaultSearchContext extends SearchContext {
             parsedQuery(new ParsedQuery(new FunctionScoreQuery(query(), new BoostScoreFunction(queryBoost)), parsedQuery()));
         }
         Filter searchFilter = searchFilter(types());
+        if (slice != null) {
+            // slices are assigned against all the shards of the index, not only the ones allocated on this node
+            int numberOfShards = indexService.settingsService().getSettings().getAsInt(IndexMetaData.SETTING_NUMBER_OF_SHARDS, -1);
+            Filter sliceFilter = slice.toFilter(request.shardId(), numberOfShards);
+            if (sliceFilter != null) {
+                sliceFilter = filterCache().cache(sliceFilter);
+                searchFilter = searchFilter == null ? sliceFilter : new AndFilter(ImmutableList.of(searchFilter, sliceFilter));
+            }
+        }
+        if (IndicesTTLService.purgeBySegments(indexService.settingsService().getSettings())) {
+            // expired docs are only purged periodically, hide the ones that expired since the last purge. Since they
+            // are few, the filter is cheap to build and isn't cached as it changes with every request
+            Filter ttlFilter = new NotFilter(NumericRangeFilter.newLongRange(TTLFieldMapper.NAME, null, nowInMillis(), false, true));
+            searchFilter = searchFilter == null ? ttlFilter : new AndFilter(ImmutableList.of(searchFilter, ttlFilter));
+        }
         if (searchFilter != null) {
             if (Queries.isConstantMatchAllQuery(query())) {
                 Query q = new XConstantScoreQuery(searchFilter);
@@ -439,6 +464,15 @@ public class DefaultSearchContext extends SearchContext {
         return this.minimumScore;
     }
 
+    public SearchContext slice(SliceContext slice) {
+        this.slice = slice;
+        return this;
+    }
+
+    public SliceContext slice() {
+        return this.slice;
+    }
+
     public SearchContext sort(Sort sort) {
         this.sort = sort;
         return this;
@@ -457,6 +491,15 @@ public class DefaultSearchContext extends SearchContext {
         return this.trackScores;
     }
 
+    public SearchContext searchAfter(Object[] searchAfter) {
+        this.searchAfter = searchAfter;
+        return this;
+    }
+
+    public Object[] searchAfter() {
+        return this.searchAfter;
+    }
+
     public SearchContext parsedFilter(ParsedFilter filter) {
         this.filter = filter;
         return this;
@@ -605,6 +648,10 @@ public class DefaultSearchContext extends SearchContext {
         return searchLookup;
     }
 
+    public boolean hasLookup() {
+        return searchLookup != null;
+    }
+
     public DfsSearchResult dfsResult() {
         return dfsResult;
     }
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.search.internal;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -46,6 +47,8 @@ public class InternalSearchResponse implements Streamable, ToXContent {
 
     private boolean timedOut;
 
+    private boolean terminatedEarly;
+
     public static final InternalSearchResponse EMPTY = new InternalSearchResponse(new InternalSearchHits(new InternalSearchHit[0], 0, 0), null, null, false);
 
     private InternalSearchResponse() {
@@ -58,10 +61,19 @@ public class InternalSearchResponse implements Streamable, ToXContent {
         this.timedOut = timedOut;
     }
 
+    public InternalSearchResponse(InternalSearchHits hits, InternalFacets facets, Suggest suggest, boolean timedOut, boolean terminatedEarly) {
+        this(hits, facets, suggest, timedOut);
+        this.terminatedEarly = terminatedEarly;
+    }
+
     public boolean timedOut() {
         return this.timedOut;
     }
 
+    public boolean terminatedEarly() {
+        return this.terminatedEarly;
+    }
+
     public SearchHits hits() {
         return hits;
     }
@@ -102,6 +114,9 @@ public class InternalSearchResponse implements Streamable, ToXContent {
             suggest = Suggest.readSuggest(Suggest.Fields.SUGGEST, in);
         }
         timedOut = in.readBoolean();
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            terminatedEarly = in.readBoolean();
+        }
     }
 
     @Override
@@ -120,5 +135,8 @@ public class InternalSearchResponse implements Streamable, ToXContent {
             suggest.writeTo(out);
         }
         out.writeBoolean(timedOut);
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeBoolean(terminatedEarly);
+        }
     }
 }
@@ -53,6 +53,7 @@ import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.rescore.RescoreSearchContext;
 import org.elasticsearch.search.scan.ScanContext;
+import org.elasticsearch.search.slice.SliceContext;
 import org.elasticsearch.search.suggest.SuggestionSearchContext;
 
 import java.util.List;
@@ -186,6 +187,11 @@ public abstract class SearchContext implements Releasable {
 
     public abstract Float minimumScore();
 
+    public abstract SearchContext slice(SliceContext slice);
+
+    @Nullable
+    public abstract SliceContext slice();
+
     public abstract SearchContext sort(Sort sort);
 
     public abstract Sort sort();
@@ -194,6 +200,11 @@ public abstract class SearchContext implements Releasable {
 
     public abstract boolean trackScores();
 
+    public abstract SearchContext searchAfter(Object[] searchAfter);
+
+    @Nullable
+    public abstract Object[] searchAfter();
+
     public abstract SearchContext parsedFilter(ParsedFilter filter);
 
     public abstract ParsedFilter parsedFilter();
@@ -264,6 +275,11 @@ public abstract class SearchContext implements Releasable {
 
     public abstract SearchLookup lookup();
 
+    /**
+     * Has the {@link #lookup()} been created, which is the case when scripts take part in the request.
+     */
+    public abstract boolean hasLookup();
+
     public abstract DfsSearchResult dfsResult();
 
     public abstract QuerySearchResult queryResult();
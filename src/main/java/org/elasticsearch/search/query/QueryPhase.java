@@ -20,22 +20,32 @@
 package org.elasticsearch.search.query;
 
 import com.google.common.collect.ImmutableMap;
-import org.apache.lucene.search.Query;
-import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.sorter.EarlyTerminatingSortingCollector;
+import org.apache.lucene.index.sorter.Sorter;
+import org.apache.lucene.search.*;
 import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.merge.policy.NumericFieldSorter;
 import org.elasticsearch.search.SearchParseElement;
+import org.elasticsearch.search.SearchParseException;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.facet.FacetPhase;
 import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.rescore.RescorePhase;
+import org.elasticsearch.search.slice.SliceParseElement;
+import org.elasticsearch.search.sort.SearchAfterParseElement;
 import org.elasticsearch.search.sort.SortParseElement;
 import org.elasticsearch.search.sort.TrackScoresParseElement;
 import org.elasticsearch.search.suggest.SuggestPhase;
+import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -43,15 +53,23 @@ import java.util.Map;
  */
 public class QueryPhase implements SearchPhase {
 
+    /**
+     * The number of slices of a shard's segments the main query may search concurrently, defaults to <tt>1</tt>
+     * (sequential).
+     */
+    public static final String INDEX_SEARCH_CONCURRENCY = "index.search.concurrency";
+
     private final FacetPhase facetPhase;
     private final SuggestPhase suggestPhase;
     private RescorePhase rescorePhase;
+    private final ThreadPool threadPool;
 
     @Inject
-    public QueryPhase(FacetPhase facetPhase, SuggestPhase suggestPhase, RescorePhase rescorePhase) {
+    public QueryPhase(FacetPhase facetPhase, SuggestPhase suggestPhase, RescorePhase rescorePhase, ThreadPool threadPool) {
         this.facetPhase = facetPhase;
         this.suggestPhase = suggestPhase;
         this.rescorePhase = rescorePhase;
+        this.threadPool = threadPool;
     }
 
     @Override
@@ -69,9 +87,12 @@ public class QueryPhase implements SearchPhase {
                 .put("sort", new SortParseElement())
                 .put("trackScores", new TrackScoresParseElement())
                 .put("track_scores", new TrackScoresParseElement())
+                .put("search_after", new SearchAfterParseElement())
+                .put("searchAfter", new SearchAfterParseElement())
                 .put("min_score", new MinScoreParseElement())
                 .put("minScore", new MinScoreParseElement())
                 .put("timeout", new TimeoutParseElement())
+                .put("slice", new SliceParseElement())
                 .putAll(facetPhase.parseElements())
                 .putAll(suggestPhase.parseElements())
                 .putAll(rescorePhase.parseElements());
@@ -80,12 +101,27 @@ public class QueryPhase implements SearchPhase {
 
     @Override
     public void preProcess(SearchContext context) {
+        if (context.searchAfter() != null) {
+            if (context.sort() == null) {
+                throw new SearchParseException(context, "search_after requires a sort");
+            }
+            if (context.from() > 0) {
+                throw new SearchParseException(context, "from must be 0 when using search_after");
+            }
+            if (context.searchAfter().length != context.sort().getSort().length) {
+                throw new SearchParseException(context, "search_after has " + context.searchAfter().length + " values but the sort has " + context.sort().getSort().length + " fields");
+            }
+            if (context.searchType() == SearchType.SCAN) {
+                throw new SearchParseException(context, "search_after is not supported with search_type scan");
+            }
+        }
         context.preProcess();
         facetPhase.preProcess(context);
     }
 
     public void execute(SearchContext searchContext) throws QueryPhaseExecutionException {
         searchContext.queryResult().searchTimedOut(false);
+        searchContext.queryResult().terminatedEarly(false);
 
         searchContext.searcher().inStage(ContextIndexSearcher.Stage.MAIN_QUERY);
         boolean rescore = false;
@@ -102,21 +138,60 @@ public class QueryPhase implements SearchPhase {
                 numDocs = 1;
             }
 
+            int concurrency = concurrency(searchContext);
             if (searchContext.searchType() == SearchType.COUNT) {
-                TotalHitCountCollector collector = new TotalHitCountCollector();
-                searchContext.searcher().search(query, collector);
-                topDocs = new TopDocs(collector.getTotalHits(), Lucene.EMPTY_SCORE_DOCS, 0);
+                if (concurrency > 1) {
+                    List<TotalHitCountCollector> collectors = searchContext.searcher().searchConcurrently(query, new ContextIndexSearcher.SliceCollectorFactory<TotalHitCountCollector>() {
+                        @Override
+                        public TotalHitCountCollector newCollector() {
+                            return new TotalHitCountCollector();
+                        }
+                    }, concurrency, threadPool.executor(ThreadPool.Names.SEARCH));
+                    int totalHits = 0;
+                    for (TotalHitCountCollector collector : collectors) {
+                        totalHits += collector.getTotalHits();
+                    }
+                    topDocs = new TopDocs(totalHits, Lucene.EMPTY_SCORE_DOCS, 0);
+                } else {
+                    TotalHitCountCollector collector = new TotalHitCountCollector();
+                    searchContext.searcher().search(query, collector);
+                    topDocs = new TopDocs(collector.getTotalHits(), Lucene.EMPTY_SCORE_DOCS, 0);
+                }
             } else if (searchContext.searchType() == SearchType.SCAN) {
                 topDocs = searchContext.scanContext().execute(searchContext);
             } else if (searchContext.sort() != null) {
-                topDocs = searchContext.searcher().search(query, null, numDocs, searchContext.sort(),
-                        searchContext.trackScores(), searchContext.trackScores());
+                if (searchContext.searchAfter() != null) {
+                    // only docs sorting after the last hit of the previous page are competitive, so the queue never grows past the page size
+                    FieldDoc after = SearchAfterParseElement.buildFieldDoc(searchContext.sort(), searchContext.searchAfter());
+                    if (concurrency > 1) {
+                        topDocs = searchTopDocsConcurrently(searchContext, query, numDocs, after, concurrency);
+                    } else {
+                        topDocs = searchContext.searcher().searchAfter(after, query, null, numDocs, searchContext.sort(),
+                                searchContext.trackScores(), searchContext.trackScores());
+                    }
+                } else {
+                    NumericFieldSorter indexSorter = searchContext.indexShard().indexSorter();
+                    if (indexSorter != null && indexSorter.matches(searchContext.sort().getSort()) && searchContext.facets() == null) {
+                        // segments merged in the index sort order can stop collecting once they provided enough hits,
+                        // facets would miss the remaining docs of those segments so they are excluded
+                        topDocs = searchSortedSegments(searchContext, query, numDocs, indexSorter);
+                    } else if (concurrency > 1) {
+                        topDocs = searchTopDocsConcurrently(searchContext, query, numDocs, null, concurrency);
+                    } else {
+                        topDocs = searchContext.searcher().search(query, null, numDocs, searchContext.sort(),
+                                searchContext.trackScores(), searchContext.trackScores());
+                    }
+                }
             } else {
                 if (searchContext.rescore() != null) {
                     rescore = true;
                     numDocs = Math.max(searchContext.rescore().window(), numDocs);
                 }
-                topDocs = searchContext.searcher().search(query, numDocs);
+                if (concurrency > 1) {
+                    topDocs = searchTopDocsConcurrently(searchContext, query, numDocs, null, concurrency);
+                } else {
+                    topDocs = searchContext.searcher().search(query, numDocs);
+                }
             }
             searchContext.queryResult().topDocs(topDocs);
         } catch (Throwable e) {
@@ -130,4 +205,88 @@ public class QueryPhase implements SearchPhase {
         suggestPhase.execute(searchContext);
         facetPhase.execute(searchContext);
     }
+
+    /**
+     * Returns the number of slices the main query can be executed concurrently over, <tt>1</tt> when it must be
+     * executed sequentially: facets collect on the main query, scripts share one lookup and parent/child queries
+     * build their state lazily, none of which can be used from several threads at once.
+     */
+    private int concurrency(SearchContext searchContext) {
+        int concurrency = searchContext.indexShard().indexSettings().getAsInt(INDEX_SEARCH_CONCURRENCY, 1);
+        if (concurrency <= 1 || searchContext.searcher().getIndexReader().leaves().size() <= 1) {
+            return 1;
+        }
+        if (searchContext.facets() != null || searchContext.hasLookup()) {
+            return 1;
+        }
+        for (DocumentMapper documentMapper : searchContext.mapperService()) {
+            if (documentMapper.parentFieldMapper().active()) {
+                return 1;
+            }
+        }
+        return concurrency;
+    }
+
+    private TopDocs searchTopDocsConcurrently(SearchContext searchContext, Query query, int numDocs, @Nullable final FieldDoc after, int concurrency) throws IOException {
+        final Sort sort = searchContext.sort();
+        final boolean trackScores = searchContext.trackScores();
+        final int numHits = Math.min(numDocs, Math.max(1, searchContext.searcher().getIndexReader().maxDoc()));
+        List<TopDocsCollector<?>> collectors = searchContext.searcher().searchConcurrently(query, new ContextIndexSearcher.SliceCollectorFactory<TopDocsCollector<?>>() {
+            @Override
+            public TopDocsCollector<?> newCollector() throws IOException {
+                if (sort == null) {
+                    return TopScoreDocCollector.create(numHits, false);
+                }
+                return TopFieldCollector.create(sort, numHits, after, true, trackScores, trackScores, false);
+            }
+        }, concurrency, threadPool.executor(ThreadPool.Names.SEARCH));
+        TopDocs[] sliceTopDocs = new TopDocs[collectors.size()];
+        for (int i = 0; i < sliceTopDocs.length; i++) {
+            sliceTopDocs[i] = collectors.get(i).topDocs();
+        }
+        return TopDocs.merge(sort, numHits, sliceTopDocs);
+    }
+
+    private TopDocs searchSortedSegments(SearchContext searchContext, Query query, int numDocs, Sorter indexSorter) throws IOException {
+        numDocs = Math.min(numDocs, Math.max(1, searchContext.searcher().getIndexReader().maxDoc()));
+        // the collector must support out of order docs since unsorted segments might be scored out of order, sorted
+        // segments are then scored in order so that the first collected docs are the top ones
+        TopFieldCollector topCollector = TopFieldCollector.create(searchContext.sort(), numDocs, true,
+                searchContext.trackScores(), searchContext.trackScores(), false);
+        TrackingEarlyTerminatingCollector collector = new TrackingEarlyTerminatingCollector(topCollector, indexSorter, numDocs);
+        searchContext.searcher().search(query, collector);
+        // the total hits only account for the collected docs when a segment stopped early
+        searchContext.queryResult().terminatedEarly(collector.terminatedEarly);
+        return topCollector.topDocs();
+    }
+
+    private static class TrackingEarlyTerminatingCollector extends EarlyTerminatingSortingCollector {
+
+        boolean terminatedEarly;
+
+        private int maxDoc;
+
+        TrackingEarlyTerminatingCollector(Collector in, Sorter sorter, int numDocsToCollect) {
+            super(in, sorter, numDocsToCollect);
+        }
+
+        @Override
+        public void setNextReader(AtomicReaderContext context) throws IOException {
+            super.setNextReader(context);
+            maxDoc = context.reader().maxDoc();
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            try {
+                super.collect(doc);
+            } catch (CollectionTerminatedException e) {
+                // nothing is skipped if the last doc of the segment was the one that filled the quota
+                if (doc < maxDoc - 1) {
+                    terminatedEarly = true;
+                }
+                throw e;
+            }
+        }
+    }
 }
@@ -20,6 +20,7 @@
 package org.elasticsearch.search.query;
 
 import org.apache.lucene.search.TopDocs;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.search.SearchShardTarget;
@@ -46,6 +47,7 @@ public class QuerySearchResult extends TransportResponse implements QuerySearchR
     private InternalFacets facets;
     private Suggest suggest;
     private boolean searchTimedOut;
+    private boolean terminatedEarly;
 
     public QuerySearchResult() {
 
@@ -87,6 +89,17 @@ public class QuerySearchResult extends TransportResponse implements QuerySearchR
         return searchTimedOut;
     }
 
+    public void terminatedEarly(boolean terminatedEarly) {
+        this.terminatedEarly = terminatedEarly;
+    }
+
+    /**
+     * Did the shard stop collecting sorted segments early, in which case the total hits are a lower bound.
+     */
+    public boolean terminatedEarly() {
+        return terminatedEarly;
+    }
+
     public TopDocs topDocs() {
         return topDocs;
     }
@@ -150,6 +163,9 @@ public class QuerySearchResult extends TransportResponse implements QuerySearchR
             suggest = Suggest.readSuggest(Suggest.Fields.SUGGEST, in);
         }
         searchTimedOut = in.readBoolean();
+        if (in.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            terminatedEarly = in.readBoolean();
+        }
     }
 
     @Override
@@ -173,5 +189,8 @@ public class QuerySearchResult extends TransportResponse implements QuerySearchR
             suggest.writeTo(out);
         }
         out.writeBoolean(searchTimedOut);
+        if (out.getVersion().onOrAfter(Version.V_1_0_0_Beta2)) {
+            out.writeBoolean(terminatedEarly);
+        }
     }
 }
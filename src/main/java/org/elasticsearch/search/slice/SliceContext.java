@@ -0,0 +1,74 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.slice;
+
+import org.apache.lucene.search.Filter;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lucene.search.MatchNoDocsFilter;
+
+/**
+ * Restricts a search to one slice out of <tt>max</tt> slices, so that the same search (typically a scan)
+ * can be consumed by several clients in parallel, each one with its own scroll id.
+ * <p/>
+ * When there are at least as many shards as slices, whole shards are assigned to slices. Otherwise each
+ * shard is assigned to the slices with <tt>id % numberOfShards == shardId</tt>, and the docs of the shard
+ * are split between those slices using a hash of their <tt>_uid</tt>.
+ */
+public class SliceContext {
+
+    private final int id;
+
+    private final int max;
+
+    public SliceContext(int id, int max) {
+        this.id = id;
+        this.max = max;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public int max() {
+        return max;
+    }
+
+    /**
+     * Returns the filter that restricts the given shard to this slice, or <tt>null</tt> if all the docs
+     * of the shard belong to it.
+     */
+    @Nullable
+    public Filter toFilter(int shardId, int numberOfShards) {
+        if (max <= numberOfShards) {
+            if (shardId % max == id) {
+                return null;
+            }
+            return new MatchNoDocsFilter();
+        }
+        if (id % numberOfShards != shardId) {
+            return new MatchNoDocsFilter();
+        }
+        int shardSlices = max / numberOfShards + (shardId < max % numberOfShards ? 1 : 0);
+        if (shardSlices == 1) {
+            return null;
+        }
+        return new UidSliceFilter(id / numberOfShards, shardSlices);
+    }
+}
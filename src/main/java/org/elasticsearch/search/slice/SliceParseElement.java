@@ -0,0 +1,64 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.slice;
+
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.search.SearchParseElement;
+import org.elasticsearch.search.SearchParseException;
+import org.elasticsearch.search.internal.SearchContext;
+
+/**
+ * <pre>
+ * "slice" : {
+ *     "id" : 0,
+ *     "max" : 4
+ * }
+ * </pre>
+ */
+public class SliceParseElement implements SearchParseElement {
+
+    @Override
+    public void parse(XContentParser parser, SearchContext context) throws Exception {
+        XContentParser.Token token;
+        String currentFieldName = null;
+        int id = -1;
+        int max = -1;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token == XContentParser.Token.FIELD_NAME) {
+                currentFieldName = parser.currentName();
+            } else if (token.isValue()) {
+                if ("id".equals(currentFieldName)) {
+                    id = parser.intValue();
+                } else if ("max".equals(currentFieldName)) {
+                    max = parser.intValue();
+                } else {
+                    throw new SearchParseException(context, "slice does not support [" + currentFieldName + "]");
+                }
+            }
+        }
+        if (max <= 0) {
+            throw new SearchParseException(context, "slice [max] must be greater than 0, got [" + max + "]");
+        }
+        if (id < 0 || id >= max) {
+            throw new SearchParseException(context, "slice [id] must be in [0, " + max + "), got [" + id + "]");
+        }
+        context.slice(new SliceContext(id, max));
+    }
+}
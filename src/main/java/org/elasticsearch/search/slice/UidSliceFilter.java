@@ -0,0 +1,106 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.slice;
+
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.DocsEnum;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+import org.elasticsearch.cluster.routing.operation.hash.djb.DjbHashFunction;
+import org.elasticsearch.index.mapper.internal.UidFieldMapper;
+
+import java.io.IOException;
+
+/**
+ * A filter that matches the docs whose <tt>_uid</tt> hashes to the given slice out of <tt>max</tt> slices.
+ * <p/>
+ * The <tt>_uid</tt> terms of each segment are walked once, so this filter should be cached.
+ */
+public class UidSliceFilter extends Filter {
+
+    private final int id;
+
+    private final int max;
+
+    public UidSliceFilter(int id, int max) {
+        this.id = id;
+        this.max = max;
+    }
+
+    @Override
+    public DocIdSet getDocIdSet(AtomicReaderContext context, Bits acceptDocs) throws IOException {
+        Terms terms = context.reader().terms(UidFieldMapper.NAME);
+        if (terms == null) {
+            return null;
+        }
+        FixedBitSet result = null;
+        TermsEnum termsEnum = terms.iterator(null);
+        DocsEnum docsEnum = null;
+        for (BytesRef uid = termsEnum.next(); uid != null; uid = termsEnum.next()) {
+            if (slice(uid) != id) {
+                continue;
+            }
+            docsEnum = termsEnum.docs(acceptDocs, docsEnum, DocsEnum.FLAG_NONE);
+            for (int doc = docsEnum.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docsEnum.nextDoc()) {
+                if (result == null) {
+                    result = new FixedBitSet(context.reader().maxDoc());
+                }
+                result.set(doc);
+            }
+        }
+        return result;
+    }
+
+    private int slice(BytesRef uid) {
+        // the shard a doc lives on is derived from a djb hash of its id as well, so mix the bits
+        // before taking the modulo in order not to correlate the slices with the routing
+        int hash = DjbHashFunction.DJB_HASH(uid.bytes, uid.offset, uid.length);
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % max;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UidSliceFilter that = (UidSliceFilter) o;
+        return id == that.id && max == that.max;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * id + max;
+    }
+
+    @Override
+    public String toString() {
+        return "UidSliceFilter(" + id + "/" + max + ")";
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.sort;
+
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.search.SearchParseElement;
+import org.elasticsearch.search.SearchParseException;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <pre>
+ * "search_after" : [ 1386806400000, "tweet#1234" ]
+ * </pre>
+ * The sort values of the last hit of the previous page, only the hits that sort strictly after them are collected.
+ */
+public class SearchAfterParseElement implements SearchParseElement {
+
+    @Override
+    public void parse(XContentParser parser, SearchContext context) throws Exception {
+        XContentParser.Token token = parser.currentToken();
+        if (token != XContentParser.Token.START_ARRAY) {
+            throw new SearchParseException(context, "search_after must be an array of sort values");
+        }
+        List<Object> values = new ArrayList<Object>();
+        while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+            if (token == XContentParser.Token.VALUE_NUMBER) {
+                values.add(parser.numberValue());
+            } else if (token == XContentParser.Token.VALUE_STRING) {
+                values.add(parser.text());
+            } else if (token == XContentParser.Token.VALUE_BOOLEAN) {
+                values.add(parser.booleanValue());
+            } else if (token == XContentParser.Token.VALUE_NULL) {
+                values.add(null);
+            } else {
+                throw new SearchParseException(context, "search_after does not support [" + token + "] values");
+            }
+        }
+        context.searchAfter(values.toArray());
+    }
+
+    /**
+     * Builds the {@link FieldDoc} to search after from the provided sort values, converting each one to the
+     * type the matching {@link SortField} comparator works with.
+     * <p/>
+     * The doc id is set to {@link Integer#MAX_VALUE} so that docs having the exact same sort values are considered
+     * to come before it, the sort should therefore end with a unique field (like <tt>_uid</tt>) to break ties.
+     */
+    public static FieldDoc buildFieldDoc(Sort sort, Object[] values) {
+        SortField[] sortFields = sort.getSort();
+        if (sortFields.length != values.length) {
+            throw new ElasticSearchIllegalArgumentException("search_after has " + values.length + " values but the sort has " + sortFields.length + " fields");
+        }
+        Object[] fields = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            SortField.Type type = sortFields[i].getType();
+            if (type == SortField.Type.CUSTOM && sortFields[i].getComparatorSource() instanceof IndexFieldData.XFieldComparatorSource) {
+                type = ((IndexFieldData.XFieldComparatorSource) sortFields[i].getComparatorSource()).reducedType();
+            }
+            fields[i] = convertValue(type, values[i]);
+        }
+        return new FieldDoc(Integer.MAX_VALUE, Float.NaN, fields);
+    }
+
+    private static Object convertValue(SortField.Type type, Object value) {
+        if (value == null) {
+            return null;
+        }
+        switch (type) {
+            case STRING:
+            case STRING_VAL:
+                return new BytesRef(value.toString());
+            case INT:
+            case DOC:
+                return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+            case LONG:
+                return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+            case FLOAT:
+            case SCORE:
+                return value instanceof Number ? ((Number) value).floatValue() : Float.parseFloat(value.toString());
+            case DOUBLE:
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+            case SHORT:
+                return value instanceof Number ? ((Number) value).shortValue() : Short.parseShort(value.toString());
+            case BYTE:
+                return value instanceof Number ? ((Number) value).byteValue() : Byte.parseByte(value.toString());
+            default:
+                throw new ElasticSearchIllegalArgumentException("search_after is not supported on sort of type [" + type + "]");
+        }
+    }
+}
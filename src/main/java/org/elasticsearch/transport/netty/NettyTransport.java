@@ -25,16 +25,19 @@ import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.ElasticSearchIllegalStateException;
 import org.elasticsearch.Version;
+import org.elasticsearch.cache.recycler.PageCacheRecycler;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.inject.Inject;
-import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.HandlesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.netty.NettyStaticSetup;
 import org.elasticsearch.common.netty.OpenChannelsHandler;
+import org.elasticsearch.common.netty.ChannelBufferStreamOutput;
+import org.elasticsearch.common.netty.ReleaseChannelFutureListener;
 import org.elasticsearch.common.network.NetworkService;
 import org.elasticsearch.common.network.NetworkUtils;
 import org.elasticsearch.common.settings.Settings;
@@ -115,6 +118,8 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
 
     final boolean compress;
 
+    final Compressor compressor;
+
     final TimeValue connectTimeout;
 
     final Boolean tcpNoDelay;
@@ -138,6 +143,8 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
 
     private final ThreadPool threadPool;
 
+    final PageCacheRecycler pageCacheRecycler;
+
     private volatile OpenChannelsHandler serverOpenChannels;
 
     private volatile ClientBootstrap clientBootstrap;
@@ -161,9 +168,10 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
     private final ReadWriteLock globalLock = new ReentrantReadWriteLock();
 
     @Inject
-    public NettyTransport(Settings settings, ThreadPool threadPool, NetworkService networkService, Version version) {
+    public NettyTransport(Settings settings, ThreadPool threadPool, NetworkService networkService, PageCacheRecycler pageCacheRecycler, Version version) {
         super(settings);
         this.threadPool = threadPool;
+        this.pageCacheRecycler = pageCacheRecycler;
         this.networkService = networkService;
         this.version = version;
 
@@ -179,6 +187,15 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
         this.bindHost = componentSettings.get("bind_host", settings.get("transport.bind_host", settings.get("transport.host")));
         this.publishHost = componentSettings.get("publish_host", settings.get("transport.publish_host", settings.get("transport.host")));
         this.compress = settings.getAsBoolean("transport.tcp.compress", false);
+        String compressType = settings.get("transport.tcp.compress_type");
+        if (compressType == null) {
+            this.compressor = CompressorFactory.defaultCompressor();
+        } else {
+            this.compressor = CompressorFactory.compressor(compressType);
+            if (this.compressor == null) {
+                throw new ElasticSearchIllegalArgumentException("unknown [transport.tcp.compress_type] [" + compressType + "]");
+            }
+        }
         this.connectTimeout = componentSettings.getAsTime("connect_timeout", settings.getAsTime("transport.tcp.connect_timeout", settings.getAsTime(TCP_CONNECT_TIMEOUT, TCP_DEFAULT_CONNECT_TIMEOUT)));
         this.tcpNoDelay = componentSettings.getAsBoolean("tcp_no_delay", settings.getAsBoolean(TCP_NO_DELAY, true));
         this.tcpKeepAlive = componentSettings.getAsBoolean("tcp_keep_alive", settings.getAsBoolean(TCP_KEEP_ALIVE, true));
@@ -221,8 +238,8 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
             receiveBufferSizePredictorFactory = new AdaptiveReceiveBufferSizePredictorFactory((int) receivePredictorMin.bytes(), (int) receivePredictorMin.bytes(), (int) receivePredictorMax.bytes());
         }
 
-        logger.debug("using worker_count[{}], port[{}], bind_host[{}], publish_host[{}], compress[{}], connect_timeout[{}], connections_per_node[{}/{}/{}/{}/{}], receive_predictor[{}->{}]",
-                workerCount, port, bindHost, publishHost, compress, connectTimeout, connectionsPerNodeRecovery, connectionsPerNodeBulk, connectionsPerNodeReg, connectionsPerNodeState, connectionsPerNodePing, receivePredictorMin, receivePredictorMax);
+        logger.debug("using worker_count[{}], port[{}], bind_host[{}], publish_host[{}], compress[{}/{}], connect_timeout[{}], connections_per_node[{}/{}/{}/{}/{}], receive_predictor[{}->{}]",
+                workerCount, port, bindHost, publishHost, compress, compressor.type(), connectTimeout, connectionsPerNodeRecovery, connectionsPerNodeBulk, connectionsPerNodeReg, connectionsPerNodeState, connectionsPerNodePing, receivePredictorMin, receivePredictorMax);
     }
 
     public Settings settings() {
@@ -538,28 +555,37 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
         byte status = 0;
         status = TransportStatus.setRequest(status);
 
-        BytesStreamOutput bStream = new BytesStreamOutput();
-        bStream.skip(NettyHeader.HEADER_SIZE);
-        StreamOutput stream = bStream;
-        if (options.compress()) {
-            status = TransportStatus.setCompress(status);
-            stream = CompressorFactory.defaultCompressor().streamOutput(stream);
+        // serialized into recycled pages, released once written
+        ChannelBufferStreamOutput bStream = new ChannelBufferStreamOutput(pageCacheRecycler.bytePages());
+        boolean written = false;
+        try {
+            bStream.skip(NettyHeader.HEADER_SIZE);
+            StreamOutput stream = bStream;
+            if (options.compress()) {
+                status = TransportStatus.setCompress(status);
+                stream = compressor.streamOutput(stream);
+            }
+            stream = new HandlesStreamOutput(stream);
+
+            // we pick the smallest of the 2, to support both backward and forward compatibility
+            // note, this is the only place we need to do this, since from here on, we use the serialized version
+            // as the version to use also when the node receiving this request will send the response with
+            Version version = Version.smallest(this.version, node.version());
+
+            stream.setVersion(version);
+            stream.writeString(action);
+            request.writeTo(stream);
+            stream.close();
+
+            ChannelBuffer buffer = bStream.channelBuffer();
+            NettyHeader.writeHeader(buffer, requestId, status, version);
+            targetChannel.write(buffer).addListener(new ReleaseChannelFutureListener(bStream));
+            written = true;
+        } finally {
+            if (!written) {
+                bStream.release();
+            }
         }
-        stream = new HandlesStreamOutput(stream);
-
-        // we pick the smallest of the 2, to support both backward and forward compatibility
-        // note, this is the only place we need to do this, since from here on, we use the serialized version
-        // as the version to use also when the node receiving this request will send the response with
-        Version version = Version.smallest(this.version, node.version());
-
-        stream.setVersion(version);
-        stream.writeString(action);
-        request.writeTo(stream);
-        stream.close();
-
-        ChannelBuffer buffer = bStream.bytes().toChannelBuffer();
-        NettyHeader.writeHeader(buffer, requestId, status, version);
-        targetChannel.write(buffer);
 
         // We handle close connection exception in the #exceptionCaught method, which is the main reason we want to add this future
 //        channelFuture.addListener(new ChannelFutureListener() {
@@ -20,11 +20,12 @@
 package org.elasticsearch.transport.netty;
 
 import org.elasticsearch.Version;
-import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.ThrowableObjectOutputStream;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.HandlesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.netty.ChannelBufferStreamOutput;
+import org.elasticsearch.common.netty.ReleaseChannelFutureListener;
 import org.elasticsearch.transport.*;
 import org.elasticsearch.transport.support.TransportStatus;
 import org.jboss.netty.buffer.ChannelBuffer;
@@ -71,21 +72,29 @@ public class NettyTransportChannel implements TransportChannel {
         byte status = 0;
         status = TransportStatus.setResponse(status);
 
-        BytesStreamOutput bStream = new BytesStreamOutput();
-        bStream.skip(NettyHeader.HEADER_SIZE);
-        StreamOutput stream = bStream;
-        if (options.compress()) {
-            status = TransportStatus.setCompress(status);
-            stream = CompressorFactory.defaultCompressor().streamOutput(stream);
-        }
-        stream = new HandlesStreamOutput(stream);
-        stream.setVersion(version);
-        response.writeTo(stream);
-        stream.close();
+        ChannelBufferStreamOutput bStream = new ChannelBufferStreamOutput(transport.pageCacheRecycler.bytePages());
+        boolean written = false;
+        try {
+            bStream.skip(NettyHeader.HEADER_SIZE);
+            StreamOutput stream = bStream;
+            if (options.compress()) {
+                status = TransportStatus.setCompress(status);
+                stream = transport.compressor.streamOutput(stream);
+            }
+            stream = new HandlesStreamOutput(stream);
+            stream.setVersion(version);
+            response.writeTo(stream);
+            stream.close();
 
-        ChannelBuffer buffer = bStream.bytes().toChannelBuffer();
-        NettyHeader.writeHeader(buffer, requestId, status, version);
-        channel.write(buffer);
+            ChannelBuffer buffer = bStream.channelBuffer();
+            NettyHeader.writeHeader(buffer, requestId, status, version);
+            channel.write(buffer).addListener(new ReleaseChannelFutureListener(bStream));
+            written = true;
+        } finally {
+            if (!written) {
+                bStream.release();
+            }
+        }
     }
 
     @Override
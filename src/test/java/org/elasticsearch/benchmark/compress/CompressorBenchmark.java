@@ -0,0 +1,125 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.compress;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.lz4.LZ4Compressor;
+import org.elasticsearch.common.compress.lzf.LZFCompressor;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+
+import java.util.Random;
+
+/**
+ * Compares the compression ratio and the compression and decompression throughput of the compressors on
+ * tweet like json documents, the way _source is compressed.
+ */
+public class CompressorBenchmark {
+
+    private static final int NUMBER_OF_DOCS = 10000;
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(42);
+        byte[][] docs = new byte[NUMBER_OF_DOCS][];
+        long totalSize = 0;
+        for (int i = 0; i < docs.length; i++) {
+            BytesReference doc = buildDoc(random, i);
+            docs[i] = doc.toBytes();
+            totalSize += docs[i].length;
+        }
+        System.out.println("Running on [" + docs.length + "] docs of total size [" + new ByteSizeValue(totalSize) + "]");
+
+        LZ4Compressor lz4HighCompression = new LZ4Compressor();
+        lz4HighCompression.configure(ImmutableSettings.settingsBuilder().put("compress.lz4.high_compression", true).build());
+        Compressor[] compressors = new Compressor[]{new LZFCompressor(), new LZ4Compressor(), lz4HighCompression};
+        String[] names = new String[]{"lzf", "lz4", "lz4 (high compression)"};
+
+        // warm up
+        for (Compressor compressor : compressors) {
+            run(compressor, docs, ITERATIONS / 2);
+        }
+        for (int i = 0; i < compressors.length; i++) {
+            long[] result = run(compressors[i], docs, ITERATIONS);
+            double compressMBs = ((double) totalSize * ITERATIONS / (1024 * 1024)) / (result[1] / 1000000000.0);
+            double uncompressMBs = ((double) totalSize * ITERATIONS / (1024 * 1024)) / (result[2] / 1000000000.0);
+            System.out.println(String.format("%-24s ratio [%.3f], compress [%.1f MB/s], uncompress [%.1f MB/s]",
+                    names[i], (double) result[0] / totalSize, compressMBs, uncompressMBs));
+        }
+    }
+
+    /**
+     * Returns the compressed size, and the nanos it took to compress and to uncompress all docs the given number
+     * of times.
+     */
+    private static long[] run(Compressor compressor, byte[][] docs, int iterations) throws Exception {
+        byte[][] compressed = new byte[docs.length][];
+        long compressedSize = 0;
+        long compressTime = 0;
+        long uncompressTime = 0;
+        for (int iter = 0; iter < iterations; iter++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < docs.length; i++) {
+                compressed[i] = compressor.compress(docs[i], 0, docs[i].length);
+            }
+            compressTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < docs.length; i++) {
+                byte[] uncompressed = compressor.uncompress(compressed[i], 0, compressed[i].length);
+                if (uncompressed.length != docs[i].length) {
+                    throw new IllegalStateException("uncompressed doc [" + i + "] has a different length");
+                }
+            }
+            uncompressTime += System.nanoTime() - start;
+        }
+        for (byte[] doc : compressed) {
+            compressedSize += doc.length;
+        }
+        return new long[]{compressedSize, compressTime, uncompressTime};
+    }
+
+    private static final String[] WORDS = new String[]{"elastic", "search", "trying", "out", "the", "cluster", "node", "shard",
+            "index", "query", "fast", "distributed", "restful", "engine", "json", "document", "replica", "mapping"};
+
+    private static BytesReference buildDoc(Random random, int id) throws Exception {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        builder.field("id", id);
+        builder.field("user", "user" + random.nextInt(1000));
+        builder.field("post_date", 1356998400000L + random.nextInt(1000000000));
+        StringBuilder message = new StringBuilder();
+        int numWords = 10 + random.nextInt(100);
+        for (int i = 0; i < numWords; i++) {
+            message.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        builder.field("message", message.toString());
+        builder.startArray("tags");
+        for (int i = random.nextInt(5); i >= 0; i--) {
+            builder.value(WORDS[random.nextInt(WORDS.length)]);
+        }
+        builder.endArray();
+        builder.startObject("location").field("lat", random.nextDouble() * 180 - 90).field("lon", random.nextDouble() * 360 - 180).endObject();
+        builder.field("retweets", random.nextInt(10000));
+        return builder.endObject().bytes();
+    }
+}
@@ -20,6 +20,7 @@
 package org.elasticsearch.benchmark.transport;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.cache.recycler.PageCacheRecycler;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.network.NetworkService;
@@ -50,7 +51,7 @@ public class TransportBenchmark {
         NETTY {
             @Override
             public Transport newTransport(Settings settings, ThreadPool threadPool) {
-                return new NettyTransport(settings, threadPool, new NetworkService(ImmutableSettings.EMPTY), Version.CURRENT);
+                return new NettyTransport(settings, threadPool, new NetworkService(ImmutableSettings.EMPTY), new PageCacheRecycler(settings), Version.CURRENT);
             }
         };
 
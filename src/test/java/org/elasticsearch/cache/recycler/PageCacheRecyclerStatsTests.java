@@ -0,0 +1,58 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cache.recycler;
+
+import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsResponse;
+import org.elasticsearch.common.netty.ChannelBufferStreamOutput;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.elasticsearch.test.ElasticsearchIntegrationTest.ClusterScope;
+import org.elasticsearch.test.ElasticsearchIntegrationTest.Scope;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ */
+@ClusterScope(scope=Scope.SUITE, numNodes=1)
+public class PageCacheRecyclerStatsTests extends ElasticsearchIntegrationTest {
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return ImmutableSettings.settingsBuilder().put(super.nodeSettings(nodeOrdinal)).put("cache.recycler.page.limit.heap", "1mb").build();
+    }
+
+    @Test
+    public void testPageRecyclerStats() throws Exception {
+        NodesStatsResponse nodesStats = client().admin().cluster().prepareNodesStats().clear().setPageRecycler(true).execute().actionGet();
+        PageCacheRecyclerStats stats = nodesStats.getNodes()[0].getPageRecycler();
+        assertThat(stats.getLimitSize().bytes(), equalTo(ByteSizeValue.parseBytesSizeValue("1mb").bytes()));
+
+        ChannelBufferStreamOutput out = new ChannelBufferStreamOutput(cluster().getInstance(PageCacheRecycler.class).bytePages());
+        out.writeBytes(new byte[3 * PageCacheRecycler.BYTE_PAGE_SIZE]);
+        out.release();
+
+        nodesStats = client().admin().cluster().prepareNodesStats().clear().setPageRecycler(true).execute().actionGet();
+        assertThat(nodesStats.getNodes()[0].getPageRecycler().getRequested(), greaterThanOrEqualTo(stats.getRequested() + 3));
+        assertThat(nodesStats.getNodes()[0].getPageRecycler().getPooled(), greaterThan(0l));
+    }
+}
@@ -351,6 +351,48 @@ public class BalanceConfigurationTests extends ElasticsearchTestCase {
         assertThat(allocator.getThreshold(), Matchers.equalTo(3.0f));
     }
 
+    @Test
+    public void testMaxRelocations() {
+        ImmutableSettings.Builder settings = settingsBuilder();
+        settings.put("cluster.routing.allocation.allow_rebalance", ClusterRebalanceAllocationDecider.ClusterRebalanceType.ALWAYS.toString());
+        settings.put("cluster.routing.allocation.cluster_concurrent_rebalance", -1);
+        settings.put("cluster.routing.allocation.node_concurrent_recoveries", 100);
+        settings.put(BalancedShardsAllocator.SETTING_MAX_RELOCATIONS, 3);
+        AllocationService strategy = new AllocationService(settings.build());
+
+        MetaData metaData = MetaData.builder()
+                .put(IndexMetaData.builder("test").numberOfShards(20).numberOfReplicas(0))
+                .build();
+        RoutingTable routingTable = RoutingTable.builder().addAsNew(metaData.index("test")).build();
+        ClusterState clusterState = ClusterState.builder().metaData(metaData).routingTable(routingTable).build();
+
+        logger.info("start one node and allocate all the shards on it");
+        clusterState = ClusterState.builder(clusterState).nodes(DiscoveryNodes.builder().put(newNode("node1"))).build();
+        routingTable = strategy.reroute(clusterState).routingTable();
+        clusterState = ClusterState.builder(clusterState).routingTable(routingTable).build();
+        while (!clusterState.routingNodes().shardsWithState(INITIALIZING).isEmpty()) {
+            routingTable = strategy.applyStartedShards(clusterState, clusterState.routingNodes().shardsWithState(INITIALIZING)).routingTable();
+            clusterState = ClusterState.builder(clusterState).routingTable(routingTable).build();
+        }
+        assertThat(clusterState.routingNodes().node("node1").numberOfShardsWithState(STARTED), Matchers.equalTo(20));
+
+        logger.info("add two nodes, a single reroute must not start more than 3 relocations");
+        clusterState = ClusterState.builder(clusterState).nodes(DiscoveryNodes.builder(clusterState.nodes()).put(newNode("node2")).put(newNode("node3"))).build();
+        routingTable = strategy.reroute(clusterState).routingTable();
+        clusterState = ClusterState.builder(clusterState).routingTable(routingTable).build();
+        assertThat(clusterState.routingNodes().shardsWithState(ShardRoutingState.RELOCATING).size(), Matchers.equalTo(3));
+
+        logger.info("the remaining imbalance is handled by the following reroutes");
+        for (int i = 0; i < 20 && !clusterState.routingNodes().shardsWithState(INITIALIZING).isEmpty(); i++) {
+            routingTable = strategy.applyStartedShards(clusterState, clusterState.routingNodes().shardsWithState(INITIALIZING)).routingTable();
+            clusterState = ClusterState.builder(clusterState).routingTable(routingTable).build();
+            assertThat(clusterState.routingNodes().shardsWithState(ShardRoutingState.RELOCATING).size(), Matchers.lessThanOrEqualTo(3));
+        }
+        for (RoutingNode node : clusterState.routingNodes()) {
+            assertThat(node.numberOfShardsWithState(STARTED), Matchers.anyOf(Matchers.equalTo(6), Matchers.equalTo(7)));
+        }
+    }
+
     @Test
     public void testNoRebalanceOnPrimaryOverload() {
 
@@ -0,0 +1,138 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import com.google.common.collect.ImmutableSet;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.MutableShardRouting;
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import static org.elasticsearch.cluster.routing.allocation.RoutingAllocationTests.newNode;
+import static org.hamcrest.Matchers.equalTo;
+
+public class AllocationDecidersTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testDecisionsAreCachedPerScope() {
+        CountingDecider allocationScoped = new CountingDecider(AllocationDecider.DecisionScope.ALLOCATION, Decision.YES);
+        CountingDecider indexScoped = new CountingDecider(AllocationDecider.DecisionScope.INDEX_AND_NODE, Decision.YES);
+        CountingDecider shardScoped = new CountingDecider(AllocationDecider.DecisionScope.SHARD_AND_NODE, Decision.YES);
+        AllocationDeciders deciders = new AllocationDeciders(ImmutableSettings.Builder.EMPTY_SETTINGS,
+                ImmutableSet.<AllocationDecider>of(allocationScoped, indexScoped, shardScoped));
+
+        RoutingAllocation allocation = newAllocation(deciders);
+        for (int round = 0; round < 2; round++) {
+            for (MutableShardRouting shard : allocation.routingNodes().unassigned()) {
+                for (RoutingNode node : allocation.routingNodes()) {
+                    assertThat(deciders.canAllocate(shard, node, allocation).type(), equalTo(Decision.Type.YES));
+                    assertThat(deciders.canRemain(shard, node, allocation).type(), equalTo(Decision.Type.YES));
+                }
+            }
+        }
+        // 4 shards with one replica each on 2 nodes, asked twice for both canAllocate and canRemain
+        assertThat(allocationScoped.calls, equalTo(2 * 8 * 2 * 2));
+        // primaries and replicas of the index on each node
+        assertThat(indexScoped.calls, equalTo(2 * 2 * 2));
+        // primary and replica of each shard on each node
+        assertThat(shardScoped.calls, equalTo(8 * 2 * 2));
+
+        // a new allocation does not reuse the decisions
+        allocation = newAllocation(deciders);
+        ShardRouting shard = allocation.routingNodes().unassigned().get(0);
+        deciders.canAllocate(shard, allocation.routingNodes().node("node1"), allocation);
+        assertThat(indexScoped.calls, equalTo(2 * 2 * 2 + 1));
+        assertThat(shardScoped.calls, equalTo(8 * 2 * 2 + 1));
+    }
+
+    @Test
+    public void testNoShortCircuits() {
+        CountingDecider first = new CountingDecider(AllocationDecider.DecisionScope.ALLOCATION, Decision.THROTTLE);
+        CountingDecider no = new CountingDecider(AllocationDecider.DecisionScope.ALLOCATION, Decision.NO);
+        CountingDecider last = new CountingDecider(AllocationDecider.DecisionScope.ALLOCATION, Decision.YES);
+        AllocationDeciders deciders = new AllocationDeciders(ImmutableSettings.Builder.EMPTY_SETTINGS,
+                ImmutableSet.<AllocationDecider>of(first, no, last));
+
+        RoutingAllocation allocation = newAllocation(deciders);
+        ShardRouting shard = allocation.routingNodes().unassigned().get(0);
+        RoutingNode node = allocation.routingNodes().node("node1");
+        assertThat(deciders.canAllocate(shard, node, allocation).type(), equalTo(Decision.Type.NO));
+        assertThat(deciders.canRemain(shard, node, allocation).type(), equalTo(Decision.Type.NO));
+        assertThat(deciders.canRebalance(shard, allocation).type(), equalTo(Decision.Type.NO));
+        assertThat(first.calls, equalTo(3));
+        assertThat(no.calls, equalTo(3));
+        assertThat(last.calls, equalTo(0));
+        assertThat(deciders.timings().size(), equalTo(3));
+    }
+
+    private RoutingAllocation newAllocation(AllocationDeciders deciders) {
+        MetaData metaData = MetaData.builder()
+                .put(IndexMetaData.builder("test").numberOfShards(4).numberOfReplicas(1))
+                .build();
+        RoutingTable routingTable = RoutingTable.builder().addAsNew(metaData.index("test")).build();
+        ClusterState clusterState = ClusterState.builder().metaData(metaData).routingTable(routingTable)
+                .nodes(DiscoveryNodes.builder().put(newNode("node1")).put(newNode("node2"))).build();
+        return new RoutingAllocation(deciders, clusterState.routingNodes(), clusterState.nodes(), null);
+    }
+
+    private static class CountingDecider extends AllocationDecider {
+
+        private final DecisionScope scope;
+        private final Decision decision;
+        private int calls;
+
+        CountingDecider(DecisionScope scope, Decision decision) {
+            super(ImmutableSettings.Builder.EMPTY_SETTINGS);
+            this.scope = scope;
+            this.decision = decision;
+        }
+
+        @Override
+        public DecisionScope decisionScope() {
+            return scope;
+        }
+
+        @Override
+        public Decision canRebalance(ShardRouting shardRouting, RoutingAllocation allocation) {
+            calls++;
+            return decision;
+        }
+
+        @Override
+        public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+            calls++;
+            return decision;
+        }
+
+        @Override
+        public Decision canRemain(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+            calls++;
+            return decision;
+        }
+    }
+}
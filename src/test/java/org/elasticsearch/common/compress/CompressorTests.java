@@ -0,0 +1,186 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ *
+ */
+public class CompressorTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testRoundTripLZF() throws IOException {
+        roundTrip(CompressorFactory.compressor("lzf"));
+    }
+
+    @Test
+    public void testRoundTripLZ4() throws IOException {
+        roundTrip(CompressorFactory.compressor("lz4"));
+    }
+
+    private void roundTrip(Compressor compressor) throws IOException {
+        byte[] data = randomData();
+
+        byte[] compressed = compressor.compress(data, 0, data.length);
+        assertThat(CompressorFactory.compressor(compressed), sameInstance(compressor));
+        assertThat(compressor.uncompress(compressed, 0, compressed.length), equalTo(data));
+
+        BytesStreamOutput bytes = new BytesStreamOutput();
+        StreamOutput out = compressor.streamOutput(bytes);
+        out.writeVInt(data.length);
+        // write in random pieces to cross chunk boundaries in various ways
+        int offset = 0;
+        while (offset < data.length) {
+            int length = Math.min(data.length - offset, between(1, 100000));
+            out.writeBytes(data, offset, length);
+            offset += length;
+        }
+        out.writeString("end");
+        out.close();
+
+        BytesReference compressedBytes = bytes.bytes();
+        assertThat(CompressorFactory.compressor(compressedBytes), sameInstance(compressor));
+        StreamInput in = compressor.streamInput(new BytesStreamInput(compressedBytes));
+        byte[] read = new byte[in.readVInt()];
+        in.readBytes(read, 0, read.length);
+        assertThat(read, equalTo(data));
+        assertThat(in.readString(), equalTo("end"));
+        assertThat(in.read(), equalTo(-1));
+        in.close();
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testLZ4IndexInput() throws IOException {
+        byte[] data = randomData();
+        int chunkSize = 1 << 16;
+        List<byte[]> chunks = new ArrayList<byte[]>();
+        org.apache.lucene.codecs.compressing.Compressor compressor = CompressionMode.FAST.newCompressor();
+        for (int offset = 0; offset < data.length; offset += chunkSize) {
+            int length = Math.min(chunkSize, data.length - offset);
+            byte[] chunk = new byte[chunkSize * 2];
+            ByteArrayDataOutput chunkOutput = new ByteArrayDataOutput(chunk);
+            chunkOutput.writeVInt(length);
+            compressor.compress(data, offset, length, chunkOutput);
+            chunks.add(Arrays.copyOf(chunk, chunkOutput.getPosition()));
+        }
+
+        // header, version and meta data position, then the chunks followed by their offsets
+        RAMDirectory dir = new RAMDirectory();
+        IndexOutput out = dir.createOutput("test", IOContext.DEFAULT);
+        out.writeBytes(new byte[]{'L', 'Z', '4', 0}, 4);
+        out.writeInt(0);
+        long chunkOffset = 16;
+        for (byte[] chunk : chunks) {
+            chunkOffset += chunk.length;
+        }
+        out.writeLong(chunkOffset);
+        for (byte[] chunk : chunks) {
+            out.writeBytes(chunk, chunk.length);
+        }
+        out.writeVLong(data.length);
+        out.writeVInt(chunks.size());
+        chunkOffset = 16;
+        for (byte[] chunk : chunks) {
+            out.writeVLong(chunkOffset);
+            chunkOffset += chunk.length;
+        }
+        out.close();
+
+        IndexInput in = dir.openInput("test", IOContext.DEFAULT);
+        assertThat(CompressorFactory.compressor(in), sameInstance(CompressorFactory.compressor("lz4")));
+        in = CompressorFactory.compressor(in).indexInput(in);
+        assertThat(in.length(), equalTo((long) data.length));
+        byte[] read = new byte[data.length];
+        in.readBytes(read, 0, read.length);
+        assertThat(read, equalTo(data));
+
+        for (int i = 0; i < 10 && data.length > 0; i++) {
+            int from = between(0, data.length - 1);
+            int length = between(0, data.length - from);
+            in.seek(from);
+            IndexInput clone = randomBoolean() ? in.clone() : in;
+            read = new byte[length];
+            clone.readBytes(read, 0, length);
+            assertThat(read, equalTo(Arrays.copyOfRange(data, from, from + length)));
+        }
+        in.close();
+    }
+
+    @Test
+    public void testLZ4CompressesJson() throws IOException {
+        Compressor compressor = CompressorFactory.compressor("lz4");
+        XContentBuilder builder = XContentFactory.jsonBuilder().startArray();
+        for (int i = 0; i < 1000; i++) {
+            builder.startObject().field("user", "kimchy").field("message", "trying out Elastic Search " + i).field("likes", i).endObject();
+        }
+        BytesReference json = builder.endArray().bytes();
+        assertThat(CompressorFactory.compressor(json), equalTo(null));
+        byte[] compressed = compressor.compress(json.array(), json.arrayOffset(), json.length());
+        assertThat(compressed.length, lessThan(json.length() / 2));
+        assertThat(CompressorFactory.uncompressIfNeeded(new BytesArray(compressed)).toUtf8(), equalTo(json.toUtf8()));
+    }
+
+    private byte[] randomData() {
+        byte[] data = new byte[between(0, 300000)];
+        // repeating runs of random bytes so that the data actually compresses
+        int i = 0;
+        while (i < data.length) {
+            int runLength = Math.min(data.length - i, between(1, 300));
+            if (randomBoolean() || i == 0) {
+                for (int j = 0; j < runLength; j++) {
+                    data[i + j] = randomByte();
+                }
+            } else {
+                int from = between(0, i - 1);
+                for (int j = 0; j < runLength; j++) {
+                    data[i + j] = data[from + (j % (i - from))];
+                }
+            }
+            i += runLength;
+        }
+        return data;
+    }
+}
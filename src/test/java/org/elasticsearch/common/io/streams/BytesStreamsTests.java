@@ -22,9 +22,15 @@ package org.elasticsearch.common.io.streams;
 import org.apache.lucene.util.Constants;
 import org.elasticsearch.common.io.stream.BytesStreamInput;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.netty.ChannelBufferStreamOutput;
+import org.elasticsearch.common.recycler.QueueRecycler;
+import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.test.ElasticsearchTestCase;
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
@@ -77,4 +83,41 @@ public class BytesStreamsTests extends ElasticsearchTestCase {
         out.writeBytes(new byte[32 * 1024]);
         assertThat(out.bufferSize(), equalTo(90720));
     }
+
+    @Test
+    public void testChannelBufferStreamOutput() throws Exception {
+        final AtomicInteger allocated = new AtomicInteger();
+        Recycler<byte[]> recycler = new QueueRecycler<byte[]>(new Recycler.C<byte[]>() {
+            @Override
+            public byte[] newInstance(int sizing) {
+                allocated.incrementAndGet();
+                return new byte[16];
+            }
+
+            @Override
+            public void clear(byte[] value) {
+            }
+        });
+        ChannelBufferStreamOutput out = new ChannelBufferStreamOutput(recycler);
+        out.writeInt(-1);
+        out.writeString("spanning several pages");
+        out.writeBytes(new byte[50]);
+        out.writeLong(-3);
+        assertThat(out.size(), equalTo(4 + 23 + 50 + 8));
+        assertThat(out.channelBuffer().readableBytes(), equalTo(out.size()));
+
+        StreamInput in = out.bytes().streamInput();
+        assertThat(in.readInt(), equalTo(-1));
+        assertThat(in.readString(), equalTo("spanning several pages"));
+        byte[] bytes = new byte[50];
+        in.readBytes(bytes, 0, bytes.length);
+        assertThat(in.readLong(), equalTo((long) -3));
+
+        assertThat(allocated.get(), equalTo(6));
+        out.release();
+        assertThat(out.size(), equalTo(0));
+        // released pages are reused
+        out.writeBytes(new byte[6 * 16]);
+        assertThat(allocated.get(), equalTo(6));
+    }
 }
@@ -25,6 +25,8 @@ import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.core.KeywordAnalyzer;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.PayloadAttribute;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.lucene45.Lucene45Codec;
 import org.apache.lucene.document.*;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.index.*;
@@ -33,6 +35,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.index.codec.postingsformat.ElasticSearch090PostingsFormat;
 import org.elasticsearch.index.mapper.internal.UidFieldMapper;
 import org.elasticsearch.index.mapper.internal.VersionFieldMapper;
 import org.elasticsearch.index.merge.policy.IndexUpgraderMergePolicy;
@@ -42,6 +45,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -114,6 +118,112 @@ public class VersionsTests extends ElasticsearchLuceneTestCase {
         dir.close();
     }
 
+    @Test
+    public void testLoadDocIdAndVersions() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(Lucene.VERSION, Lucene.STANDARD_ANALYZER));
+        final int numDocs = atLeast(20);
+        for (int i = 0; i < numDocs; i++) {
+            Document doc = new Document();
+            doc.add(new Field(UidFieldMapper.NAME, Integer.toString(i), UidFieldMapper.Defaults.FIELD_TYPE));
+            doc.add(new NumericDocValuesField(VersionFieldMapper.NAME, 1));
+            writer.addDocument(doc);
+            if (rarely()) {
+                writer.commit();
+            }
+        }
+        // update some documents, so that their last versions are in newer segments, and delete one
+        for (int i = 0; i < numDocs; i += 3) {
+            Document doc = new Document();
+            doc.add(new Field(UidFieldMapper.NAME, Integer.toString(i), UidFieldMapper.Defaults.FIELD_TYPE));
+            doc.add(new NumericDocValuesField(VersionFieldMapper.NAME, 2));
+            writer.updateDocument(new Term(UidFieldMapper.NAME, Integer.toString(i)), doc);
+            if (rarely()) {
+                writer.commit();
+            }
+        }
+        writer.deleteDocuments(new Term(UidFieldMapper.NAME, "1"));
+        DirectoryReader directoryReader = DirectoryReader.open(writer, true);
+
+        // randomly ordered, with missing uids
+        List<Term> terms = new ArrayList<Term>();
+        for (int i = 0; i < numDocs + 5; i++) {
+            terms.add(new Term(UidFieldMapper.NAME, Integer.toString(i)));
+        }
+        Collections.shuffle(terms, random());
+        Versions.DocIdAndVersion[] docIdAndVersions = Versions.loadDocIdAndVersions(directoryReader, terms.toArray(new Term[terms.size()]));
+        assertThat(docIdAndVersions.length, equalTo(terms.size()));
+        for (int i = 0; i < terms.size(); i++) {
+            Versions.DocIdAndVersion expected = Versions.loadDocIdAndVersion(directoryReader, terms.get(i));
+            int id = Integer.parseInt(terms.get(i).text());
+            if (id >= numDocs || id == 1) {
+                assertThat(expected, nullValue());
+                assertThat(docIdAndVersions[i], nullValue());
+            } else {
+                assertThat(docIdAndVersions[i].version, equalTo(id % 3 == 0 ? 2l : 1l));
+                assertThat(docIdAndVersions[i].version, equalTo(expected.version));
+                assertThat(docIdAndVersions[i].docId, equalTo(expected.docId));
+                assertThat(docIdAndVersions[i].context.ord, equalTo(expected.context.ord));
+            }
+        }
+        directoryReader.close();
+        writer.close();
+        dir.close();
+    }
+
+    @Test
+    public void testLookupStats() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig config = new IndexWriterConfig(Lucene.VERSION, Lucene.STANDARD_ANALYZER);
+        config.setCodec(new Lucene45Codec() {
+            @Override
+            public PostingsFormat getPostingsFormatForField(String field) {
+                return new ElasticSearch090PostingsFormat();
+            }
+        });
+        config.setMergePolicy(NoMergePolicy.COMPOUND_FILES);
+        IndexWriter writer = new IndexWriter(dir, config);
+        // two segments, with disjoint uids
+        for (int i = 0; i < 20; i++) {
+            Document doc = new Document();
+            doc.add(new Field(UidFieldMapper.NAME, Integer.toString(i), UidFieldMapper.Defaults.FIELD_TYPE));
+            doc.add(new NumericDocValuesField(VersionFieldMapper.NAME, i));
+            writer.addDocument(doc);
+            if (i == 9) {
+                writer.commit();
+            }
+        }
+        DirectoryReader directoryReader = DirectoryReader.open(writer, true);
+        assertThat(directoryReader.leaves().size(), equalTo(2));
+
+        Versions.LookupStats stats = new Versions.LookupStats();
+        // found in the last segment, which is looked up first
+        assertThat(Versions.loadVersion(directoryReader, new Term(UidFieldMapper.NAME, "15"), stats), equalTo(15l));
+        assertThat(stats.lookups.count(), equalTo(1l));
+        assertThat(stats.bloomSkipped.count() + stats.bloomFalsePositives.count(), equalTo(0l));
+        // the last segment is either skipped by its bloom filter or a false positive
+        assertThat(Versions.loadVersion(directoryReader, new Term(UidFieldMapper.NAME, "5"), stats), equalTo(5l));
+        assertThat(stats.lookups.count(), equalTo(2l));
+        assertThat(stats.bloomSkipped.count() + stats.bloomFalsePositives.count(), equalTo(1l));
+        // missing in all segments
+        assertThat(Versions.loadVersion(directoryReader, new Term(UidFieldMapper.NAME, "42"), stats), equalTo(Versions.NOT_FOUND));
+        assertThat(stats.lookups.count(), equalTo(3l));
+        assertThat(stats.bloomSkipped.count() + stats.bloomFalsePositives.count(), equalTo(3l));
+
+        // the per thread lookup state of the segments is reused, and still sees the deletes of newer readers
+        for (int i = 0; i < 20; i++) {
+            assertThat(Versions.loadVersion(directoryReader, new Term(UidFieldMapper.NAME, Integer.toString(i))), equalTo((long) i));
+        }
+        writer.deleteDocuments(new Term(UidFieldMapper.NAME, "3"));
+        directoryReader = reopen(directoryReader);
+        assertThat(Versions.loadVersion(directoryReader, new Term(UidFieldMapper.NAME, "3")), equalTo(Versions.NOT_FOUND));
+        assertThat(Versions.loadVersion(directoryReader, new Term(UidFieldMapper.NAME, "4")), equalTo(4l));
+
+        directoryReader.close();
+        writer.close();
+        dir.close();
+    }
+
     @Test
     public void testNestedDocuments() throws IOException {
         Directory dir = newDirectory();
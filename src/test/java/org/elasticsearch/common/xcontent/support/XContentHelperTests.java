@@ -19,11 +19,18 @@ package org.elasticsearch.common.xcontent.support;
  */
 
 
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.test.ElasticsearchTestCase;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -66,5 +73,29 @@ public class XContentHelperTests extends ElasticsearchTestCase {
         assertThat(content, Matchers.equalTo(expected));
     }
 
+    @Test
+    public void testUpdateSource() throws Exception {
+        Map<String, Object> source = getMap("counter", 1, "name", "value", "tags", getList("a", "b"),
+                "object", getMap("field1", "value1", "inner", getMap("field2", "value2")), "replaced", getMap("field3", "value3"));
+        Map<String, Object> changes = getMap("counter", 2, "tags", getList("c"), "object", getMap("inner", getMap("field4", "value4")),
+                "replaced", "value5", "added", getMap("field6", "value6"));
+
+        byte[] json = XContentFactory.jsonBuilder().map(source).bytes().toBytes();
+        for (BytesReference sourceBytes : new BytesReference[]{
+                new BytesArray(json),
+                XContentFactory.smileBuilder().map(source).bytes(),
+                new BytesArray(CompressorFactory.defaultCompressor().compress(json, 0, json.length))}) {
+            BytesReference updated = XContentHelper.update(sourceBytes, changes);
+
+            Map<String, Object> expected = XContentHelper.convertToMap(sourceBytes, true).v2();
+            XContentHelper.update(expected, changes);
+            Tuple<XContentType, Map<String, Object>> updatedMap = XContentHelper.convertToMap(updated, true);
+            assertThat(updatedMap.v1(), Matchers.equalTo(XContentHelper.convertToMap(sourceBytes, true).v1()));
+            assertThat(updatedMap.v2(), Matchers.equalTo(expected));
+            // the fields keep their order, the new ones are added at the end
+            assertThat(new ArrayList<String>(updatedMap.v2().keySet()), Matchers.equalTo(new ArrayList<String>(expected.keySet())));
+        }
+    }
+
 
 }
@@ -21,8 +21,11 @@ package org.elasticsearch.deleteByQuery;
 
 import org.elasticsearch.action.deletebyquery.DeleteByQueryRequestBuilder;
 import org.elasticsearch.action.deletebyquery.DeleteByQueryResponse;
+import org.elasticsearch.action.deletebyquery.TransportShardDeleteByQueryAction;
+import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.support.IgnoreIndices;
+import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.indices.IndexMissingException;
 import org.elasticsearch.rest.RestStatus;
@@ -130,4 +133,86 @@ public class DeleteByQueryTests extends ElasticsearchIntegrationTest {
 
     }
 
+    @Test
+    public void testDeleteByQueryResolvingIds() throws Exception {
+        cluster().ensureAtLeastNumNodes(2);
+        client().admin().indices().prepareCreate("test").setSettings(ImmutableSettings.settingsBuilder()
+                .put("index.number_of_shards", between(1, 3))
+                .put("index.number_of_replicas", 1)
+                .put(TransportShardDeleteByQueryAction.INDEX_DELETE_BY_QUERY_MODE, "ids")).get();
+        ensureGreen();
+
+        int numDocs = atLeast(10);
+        int numDeleted = 0;
+        for (int i = 0; i < numDocs; i++) {
+            String tenant = randomBoolean() ? "a" : "b";
+            if (tenant.equals("a")) {
+                numDeleted++;
+            }
+            client().prepareIndex("test", "test", Integer.toString(i)).setSource("tenant", tenant).get();
+        }
+
+        DeleteByQueryResponse response = client().prepareDeleteByQuery("test")
+                .setQuery(QueryBuilders.termQuery("tenant", "a"))
+                .execute().actionGet();
+        assertThat(response.status(), equalTo(RestStatus.OK));
+        assertThat(response.getIndex("test").getFailedShards(), equalTo(0));
+        assertThat(response.getIndex("test").getDeleted(), equalTo((long) numDeleted));
+        assertThat(response.getIndex("test").getVersionConflicts(), equalTo(0l));
+        assertThat(response.getIndex("test").getFailed(), equalTo(0l));
+        assertThat(response.getIndex("test").getDeleteFailures().length, equalTo(0));
+
+        // the realtime gets see the deletes without a refresh, and the other docs keep their versions
+        for (int i = 0; i < numDocs; i++) {
+            GetResponse get = client().prepareGet("test", "test", Integer.toString(i)).get();
+            if (get.isExists()) {
+                assertThat(get.getSourceAsMap().get("tenant"), equalTo((Object) "b"));
+                assertThat(get.getVersion(), equalTo(1l));
+            } else {
+                numDeleted--;
+            }
+        }
+        assertThat(numDeleted, equalTo(0));
+
+        refresh();
+        for (String preference : new String[]{"_primary", "_replica"}) {
+            assertHitCount(client().prepareCount("test").setPreference(preference).setQuery(QueryBuilders.termQuery("tenant", "a")).get(), 0);
+            assertHitCount(client().prepareCount("test").setPreference(preference).setQuery(QueryBuilders.matchAllQuery()).get(), numDocs - response.getIndex("test").getDeleted());
+        }
+    }
+
+    @Test
+    public void testDeleteByQueryResolvingTooManyIds() throws Exception {
+        cluster().ensureAtLeastNumNodes(2);
+        client().admin().indices().prepareCreate("test").setSettings(ImmutableSettings.settingsBuilder()
+                .put("index.number_of_shards", between(1, 3))
+                .put("index.number_of_replicas", 1)
+                .put(TransportShardDeleteByQueryAction.INDEX_DELETE_BY_QUERY_MODE, "ids")
+                .put(TransportShardDeleteByQueryAction.INDEX_DELETE_BY_QUERY_MAX_RESOLVED_DOCS, 0)).get();
+        ensureGreen();
+
+        int numDocs = atLeast(10);
+        int numDeleted = 0;
+        for (int i = 0; i < numDocs; i++) {
+            String tenant = randomBoolean() ? "a" : "b";
+            if (tenant.equals("a")) {
+                numDeleted++;
+            }
+            client().prepareIndex("test", "test", Integer.toString(i)).setSource("tenant", tenant).get();
+        }
+
+        // the shards fall back to deleting by query, which doesn't count the deleted docs
+        DeleteByQueryResponse response = client().prepareDeleteByQuery("test")
+                .setQuery(QueryBuilders.termQuery("tenant", "a"))
+                .execute().actionGet();
+        assertThat(response.status(), equalTo(RestStatus.OK));
+        assertThat(response.getIndex("test").getFailedShards(), equalTo(0));
+        assertThat(response.getIndex("test").getDeleted(), equalTo(-1l));
+
+        refresh();
+        for (String preference : new String[]{"_primary", "_replica"}) {
+            assertHitCount(client().prepareCount("test").setPreference(preference).setQuery(QueryBuilders.termQuery("tenant", "a")).get(), 0);
+            assertHitCount(client().prepareCount("test").setPreference(preference).setQuery(QueryBuilders.matchAllQuery()).get(), numDocs - numDeleted);
+        }
+    }
 }
@@ -20,6 +20,7 @@
 package org.elasticsearch.discovery.zen.ping.unicast;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.cache.recycler.PageCacheRecycler;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
@@ -55,13 +56,13 @@ public class UnicastZenPingTests extends ElasticsearchTestCase {
         ClusterName clusterName = new ClusterName("test");
         NetworkService networkService = new NetworkService(settings);
 
-        NettyTransport transportA = new NettyTransport(settings, threadPool, networkService, Version.CURRENT);
+        NettyTransport transportA = new NettyTransport(settings, threadPool, networkService, new PageCacheRecycler(settings), Version.CURRENT);
         final TransportService transportServiceA = new TransportService(transportA, threadPool).start();
         final DiscoveryNode nodeA = new DiscoveryNode("UZP_A", transportServiceA.boundAddress().publishAddress(), Version.CURRENT);
 
         InetSocketTransportAddress addressA = (InetSocketTransportAddress) transportA.boundAddress().publishAddress();
 
-        NettyTransport transportB = new NettyTransport(settings, threadPool, networkService, Version.CURRENT);
+        NettyTransport transportB = new NettyTransport(settings, threadPool, networkService, new PageCacheRecycler(settings), Version.CURRENT);
         final TransportService transportServiceB = new TransportService(transportB, threadPool).start();
         final DiscoveryNode nodeB = new DiscoveryNode("UZP_B", transportServiceA.boundAddress().publishAddress(), Version.CURRENT);
 
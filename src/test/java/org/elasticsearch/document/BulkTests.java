@@ -1,5 +1,6 @@
 package org.elasticsearch.document;
 
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.get.GetResponse;
@@ -109,6 +110,49 @@ public class BulkTests extends ElasticsearchIntegrationTest {
         assertThat(((Long) getResponse.getField("field").getValue()), equalTo(4l));
     }
 
+    @Test
+    public void testBulkUpdate_sameDocument() throws Exception {
+        createIndex("test");
+        ensureGreen();
+        int numUpdates = randomIntBetween(2, 20);
+        BulkRequestBuilder bulkRequestBuilder = client().prepareBulk();
+        bulkRequestBuilder.add(client().prepareUpdate("test", "type1", "1").setScript("ctx._source.counter += 1")
+                .setUpsert(jsonBuilder().startObject().field("counter", 0).endObject()));
+        for (int i = 1; i < numUpdates; i++) {
+            if (randomBoolean()) {
+                bulkRequestBuilder.add(client().prepareUpdate("test", "type1", "1").setScript("ctx._source.counter += 1"));
+            } else {
+                bulkRequestBuilder.add(client().prepareUpdate("test", "type1", "1").setScript("ctx._source.field" + i + " = 'value'"));
+            }
+        }
+        // the partial document is merged into the document as left by the previous updates
+        bulkRequestBuilder.add(client().prepareUpdate("test", "type1", "1").setDoc(jsonBuilder().startObject().field("doc_field", "value").endObject()));
+        // the stale version of the document can't be updated anymore
+        bulkRequestBuilder.add(client().prepareUpdate("test", "type1", "1").setScript("ctx._source.counter += 1").setVersion(1));
+        // an index request replaces the document for the next updates
+        bulkRequestBuilder.add(client().prepareIndex("test", "type1", "1").setSource("counter", 100));
+        bulkRequestBuilder.add(client().prepareUpdate("test", "type1", "1").setScript("ctx._source.counter += 1").setFields("counter"));
+
+        BulkResponse bulkResponse = bulkRequestBuilder.execute().actionGet();
+        BulkItemResponse[] items = bulkResponse.getItems();
+        assertThat(items.length, equalTo(numUpdates + 4));
+        for (int i = 0; i <= numUpdates; i++) {
+            assertThat(items[i].isFailed(), equalTo(false));
+            assertThat(((UpdateResponse) items[i].getResponse()).getVersion(), equalTo((long) i + 1));
+        }
+        assertThat(items[numUpdates + 1].isFailed(), equalTo(true));
+        assertThat(items[numUpdates + 1].getFailure().getMessage(), containsString("VersionConflictEngineException"));
+        assertThat(((IndexResponse) items[numUpdates + 2].getResponse()).getVersion(), equalTo((long) numUpdates + 2));
+        UpdateResponse updateResponse = items[numUpdates + 3].getResponse();
+        assertThat(updateResponse.getVersion(), equalTo((long) numUpdates + 3));
+        assertThat(((Number) updateResponse.getGetResult().field("counter").getValue()).longValue(), equalTo(101l));
+
+        GetResponse getResponse = client().prepareGet("test", "type1", "1").execute().actionGet();
+        assertThat(getResponse.getVersion(), equalTo((long) numUpdates + 3));
+        assertThat(getResponse.getSourceAsMap().get("counter"), equalTo((Object) 101));
+        assertThat(getResponse.getSourceAsMap().containsKey("doc_field"), equalTo(false));
+    }
+
     @Test
     public void testBulkVersioning() throws Exception {
         createIndex("test");
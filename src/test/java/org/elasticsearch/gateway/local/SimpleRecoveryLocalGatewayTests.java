@@ -27,6 +27,7 @@ import org.elasticsearch.action.admin.indices.status.IndicesStatusResponse;
 import org.elasticsearch.action.admin.indices.status.ShardStatus;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.routing.RoutingService;
 import org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.decider.DisableAllocationDecider;
 import org.elasticsearch.common.Priority;
@@ -38,9 +39,13 @@ import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.test.ElasticsearchIntegrationTest;
 import org.elasticsearch.test.ElasticsearchIntegrationTest.ClusterScope;
 import org.elasticsearch.test.ElasticsearchIntegrationTest.Scope;
+import org.elasticsearch.test.TestCluster;
 import org.elasticsearch.test.TestCluster.RestartCallback;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.elasticsearch.client.Requests.clusterHealthRequest;
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
 import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
@@ -390,6 +395,105 @@ public class SimpleRecoveryLocalGatewayTests extends ElasticsearchIntegrationTes
         }
     }
 
+    @Test
+    @Slow
+    public void testOperationBasedPeerRecovery() throws Exception {
+        // use a data path per node, so a restarted node picks up the data of the one it replaces
+        Map<String, String> dataPaths = new HashMap<String, String>();
+        String node1 = cluster().startNode(settingsBuilder().put("path.data", "data/data1").build());
+        dataPaths.put(node1, "data/data1");
+        String node2 = cluster().startNode(settingsBuilder().put("path.data", "data/data2").build());
+        dataPaths.put(node2, "data/data2");
+
+        client().admin().indices().prepareCreate("test").setSettings(settingsBuilder().put("index.number_of_shards", 1).put("index.number_of_replicas", 1)).execute().actionGet();
+        ClusterHealthResponse health = client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForGreenStatus().execute().actionGet();
+        assertThat(health.isTimedOut(), equalTo(false));
+
+        logger.info("--> indexing docs and flushing");
+        for (int i = 0; i < 100; i++) {
+            client().prepareIndex("test", "type", Integer.toString(i)).setSource("field", "value").execute().actionGet();
+        }
+        client().admin().indices().prepareFlush().execute().actionGet();
+
+        ClusterState state = client().admin().cluster().prepareState().execute().actionGet().getState();
+        String replicaNodeId = state.routingTable().index("test").shard(0).replicaShards().get(0).currentNodeId();
+        final String replicaNode = state.nodes().get(replicaNodeId).name();
+
+        logger.info("--> stopping the node holding the replica [{}], and indexing more docs", replicaNode);
+        cluster().stopRandomNode(TestCluster.nameFilter(replicaNode));
+        for (int i = 100; i < 110; i++) {
+            client().prepareIndex("test", "type", Integer.toString(i)).setSource("field", "value").execute().actionGet();
+        }
+        client().prepareDelete("test", "type", "0").execute().actionGet();
+
+        logger.info("--> starting the node again");
+        cluster().startNode(settingsBuilder().put("path.data", dataPaths.get(replicaNode)).build());
+        health = client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForGreenStatus().execute().actionGet();
+        assertThat(health.isTimedOut(), equalTo(false));
+
+        IndicesStatusResponse statusResponse = client().admin().indices().prepareStatus("test").setRecovery(true).execute().actionGet();
+        for (IndexShardStatus indexShardStatus : statusResponse.getIndex("test")) {
+            for (ShardStatus shardStatus : indexShardStatus) {
+                if (!shardStatus.getShardRouting().primary()) {
+                    logger.info("--> shard {}, recovered {}, translog ops {}", shardStatus.getShardId(), shardStatus.getPeerRecoveryStatus().getRecoveredIndexSize(), shardStatus.getPeerRecoveryStatus().getRecoveredTranslogOperations());
+                    assertThat(shardStatus.getPeerRecoveryStatus().getIndexSize().bytes(), equalTo(0l));
+                    assertThat(shardStatus.getPeerRecoveryStatus().getRecoveredTranslogOperations(), equalTo(11l));
+                }
+            }
+        }
+
+        client().admin().indices().prepareRefresh().execute().actionGet();
+        for (int i = 0; i < 10; i++) {
+            assertHitCount(client().prepareCount("test").setQuery(matchAllQuery()).execute().actionGet(), 109);
+        }
+    }
+
+    @Test
+    @Slow
+    public void testDelayedReplicaAllocationOnNodeLeft() throws Exception {
+        Map<String, String> dataPaths = new HashMap<String, String>();
+        for (int i = 1; i <= 3; i++) {
+            String node = cluster().startNode(settingsBuilder().put("path.data", "data/data" + i).build());
+            dataPaths.put(node, "data/data" + i);
+        }
+
+        client().admin().indices().prepareCreate("test").setSettings(settingsBuilder()
+                .put("index.number_of_shards", 1).put("index.number_of_replicas", 1)
+                .put(RoutingService.INDEX_DELAYED_NODE_LEFT_TIMEOUT, "1h")).execute().actionGet();
+        ClusterHealthResponse health = client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForGreenStatus().execute().actionGet();
+        assertThat(health.isTimedOut(), equalTo(false));
+        for (int i = 0; i < 10; i++) {
+            client().prepareIndex("test", "type", Integer.toString(i)).setSource("field", "value").execute().actionGet();
+        }
+        client().admin().indices().prepareFlush().execute().actionGet();
+
+        ClusterState state = client().admin().cluster().prepareState().execute().actionGet().getState();
+        String replicaNode = state.nodes().get(state.routingTable().index("test").shard(0).replicaShards().get(0).currentNodeId()).name();
+
+        logger.info("--> stopping the node holding the replica [{}], its replica should not be reallocated", replicaNode);
+        cluster().stopRandomNode(TestCluster.nameFilter(replicaNode));
+        client().admin().cluster().prepareReroute().execute().actionGet();
+        health = client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForYellowStatus().execute().actionGet();
+        assertThat(health.isTimedOut(), equalTo(false));
+        assertThat(health.getUnassignedShards(), equalTo(1));
+
+        logger.info("--> starting the node again, it should get its replica back");
+        String restartedNode = cluster().startNode(settingsBuilder().put("path.data", dataPaths.get(replicaNode)).build());
+        health = client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForGreenStatus().execute().actionGet();
+        assertThat(health.isTimedOut(), equalTo(false));
+        state = client().admin().cluster().prepareState().execute().actionGet().getState();
+        assertThat(state.nodes().get(state.routingTable().index("test").shard(0).replicaShards().get(0).currentNodeId()).name(), equalTo(restartedNode));
+
+        logger.info("--> stopping the node holding the replica again and removing the delay");
+        cluster().stopRandomNode(TestCluster.nameFilter(restartedNode));
+        health = client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForYellowStatus().execute().actionGet();
+        assertThat(health.isTimedOut(), equalTo(false));
+        client().admin().indices().prepareUpdateSettings("test").setSettings(ImmutableSettings.settingsBuilder().put(RoutingService.INDEX_DELAYED_NODE_LEFT_TIMEOUT, "0")).execute().actionGet();
+        health = client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForGreenStatus().execute().actionGet();
+        assertThat(health.isTimedOut(), equalTo(false));
+        assertHitCount(client().prepareCount("test").setQuery(matchAllQuery()).execute().actionGet(), 10);
+    }
+
     @Test
     @Slow
     public void testRecoveryDifferentNodeOrderStartup() throws Exception {
@@ -420,4 +524,33 @@ public class SimpleRecoveryLocalGatewayTests extends ElasticsearchIntegrationTes
         assertHitCount(client().prepareCount("test").setQuery(QueryBuilders.matchAllQuery()).execute().actionGet(), 1);
     }
 
+    @Test
+    @Slow
+    public void testRecoveryWithThrottledListings() throws Exception {
+        // a single shard listed at a time, the other shards wait for their turn
+        ImmutableSettings.Builder settings = settingsBuilder()
+                .put("gateway.local.concurrent_listings", 1)
+                .put("gateway.recover_after_nodes", 2)
+                .put("index.number_of_shards", 10)
+                .put("index.number_of_replicas", 1);
+        cluster().startNode(settings.build());
+        cluster().startNode(settings.build());
+
+        int numDocs = atLeast(20);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("test", "type1", Integer.toString(i)).setSource("field", "value" + i).execute().actionGet();
+        }
+        client().admin().indices().prepareRefresh().execute().actionGet();
+        assertHitCount(client().prepareCount().setQuery(matchAllQuery()).execute().actionGet(), numDocs);
+
+        cluster().fullRestart();
+
+        logger.info("Running Cluster Health (wait for the shards to startup)");
+        ClusterHealthResponse clusterHealth = client().admin().cluster().health(clusterHealthRequest().waitForGreenStatus().waitForActiveShards(20)).actionGet();
+        logger.info("Done Cluster Health, status " + clusterHealth.getStatus());
+        assertThat(clusterHealth.isTimedOut(), equalTo(false));
+        assertThat(clusterHealth.getStatus(), equalTo(ClusterHealthStatus.GREEN));
+
+        assertHitCount(client().prepareCount().setQuery(matchAllQuery()).execute().actionGet(), numDocs);
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty;
+
+import com.google.common.base.Charsets;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.*;
+import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.jboss.netty.handler.codec.http.*;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.common.util.concurrent.EsExecutors.daemonThreadFactory;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ */
+public class HttpPipeliningHandlerTests extends ElasticsearchTestCase {
+
+    private ServerBootstrap serverBootstrap;
+    private Channel serverChannel;
+    private ExecutorService responders;
+
+    @After
+    public void stopServer() throws Exception {
+        if (serverChannel != null) {
+            serverChannel.close().awaitUninterruptibly();
+        }
+        if (serverBootstrap != null) {
+            serverBootstrap.releaseExternalResources();
+        }
+        if (responders != null) {
+            responders.shutdown();
+            responders.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testResponsesAreWrittenInRequestOrder() throws Exception {
+        startServer(10000);
+        // the first requests sleep the longest, so their responses are sent last
+        assertPipelinedResponses(new int[]{300, 200, 100, 0});
+    }
+
+    @Test
+    public void testMaxEventsSuspendsReading() throws Exception {
+        startServer(2);
+        assertPipelinedResponses(new int[]{200, 100, 0, 150, 50, 0});
+    }
+
+    private void startServer(final int maxEventsHeld) {
+        responders = Executors.newCachedThreadPool(daemonThreadFactory("pipelining_test"));
+        serverBootstrap = new ServerBootstrap(new NioServerSocketChannelFactory(
+                Executors.newCachedThreadPool(daemonThreadFactory("pipelining_test_boss")),
+                Executors.newCachedThreadPool(daemonThreadFactory("pipelining_test_worker")), 1));
+        serverBootstrap.setPipelineFactory(new ChannelPipelineFactory() {
+            @Override
+            public ChannelPipeline getPipeline() throws Exception {
+                ChannelPipeline pipeline = Channels.pipeline();
+                pipeline.addLast("decoder", new HttpRequestDecoder());
+                pipeline.addLast("aggregator", new HttpChunkAggregator(1024 * 1024));
+                pipeline.addLast("encoder", new HttpResponseEncoder());
+                pipeline.addLast("pipelining", new HttpPipeliningHandler(maxEventsHeld));
+                pipeline.addLast("handler", new DelayedResponseHandler());
+                return pipeline;
+            }
+        });
+        serverChannel = serverBootstrap.bind(new InetSocketAddress("localhost", 0));
+    }
+
+    private void assertPipelinedResponses(int[] delays) throws Exception {
+        Socket socket = new Socket("localhost", ((InetSocketAddress) serverChannel.getLocalAddress()).getPort());
+        try {
+            socket.setSoTimeout(10000);
+            StringBuilder requests = new StringBuilder();
+            for (int delay : delays) {
+                requests.append("GET /").append(delay).append(" HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            }
+            OutputStream out = socket.getOutputStream();
+            out.write(requests.toString().getBytes(Charsets.UTF_8));
+            out.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), Charsets.UTF_8));
+            for (int delay : delays) {
+                assertThat(reader.readLine(), equalTo("HTTP/1.1 200 OK"));
+                int contentLength = -1;
+                String line;
+                while (!(line = reader.readLine()).isEmpty()) {
+                    if (line.startsWith(HttpHeaders.Names.CONTENT_LENGTH + ":")) {
+                        contentLength = Integer.parseInt(line.substring(line.indexOf(':') + 1).trim());
+                    }
+                }
+                char[] content = new char[contentLength];
+                int read = 0;
+                while (read < contentLength) {
+                    read += reader.read(content, read, contentLength - read);
+                }
+                assertThat(new String(content), equalTo("/" + delay));
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    private class DelayedResponseHandler extends SimpleChannelUpstreamHandler {
+
+        @Override
+        public void messageReceived(final ChannelHandlerContext ctx, final MessageEvent e) throws Exception {
+            final OrderedUpstreamMessageEvent orderedEvent = (OrderedUpstreamMessageEvent) e;
+            final String uri = ((HttpRequest) e.getMessage()).getUri();
+            responders.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(Integer.parseInt(uri.substring(1)));
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+                    response.setContent(ChannelBuffers.copiedBuffer(uri, Charsets.UTF_8));
+                    response.setHeader(HttpHeaders.Names.CONTENT_LENGTH, response.getContent().readableBytes());
+                    ctx.getChannel().getPipeline().sendDownstream(new OrderedDownstreamChannelEvent(orderedEvent, response));
+                }
+            });
+        }
+    }
+}
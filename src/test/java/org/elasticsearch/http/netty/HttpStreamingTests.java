@@ -0,0 +1,88 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty;
+
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.http.HttpServerTransport;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.rest.helper.HttpClient;
+import org.elasticsearch.rest.helper.HttpClientResponse;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.elasticsearch.test.ElasticsearchIntegrationTest.ClusterScope;
+import org.elasticsearch.test.ElasticsearchIntegrationTest.Scope;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ */
+@ClusterScope(scope = Scope.SUITE, numNodes = 1)
+public class HttpStreamingTests extends ElasticsearchIntegrationTest {
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return ImmutableSettings.settingsBuilder()
+                .put("force.http.enabled", true)
+                .put("http.stream_chunk_size", "1kb")
+                .put(super.nodeSettings(nodeOrdinal))
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLargeResponsesAreChunked() throws Exception {
+        createIndex("test");
+        ensureYellow();
+        for (int i = 0; i < 100; i++) {
+            client().prepareIndex("test", "type", Integer.toString(i)).setSource("field", "value " + i).get();
+        }
+        refresh();
+
+        HttpClientResponse response = httpClient().request("/test/_search?size=100");
+        assertThat(response.errorCode(), equalTo(RestStatus.OK.getStatus()));
+        assertThat(response.getHeader("Transfer-Encoding"), equalTo("chunked"));
+        assertThat(response.getHeader("Content-Length"), nullValue());
+        Map<String, Object> body = XContentHelper.convertToMap(response.response().getBytes("UTF-8"), false).v2();
+        List<Object> hits = (List<Object>) ((Map<String, Object>) body.get("hits")).get("hits");
+        assertThat(hits.size(), equalTo(100));
+
+        response = httpClient().request("/_cat/shards/test");
+        assertThat(response.errorCode(), equalTo(RestStatus.OK.getStatus()));
+        assertThat(response.response(), startsWith("test "));
+
+        // fits in a single chunk
+        response = httpClient().request("/test/_search?size=0");
+        assertThat(response.errorCode(), equalTo(RestStatus.OK.getStatus()));
+        assertThat(response.getHeader("Transfer-Encoding"), nullValue());
+        assertThat(response.getHeader("Content-Length"), notNullValue());
+        body = XContentHelper.convertToMap(response.response().getBytes("UTF-8"), false).v2();
+        assertThat(((Map<String, Object>) body.get("hits")).get("total"), equalTo((Object) 100));
+    }
+
+    private HttpClient httpClient() {
+        HttpServerTransport httpServerTransport = cluster().getInstance(HttpServerTransport.class);
+        return new HttpClient(httpServerTransport.boundAddress().publishAddress());
+    }
+}
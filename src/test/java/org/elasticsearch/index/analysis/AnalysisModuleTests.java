@@ -31,6 +31,7 @@ import org.apache.lucene.analysis.miscellaneous.KeywordRepeatFilter;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.inject.Injector;
 import org.elasticsearch.common.inject.ModulesBuilder;
 import org.elasticsearch.common.lucene.Lucene;
@@ -65,8 +66,11 @@ public class AnalysisModuleTests extends ElasticsearchTestCase {
     private Injector injector;
 
     public AnalysisService getAnalysisService(Settings settings) {
-        Index index = new Index("test");
         Injector parentInjector = new ModulesBuilder().add(new SettingsModule(settings), new EnvironmentModule(new Environment(settings)), new IndicesAnalysisModule()).createInjector();
+        return getAnalysisService(parentInjector, new Index("test"), settings);
+    }
+
+    private AnalysisService getAnalysisService(Injector parentInjector, Index index, Settings settings) {
         injector = new ModulesBuilder().add(
                 new IndexSettingsModule(index, settings),
                 new IndexNameModule(index),
@@ -114,6 +118,57 @@ public class AnalysisModuleTests extends ElasticsearchTestCase {
         assertLuceneAnalyzerVersion(Version.V_0_90_0.luceneVersion, analysisService2.analyzer("thai").analyzer());
     }
 
+    @Test
+    public void testSharedAnalyzers() throws Exception {
+        Settings settings = settingsBuilder().loadFromClasspath("org/elasticsearch/index/analysis/test1.yml").build();
+        Injector parentInjector = new ModulesBuilder().add(new SettingsModule(settings), new EnvironmentModule(new Environment(settings)), new IndicesAnalysisModule()).createInjector();
+        IndicesAnalysisService indicesAnalysisService = parentInjector.getInstance(IndicesAnalysisService.class);
+
+        AnalysisService analysisService1 = getAnalysisService(parentInjector, new Index("test1"), settings);
+        AnalysisService analysisService2 = getAnalysisService(parentInjector, new Index("test2"), settings);
+        assertThat(analysisService2.analyzer("custom1"), sameInstance(analysisService1.analyzer("custom1")));
+        assertThat(analysisService2.analyzer("alias1"), sameInstance(analysisService1.analyzer("alias1")));
+        assertThat(analysisService2.defaultIndexAnalyzer(), sameInstance(analysisService1.defaultIndexAnalyzer()));
+        int sharedAnalyzers = indicesAnalysisService.sharedAnalyzersCount();
+        assertThat(sharedAnalyzers, greaterThan(0));
+        assertThat(indicesAnalysisService.sharedAnalyzersReuseCount(), greaterThan(0l));
+
+        // a failure to build the analyzers of an index gives back the ones it shared so far
+        Settings brokenSettings = settingsBuilder().put(settings)
+                .put("index.analysis.analyzer.broken.tokenizer", "standard")
+                .putArray("index.analysis.analyzer.broken.filter", "lowercase", "unknown_filter").build();
+        try {
+            getAnalysisService(parentInjector, new Index("broken"), brokenSettings);
+            fail("expected the index analysis settings to be rejected");
+        } catch (Exception e) {
+            // all is well
+        }
+        assertThat(indicesAnalysisService.sharedAnalyzersCount(), equalTo(sharedAnalyzers));
+
+        // different analysis settings, or opting out, get their own analyzers
+        Settings otherSettings = settingsBuilder().put(settings).put("index.analysis.analyzer.custom1.position_offset_gap", 10).build();
+        AnalysisService analysisService3 = getAnalysisService(parentInjector, new Index("test3"), otherSettings);
+        assertThat(analysisService3.analyzer("custom1"), not(sameInstance(analysisService1.analyzer("custom1"))));
+        Settings notSharedSettings = settingsBuilder().put(settings).put(AnalysisService.INDEX_ANALYSIS_SHARE_ANALYZERS, false).build();
+        AnalysisService analysisService4 = getAnalysisService(parentInjector, new Index("test4"), notSharedSettings);
+        assertThat(analysisService4.analyzer("custom1"), not(sameInstance(analysisService1.analyzer("custom1"))));
+
+        // fields analyzed by the same analyzer reuse its components
+        FieldNameAnalyzer fieldNameAnalyzer = new FieldNameAnalyzer(ImmutableOpenMap.<String, Analyzer>builder()
+                .fPut("field1", analysisService1.analyzer("custom1")).fPut("field2", analysisService2.analyzer("alias4")).build(),
+                analysisService1.defaultIndexAnalyzer());
+        TokenStream tokenStream = fieldNameAnalyzer.tokenStream("field1", "foo");
+        tokenStream.close();
+        assertThat(fieldNameAnalyzer.tokenStream("field2", "bar"), sameInstance(tokenStream));
+
+        analysisService1.close();
+        analysisService3.close();
+        assertThat(indicesAnalysisService.sharedAnalyzersCount(), equalTo(sharedAnalyzers));
+        analysisService2.close();
+        assertThat(indicesAnalysisService.sharedAnalyzersCount(), equalTo(0));
+        analysisService4.close();
+    }
+
     // ugly reflection based hack to extract the lucene version from an analyzer
     private void assertLuceneAnalyzerVersion(org.apache.lucene.util.Version luceneVersion, Analyzer analyzer) throws Exception {
         Field field = analyzer.getClass().getSuperclass().getDeclaredField("matchVersion");
@@ -44,6 +44,7 @@ import org.elasticsearch.index.IndexNameModule;
 import org.elasticsearch.index.analysis.AnalysisModule;
 import org.elasticsearch.index.codec.docvaluesformat.*;
 import org.elasticsearch.index.codec.postingsformat.*;
+import org.elasticsearch.index.codec.storedfields.BlockCompressionStoredFieldsFormat;
 import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.MapperServiceModule;
 import org.elasticsearch.index.mapper.internal.IdFieldMapper;
@@ -79,6 +80,8 @@ public class CodecTests extends ElasticsearchLuceneTestCase {
         assertThat(codecService.codec("Lucene41"), instanceOf(Lucene41Codec.class));
         assertThat(codecService.codec("Lucene42"), instanceOf(Lucene42Codec.class));
         assertThat(codecService.codec("SimpleText"), instanceOf(SimpleTextCodec.class));
+        assertThat(codecService.codec("best_compression"), instanceOf(BestCompressionCodec.class));
+        assertThat(((BestCompressionCodec) codecService.codec("best_compression")).storedFieldsFormat(), instanceOf(BlockCompressionStoredFieldsFormat.class));
     }
 
     @Test
@@ -0,0 +1,125 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.codec.storedfields;
+
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.lucene45.Lucene45Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.index.codec.BestCompressionCodec;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class BlockCompressionStoredFieldsTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testReadBackInAnyOrder() throws IOException {
+        int numDocs = atLeast(500);
+        RAMDirectory dir = new RAMDirectory();
+        IndexWriter writer = new IndexWriter(dir, config(new BestCompressionCodec(new Lucene45Codec())));
+        for (int i = 0; i < numDocs; i++) {
+            writer.addDocument(doc(i));
+            if (rarely()) {
+                writer.commit();
+            }
+        }
+        writer.close();
+
+        // read back through the codec registered with Lucene
+        DirectoryReader reader = DirectoryReader.open(dir);
+        assertThat(reader.numDocs(), equalTo(numDocs));
+        for (int i = 0; i < numDocs; i++) {
+            assertDoc(reader, i);
+        }
+        for (int i = 0; i < numDocs; i++) {
+            assertDoc(reader, randomInt(numDocs - 1));
+        }
+        reader.close();
+
+        // merges copy or recompress the blocks
+        writer = new IndexWriter(dir, config(new BestCompressionCodec(new Lucene45Codec())));
+        writer.forceMerge(1);
+        writer.close();
+        reader = DirectoryReader.open(dir);
+        assertThat(reader.leaves().size(), equalTo(1));
+        for (int i = 0; i < numDocs; i++) {
+            assertDoc(reader, randomInt(numDocs - 1));
+        }
+        reader.close();
+        dir.close();
+    }
+
+    @Test
+    public void testSmallerThanDefault() throws IOException {
+        int numDocs = 1000;
+        long[] sizes = new long[2];
+        Codec[] codecs = new Codec[]{new Lucene45Codec(), new BestCompressionCodec(new Lucene45Codec())};
+        for (int c = 0; c < codecs.length; c++) {
+            RAMDirectory dir = new RAMDirectory();
+            IndexWriter writer = new IndexWriter(dir, config(codecs[c]));
+            for (int i = 0; i < numDocs; i++) {
+                writer.addDocument(doc(i));
+            }
+            writer.forceMerge(1);
+            writer.close();
+            sizes[c] = dir.sizeInBytes();
+            dir.close();
+        }
+        assertThat(sizes[1], lessThan(sizes[0]));
+    }
+
+    private static IndexWriterConfig config(Codec codec) {
+        IndexWriterConfig config = new IndexWriterConfig(Lucene.VERSION, new WhitespaceAnalyzer(Lucene.VERSION));
+        config.setCodec(codec);
+        return config;
+    }
+
+    private static Document doc(int i) {
+        Document doc = new Document();
+        doc.add(new StringField("id", Integer.toString(i), Store.YES));
+        doc.add(new StoredField("_source", new BytesRef(source(i))));
+        return doc;
+    }
+
+    private static String source(int i) {
+        return "{\"@timestamp\":\"2013-11-" + (10 + i % 20) + "T10:" + (i % 60) + ":00\",\"host\":\"web-" + (i % 7)
+                + "\",\"level\":\"INFO\",\"message\":\"GET /api/items/" + i + " HTTP/1.1 200 " + (i * 31 % 5000) + "\"}";
+    }
+
+    private static void assertDoc(DirectoryReader reader, int docId) throws IOException {
+        Document doc = reader.document(docId);
+        int i = Integer.parseInt(doc.get("id"));
+        assertThat(doc.getBinaryValue("_source").utf8ToString(), equalTo(source(i)));
+    }
+}
@@ -53,6 +53,7 @@ import org.elasticsearch.index.merge.policy.MergePolicyProvider;
 import org.elasticsearch.index.merge.scheduler.ConcurrentMergeSchedulerProvider;
 import org.elasticsearch.index.merge.scheduler.MergeSchedulerProvider;
 import org.elasticsearch.index.merge.scheduler.SerialMergeSchedulerProvider;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.settings.IndexSettingsService;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.similarity.SimilarityService;
@@ -74,6 +75,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -537,6 +539,58 @@ public class RobinEngineTests extends ElasticsearchTestCase {
         engine.close();
     }
 
+    @Test
+    public void testMultiGet() throws Exception {
+        engine.create(new Engine.Create(null, newUid("1"), testParsedDocument("1", "1", "test", null, -1, -1, testDocumentWithTextField(), Lucene.STANDARD_ANALYZER, B_1, false)));
+        engine.create(new Engine.Create(null, newUid("2"), testParsedDocument("2", "2", "test", null, -1, -1, testDocumentWithTextField(), Lucene.STANDARD_ANALYZER, B_2, false)));
+        engine.create(new Engine.Create(null, newUid("test#5"), testParsedDocument("test#5", "5", "test", null, -1, -1, testDocumentWithTextField(), Lucene.STANDARD_ANALYZER, B_1, false)));
+        // flush, so 1, 2 and 5 can only be found in the index
+        engine.flush(new Engine.Flush());
+        engine.create(new Engine.Create(null, newUid("3"), testParsedDocument("3", "3", "test", null, -1, -1, testDocumentWithTextField(), Lucene.STANDARD_ANALYZER, B_3, false)));
+        engine.delete(new Engine.Delete("test", "2", newUid("2")));
+
+        Engine.Get[] gets = new Engine.Get[]{
+                new Engine.Get(true, newUid("3")),
+                new Engine.Get(true, newUid("1")),
+                new Engine.Get(true, newUid("2")),
+                new Engine.Get(true, newUid("4")),
+                new Engine.Get(true, newUid("test#5")).version(5).versionType(VersionType.INTERNAL),
+                new Engine.Get(false, newUid("3")),
+                new Engine.Get(false, newUid("1"))
+        };
+        Throwable[] failures = new Throwable[gets.length];
+        Engine.GetResult[] results = engine.get(gets, failures);
+        assertThat(results.length, equalTo(gets.length));
+
+        // from the translog
+        assertThat(results[0].exists(), equalTo(true));
+        assertThat(results[0].source().source.toBytesArray(), equalTo(B_3.toBytesArray()));
+        assertThat(results[0].docIdAndVersion(), nullValue());
+        // from the index
+        assertThat(results[1].exists(), equalTo(true));
+        assertThat(results[1].docIdAndVersion(), notNullValue());
+        assertThat(results[1].version(), equalTo(1l));
+        // deleted
+        assertThat(results[2].exists(), equalTo(false));
+        // missing
+        assertThat(results[3].exists(), equalTo(false));
+        // version conflict
+        assertThat(results[4], nullValue());
+        assertThat(failures[4], instanceOf(VersionConflictEngineException.class));
+        // not refreshed yet
+        assertThat(results[5].exists(), equalTo(false));
+        assertThat(results[6].exists(), equalTo(true));
+        assertThat(results[6].docIdAndVersion(), notNullValue());
+
+        for (int i = 0; i < results.length; i++) {
+            if (i != 4) {
+                assertThat(failures[i], nullValue());
+                results[i].release();
+            }
+        }
+        engine.close();
+    }
+
     @Test
     public void testSearchResultRelease() throws Exception {
         Engine.Searcher searchResult = engine.acquireSearcher("test");
@@ -1040,6 +1094,28 @@ public class RobinEngineTests extends ElasticsearchTestCase {
         }
     }
 
+    @Test
+    public void testCreateAutoGeneratedIdSkipsExistenceCheck() {
+        ParsedDocument doc = testParsedDocument("1", "1", "test", null, -1, -1, testDocument(), Lucene.STANDARD_ANALYZER, B_1, false);
+        Engine.Create create = new Engine.Create(null, newUid("1"), doc);
+        engine.create(create);
+        engine.flush(new Engine.Flush());
+
+        // a retried operation might have been applied already, so the existing document must be found
+        create = new Engine.Create(null, newUid("1"), doc).autoGeneratedId(true).canHaveDuplicates(true);
+        try {
+            engine.create(create);
+            assert false;
+        } catch (DocumentAlreadyExistsException e) {
+            // all is well
+        }
+
+        // otherwise nothing can exist under a generated id, and it is not looked up
+        create = new Engine.Create(null, newUid("1"), doc).autoGeneratedId(true);
+        engine.create(create);
+        assertThat(create.version(), equalTo(1l));
+    }
+
     @Test
     public void testVersioningReplicaConflict1() {
         ParsedDocument doc = testParsedDocument("1", "1", "test", null, -1, -1, testDocument(), Lucene.STANDARD_ANALYZER, B_1, false);
@@ -1156,6 +1232,61 @@ public class RobinEngineTests extends ElasticsearchTestCase {
         assertTrue(index.created());
     }
 
+    @Test
+    public void testSequenceNumbers() throws Exception {
+        ParsedDocument doc = testParsedDocument("1", "1", "test", null, -1, -1, testDocument(), Lucene.STANDARD_ANALYZER, B_1, false);
+        assertThat(engine.localCheckpoint(), equalTo(SequenceNumbers.UNASSIGNED_SEQ_NO));
+        for (int i = 0; i < 3; i++) {
+            Engine.Index index = new Engine.Index(null, newUid(Integer.toString(i)), doc);
+            engine.index(index);
+            assertThat(index.seqNo(), equalTo((long) i));
+        }
+        Engine.Delete delete = new Engine.Delete("test", "1", newUid("1"));
+        engine.delete(delete);
+        assertThat(delete.seqNo(), equalTo(3l));
+        assertThat(engine.localCheckpoint(), equalTo(3l));
+
+        engine.flush(new Engine.Flush());
+        Map<String, String> userData = store.readLastCommittedUserData();
+        assertThat(SequenceNumbers.readSeqNo(userData, SequenceNumbers.LOCAL_CHECKPOINT_KEY), equalTo(3l));
+        assertThat(SequenceNumbers.readSeqNo(userData, SequenceNumbers.TRANSLOG_SEQ_NO_KEY), equalTo(3l));
+        assertThat(userData.get(SequenceNumbers.HISTORY_UUID_KEY), equalTo(engine.seqNoHistoryUUID()));
+
+        // replicas may apply operations out of order, the checkpoint only moves once the gaps are filled
+        replicaEngine.index(new Engine.Index(null, newUid("1"), doc).version(1).seqNo(1).origin(REPLICA));
+        assertThat(replicaEngine.localCheckpoint(), equalTo(SequenceNumbers.UNASSIGNED_SEQ_NO));
+        replicaEngine.index(new Engine.Index(null, newUid("0"), doc).version(1).seqNo(0).origin(REPLICA));
+        assertThat(replicaEngine.localCheckpoint(), equalTo(1l));
+        replicaEngine.delete(new Engine.Delete("test", "1", newUid("1")).version(2).seqNo(3).origin(REPLICA));
+        assertThat(replicaEngine.localCheckpoint(), equalTo(1l));
+
+        // adopting another history treats the gaps as filled
+        replicaEngine.seqNoHistoryUUID(engine.seqNoHistoryUUID());
+        assertThat(replicaEngine.localCheckpoint(), equalTo(3l));
+    }
+
+    @Test
+    public void testFailedOperationsDoNotHoldTheCheckpointBack() throws Exception {
+        ParsedDocument doc = testParsedDocument("1", "1", "test", null, -1, -1, testDocument(), Lucene.STANDARD_ANALYZER, B_1, false);
+        replicaEngine.index(new Engine.Index(null, newUid("1"), doc).version(2).seqNo(0).origin(REPLICA));
+        assertThat(replicaEngine.localCheckpoint(), equalTo(0l));
+
+        // an older version of the document fails on the replica, it is processed all the same
+        try {
+            replicaEngine.index(new Engine.Index(null, newUid("1"), doc).version(1).seqNo(1).origin(REPLICA));
+            fail();
+        } catch (VersionConflictEngineException e) {
+            // all is well
+        }
+        assertThat(replicaEngine.localCheckpoint(), equalTo(1l));
+
+        // an operation failing before reaching the engine, e.g. while parsing its source
+        replicaEngine.index(new Engine.Index(null, newUid("2"), doc).version(1).seqNo(3).origin(REPLICA));
+        assertThat(replicaEngine.localCheckpoint(), equalTo(1l));
+        replicaEngine.markSeqNoAsProcessed(2);
+        assertThat(replicaEngine.localCheckpoint(), equalTo(3l));
+    }
+
     protected Term newUid(String id) {
         return new Term("_uid", id);
     }
@@ -21,9 +21,13 @@ package org.elasticsearch.indices.analyze;
 
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.action.admin.cluster.node.stats.NodeStats;
+import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsResponse;
 import org.elasticsearch.action.admin.indices.analyze.AnalyzeRequestBuilder;
 import org.elasticsearch.action.admin.indices.analyze.AnalyzeResponse;
 import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.test.ElasticsearchIntegrationTest;
 import org.junit.Test;
@@ -31,12 +35,33 @@ import org.junit.Test;
 import java.io.IOException;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 
 /**
  *
  */
 public class AnalyzeActionTests extends ElasticsearchIntegrationTest {
     
+    @Test
+    public void testSharedAnalyzersStats() throws Exception {
+        // a copy of every index on every node, so the indices share their analyzers on all of them
+        Settings settings = ImmutableSettings.settingsBuilder()
+                .put("index.number_of_shards", 1)
+                .put("index.number_of_replicas", cluster().numNodes() - 1)
+                .put("index.analysis.analyzer.my_analyzer.tokenizer", "whitespace")
+                .putArray("index.analysis.analyzer.my_analyzer.filter", "lowercase")
+                .build();
+        client().admin().indices().prepareCreate("test1").setSettings(settings).execute().actionGet();
+        client().admin().indices().prepareCreate("test2").setSettings(settings).execute().actionGet();
+        ensureGreen();
+
+        NodesStatsResponse nodesStats = client().admin().cluster().prepareNodesStats().clear().setSharedAnalyzers(true).execute().actionGet();
+        for (NodeStats nodeStats : nodesStats.getNodes()) {
+            assertThat(nodeStats.getSharedAnalyzers().getCount(), greaterThan(0l));
+            assertThat(nodeStats.getSharedAnalyzers().getReused(), greaterThan(0l));
+        }
+    }
+
     @Test
     public void simpleAnalyzerTests() throws Exception {
         try {
@@ -23,6 +23,9 @@ import com.carrotsearch.hppc.IntOpenHashSet;
 import com.carrotsearch.hppc.procedures.IntProcedure;
 import org.apache.lucene.util.LuceneTestCase.Slow;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
+import org.elasticsearch.action.admin.indices.status.IndicesStatusResponse;
+import org.elasticsearch.action.admin.indices.status.PeerRecoveryStatus;
+import org.elasticsearch.action.admin.indices.status.ShardStatus;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
@@ -31,8 +34,10 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.routing.allocation.command.MoveAllocationCommand;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.store.IndicesStore;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.test.ElasticsearchIntegrationTest;
@@ -48,6 +53,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
 import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
 
 /**
  */
@@ -105,6 +111,56 @@ public class RelocationTests extends ElasticsearchIntegrationTest {
         assertThat(client().prepareCount("test").execute().actionGet().getCount(), equalTo(20l));
     }
 
+    @Test
+    public void testRelocationBackReusesRetainedFiles() throws Exception {
+        Settings nodeSettings = ImmutableSettings.settingsBuilder().put(IndicesStore.INDICES_STORE_UNALLOCATED_SHARD_RETENTION, "1h").build();
+        logger.info("--> starting [node1] and [node2] keeping unallocated shards around ...");
+        final String node_1 = cluster().startNode(nodeSettings);
+
+        logger.info("--> creating test index ...");
+        client().admin().indices().prepareCreate("test")
+                .setSettings(ImmutableSettings.settingsBuilder()
+                        .put("index.number_of_shards", 1)
+                        .put("index.number_of_replicas", 0)
+                )
+                .execute().actionGet();
+
+        logger.info("--> index 1000 docs and flush");
+        BulkRequestBuilder bulkRequest = client().prepareBulk();
+        for (int i = 0; i < 1000; i++) {
+            bulkRequest.add(client().prepareIndex("test", "type", Integer.toString(i)).setSource("field", "value" + i, "text", randomUnicodeOfLength(100)));
+        }
+        assertThat(bulkRequest.execute().actionGet().hasFailures(), equalTo(false));
+        client().admin().indices().prepareFlush().execute().actionGet();
+
+        final String node_2 = cluster().startNode(nodeSettings);
+        ClusterHealthResponse clusterHealthResponse = client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForNodes("2").setWaitForGreenStatus().execute().actionGet();
+        assertThat(clusterHealthResponse.isTimedOut(), equalTo(false));
+
+        logger.info("--> move the shard to [node2] and back");
+        client().admin().cluster().prepareReroute()
+                .add(new MoveAllocationCommand(new ShardId("test", 0), node_1, node_2))
+                .execute().actionGet();
+        clusterHealthResponse = client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForRelocatingShards(0).setTimeout(ACCEPTABLE_RELOCATION_TIME).execute().actionGet();
+        assertThat(clusterHealthResponse.isTimedOut(), equalTo(false));
+        client().admin().cluster().prepareReroute()
+                .add(new MoveAllocationCommand(new ShardId("test", 0), node_2, node_1))
+                .execute().actionGet();
+        clusterHealthResponse = client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForRelocatingShards(0).setTimeout(ACCEPTABLE_RELOCATION_TIME).execute().actionGet();
+        assertThat(clusterHealthResponse.isTimedOut(), equalTo(false));
+
+        logger.info("--> check that the files kept on [node1] were not sent again");
+        IndicesStatusResponse statusResponse = client().admin().indices().prepareStatus("test").setRecovery(true).execute().actionGet();
+        for (ShardStatus shardStatus : statusResponse.getIndex("test").getShards().get(0)) {
+            PeerRecoveryStatus recoveryStatus = shardStatus.getPeerRecoveryStatus();
+            logger.info("--> shard {}, recovered {}, reuse {}", shardStatus.getShardId(), recoveryStatus.getRecoveredIndexSize(), recoveryStatus.getReusedIndexSize());
+            assertThat(recoveryStatus.getRecoveredIndexSize().bytes(), lessThan(8196l /* segments file and others */));
+        }
+
+        client().admin().indices().prepareRefresh().execute().actionGet();
+        assertThat(client().prepareCount("test").execute().actionGet().getCount(), equalTo(1000l));
+    }
+
     @Test
     @Slow
     public void testPrimaryRelocationWhileIndexingRandom() throws Exception {
@@ -0,0 +1,105 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.basic;
+
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.search.query.QueryPhase;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.junit.Test;
+
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.hamcrest.Matchers.equalTo;
+
+public class SearchConcurrentSegmentsTests extends ElasticsearchIntegrationTest {
+
+    @Test
+    public void testConcurrentSearchMatchesSequentialSearch() throws Exception {
+        for (String index : new String[]{"sequential", "concurrent"}) {
+            client().admin().indices().prepareCreate(index)
+                    .setSettings(ImmutableSettings.settingsBuilder()
+                            .put("index.number_of_shards", 1)
+                            .put("index.number_of_replicas", 0)
+                            .put(QueryPhase.INDEX_SEARCH_CONCURRENCY, index.equals("concurrent") ? between(2, 4) : 1))
+                    .addMapping("type1", jsonBuilder().startObject().startObject("type1").startObject("properties")
+                            .startObject("num").field("type", "long").endObject()
+                            .endObject().endObject().endObject())
+                    .execute().actionGet();
+        }
+        ensureGreen();
+
+        int numDocs = 0;
+        int numSegments = between(2, 5);
+        for (int segment = 0; segment < numSegments; segment++) {
+            IndexRequestBuilder[] builders = new IndexRequestBuilder[2 * between(5, 20)];
+            for (int i = 0; i < builders.length; i += 2) {
+                String id = Integer.toString(numDocs++);
+                String body = randomBoolean() ? "quick brown fox" : "quick fox quick";
+                builders[i] = client().prepareIndex("sequential", "type1", id).setSource("num", numDocs, "body", body);
+                builders[i + 1] = client().prepareIndex("concurrent", "type1", id).setSource("num", numDocs, "body", body);
+            }
+            // every batch ends up in its own segment
+            indexRandom(true, builders);
+        }
+
+        SearchResponse sequential = client().prepareSearch("sequential").setQuery(matchAllQuery())
+                .addSort("num", SortOrder.DESC).setSize(between(1, numDocs)).execute().actionGet();
+        SearchResponse concurrent = client().prepareSearch("concurrent").setQuery(matchAllQuery())
+                .addSort("num", SortOrder.DESC).setSize(sequential.getHits().hits().length).execute().actionGet();
+        assertNoFailures(concurrent);
+        assertHitCount(concurrent, numDocs);
+        assertSameHits(sequential, concurrent);
+
+        sequential = client().prepareSearch("sequential").setQuery(termQuery("body", "quick"))
+                .addSort("num", SortOrder.ASC).setSearchAfter(numDocs / 2).setSize(between(1, numDocs)).execute().actionGet();
+        concurrent = client().prepareSearch("concurrent").setQuery(termQuery("body", "quick"))
+                .addSort("num", SortOrder.ASC).setSearchAfter(numDocs / 2).setSize(sequential.getHits().hits().length).execute().actionGet();
+        assertNoFailures(concurrent);
+        assertSameHits(sequential, concurrent);
+
+        sequential = client().prepareSearch("sequential").setQuery(termQuery("body", "quick")).setSize(numDocs).execute().actionGet();
+        concurrent = client().prepareSearch("concurrent").setQuery(termQuery("body", "quick")).setSize(numDocs).execute().actionGet();
+        assertNoFailures(concurrent);
+        assertThat(concurrent.getHits().totalHits(), equalTo(sequential.getHits().totalHits()));
+        assertThat(concurrent.getHits().maxScore(), equalTo(sequential.getHits().maxScore()));
+        for (int i = 0; i < sequential.getHits().hits().length; i++) {
+            assertThat(concurrent.getHits().getAt(i).score(), equalTo(sequential.getHits().getAt(i).score()));
+        }
+
+        concurrent = client().prepareSearch("concurrent").setSearchType(SearchType.COUNT).setQuery(matchAllQuery()).execute().actionGet();
+        assertNoFailures(concurrent);
+        assertHitCount(concurrent, numDocs);
+    }
+
+    private static void assertSameHits(SearchResponse expected, SearchResponse actual) {
+        assertThat(actual.getHits().totalHits(), equalTo(expected.getHits().totalHits()));
+        assertThat(actual.getHits().hits().length, equalTo(expected.getHits().hits().length));
+        for (int i = 0; i < expected.getHits().hits().length; i++) {
+            assertThat(actual.getHits().getAt(i).id(), equalTo(expected.getHits().getAt(i).id()));
+        }
+    }
+}
@@ -47,7 +47,17 @@ public class SearchSourceCompressTests  extends ElasticsearchIntegrationTest {
         verifySource(null);
     }
 
+    @Test
+    public void testSourceCompressionLZ4() throws IOException {
+        CompressorFactory.setDefaultCompressor(new LZFCompressor());
+        verifySource(true, "lz4");
+    }
+
     private void verifySource(Boolean compress) throws IOException {
+        verifySource(compress, null);
+    }
+
+    private void verifySource(Boolean compress, String compressType) throws IOException {
         try {
             client().admin().indices().prepareDelete("test").execute().actionGet();
         } catch (Exception e) {
@@ -56,9 +66,12 @@ public class SearchSourceCompressTests  extends ElasticsearchIntegrationTest {
         createIndex("test");
         client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForGreenStatus().execute().actionGet();
 
-        String mapping = XContentFactory.jsonBuilder().startObject().startObject("type1")
-                .startObject("_source").field("compress", compress).endObject()
-                .endObject().endObject().string();
+        XContentBuilder sourceMapping = XContentFactory.jsonBuilder().startObject().startObject("type1")
+                .startObject("_source").field("compress", compress);
+        if (compressType != null) {
+            sourceMapping.field("compress_type", compressType);
+        }
+        String mapping = sourceMapping.endObject().endObject().endObject().string();
 
         client().admin().indices().preparePutMapping().setType("type1").setSource(mapping).execute().actionGet();
 
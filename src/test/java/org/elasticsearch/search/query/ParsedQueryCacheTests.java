@@ -0,0 +1,106 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.index.query.IndexQueryParserService;
+import org.elasticsearch.index.query.ParsedQuery;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.junit.Test;
+
+import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ParsedQueryCacheTests extends ElasticsearchIntegrationTest {
+
+    @Test
+    public void testIdenticalQueriesAreParsedOnce() throws Exception {
+        client().admin().indices().prepareCreate("test")
+                .setSettings(ImmutableSettings.settingsBuilder()
+                        .put("index.number_of_shards", 1)
+                        .put("index.number_of_replicas", 0)
+                        .put(IndexQueryParserService.Defaults.CACHE_SIZE, "1mb"))
+                .execute().actionGet();
+        ensureGreen();
+        IndexQueryParserService queryParserService = null;
+        for (IndicesService indicesService : cluster().getInstances(IndicesService.class)) {
+            if (indicesService.hasIndex("test")) {
+                queryParserService = indicesService.indexServiceSafe("test").queryParserService();
+            }
+        }
+
+        String term = "{\"query\":{\"term\":{\"field\":\"value\"}}}";
+        assertThat(parse(queryParserService, term), sameInstance(parse(queryParserService, term)));
+
+        // depends on the current time
+        String now = "{\"query\":{\"range\":{\"date\":{\"lte\":\"now\"}}}}";
+        client().prepareIndex("test", "type1", "0").setSource("date", "2013-01-01").setRefresh(true).execute().actionGet();
+        assertThat(parse(queryParserService, now), not(sameInstance(parse(queryParserService, now))));
+        String fuzzyNow = "{\"query\":{\"fuzzy\":{\"date\":{\"value\":\"now\",\"min_similarity\":\"1d\"}}}}";
+        assertThat(parse(queryParserService, fuzzyNow), not(sameInstance(parse(queryParserService, fuzzyNow))));
+    }
+
+    @Test
+    public void testMappingChangesInvalidateParsedQueries() throws Exception {
+        client().admin().indices().prepareCreate("test")
+                .setSettings(ImmutableSettings.settingsBuilder()
+                        .put("index.number_of_shards", 1)
+                        .put("index.number_of_replicas", 0)
+                        .put(IndexQueryParserService.Defaults.CACHE_SIZE, "1mb"))
+                .execute().actionGet();
+        ensureGreen();
+
+        // num is not mapped yet, the range is parsed as a string range
+        SearchResponse response = client().prepareSearch("test").setQuery(rangeQuery("num").gte(5)).execute().actionGet();
+        assertNoFailures(response);
+        assertHitCount(response, 0);
+
+        client().prepareIndex("test", "type1", "1").setSource("num", 10).setRefresh(true).execute().actionGet();
+        response = client().prepareSearch("test").setQuery(rangeQuery("num").gte(5)).execute().actionGet();
+        assertNoFailures(response);
+        assertHitCount(response, 1);
+
+        for (int i = 0; i < 3; i++) {
+            response = client().prepareSearch("test").setQuery(termQuery("num", 10)).execute().actionGet();
+            assertNoFailures(response);
+            assertHitCount(response, 1);
+        }
+    }
+
+    private static ParsedQuery parse(IndexQueryParserService queryParserService, String source) throws Exception {
+        XContentParser parser = XContentFactory.xContent(source).createParser(source);
+        try {
+            parser.nextToken(); // START_OBJECT
+            parser.nextToken(); // "query"
+            parser.nextToken(); // START_OBJECT
+            return queryParserService.parse(parser);
+        } finally {
+            parser.close();
+        }
+    }
+}
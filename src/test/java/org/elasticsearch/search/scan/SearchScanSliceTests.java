@@ -0,0 +1,82 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.scan;
+
+import com.google.common.collect.Sets;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.hamcrest.Matchers.equalTo;
+
+public class SearchScanSliceTests extends ElasticsearchIntegrationTest {
+
+    @Test
+    public void testSlicesCoverAllDocsOnce() throws Exception {
+        client().admin().indices().prepareCreate("test").setSettings(ImmutableSettings.settingsBuilder().put("index.number_of_shards", between(1, 5))).execute().actionGet();
+        client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForGreenStatus().execute().actionGet();
+
+        Set<String> expectedIds = Sets.newHashSet();
+        IndexRequestBuilder[] builders = new IndexRequestBuilder[atLeast(100)];
+        for (int i = 0; i < builders.length; i++) {
+            expectedIds.add(Integer.toString(i));
+            builders[i] = client().prepareIndex("test", "tweet", Integer.toString(i)).setSource(
+                    jsonBuilder().startObject().field("user", "kimchy").field("message", "test").endObject());
+        }
+        indexRandom(true, builders);
+
+        int max = between(1, 10);
+        Set<String> ids = Sets.newHashSet();
+        long totalHits = 0;
+        for (int slice = 0; slice < max; slice++) {
+            SearchResponse searchResponse = client().prepareSearch("test")
+                    .setSearchType(SearchType.SCAN)
+                    .setSlice(slice, max)
+                    .setSize(between(1, 20))
+                    .setScroll(TimeValue.timeValueMinutes(2))
+                    .execute().actionGet();
+            assertThat(searchResponse.getFailedShards(), equalTo(0));
+            totalHits += searchResponse.getHits().totalHits();
+
+            while (true) {
+                searchResponse = client().prepareSearchScroll(searchResponse.getScrollId()).setScroll(TimeValue.timeValueMinutes(2)).execute().actionGet();
+                assertThat(searchResponse.getFailedShards(), equalTo(0));
+                for (SearchHit hit : searchResponse.getHits()) {
+                    assertThat(hit.id() + " should only be returned by one slice", ids.add(hit.id()), equalTo(true));
+                }
+                if (searchResponse.getHits().hits().length == 0) {
+                    break;
+                }
+            }
+        }
+
+        assertThat(totalHits, equalTo((long) builders.length));
+        assertThat(ids, equalTo(expectedIds));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.sort;
+
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.index.merge.policy.NumericFieldSorter;
+import org.elasticsearch.search.facet.FacetBuilders;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.junit.Test;
+
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class IndexSortTests extends ElasticsearchIntegrationTest {
+
+    @Test
+    public void testEarlyTerminationOnSortedSegments() throws Exception {
+        client().admin().indices().prepareCreate("test")
+                .setSettings(ImmutableSettings.settingsBuilder()
+                        .put("index.number_of_shards", 1)
+                        .put("index.number_of_replicas", 0)
+                        .put(NumericFieldSorter.INDEX_SORT_FIELD, "timestamp")
+                        .put(NumericFieldSorter.INDEX_SORT_ORDER, "desc"))
+                .addMapping("type1", jsonBuilder().startObject().startObject("type1").startObject("properties")
+                        .startObject("timestamp").field("type", "long").endObject()
+                        .endObject().endObject().endObject())
+                .execute().actionGet();
+        ensureGreen();
+
+        int numDocs = 0;
+        int numBatches = between(2, 5);
+        for (int batch = 0; batch < numBatches; batch++) {
+            int batchSize = between(10, 30);
+            for (int i = 0; i < batchSize; i++) {
+                // timestamps are shuffled across batches so that flushed segments are not sorted by chance
+                client().prepareIndex("test", "type1", Integer.toString(numDocs))
+                        .setSource("timestamp", (numDocs * 7919L) % 1000).execute().actionGet();
+                numDocs++;
+            }
+            refresh();
+        }
+        // merge into one sorted segment
+        client().admin().indices().prepareOptimize("test").setMaxNumSegments(1).setFlush(true).execute().actionGet();
+        refresh();
+
+        SearchResponse full = client().prepareSearch("test").setQuery(matchAllQuery())
+                .addSort("timestamp", SortOrder.DESC).setSize(numDocs).execute().actionGet();
+        assertNoFailures(full);
+        assertHitCount(full, numDocs);
+        assertThat(full.isTerminatedEarly(), equalTo(false));
+
+        int size = between(1, 9);
+        SearchResponse top = client().prepareSearch("test").setQuery(matchAllQuery())
+                .addSort("timestamp", SortOrder.DESC).setSize(size).execute().actionGet();
+        assertNoFailures(top);
+        assertThat(top.isTerminatedEarly(), equalTo(true));
+        assertThat(top.getHits().totalHits(), lessThan((long) numDocs));
+        assertThat(top.getHits().hits().length, equalTo(size));
+        for (int i = 0; i < size; i++) {
+            assertThat(top.getHits().getAt(i).sortValues()[0], equalTo(full.getHits().getAt(i).sortValues()[0]));
+        }
+
+        // facets need to see all the docs
+        SearchResponse withFacets = client().prepareSearch("test").setQuery(matchAllQuery())
+                .addSort("timestamp", SortOrder.DESC).setSize(size)
+                .addFacet(FacetBuilders.statisticalFacet("stats").field("timestamp")).execute().actionGet();
+        assertNoFailures(withFacets);
+        assertThat(withFacets.isTerminatedEarly(), equalTo(false));
+        assertHitCount(withFacets, numDocs);
+
+        // a different order can't stop early
+        SearchResponse ascending = client().prepareSearch("test").setQuery(matchAllQuery())
+                .addSort("timestamp", SortOrder.ASC).setSize(size).execute().actionGet();
+        assertNoFailures(ascending);
+        assertThat(ascending.isTerminatedEarly(), equalTo(false));
+        assertHitCount(ascending, numDocs);
+
+        // so can't a different sort mode or missing values sorting first
+        SearchResponse byMin = client().prepareSearch("test").setQuery(matchAllQuery())
+                .addSort(SortBuilders.fieldSort("timestamp").order(SortOrder.DESC).sortMode("min")).setSize(size).execute().actionGet();
+        assertNoFailures(byMin);
+        assertThat(byMin.isTerminatedEarly(), equalTo(false));
+        assertHitCount(byMin, numDocs);
+        SearchResponse missingFirst = client().prepareSearch("test").setQuery(matchAllQuery())
+                .addSort(SortBuilders.fieldSort("timestamp").order(SortOrder.DESC).missing("_first")).setSize(size).execute().actionGet();
+        assertNoFailures(missingFirst);
+        assertThat(missingFirst.isTerminatedEarly(), equalTo(false));
+        assertHitCount(missingFirst, numDocs);
+    }
+
+    @Test
+    public void testInvalidSortOrderFailsIndexCreation() throws Exception {
+        try {
+            client().admin().indices().prepareCreate("test")
+                    .setSettings(ImmutableSettings.settingsBuilder()
+                            .put(NumericFieldSorter.INDEX_SORT_FIELD, "timestamp")
+                            .put(NumericFieldSorter.INDEX_SORT_ORDER, "descending"))
+                    .execute().actionGet();
+            fail("the index should fail to be created");
+        } catch (ElasticSearchIllegalArgumentException e) {
+            // expected
+        }
+        assertThat(client().admin().indices().prepareExists("test").execute().actionGet().isExists(), equalTo(false));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.sort;
+
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchPhaseExecutionException;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.hamcrest.Matchers.equalTo;
+
+public class SearchAfterTests extends ElasticsearchIntegrationTest {
+
+    @Test
+    public void testPagingMatchesSortedResults() throws Exception {
+        client().admin().indices().prepareCreate("test")
+                .setSettings(ImmutableSettings.settingsBuilder().put("index.number_of_shards", between(1, 5)).put("index.number_of_replicas", 0))
+                .addMapping("type1", jsonBuilder().startObject().startObject("type1").startObject("properties")
+                        .startObject("group").field("type", "string").field("index", "not_analyzed").endObject()
+                        .startObject("num").field("type", "long").endObject()
+                        .endObject().endObject().endObject())
+                .execute().actionGet();
+        ensureGreen();
+
+        IndexRequestBuilder[] builders = new IndexRequestBuilder[atLeast(100)];
+        for (int i = 0; i < builders.length; i++) {
+            builders[i] = client().prepareIndex("test", "type1", Integer.toString(i)).setSource(
+                    jsonBuilder().startObject().field("group", "g" + randomInt(5)).field("num", i).endObject());
+        }
+        indexRandom(true, builders);
+
+        SearchResponse all = client().prepareSearch("test").setQuery(matchAllQuery())
+                .addSort("group", SortOrder.ASC).addSort("num", SortOrder.DESC)
+                .setSize(builders.length).execute().actionGet();
+        assertNoFailures(all);
+        List<String> expected = new ArrayList<String>();
+        for (SearchHit hit : all.getHits()) {
+            expected.add(hit.id());
+        }
+        assertThat(expected.size(), equalTo(builders.length));
+
+        int pageSize = between(1, 15);
+        List<String> actual = new ArrayList<String>();
+        Object[] searchAfter = null;
+        while (true) {
+            SearchResponse page = client().prepareSearch("test").setQuery(matchAllQuery())
+                    .addSort("group", SortOrder.ASC).addSort("num", SortOrder.DESC)
+                    .setSearchAfter(searchAfter)
+                    .setSize(pageSize).execute().actionGet();
+            assertNoFailures(page);
+            assertThat(page.getHits().totalHits(), equalTo((long) builders.length));
+            SearchHit[] hits = page.getHits().hits();
+            if (hits.length == 0) {
+                break;
+            }
+            for (SearchHit hit : hits) {
+                actual.add(hit.id());
+            }
+            searchAfter = hits[hits.length - 1].sortValues();
+        }
+        assertThat(actual, equalTo(expected));
+    }
+
+    @Test(expected = SearchPhaseExecutionException.class)
+    public void testRequiresSort() throws Exception {
+        createIndex("test");
+        ensureGreen();
+        index("test", "type1", "1", "num", 1);
+        refresh();
+        client().prepareSearch("test").setQuery(matchAllQuery()).setSearchAfter(1).execute().actionGet();
+    }
+}
@@ -29,6 +29,10 @@ import org.elasticsearch.action.admin.cluster.snapshots.create.CreateSnapshotRes
 import org.elasticsearch.action.admin.cluster.snapshots.get.GetSnapshotsResponse;
 import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotResponse;
 import org.elasticsearch.action.admin.cluster.state.ClusterStateResponse;
+import org.elasticsearch.action.admin.indices.status.GatewayRecoveryStatus;
+import org.elasticsearch.action.admin.indices.status.IndexShardStatus;
+import org.elasticsearch.action.admin.indices.status.IndicesStatusResponse;
+import org.elasticsearch.action.admin.indices.status.ShardStatus;
 import org.elasticsearch.action.count.CountResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.ClusterState;
@@ -37,6 +41,8 @@ import org.elasticsearch.cluster.routing.allocation.decider.FilterAllocationDeci
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.env.NodeEnvironment;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.InvalidIndexNameException;
 import org.elasticsearch.snapshots.mockstore.MockRepositoryModule;
 import org.elasticsearch.test.junit.annotations.TestLogging;
@@ -45,6 +51,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
 import static org.hamcrest.Matchers.*;
@@ -142,6 +151,81 @@ public class SharedClusterSnapshotRestoreTests extends AbstractSnapshotTests {
         assertThat(clusterState.getMetaData().hasIndex("test-idx-2"), equalTo(false));
     }
 
+    @Test
+    public void restoreReusesLocalFilesTest() throws Exception {
+        Client client = client();
+
+        logger.info("-->  creating repository");
+        PutRepositoryResponse putRepositoryResponse = run(client.admin().cluster().preparePutRepository("test-repo")
+                .setType("fs").setSettings(ImmutableSettings.settingsBuilder()
+                        .put("location", newTempDir(LifecycleScope.SUITE))
+                        .put("chunk_size", randomIntBetween(100, 1000))
+                ));
+        assertThat(putRepositoryResponse.isAcknowledged(), equalTo(true));
+
+        assertAcked(prepareCreate("test-idx").setSettings(ImmutableSettings.settingsBuilder()
+                .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+                .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+                .put("index.merge.policy.type", "log_doc")
+                .put("index.merge.policy.merge_factor", 100)));
+        ensureGreen();
+
+        logger.info("--> indexing some data");
+        for (int i = 0; i < 100; i++) {
+            index("test-idx", "doc", Integer.toString(i), "foo", "bar" + i);
+        }
+        run(client.admin().indices().prepareFlush("test-idx"));
+        assertThat(run(client.prepareCount("test-idx")).getCount(), equalTo(100L));
+
+        logger.info("--> snapshot");
+        CreateSnapshotResponse createSnapshotResponse = run(client.admin().cluster().prepareCreateSnapshot("test-repo", "test-snap").setWaitForCompletion(true).setIndices("test-idx"));
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(), equalTo(createSnapshotResponse.getSnapshotInfo().totalShards()));
+
+        logger.info("--> let the index diverge slightly from the snapshot");
+        for (int i = 100; i < 110; i++) {
+            index("test-idx", "doc", Integer.toString(i), "foo", "bar" + i);
+        }
+        run(client.admin().indices().prepareFlush("test-idx"));
+        assertThat(run(client.prepareCount("test-idx")).getCount(), equalTo(110L));
+
+        logger.info("--> close index and restore it from the snapshot");
+        run(client.admin().indices().prepareClose("test-idx"));
+        if (randomBoolean()) {
+            logger.info("--> drop the checksums of the local files");
+            for (NodeEnvironment env : cluster().getInstances(NodeEnvironment.class)) {
+                for (File shardLocation : env.shardLocations(new ShardId("test-idx", 0))) {
+                    File[] checksums = new File(shardLocation, "index").listFiles(new FilenameFilter() {
+                        @Override
+                        public boolean accept(File dir, String name) {
+                            return name.startsWith("_checksums-");
+                        }
+                    });
+                    if (checksums != null) {
+                        for (File checksum : checksums) {
+                            assertThat(checksum.delete(), equalTo(true));
+                        }
+                    }
+                }
+            }
+        }
+        RestoreSnapshotResponse restoreSnapshotResponse = client.admin().cluster().prepareRestoreSnapshot("test-repo", "test-snap").setWaitForCompletion(true).execute().actionGet();
+        assertThat(restoreSnapshotResponse.getRestoreInfo().failedShards(), equalTo(0));
+        ensureGreen();
+        assertThat(run(client.prepareCount("test-idx")).getCount(), equalTo(100L));
+
+        logger.info("--> check that the segments of the snapshot were reused from the local store");
+        IndicesStatusResponse statusResponse = run(client.admin().indices().prepareStatus("test-idx").setRecovery(true));
+        for (IndexShardStatus indexShardStatus : statusResponse.getIndex("test-idx")) {
+            for (ShardStatus shardStatus : indexShardStatus) {
+                if (shardStatus.getShardRouting().primary()) {
+                    GatewayRecoveryStatus recoveryStatus = shardStatus.getGatewayRecoveryStatus();
+                    assertThat(recoveryStatus.getReusedIndexSize().bytes(), greaterThan(0l));
+                    assertThat(recoveryStatus.getReusedIndexSize().bytes(), greaterThan(recoveryStatus.getIndexSize().bytes() - 8196 /* segments file and others */));
+                }
+            }
+        }
+    }
+
     @Test
     public void emptySnapshotTest() throws Exception {
         Client client = client();
@@ -369,6 +453,81 @@ public class SharedClusterSnapshotRestoreTests extends AbstractSnapshotTests {
 
     }
 
+    @Test
+    public void resumeFailedSnapshotTest() throws Exception {
+        File repositoryLocation = newTempDir(LifecycleScope.TEST);
+        int chunkSize = randomIntBetween(100, 1000);
+        Client client = client();
+        logger.info("-->  creating repository");
+        PutRepositoryResponse putRepositoryResponse = run(client.admin().cluster().preparePutRepository("test-repo")
+                .setType(MockRepositoryModule.class.getCanonicalName()).setSettings(
+                        ImmutableSettings.settingsBuilder()
+                                .put("location", repositoryLocation)
+                                .put("chunk_size", chunkSize)
+                                .put("concurrent_uploads", randomIntBetween(1, 5))
+                                .put("random", randomAsciiOfLength(10))
+                                .put("random_data_file_io_exception_rate", 0.2)
+                ));
+        assertThat(putRepositoryResponse.isAcknowledged(), equalTo(true));
+
+        assertAcked(prepareCreate("test-idx").setSettings(ImmutableSettings.settingsBuilder().put("number_of_shards", 1).put("number_of_replicas", 0)));
+        ensureGreen();
+
+        logger.info("--> indexing some data");
+        for (int i = 0; i < 100; i++) {
+            index("test-idx", "doc", Integer.toString(i), "foo", "bar" + i);
+        }
+        refresh();
+
+        logger.info("--> snapshot with failures");
+        CreateSnapshotResponse createSnapshotResponse = run(client.admin().cluster().prepareCreateSnapshot("test-repo", "test-snap-1").setWaitForCompletion(true).setIndices("test-idx"));
+        boolean failed = createSnapshotResponse.getSnapshotInfo().successfulShards() == 0;
+        File shardLocation = new File(repositoryLocation, "indices/test-idx/0");
+        List<String> uploadedFiles = listDataFiles(shardLocation);
+
+        logger.info("--> snapshot without failures");
+        putRepositoryResponse = run(client.admin().cluster().preparePutRepository("test-repo")
+                .setType("fs").setSettings(ImmutableSettings.settingsBuilder()
+                        .put("location", repositoryLocation)
+                        .put("chunk_size", chunkSize)));
+        assertThat(putRepositoryResponse.isAcknowledged(), equalTo(true));
+        createSnapshotResponse = run(client.admin().cluster().prepareCreateSnapshot("test-repo", "test-snap-2").setWaitForCompletion(true).setIndices("test-idx"));
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(), equalTo(createSnapshotResponse.getSnapshotInfo().totalShards()));
+
+        File[] pending = shardLocation.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith("pending-");
+            }
+        });
+        assertThat(pending.length, equalTo(0));
+        if (failed && !uploadedFiles.isEmpty()) {
+            // the parts uploaded by the failed snapshot are reused instead of being uploaded again under new names
+            uploadedFiles.retainAll(listDataFiles(shardLocation));
+            assertThat(uploadedFiles.isEmpty(), equalTo(false));
+        }
+
+        logger.info("--> restore the second snapshot");
+        wipeIndex("test-idx");
+        RestoreSnapshotResponse restoreSnapshotResponse = client.admin().cluster().prepareRestoreSnapshot("test-repo", "test-snap-2").setWaitForCompletion(true).execute().actionGet();
+        assertThat(restoreSnapshotResponse.getRestoreInfo().successfulShards(), equalTo(1));
+        ensureGreen();
+        assertThat(run(client.prepareCount("test-idx")).getCount(), equalTo(100L));
+    }
+
+    private static List<String> listDataFiles(File shardLocation) {
+        List<String> names = new ArrayList<String>();
+        String[] files = shardLocation.list();
+        if (files != null) {
+            for (String name : files) {
+                if (name.startsWith("__")) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
     @Test
     public void dataFileFailureDuringRestoreTest() throws Exception {
         File repositoryLocation = newTempDir(LifecycleScope.TEST);
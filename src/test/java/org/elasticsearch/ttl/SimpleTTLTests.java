@@ -21,15 +21,19 @@ package org.elasticsearch.ttl;
 
 import org.elasticsearch.action.admin.indices.stats.IndicesStatsResponse;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.indices.ttl.IndicesTTLService;
 import org.elasticsearch.test.ElasticsearchIntegrationTest;
 import org.elasticsearch.test.ElasticsearchIntegrationTest.ClusterScope;
 import org.elasticsearch.test.ElasticsearchIntegrationTest.Scope;
 import org.junit.Test;
 
 import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
 import static org.hamcrest.Matchers.*;
 
 @ClusterScope(scope=Scope.TEST)
@@ -179,4 +183,61 @@ public class SimpleTTLTests extends ElasticsearchIntegrationTest {
         getResponse = client().prepareGet("test", "type1", "with_routing").setRouting("routing").setFields("_ttl").setRealtime(false).execute().actionGet();
         assertThat(getResponse.isExists(), equalTo(false));
     }
+
+    @Test
+    public void testSegmentsPurgeMode() throws Exception {
+        client().admin().indices().prepareCreate("test")
+                .setSettings(settingsBuilder()
+                        .put(IndicesTTLService.INDEX_TTL_PURGE_MODE, "segments")
+                        .put(IndicesTTLService.INDEX_TTL_DISABLE_PURGE, true))
+                .addMapping("type1", XContentFactory.jsonBuilder()
+                        .startObject()
+                        .startObject("type1")
+                        .startObject("_ttl").field("enabled", true).endObject()
+                        .endObject()
+                        .endObject())
+                .execute().actionGet();
+        client().admin().cluster().prepareHealth().setWaitForEvents(Priority.LANGUID).setWaitForGreenStatus().execute().actionGet();
+
+        long providedTTLValue = 1000;
+        for (int i = 0; i < 10; i++) {
+            client().prepareIndex("test", "type1", "expiring_" + i).setSource("field1", "value1").setTTL(providedTTLValue).execute().actionGet();
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            client().prepareIndex("test", "type1", "no_ttl_" + i).setSource("field1", "value1").execute().actionGet();
+        }
+        client().admin().indices().prepareRefresh("test").execute().actionGet();
+
+        long expiredDate = now + providedTTLValue + 100;
+        long currentTime = System.currentTimeMillis();
+        if (expiredDate - currentTime > 0) {
+            Thread.sleep(expiredDate - currentTime);
+        }
+
+        logger.info("--> checking expired docs are hidden while not purged");
+        SearchResponse searchResponse = client().prepareSearch("test").setQuery(QueryBuilders.matchAllQuery()).execute().actionGet();
+        assertHitCount(searchResponse, 5l);
+        IndicesStatsResponse response = client().admin().indices().prepareStats("test").clear().setDocs(true).execute().actionGet();
+        assertThat(response.getIndices().get("test").getPrimaries().getDocs().getCount(), equalTo(15l));
+
+        logger.info("--> enabling the purge");
+        client().admin().indices().prepareUpdateSettings("test")
+                .setSettings(settingsBuilder().put(IndicesTTLService.INDEX_TTL_DISABLE_PURGE, false))
+                .execute().actionGet();
+        long docCount;
+        do {
+            Thread.sleep(PURGE_INTERVAL);
+            client().admin().indices().prepareRefresh("test").execute().actionGet();
+            response = client().admin().indices().prepareStats("test").clear().setDocs(true).execute().actionGet();
+            docCount = response.getIndices().get("test").getTotal().getDocs().getCount();
+        } while (docCount > 10); // the 5 docs without ttl on primaries and replicas
+        assertThat(docCount, equalTo(10l));
+        // expired docs were deleted with a delete by query, not one by one
+        response = client().admin().indices().prepareStats("test").clear().setIndexing(true).execute().actionGet();
+        assertThat(response.getIndices().get("test").getTotal().getIndexing().getTotal().getDeleteCount(), equalTo(0l));
+
+        searchResponse = client().prepareSearch("test").setQuery(QueryBuilders.matchAllQuery()).execute().actionGet();
+        assertHitCount(searchResponse, 5l);
+    }
 }